@@ -0,0 +1,22 @@
+-- Moves PRODUCT, RAW_MATERIAL and PRODUCT_COMPOSITION from identity ids to the pooled sequences
+-- mapped in the entities. Run once against an existing schema, with the application stopped,
+-- before starting the version that uses sequences. Fresh schemas don't need it: ddl-auto creates
+-- the sequences.
+--
+-- Each sequence starts right after the current MAX(id). INCREMENT BY is the id block size each
+-- node reserves per round-trip; 50 matches the allocationSize in the mappings. Any other value
+-- is picked up too (increment_size_mismatch_strategy: fix).
+DECLARE
+    PROCEDURE migrate(p_table VARCHAR2, p_sequence VARCHAR2) IS
+        v_start NUMBER;
+    BEGIN
+        EXECUTE IMMEDIATE 'SELECT NVL(MAX(id), 0) + 1 FROM ' || p_table INTO v_start;
+        EXECUTE IMMEDIATE 'ALTER TABLE ' || p_table || ' MODIFY id DROP IDENTITY';
+        EXECUTE IMMEDIATE 'CREATE SEQUENCE ' || p_sequence || ' START WITH ' || v_start || ' INCREMENT BY 50';
+    END;
+BEGIN
+    migrate('PRODUCT', 'PRODUCT_SEQ');
+    migrate('RAW_MATERIAL', 'RAW_MATERIAL_SEQ');
+    migrate('PRODUCT_COMPOSITION', 'PRODUCT_COMPOSITION_SEQ');
+END;
+/
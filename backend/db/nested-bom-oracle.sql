@@ -0,0 +1,11 @@
+-- Lets a composition line point at another product (a sub-assembly) instead of a raw material.
+-- Run once against an existing schema before starting the version with nested BOMs; ddl-auto adds
+-- the new column on its own but never relaxes the NOT NULL on RAW_MATERIAL_ID. Fresh schemas don't
+-- need it.
+ALTER TABLE PRODUCT_COMPOSITION MODIFY (RAW_MATERIAL_ID NULL);
+ALTER TABLE PRODUCT_COMPOSITION ADD (COMPONENT_PRODUCT_ID NUMBER(19)
+    CONSTRAINT FK_COMPOSITION_COMPONENT REFERENCES PRODUCT (ID));
+ALTER TABLE PRODUCT_COMPOSITION ADD CONSTRAINT CK_COMPOSITION_ONE_TARGET
+    CHECK ((RAW_MATERIAL_ID IS NULL AND COMPONENT_PRODUCT_ID IS NOT NULL)
+        OR (RAW_MATERIAL_ID IS NOT NULL AND COMPONENT_PRODUCT_ID IS NULL));
+CREATE INDEX IDX_COMPOSITION_COMPONENT ON PRODUCT_COMPOSITION (COMPONENT_PRODUCT_ID);
@@ -0,0 +1,21 @@
+package com.example.project_inventory.config;
+
+import com.example.project_inventory.domain.service.CatalogCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public CatalogCache catalogCache(
+            @Value("${catalog.cache.maximum-size:10000}") long maximumSize,
+            @Value("${catalog.cache.expire-after-write:10m}") Duration expireAfterWrite,
+            MeterRegistry meterRegistry) {
+        return new CatalogCache(maximumSize, expireAfterWrite, meterRegistry);
+    }
+}
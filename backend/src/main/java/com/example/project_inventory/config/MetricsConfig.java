@@ -0,0 +1,113 @@
+package com.example.project_inventory.config;
+
+import com.example.project_inventory.metrics.CountingJdbcTemplate;
+import com.example.project_inventory.metrics.HibernateActivity;
+import com.example.project_inventory.metrics.RepositoryMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernateActivity hibernateActivity() {
+        return new HibernateActivity();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateActivityInspector(HibernateActivity hibernateActivity) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, hibernateActivity);
+    }
+
+    @Bean
+    public SmartInitializingSingleton hibernateActivityLoadListener(EntityManagerFactory entityManagerFactory,
+                                                                    HibernateActivity hibernateActivity) {
+        return () -> entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, hibernateActivity);
+    }
+
+    /**
+     * Adds {@link RepositoryMetricsInterceptor} to every Spring Data repository proxy. Static so the
+     * post-processor is registered before the repository factory beans it customizes.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                                    new RepositoryMetricsInterceptor(meterRegistry.getObject(),
+                                            repositoryInformation.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Boot's JdbcTemplate, counting its statements; {@code spring.jdbc.template.*} still applies.
+     */
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource, JdbcProperties properties) {
+        JdbcTemplate jdbcTemplate = new CountingJdbcTemplate(dataSource);
+        JdbcProperties.Template template = properties.getTemplate();
+        jdbcTemplate.setFetchSize(template.getFetchSize());
+        jdbcTemplate.setMaxRows(template.getMaxRows());
+        if (template.getQueryTimeout() != null) {
+            jdbcTemplate.setQueryTimeout((int) template.getQueryTimeout().getSeconds());
+        }
+        return jdbcTemplate;
+    }
+
+    /**
+     * Adds {@link RepositoryMetricsInterceptor} to the {@code @Repository} classes written on
+     * JdbcTemplate, which Spring Data doesn't create.
+     */
+    @Bean
+    public static BeanPostProcessor jdbcRepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                Class<?> type = AopUtils.getTargetClass(bean);
+                if (bean instanceof Repository<?, ?>
+                        || !AnnotatedElementUtils.hasAnnotation(type, org.springframework.stereotype.Repository.class)) {
+                    return bean;
+                }
+                RepositoryMetricsInterceptor interceptor =
+                        new RepositoryMetricsInterceptor(meterRegistry.getObject(), type.getSimpleName());
+                if (bean instanceof Advised advised && !advised.isFrozen()) {
+                    advised.addAdvice(interceptor);
+                    return bean;
+                }
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.setProxyTargetClass(true);
+                proxyFactory.addAdvice(interceptor);
+                return proxyFactory.getProxy(type.getClassLoader());
+            }
+        };
+    }
+}
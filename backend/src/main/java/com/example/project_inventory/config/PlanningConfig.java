@@ -0,0 +1,27 @@
+package com.example.project_inventory.config;
+
+import com.example.project_inventory.domain.planning.OptimalProductionPlanner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class PlanningConfig {
+
+    @Bean
+    public OptimalProductionPlanner optimalProductionPlanner(
+            @Value("${production.planner.optimal.time-budget-ms:300}") long timeBudgetMs) {
+        return new OptimalProductionPlanner(timeBudgetMs);
+    }
+
+    /**
+     * The one pool every parallel planning request runs on, so concurrent requests share its threads
+     * instead of each service sizing a pool to the whole machine.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool planningPool(@Value("${production.planning.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+}
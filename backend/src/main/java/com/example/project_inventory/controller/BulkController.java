@@ -0,0 +1,65 @@
+package com.example.project_inventory.controller;
+
+import com.example.project_inventory.domain.bulk.BulkFormat;
+import com.example.project_inventory.domain.service.CatalogBulkService;
+import com.example.project_inventory.dto.BulkImportResultDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/bulk")
+@RequiredArgsConstructor
+public class BulkController {
+
+    private static final String CSV = "text/csv";
+
+    private final CatalogBulkService bulkService;
+
+    @PostMapping(value = "/raw-materials", consumes = {CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkImportResultDTO> importRawMaterials(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        return ResponseEntity.ok(bulkService.importRawMaterials(body, BulkFormat.fromContentType(contentType)));
+    }
+
+    @PostMapping(value = "/products", consumes = {CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkImportResultDTO> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        return ResponseEntity.ok(bulkService.importProducts(body, BulkFormat.fromContentType(contentType)));
+    }
+
+    @PostMapping(value = "/compositions", consumes = {CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkImportResultDTO> importCompositions(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        return ResponseEntity.ok(bulkService.importCompositions(body, BulkFormat.fromContentType(contentType)));
+    }
+
+    @GetMapping("/raw-materials")
+    public ResponseEntity<StreamingResponseBody> exportRawMaterials(@RequestParam(defaultValue = "csv") String format) {
+        BulkFormat bulkFormat = BulkFormat.from(format);
+        return export(bulkFormat, out -> bulkService.exportRawMaterials(bulkFormat, out));
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "csv") String format) {
+        BulkFormat bulkFormat = BulkFormat.from(format);
+        return export(bulkFormat, out -> bulkService.exportProducts(bulkFormat, out));
+    }
+
+    @GetMapping("/compositions")
+    public ResponseEntity<StreamingResponseBody> exportCompositions(@RequestParam(defaultValue = "csv") String format) {
+        BulkFormat bulkFormat = BulkFormat.from(format);
+        return export(bulkFormat, out -> bulkService.exportCompositions(bulkFormat, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(BulkFormat format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .body(body);
+    }
+}
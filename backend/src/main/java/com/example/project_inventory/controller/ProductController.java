@@ -1,15 +1,25 @@
 package com.example.project_inventory.controller;
 
 import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.service.ProductBatchService;
 import com.example.project_inventory.domain.service.ProductService;
+import com.example.project_inventory.domain.service.WhereUsedService;
 import com.example.project_inventory.dto.CompositionRequestDTO;
+import com.example.project_inventory.dto.CursorPageDTO;
+import com.example.project_inventory.dto.ProductBatchRequestDTO;
+import com.example.project_inventory.dto.ProductBatchResultDTO;
 import com.example.project_inventory.dto.ProductCompositionDTO;
 import com.example.project_inventory.dto.ProductDTO;
+import com.example.project_inventory.dto.WhereUsedDTO;
+import com.example.project_inventory.exception.BusinessException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -19,17 +29,47 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductBatchService productBatchService;
+    private final WhereUsedService whereUsedService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<List<ProductDTO>> getAll() {
         return ResponseEntity.ok(productService.findAll());
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return NdjsonResponses.<ProductDTO>of(objectMapper, productService::streamAll);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllByParam() {
+        return streamAll();
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<?>> getPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "summary") String view) {
+        return switch (view) {
+            case "summary" -> ResponseEntity.ok(productService.findPage(cursor, size));
+            case "full" -> ResponseEntity.ok(productService.findPageWithCompositions(cursor, size));
+            default -> throw new BusinessException("Unknown view: " + view + " (expected summary or full)");
+        };
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductDTO> getById(@PathVariable Long id) {
         return ResponseEntity.ok(productService.findByIdAsDto(id));
     }
 
+    @GetMapping("/{id}/where-used")
+    public ResponseEntity<WhereUsedDTO> getWhereUsed(@PathVariable Long id) {
+        return ResponseEntity.ok(whereUsedService.forProduct(id));
+    }
+
     @PostMapping
     public ResponseEntity<ProductDTO> create(@RequestBody Product product) {
         return ResponseEntity.status(HttpStatus.CREATED).body(productService.save(product));
@@ -46,6 +86,11 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchResultDTO> applyBatch(@Valid @RequestBody ProductBatchRequestDTO request) {
+        return ResponseEntity.ok(productBatchService.apply(request));
+    }
+
     @PostMapping("/{id}/compositions")
     public ResponseEntity<ProductCompositionDTO> addComposition(
             @PathVariable Long id,
@@ -1,21 +1,129 @@
 package com.example.project_inventory.controller;
 
+import com.example.project_inventory.domain.planning.PlanningStrategy;
+import com.example.project_inventory.domain.planning.StockTimeline;
+import com.example.project_inventory.domain.service.ProductionFeedService;
+import com.example.project_inventory.domain.service.ProductionHistoryService;
+import com.example.project_inventory.domain.service.ProductionRunService;
 import com.example.project_inventory.domain.service.ProductionService;
+import com.example.project_inventory.domain.service.ScenarioService;
+import com.example.project_inventory.domain.service.SitePlanningService;
+import com.example.project_inventory.dto.MultiSiteReportDTO;
+import com.example.project_inventory.dto.PointInTimeReportDTO;
 import com.example.project_inventory.dto.ProductionReportDTO;
+import com.example.project_inventory.dto.ProductionRunDTO;
+import com.example.project_inventory.dto.ProductionRunRequestDTO;
+import com.example.project_inventory.dto.ScenarioComparisonDTO;
+import com.example.project_inventory.dto.ScenarioRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/api/production")
 @RequiredArgsConstructor
 public class ProductionController {
     private final ProductionService productionService;
+    private final ProductionRunService productionRunService;
+    private final ProductionFeedService productionFeedService;
+    private final ScenarioService scenarioService;
+    private final ProductionHistoryService productionHistoryService;
+    private final SitePlanningService sitePlanningService;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Answers with an ETag; Spring turns a matching If-None-Match into a 304 without a body. The tag is
+     * weak because the report has several representations (JSON, CBOR, Smile, each maybe gzipped)
+     * that share it, and Tomcat never compresses a response with a strong ETag; caches keep the
+     * representations apart by {@code Vary: Accept}.
+     */
     @GetMapping("/suggested")
-    public ResponseEntity<ProductionReportDTO> getSuggestedProduction() {
-        return ResponseEntity.ok(productionService.calculateSuggestedProduction());
+    public ResponseEntity<ProductionReportDTO> getSuggestedProduction(
+            @RequestParam(required = false) String strategy) {
+        ProductionService.Suggestion suggestion = productionService.suggest(PlanningStrategy.from(strategy));
+        return ResponseEntity.ok()
+                .eTag("W/" + suggestion.etag())
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(CacheControl.noCache())
+                .body(suggestion.report());
+    }
+
+    /**
+     * Server-sent events: a {@code plan} event with the whole suggestion, then {@code delta} events
+     * with the items added, changed or removed each time the catalog changes.
+     */
+    @GetMapping(value = "/suggested/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSuggestedProduction(
+            @RequestParam(required = false) String strategy,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return productionFeedService.subscribe(PlanningStrategy.from(strategy), lastEventId);
+    }
+
+    /**
+     * The suggestion for one site, planned from its stock alone.
+     */
+    @GetMapping("/sites/{siteId}/suggested")
+    public ResponseEntity<ProductionReportDTO> getSiteSuggestedProduction(
+            @PathVariable Long siteId,
+            @RequestParam(required = false) String strategy) {
+        return ResponseEntity.ok(sitePlanningService.suggest(siteId, PlanningStrategy.from(strategy)));
+    }
+
+    /**
+     * Every site's suggestion, planned in parallel, and their combined total.
+     */
+    @GetMapping("/sites/suggested")
+    public ResponseEntity<MultiSiteReportDTO> getSitesSuggestedProduction(
+            @RequestParam(required = false) String strategy) {
+        return ResponseEntity.ok(sitePlanningService.suggestAll(PlanningStrategy.from(strategy)));
+    }
+
+    /**
+     * Plans each scenario's stock and price overrides next to the current catalog; nothing is saved.
+     */
+    @PostMapping("/scenarios")
+    public ResponseEntity<ScenarioComparisonDTO> compareScenarios(@Valid @RequestBody ScenarioRequestDTO request) {
+        return ResponseEntity.ok(scenarioService.compare(request));
+    }
+
+    /**
+     * One report per point from {@code from} to {@code to}, {@code step} apart (ISO-8601, e.g. P1D),
+     * planned from the stock at that time, as newline-delimited JSON in time order. The range is
+     * checked and the stock read before the response starts, so a bad request still gets an error status.
+     */
+    @GetMapping(value = "/history", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getHistory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "P1D") Duration step,
+            @RequestParam(required = false) String strategy) {
+        PlanningStrategy planningStrategy = PlanningStrategy.from(strategy);
+        StockTimeline timeline = productionHistoryService.timeline(from, to, step);
+        return NdjsonResponses.<PointInTimeReportDTO>of(objectMapper,
+                sink -> productionHistoryService.replay(timeline, planningStrategy, sink));
+    }
+
+    @PostMapping("/runs")
+    public ResponseEntity<ProductionRunDTO> confirmRun(@Valid @RequestBody ProductionRunRequestDTO request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(productionRunService.confirmRun(request));
     }
 }
@@ -2,11 +2,17 @@ package com.example.project_inventory.controller;
 
 import com.example.project_inventory.domain.model.RawMaterial;
 import com.example.project_inventory.domain.service.RawMaterialService;
+import com.example.project_inventory.domain.service.WhereUsedService;
+import com.example.project_inventory.dto.CursorPageDTO;
 import com.example.project_inventory.dto.RawMaterialDTO;
+import com.example.project_inventory.dto.WhereUsedDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -16,25 +22,50 @@ import java.util.List;
 public class RawMaterialController {
 
     private final RawMaterialService rawMaterialService;
+    private final WhereUsedService whereUsedService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<List<RawMaterialDTO>> getAll() {
         return ResponseEntity.ok(rawMaterialService.findAll());
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return NdjsonResponses.<RawMaterialDTO>of(objectMapper, rawMaterialService::streamAll);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllByParam() {
+        return streamAll();
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<RawMaterialDTO>> getPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(rawMaterialService.findPage(cursor, size));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<RawMaterialDTO> getById(@PathVariable Long id) {
         return ResponseEntity.ok(rawMaterialService.findByIdAsDto(id));
     }
 
+    @GetMapping("/{id}/where-used")
+    public ResponseEntity<WhereUsedDTO> getWhereUsed(@PathVariable Long id) {
+        return ResponseEntity.ok(whereUsedService.forRawMaterial(id));
+    }
+
     @PostMapping
     public ResponseEntity<RawMaterialDTO> create(@RequestBody RawMaterial material) {
         return ResponseEntity.status(HttpStatus.CREATED).body(rawMaterialService.save(material));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<RawMaterialDTO> update(@PathVariable Long id, @RequestBody RawMaterial material) {
-        return ResponseEntity.ok(rawMaterialService.update(id, material));
+    public ResponseEntity<RawMaterialDTO> update(@PathVariable Long id, @RequestBody RawMaterial material,
+                                                 @RequestParam(required = false) Integer expectedStockQuantity) {
+        return ResponseEntity.ok(rawMaterialService.update(id, material, expectedStockQuantity));
     }
 
     @DeleteMapping("/{id}")
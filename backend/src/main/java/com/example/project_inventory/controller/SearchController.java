@@ -0,0 +1,25 @@
+package com.example.project_inventory.controller;
+
+import com.example.project_inventory.domain.service.CatalogSearchService;
+import com.example.project_inventory.dto.CursorPageDTO;
+import com.example.project_inventory.dto.SearchHitDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final CatalogSearchService catalogSearchService;
+
+    @GetMapping
+    public ResponseEntity<CursorPageDTO<SearchHitDTO>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "all") String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(catalogSearchService.search(q, type, cursor, size));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.project_inventory.controller;
+
+import com.example.project_inventory.domain.service.SiteService;
+import com.example.project_inventory.domain.service.StockJournalService;
+import com.example.project_inventory.dto.SiteDTO;
+import com.example.project_inventory.dto.StockBalanceDTO;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/sites")
+@RequiredArgsConstructor
+public class SiteController {
+
+    private final SiteService siteService;
+    private final StockJournalService stockJournalService;
+
+    @GetMapping
+    public ResponseEntity<List<SiteDTO>> getAll() {
+        return ResponseEntity.ok(siteService.findAll());
+    }
+
+    @PostMapping
+    public ResponseEntity<SiteDTO> create(@Valid @RequestBody SiteDTO site) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(siteService.create(site));
+    }
+
+    /**
+     * The site's own stock, for a plant dashboard: only the raw materials that ever moved there.
+     */
+    @GetMapping("/{siteId}/stock")
+    public ResponseEntity<List<StockBalanceDTO>> getStock(@PathVariable Long siteId) {
+        return ResponseEntity.ok(stockJournalService.siteBalances(siteId));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.project_inventory.controller;
+
+import com.example.project_inventory.domain.service.StockJournalService;
+import com.example.project_inventory.dto.CursorPageDTO;
+import com.example.project_inventory.dto.StockAdjustmentDTO;
+import com.example.project_inventory.dto.StockBalanceDTO;
+import com.example.project_inventory.dto.StockMovementDTO;
+import com.example.project_inventory.dto.StockReceiptRequestDTO;
+import com.example.project_inventory.dto.StockTransferDTO;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stock")
+@RequiredArgsConstructor
+public class StockController {
+
+    private final StockJournalService stockJournalService;
+
+    @PostMapping("/receipts")
+    public ResponseEntity<List<StockMovementDTO>> receive(@Valid @RequestBody StockReceiptRequestDTO request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(stockJournalService.receive(request.getReceipts()));
+    }
+
+    @PostMapping("/adjustments")
+    public ResponseEntity<StockMovementDTO> adjust(@Valid @RequestBody StockAdjustmentDTO adjustment) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(stockJournalService.adjust(adjustment));
+    }
+
+    @PostMapping("/transfers")
+    public ResponseEntity<List<StockMovementDTO>> transfer(@Valid @RequestBody StockTransferDTO transfer) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(stockJournalService.transfer(transfer));
+    }
+
+    @GetMapping("/{rawMaterialId}")
+    public ResponseEntity<StockBalanceDTO> getBalance(
+            @PathVariable Long rawMaterialId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        return ResponseEntity.ok(stockJournalService.balanceOf(rawMaterialId, at));
+    }
+
+    @GetMapping("/{rawMaterialId}/movements")
+    public ResponseEntity<CursorPageDTO<StockMovementDTO>> getMovements(
+            @PathVariable Long rawMaterialId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(stockJournalService.movements(rawMaterialId, cursor, size));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.project_inventory.domain.bulk;
+
+import com.example.project_inventory.exception.BusinessException;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * Wire formats accepted by the bulk import and produced by the bulk export.
+ */
+public enum BulkFormat {
+    CSV(new MediaType("text", "csv")),
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    BulkFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public static BulkFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType type = MediaType.parseMediaType(contentType);
+            for (BulkFormat format : values()) {
+                if (format.mediaType.isCompatibleWith(type)) {
+                    return format;
+                }
+            }
+        }
+        throw new BusinessException("Unsupported content type: " + contentType + " (expected text/csv or application/x-ndjson)");
+    }
+
+    public static BulkFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Unknown format: " + value + " (expected csv or ndjson)");
+        }
+    }
+}
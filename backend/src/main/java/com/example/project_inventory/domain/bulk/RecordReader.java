@@ -0,0 +1,96 @@
+package com.example.project_inventory.domain.bulk;
+
+import com.example.project_inventory.exception.BusinessException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a CSV (with header) or NDJSON body one record at a time as column name to text value, so
+ * an import never holds more than the current line. Blank lines are skipped. A malformed line
+ * throws {@link BusinessException} after it has been consumed, so the caller can record the error
+ * against {@link #lineNumber()} and keep reading.
+ */
+public final class RecordReader {
+
+    private final BufferedReader reader;
+    private final BulkFormat format;
+    private final ObjectMapper objectMapper;
+
+    private List<String> header;
+    private long lineNumber;
+
+    public RecordReader(BufferedReader reader, BulkFormat format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Next record, or {@code null} at the end of the input.
+     */
+    public Map<String, String> next() throws IOException {
+        String line = nextNonBlankLine();
+        if (line == null) {
+            return null;
+        }
+        if (format == BulkFormat.NDJSON) {
+            return parseJson(line);
+        }
+        if (header == null) {
+            header = Csv.parseLine(line).stream().map(String::trim).toList();
+            line = nextNonBlankLine();
+            if (line == null) {
+                return null;
+            }
+        }
+        List<String> values = Csv.parseLine(line);
+        if (values.size() != header.size()) {
+            throw new BusinessException("Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> record = new HashMap<>(header.size() * 2);
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).trim();
+            record.put(header.get(i), value.isEmpty() ? null : value);
+        }
+        return record;
+    }
+
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    private String nextNonBlankLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+        return line;
+    }
+
+    private Map<String, String> parseJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new BusinessException("Expected a JSON object");
+        }
+        Map<String, String> record = new HashMap<>();
+        node.fields().forEachRemaining(field ->
+                record.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+        return record;
+    }
+}
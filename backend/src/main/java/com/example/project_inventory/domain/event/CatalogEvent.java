@@ -0,0 +1,53 @@
+package com.example.project_inventory.domain.event;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published by catalog writes; listeners keeping derived state react after the transaction commits.
+ */
+public sealed interface CatalogEvent {
+
+    /**
+     * One composition line; either {@code rawMaterialId} or {@code componentProductId} is set.
+     */
+    record BomLine(Long compositionId, Long rawMaterialId, Long componentProductId, Integer requiredQuantity) {
+    }
+
+    record ProductSaved(Long productId, String name, Double price, List<BomLine> lines) implements CatalogEvent {
+    }
+
+    record ProductUpdated(Long productId, String name, Double price) implements CatalogEvent {
+    }
+
+    record ProductDeleted(Long productId) implements CatalogEvent {
+    }
+
+    record CompositionAdded(Long productId, BomLine line) implements CatalogEvent {
+    }
+
+    record CompositionRemoved(Long productId, Long compositionId) implements CatalogEvent {
+    }
+
+    /**
+     * {@code stockQuantity} is the opening stock of a new raw material; null when only the name changed.
+     */
+    record RawMaterialSaved(Long rawMaterialId, String name, Integer stockQuantity) implements CatalogEvent {
+    }
+
+    record RawMaterialDeleted(Long rawMaterialId) implements CatalogEvent {
+    }
+
+    /**
+     * Net change per raw material id; changes add up in any order, so listeners apply them as they come.
+     */
+    record StockMoved(Map<Long, Long> changes) implements CatalogEvent {
+    }
+
+    /**
+     * Too many changes committed at once to describe one by one; listeners rebuild their derived state
+     * instead of patching it.
+     */
+    record BatchApplied(int changes) implements CatalogEvent {
+    }
+}
@@ -5,12 +5,14 @@ import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
-@Table(name = "PRODUCT_COMPOSITION")
+@Table(name = "PRODUCT_COMPOSITION",
+        indexes = @Index(name = "IDX_COMPOSITION_COMPONENT", columnList = "component_product_id"))
 @Data
 public class ProductComposition {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_composition_seq")
+    @SequenceGenerator(name = "product_composition_seq", sequenceName = "PRODUCT_COMPOSITION_SEQ", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -18,10 +20,16 @@ public class ProductComposition {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
+    // exactly one of rawMaterial and componentProduct is set
     @ManyToOne
-    @JoinColumn(name = "RAW_MATERIAL_id", nullable = false)
+    @JoinColumn(name = "RAW_MATERIAL_id")
     private RawMaterial rawMaterial;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnoreProperties({"compositions", "hibernateLazyInitializer"})
+    @JoinColumn(name = "component_product_id")
+    private Product componentProduct;
+
     @Column(name = "required_quantity", nullable = false)
     private Integer requiredQuantity;
 }
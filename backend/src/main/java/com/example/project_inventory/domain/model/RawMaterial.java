@@ -2,6 +2,9 @@ package com.example.project_inventory.domain.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
 
 @Entity
 @Table(name = "RAW_MATERIAL")
@@ -9,12 +12,23 @@ import lombok.Data;
 
 public class RawMaterial {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "raw_material_seq")
+    @SequenceGenerator(name = "raw_material_seq", sequenceName = "RAW_MATERIAL_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String name;
 
-    @Column(name = "stock_quantity", nullable = false)
+    // as of the last journal fold; only the fold moves it
+    @Column(name = "stock_quantity", nullable = false, updatable = false)
     private Integer stockQuantity;
+
+    @Column(name = "stock_as_of", insertable = false, updatable = false)
+    private Instant stockAsOf;
+
+    // bumped by every JPA update; stock changes go through the journal and leave it alone
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
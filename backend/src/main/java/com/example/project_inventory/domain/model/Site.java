@@ -0,0 +1,24 @@
+package com.example.project_inventory.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * A plant or warehouse that holds its own part of the stock.
+ */
+@Entity
+@Table(name = "SITE")
+@Data
+public class Site {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "site_seq")
+    @SequenceGenerator(name = "site_seq", sequenceName = "SITE_SEQ", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 32)
+    private String code;
+
+    @Column(nullable = false)
+    private String name;
+}
@@ -0,0 +1,40 @@
+package com.example.project_inventory.domain.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * A site's share of a raw material's folded stock: the movements made at the site and recorded
+ * before the material's {@code stock_as_of}. Written by the journal fold, in the same transaction
+ * that moves the material's own {@code stock_quantity}. The key leads with the site, so one site's
+ * rows are a single index range.
+ */
+@Entity
+@Table(name = "SITE_STOCK")
+@IdClass(SiteStock.Key.class)
+@Data
+public class SiteStock {
+
+    @Id
+    @Column(name = "site_id")
+    private Long siteId;
+
+    @Id
+    @Column(name = "raw_material_id")
+    private Long rawMaterialId;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long siteId;
+        private Long rawMaterialId;
+    }
+}
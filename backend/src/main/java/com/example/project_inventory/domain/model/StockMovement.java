@@ -0,0 +1,44 @@
+package com.example.project_inventory.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Only ever inserted, and with no foreign key, so appending never touches the raw material's row.
+ */
+@Entity
+@Table(name = "STOCK_MOVEMENT",
+        indexes = {
+                @Index(name = "IDX_STOCK_MOVEMENT_MATERIAL_TIME", columnList = "raw_material_id, recorded_at"),
+                @Index(name = "IDX_STOCK_MOVEMENT_TIME", columnList = "recorded_at"),
+                @Index(name = "IDX_STOCK_MOVEMENT_SITE", columnList = "site_id, raw_material_id, recorded_at")
+        })
+@Data
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+    @SequenceGenerator(name = "stock_movement_seq", sequenceName = "STOCK_MOVEMENT_SEQ", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "raw_material_id", nullable = false)
+    private Long rawMaterialId;
+
+    @Column(name = "site_id")
+    private Long siteId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, length = 16)
+    private StockMovementType type;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+
+    @Column(length = 255)
+    private String reference;
+}
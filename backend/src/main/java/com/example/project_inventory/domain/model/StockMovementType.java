@@ -0,0 +1,8 @@
+package com.example.project_inventory.domain.model;
+
+public enum StockMovementType {
+    RECEIPT,
+    CONSUMPTION,
+    ADJUSTMENT,
+    TRANSFER
+}
@@ -0,0 +1,30 @@
+package com.example.project_inventory.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A material's balance counting every movement before {@code asOf}, written by the fold.
+ */
+@Entity
+@Table(name = "STOCK_SNAPSHOT",
+        indexes = @Index(name = "IDX_STOCK_SNAPSHOT_MATERIAL_TIME", columnList = "raw_material_id, as_of"))
+@Data
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_snapshot_seq")
+    @SequenceGenerator(name = "stock_snapshot_seq", sequenceName = "STOCK_SNAPSHOT_SEQ", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "raw_material_id", nullable = false)
+    private Long rawMaterialId;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(name = "as_of", nullable = false)
+    private Instant asOf;
+}
@@ -0,0 +1,284 @@
+package com.example.project_inventory.domain.planning;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Flattens multi-level bills of materials into one requirement vector per product: the total of each
+ * raw material that one unit consumes, through every level of sub-assemblies.
+ * <p>
+ * Products without components are their own vector (the arrays are shared, not copied). The others
+ * are resolved in topological order (Kahn's algorithm, components before the products using them),
+ * so each sub-assembly is flattened once and its vector is scaled into every parent. Products left
+ * over when no more can be resolved sit on a cycle or use a product that does; like products with a
+ * component missing from the catalog, they get an empty vector and are never planned.
+ * <p>
+ * After a change to one product, {@link #update} flattens only that product and those using it,
+ * directly or not, in the same order.
+ */
+final class BomExplosion {
+
+    private static final int[] NONE = new int[0];
+    private static final long[] NO_IDS = new long[0];
+
+    private BomExplosion() {
+    }
+
+    /**
+     * Writes the vector of every product position into {@code slots} and {@code quantities}.
+     */
+    static void explode(BomSnapshot.Lines[] lines, LongIntMap positions, int materialCount,
+                        int[][] slots, int[][] quantities) {
+        int n = lines.length;
+        int nested = 0;
+        for (int p = 0; p < n; p++) {
+            if (lines[p].hasComponents()) {
+                nested++;
+            } else {
+                slots[p] = lines[p].slots;
+                quantities[p] = lines[p].quantities;
+            }
+        }
+        if (nested == 0) {
+            return;
+        }
+
+        // pending: unresolved nested components per product; parents: reverse edges, as positions
+        int[] pending = new int[n];
+        int[] parentCounts = new int[n];
+        boolean[] broken = new boolean[n];
+        for (int p = 0; p < n; p++) {
+            for (long componentId : lines[p].componentIds) {
+                int component = positions.get(componentId);
+                if (component < 0) {
+                    broken[p] = true;
+                } else if (lines[component].hasComponents()) {
+                    pending[p]++;
+                    parentCounts[component]++;
+                }
+            }
+        }
+        int[][] parents = new int[n][];
+        for (int p = 0; p < n; p++) {
+            parents[p] = parentCounts[p] == 0 ? NONE : new int[parentCounts[p]];
+        }
+        int[] filled = new int[n];
+        int[] queue = new int[nested];
+        int tail = 0;
+        for (int p = 0; p < n; p++) {
+            if (!lines[p].hasComponents()) continue;
+            for (long componentId : lines[p].componentIds) {
+                int component = positions.get(componentId);
+                if (component >= 0 && lines[component].hasComponents()) {
+                    parents[component][filled[component]++] = p;
+                }
+            }
+            if (pending[p] == 0) {
+                queue[tail++] = p;
+            }
+        }
+
+        Accumulator accumulator = new Accumulator(materialCount);
+        for (int head = 0; head < tail; head++) {
+            int p = queue[head];
+            if (broken[p]) {
+                slots[p] = NONE;
+                quantities[p] = NONE;
+            } else {
+                flatten(p, lines[p], positions, accumulator, slots, quantities);
+            }
+            for (int parent : parents[p]) {
+                if (broken[p]) {
+                    broken[parent] = true;
+                }
+                if (--pending[parent] == 0) {
+                    queue[tail++] = parent;
+                }
+            }
+        }
+        if (tail < nested) {
+            // on a cycle, or above one
+            for (int p = 0; p < n; p++) {
+                if (slots[p] == null) {
+                    slots[p] = NONE;
+                    quantities[p] = NONE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Flattens again the product {@code changedId}, whose lines changed or which was added or removed,
+     * and every product using it at any depth; the other positions of {@code slots} and
+     * {@code quantities} already hold their vectors. {@code usedBy} lists the products whose own lines
+     * use each product id.
+     */
+    static void update(long changedId, BomSnapshot.Lines[] lines, LongIntMap positions, Map<Long, long[]> usedBy,
+                       int materialCount, int[][] slots, int[][] quantities) {
+        // the changed product and everything above it, as positions; dirtyIndex maps one back to its entry
+        long[] ids = {changedId};
+        int idCount = 1;
+        LongIntMap idsSeen = new LongIntMap(16);
+        idsSeen.put(changedId, 0);
+        int[] dirty = new int[16];
+        int count = 0;
+        LongIntMap dirtyIndex = new LongIntMap(16);
+        for (int head = 0; head < idCount; head++) {
+            int p = positions.get(ids[head]);
+            if (p >= 0) {
+                if (count == dirty.length) {
+                    dirty = Arrays.copyOf(dirty, count * 2);
+                }
+                dirtyIndex.put(p, count);
+                dirty[count++] = p;
+            }
+            for (long parentId : usedBy.getOrDefault(ids[head], NO_IDS)) {
+                if (idsSeen.get(parentId) < 0) {
+                    idsSeen.put(parentId, idCount);
+                    if (idCount == ids.length) {
+                        ids = Arrays.copyOf(ids, idCount * 2);
+                    }
+                    ids[idCount++] = parentId;
+                }
+            }
+        }
+
+        // the same Kahn pass as explode, over the dirty products only
+        int[] pending = new int[count];
+        int[] parentCounts = new int[count];
+        for (int i = 0; i < count; i++) {
+            for (long componentId : lines[dirty[i]].componentIds) {
+                int component = dirtyIndex.get(positions.get(componentId));
+                if (component >= 0) {
+                    pending[i]++;
+                    parentCounts[component]++;
+                }
+            }
+        }
+        int[][] parents = new int[count][];
+        for (int i = 0; i < count; i++) {
+            parents[i] = parentCounts[i] == 0 ? NONE : new int[parentCounts[i]];
+        }
+        int[] filled = new int[count];
+        int[] queue = new int[count];
+        int tail = 0;
+        for (int i = 0; i < count; i++) {
+            for (long componentId : lines[dirty[i]].componentIds) {
+                int component = dirtyIndex.get(positions.get(componentId));
+                if (component >= 0) {
+                    parents[component][filled[component]++] = i;
+                }
+            }
+            if (pending[i] == 0) {
+                queue[tail++] = i;
+            }
+        }
+
+        Accumulator accumulator = null;
+        for (int head = 0; head < tail; head++) {
+            int i = queue[head];
+            int p = dirty[i];
+            BomSnapshot.Lines own = lines[p];
+            if (!own.hasComponents()) {
+                slots[p] = own.slots;
+                quantities[p] = own.quantities;
+            } else if (usesUnbuildable(own, positions, slots)) {
+                slots[p] = NONE;
+                quantities[p] = NONE;
+            } else {
+                if (accumulator == null) {
+                    accumulator = new Accumulator(materialCount);
+                }
+                flatten(p, own, positions, accumulator, slots, quantities);
+            }
+            for (int parent : parents[i]) {
+                if (--pending[parent] == 0) {
+                    queue[tail++] = parent;
+                }
+            }
+        }
+        if (tail < count) {
+            // on a cycle, or above one
+            for (int i = 0; i < count; i++) {
+                if (pending[i] > 0) {
+                    slots[dirty[i]] = NONE;
+                    quantities[dirty[i]] = NONE;
+                }
+            }
+        }
+    }
+
+    private static boolean usesUnbuildable(BomSnapshot.Lines own, LongIntMap positions, int[][] slots) {
+        for (long componentId : own.componentIds) {
+            int component = positions.get(componentId);
+            if (component < 0 || slots[component] == NONE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sums the product's own material lines and its components' vectors scaled by the units used.
+     */
+    private static void flatten(int p, BomSnapshot.Lines own, LongIntMap positions, Accumulator accumulator,
+                                int[][] slots, int[][] quantities) {
+        for (int k = 0; k < own.slots.length; k++) {
+            accumulator.add(own.slots[k], own.quantities[k]);
+        }
+        for (int c = 0; c < own.componentIds.length; c++) {
+            int component = positions.get(own.componentIds[c]);
+            int[] componentSlots = slots[component];
+            int[] componentQuantities = quantities[component];
+            long units = own.componentQuantities[c];
+            for (int k = 0; k < componentSlots.length; k++) {
+                accumulator.add(componentSlots[k], units * componentQuantities[k]);
+            }
+        }
+        accumulator.drainInto(p, slots, quantities);
+    }
+
+    /**
+     * Per-slot totals of the product being flattened, with the slots touched so far. Totals are capped
+     * at {@link Integer#MAX_VALUE}, which no stock can cover.
+     */
+    private static final class Accumulator {
+
+        private final long[] totals;
+        private final boolean[] seen;
+        private int[] touched = new int[16];
+        private int count;
+
+        Accumulator(int materialCount) {
+            this.totals = new long[materialCount];
+            this.seen = new boolean[materialCount];
+        }
+
+        void add(int slot, long quantity) {
+            if (!seen[slot]) {
+                seen[slot] = true;
+                if (count == touched.length) {
+                    touched = Arrays.copyOf(touched, count * 2);
+                }
+                touched[count++] = slot;
+            }
+            totals[slot] = Math.min(totals[slot] + quantity, Integer.MAX_VALUE);
+        }
+
+        void drainInto(int p, int[][] slots, int[][] quantities) {
+            Arrays.sort(touched, 0, count);
+            int[] flatSlots = new int[count];
+            int[] flatQuantities = new int[count];
+            for (int i = 0; i < count; i++) {
+                int slot = touched[i];
+                flatSlots[i] = slot;
+                flatQuantities[i] = (int) totals[slot];
+                totals[slot] = 0;
+                seen[slot] = false;
+            }
+            count = 0;
+            slots[p] = flatSlots;
+            quantities[p] = flatQuantities;
+        }
+    }
+}
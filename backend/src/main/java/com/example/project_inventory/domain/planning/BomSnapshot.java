@@ -0,0 +1,656 @@
+package com.example.project_inventory.domain.planning;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable, array-based view of the whole catalog used by the planners.
+ * <p>
+ * Raw materials live in dense slots; products are kept in price-descending order (ties by id). Each
+ * product keeps its own composition {@link Lines} as stored, which may include other products used
+ * as sub-assemblies, and the flattened requirements the planners read: per product, the slots and
+ * total quantities of every raw material one unit needs, down through all its sub-assemblies (see
+ * {@link BomExplosion}). Every {@code with...} method returns a new snapshot that shares all
+ * untouched arrays with this one.
+ */
+public final class BomSnapshot {
+
+    private static final int[] NO_SLOTS = new int[0];
+    private static final long[] NO_IDS = new long[0];
+
+    private final long version;
+
+    final long[] materialIds;
+    final String[] materialNames;
+    final int[] stock;
+    private final LongIntMap slotByMaterialId;
+
+    final long[] productIds;
+    final String[] productNames;
+    final double[] prices;
+    final Lines[] lines;
+    final int[][] lineSlots;
+    final int[][] lineQuantities;
+    private final LongIntMap positionByProductId;
+    // product id -> the products whose own lines use it as a component
+    private final Map<Long, long[]> usedBy;
+
+    /**
+     * A product's own composition lines: raw material lines (slot and quantity per unit) and component
+     * lines (another product and how many of its units go into one unit). Never modified once built.
+     */
+    static final class Lines {
+
+        static final Lines EMPTY = new Lines(NO_SLOTS, NO_SLOTS, NO_IDS, NO_IDS, NO_SLOTS, NO_IDS);
+
+        final int[] slots;
+        final int[] quantities;
+        final long[] compositionIds;
+        final long[] componentIds;
+        final int[] componentQuantities;
+        final long[] componentCompositionIds;
+
+        Lines(int[] slots, int[] quantities, long[] compositionIds,
+              long[] componentIds, int[] componentQuantities, long[] componentCompositionIds) {
+            this.slots = slots;
+            this.quantities = quantities;
+            this.compositionIds = compositionIds;
+            this.componentIds = componentIds;
+            this.componentQuantities = componentQuantities;
+            this.componentCompositionIds = componentCompositionIds;
+        }
+
+        boolean hasComponents() {
+            return componentIds.length > 0;
+        }
+
+        Lines withMaterialLines(int[] newSlots, int[] newQuantities, long[] newCompositionIds) {
+            return new Lines(newSlots, newQuantities, newCompositionIds,
+                    componentIds, componentQuantities, componentCompositionIds);
+        }
+
+        Lines withComponentLines(long[] newComponentIds, int[] newQuantities, long[] newCompositionIds) {
+            return new Lines(slots, quantities, compositionIds, newComponentIds, newQuantities, newCompositionIds);
+        }
+    }
+
+    private BomSnapshot(long version,
+                        long[] materialIds, String[] materialNames, int[] stock, LongIntMap slotByMaterialId,
+                        long[] productIds, String[] productNames, double[] prices, Lines[] lines,
+                        int[][] lineSlots, int[][] lineQuantities, LongIntMap positionByProductId,
+                        Map<Long, long[]> usedBy) {
+        this.version = version;
+        this.materialIds = materialIds;
+        this.materialNames = materialNames;
+        this.stock = stock;
+        this.slotByMaterialId = slotByMaterialId;
+        this.productIds = productIds;
+        this.productNames = productNames;
+        this.prices = prices;
+        this.lines = lines;
+        this.lineSlots = lineSlots;
+        this.lineQuantities = lineQuantities;
+        this.positionByProductId = positionByProductId;
+        this.usedBy = usedBy;
+    }
+
+    public static BomSnapshot of(List<Product> products, List<RawMaterial> materials, long version) {
+        int m = materials.size();
+        long[] materialIds = new long[m];
+        String[] materialNames = new String[m];
+        int[] stock = new int[m];
+        LongIntMap slotByMaterialId = new LongIntMap(m);
+        for (int slot = 0; slot < m; slot++) {
+            RawMaterial material = materials.get(slot);
+            materialIds[slot] = material.getId();
+            materialNames[slot] = material.getName();
+            stock[slot] = material.getStockQuantity();
+            slotByMaterialId.put(material.getId(), slot);
+        }
+        BomSnapshot snapshot = new BomSnapshot(version, materialIds, materialNames, stock, slotByMaterialId,
+                NO_IDS, new String[0], new double[0], new Lines[0], new int[0][], new int[0][], new LongIntMap(0),
+                Map.of());
+
+        List<Product> ordered = new ArrayList<>(products);
+        ordered.sort(Comparator.comparing(Product::getPrice, Comparator.reverseOrder()).thenComparing(Product::getId));
+
+        int n = ordered.size();
+        long[] productIds = new long[n];
+        String[] productNames = new String[n];
+        double[] prices = new double[n];
+        Lines[] lines = new Lines[n];
+        for (int p = 0; p < n; p++) {
+            Product product = ordered.get(p);
+            List<ProductComposition> compositions = product.getCompositions() == null
+                    ? List.of() : product.getCompositions();
+            productIds[p] = product.getId();
+            productNames[p] = product.getName();
+            prices[p] = product.getPrice();
+
+            int components = 0;
+            for (ProductComposition composition : compositions) {
+                if (composition.getComponentProduct() != null) components++;
+            }
+            int[] slots = new int[compositions.size() - components];
+            int[] quantities = new int[slots.length];
+            long[] compositionIds = new long[slots.length];
+            long[] componentIds = new long[components];
+            int[] componentQuantities = new int[components];
+            long[] componentCompositionIds = new long[components];
+            int k = 0;
+            int c = 0;
+            for (ProductComposition composition : compositions) {
+                long compositionId = composition.getId() == null ? 0L : composition.getId();
+                if (composition.getComponentProduct() != null) {
+                    componentIds[c] = composition.getComponentProduct().getId();
+                    componentQuantities[c] = composition.getRequiredQuantity();
+                    componentCompositionIds[c++] = compositionId;
+                } else {
+                    snapshot = snapshot.ensureMaterialSlot(composition.getRawMaterial().getId());
+                    slots[k] = snapshot.slotOf(composition.getRawMaterial().getId());
+                    quantities[k] = composition.getRequiredQuantity();
+                    compositionIds[k++] = compositionId;
+                }
+            }
+            lines[p] = components == 0 && slots.length == 0 ? Lines.EMPTY
+                    : new Lines(slots, quantities, compositionIds, componentIds, componentQuantities,
+                    componentCompositionIds);
+        }
+
+        LongIntMap positions = new LongIntMap(n);
+        Map<Long, long[]> usedBy = new HashMap<>();
+        for (int p = 0; p < n; p++) {
+            positions.put(productIds[p], p);
+            for (long componentId : distinct(lines[p].componentIds)) {
+                usedBy.merge(componentId, new long[]{productIds[p]}, BomSnapshot::concat);
+            }
+        }
+        int[][] slots = new int[n][];
+        int[][] quantities = new int[n][];
+        BomExplosion.explode(lines, positions, snapshot.materialIds.length, slots, quantities);
+        return new BomSnapshot(version, snapshot.materialIds, snapshot.materialNames, snapshot.stock,
+                snapshot.slotByMaterialId, productIds, productNames, prices, lines, slots, quantities, positions, usedBy);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int productCount() {
+        return productIds.length;
+    }
+
+    public int materialCount() {
+        return materialIds.length;
+    }
+
+    public long productId(int position) {
+        return productIds[position];
+    }
+
+    public String productName(int position) {
+        return productNames[position];
+    }
+
+    public double price(int position) {
+        return prices[position];
+    }
+
+    public long materialId(int slot) {
+        return materialIds[slot];
+    }
+
+    public String materialName(int slot) {
+        return materialNames[slot];
+    }
+
+    /**
+     * Material slots of everything one unit of the product consumes, sub-assemblies included. Empty when
+     * the product cannot be built (a component is missing or part of a cycle). The array is shared and
+     * must not be modified.
+     */
+    public int[] lineSlots(int position) {
+        return lineSlots[position];
+    }
+
+    /**
+     * Quantities per unit, aligned with {@link #lineSlots(int)}. The array is shared and must not be modified.
+     */
+    public int[] lineQuantities(int position) {
+        return lineQuantities[position];
+    }
+
+    public int stock(int slot) {
+        return stock[slot];
+    }
+
+    public int[] stockCopy() {
+        return stock.clone();
+    }
+
+    /**
+     * Position of the product in price order, or -1 when it is not in the catalog.
+     */
+    public int positionOf(long productId) {
+        return positionByProductId.get(productId);
+    }
+
+    /**
+     * Slot of the raw material, or -1 when it is not in the catalog.
+     */
+    public int slotOf(long rawMaterialId) {
+        return slotByMaterialId.get(rawMaterialId);
+    }
+
+    /**
+     * Whether {@code componentId} is {@code productId} itself or one of its sub-assemblies at any depth.
+     * Adding X as a component of Y closes a cycle exactly when {@code dependsOn(X, Y)}.
+     */
+    public boolean dependsOn(long productId, long componentId) {
+        if (productId == componentId) return true;
+        int start = positionOf(productId);
+        if (start < 0) return false;
+        boolean[] visited = new boolean[productIds.length];
+        int[] stack = new int[productIds.length];
+        int size = 0;
+        stack[size++] = start;
+        visited[start] = true;
+        while (size > 0) {
+            Lines current = lines[stack[--size]];
+            for (long id : current.componentIds) {
+                if (id == componentId) return true;
+                int position = positionOf(id);
+                if (position >= 0 && !visited[position]) {
+                    visited[position] = true;
+                    stack[size++] = position;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether both hold the same raw materials and stock, products and composition lines, whatever their versions.
+     */
+    public boolean sameCatalog(BomSnapshot other) {
+        if (slotByMaterialId.size() != other.slotByMaterialId.size() || productIds.length != other.productIds.length) {
+            return false;
+        }
+        for (int slot = 0; slot < other.materialIds.length; slot++) {
+            long id = other.materialIds[slot];
+            if (other.slotOf(id) != slot) continue;
+            int mine = slotOf(id);
+            if (mine < 0 || stock[mine] != other.stock[slot]
+                    || !Objects.equals(materialNames[mine], other.materialNames[slot])) {
+                return false;
+            }
+        }
+        for (int p = 0; p < productIds.length; p++) {
+            if (productIds[p] != other.productIds[p] || Double.compare(prices[p], other.prices[p]) != 0
+                    || !Objects.equals(productNames[p], other.productNames[p])
+                    || !sameLines(lines[p], other, other.lines[p])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sameLines(Lines mine, BomSnapshot other, Lines theirs) {
+        return Arrays.deepEquals(rows(mine.compositionIds, materialIdsOf(mine.slots), mine.quantities),
+                rows(theirs.compositionIds, other.materialIdsOf(theirs.slots), theirs.quantities))
+                && Arrays.deepEquals(rows(mine.componentCompositionIds, mine.componentIds, mine.componentQuantities),
+                rows(theirs.componentCompositionIds, theirs.componentIds, theirs.componentQuantities));
+    }
+
+    private long[] materialIdsOf(int[] slots) {
+        long[] ids = new long[slots.length];
+        for (int k = 0; k < slots.length; k++) {
+            ids[k] = materialIds[slots[k]];
+        }
+        return ids;
+    }
+
+    // sorted, since patches append lines in another order than a load reads them
+    private static long[][] rows(long[] compositionIds, long[] ids, int[] quantities) {
+        long[][] rows = new long[ids.length][];
+        for (int k = 0; k < ids.length; k++) {
+            rows[k] = new long[]{compositionIds[k], ids[k], quantities[k]};
+        }
+        Arrays.sort(rows, Arrays::compare);
+        return rows;
+    }
+
+    public BomSnapshot withMaterial(long rawMaterialId, String name, int stockQuantity, long newVersion) {
+        BomSnapshot base = ensureMaterialSlot(rawMaterialId);
+        int slot = base.slotOf(rawMaterialId);
+        String[] names = base.materialNames == materialNames ? materialNames.clone() : base.materialNames;
+        int[] newStock = base.stock == stock ? stock.clone() : base.stock;
+        names[slot] = name;
+        newStock[slot] = stockQuantity;
+        return new BomSnapshot(newVersion, base.materialIds, names, newStock, base.slotByMaterialId,
+                productIds, productNames, prices, lines, lineSlots, lineQuantities, positionByProductId, usedBy);
+    }
+
+    /**
+     * The same catalog with a whole new stock vector, indexed by material slot; {@code stockQuantities} is copied.
+     */
+    public BomSnapshot withStock(int[] stockQuantities, long newVersion) {
+        if (stockQuantities.length != stock.length) {
+            throw new IllegalArgumentException("Expected " + stock.length + " stock slots, got " + stockQuantities.length);
+        }
+        return new BomSnapshot(newVersion, materialIds, materialNames, stockQuantities.clone(), slotByMaterialId,
+                productIds, productNames, prices, lines, lineSlots, lineQuantities, positionByProductId, usedBy);
+    }
+
+    /**
+     * Ids not in the catalog are ignored.
+     */
+    public BomSnapshot withStockChanges(Map<Long, Long> changes, long newVersion) {
+        int[] newStock = stock.clone();
+        for (Map.Entry<Long, Long> change : changes.entrySet()) {
+            int slot = slotOf(change.getKey());
+            if (slot >= 0) {
+                long moved = newStock[slot] + change.getValue();
+                newStock[slot] = (int) Math.max(0, Math.min(Integer.MAX_VALUE, moved));
+            }
+        }
+        return new BomSnapshot(newVersion, materialIds, materialNames, newStock, slotByMaterialId,
+                productIds, productNames, prices, lines, lineSlots, lineQuantities, positionByProductId, usedBy);
+    }
+
+    /**
+     * The slot stays allocated (with no stock) until the next full rebuild so existing slot numbers stay valid.
+     */
+    public BomSnapshot withoutMaterial(long rawMaterialId, long newVersion) {
+        int slot = slotOf(rawMaterialId);
+        if (slot < 0) return withVersion(newVersion);
+        LongIntMap slots = slotByMaterialId.copyWithout(rawMaterialId);
+        int[] newStock = stock.clone();
+        newStock[slot] = 0;
+        return new BomSnapshot(newVersion, materialIds, materialNames, newStock, slots,
+                productIds, productNames, prices, lines, lineSlots, lineQuantities, positionByProductId, usedBy);
+    }
+
+    public BomSnapshot withProduct(long productId, String name, double price,
+                                   long[] compositionIds, long[] rawMaterialIds, int[] quantities, long newVersion) {
+        return withProduct(productId, name, price, compositionIds, rawMaterialIds, quantities,
+                NO_IDS, NO_IDS, NO_SLOTS, newVersion);
+    }
+
+    /**
+     * A new or replaced product whose lines may also list other products as components.
+     */
+    public BomSnapshot withProduct(long productId, String name, double price,
+                                   long[] compositionIds, long[] rawMaterialIds, int[] quantities,
+                                   long[] componentCompositionIds, long[] componentIds, int[] componentQuantities,
+                                   long newVersion) {
+        BomSnapshot base = this;
+        int[] slots = new int[rawMaterialIds.length];
+        for (int k = 0; k < rawMaterialIds.length; k++) {
+            base = base.ensureMaterialSlot(rawMaterialIds[k]);
+            slots[k] = base.slotOf(rawMaterialIds[k]);
+        }
+        Lines productLines = new Lines(slots, quantities.clone(), compositionIds.clone(),
+                componentIds.clone(), componentQuantities.clone(), componentCompositionIds.clone());
+        return base.place(productId, name, price, productLines, newVersion);
+    }
+
+    public BomSnapshot withProductDetails(long productId, String name, double price, long newVersion) {
+        int position = positionOf(productId);
+        return place(productId, name, price, position < 0 ? Lines.EMPTY : lines[position], newVersion);
+    }
+
+    public BomSnapshot withoutProduct(long productId, long newVersion) {
+        int position = positionOf(productId);
+        if (position < 0) return withVersion(newVersion);
+        int n = productIds.length - 1;
+        long[] ids = new long[n];
+        String[] names = new String[n];
+        double[] newPrices = new double[n];
+        Lines[] newLines = new Lines[n];
+        int[][] slots = new int[n][];
+        int[][] quantities = new int[n][];
+        for (int out = 0, in = 0; in < productIds.length; in++) {
+            if (in == position) continue;
+            ids[out] = productIds[in];
+            names[out] = productNames[in];
+            newPrices[out] = prices[in];
+            newLines[out] = lines[in];
+            slots[out] = lineSlots[in];
+            quantities[out] = lineQuantities[in];
+            out++;
+        }
+        LongIntMap positions = positionByProductId.copyWithout(productId);
+        for (int p = position; p < n; p++) {
+            positions.put(ids[p], p);
+        }
+        return restructured(productId, newVersion, ids, names, newPrices, newLines, slots, quantities, positions,
+                usedByAfter(productId, lines[position], Lines.EMPTY));
+    }
+
+    public BomSnapshot withComposition(long productId, long compositionId, long rawMaterialId, int quantity,
+                                       long newVersion) {
+        int position = positionOf(productId);
+        if (position < 0) return withVersion(newVersion);
+        BomSnapshot base = ensureMaterialSlot(rawMaterialId);
+        Lines current = lines[position];
+        int size = current.slots.length;
+        int[] slots = Arrays.copyOf(current.slots, size + 1);
+        int[] quantities = Arrays.copyOf(current.quantities, size + 1);
+        long[] compositionIds = Arrays.copyOf(current.compositionIds, size + 1);
+        slots[size] = base.slotOf(rawMaterialId);
+        quantities[size] = quantity;
+        compositionIds[size] = compositionId;
+        return base.replaceLines(position, current.withMaterialLines(slots, quantities, compositionIds), newVersion);
+    }
+
+    /**
+     * Adds a line that uses {@code quantity} units of the product {@code componentId} per unit of {@code productId}.
+     */
+    public BomSnapshot withComponent(long productId, long compositionId, long componentId, int quantity,
+                                     long newVersion) {
+        int position = positionOf(productId);
+        if (position < 0) return withVersion(newVersion);
+        Lines current = lines[position];
+        int size = current.componentIds.length;
+        long[] componentIds = Arrays.copyOf(current.componentIds, size + 1);
+        int[] quantities = Arrays.copyOf(current.componentQuantities, size + 1);
+        long[] compositionIds = Arrays.copyOf(current.componentCompositionIds, size + 1);
+        componentIds[size] = componentId;
+        quantities[size] = quantity;
+        compositionIds[size] = compositionId;
+        return replaceLines(position, current.withComponentLines(componentIds, quantities, compositionIds), newVersion);
+    }
+
+    public BomSnapshot withoutComposition(long productId, long compositionId, long newVersion) {
+        int position = positionOf(productId);
+        if (position < 0) return withVersion(newVersion);
+        Lines current = lines[position];
+        int index = indexOf(current.compositionIds, compositionId);
+        if (index >= 0) {
+            int size = current.slots.length - 1;
+            int[] slots = new int[size];
+            int[] quantities = new int[size];
+            long[] compositionIds = new long[size];
+            for (int out = 0, in = 0; in < current.slots.length; in++) {
+                if (in == index) continue;
+                slots[out] = current.slots[in];
+                quantities[out] = current.quantities[in];
+                compositionIds[out] = current.compositionIds[in];
+                out++;
+            }
+            return replaceLines(position, current.withMaterialLines(slots, quantities, compositionIds), newVersion);
+        }
+        index = indexOf(current.componentCompositionIds, compositionId);
+        if (index < 0) return withVersion(newVersion);
+        int size = current.componentIds.length - 1;
+        long[] componentIds = new long[size];
+        int[] quantities = new int[size];
+        long[] compositionIds = new long[size];
+        for (int out = 0, in = 0; in < current.componentIds.length; in++) {
+            if (in == index) continue;
+            componentIds[out] = current.componentIds[in];
+            quantities[out] = current.componentQuantities[in];
+            compositionIds[out] = current.componentCompositionIds[in];
+            out++;
+        }
+        return replaceLines(position, current.withComponentLines(componentIds, quantities, compositionIds), newVersion);
+    }
+
+    private static int indexOf(long[] ids, long id) {
+        for (int k = 0; k < ids.length; k++) {
+            if (ids[k] == id) return k;
+        }
+        return -1;
+    }
+
+    private BomSnapshot withVersion(long newVersion) {
+        return new BomSnapshot(newVersion, materialIds, materialNames, stock, slotByMaterialId,
+                productIds, productNames, prices, lines, lineSlots, lineQuantities, positionByProductId, usedBy);
+    }
+
+    private BomSnapshot replaceLines(int position, Lines productLines, long newVersion) {
+        Lines[] newLines = lines.clone();
+        newLines[position] = productLines;
+        return restructured(productIds[position], newVersion, productIds, productNames, prices, newLines,
+                lineSlots.clone(), lineQuantities.clone(), positionByProductId,
+                usedByAfter(productIds[position], lines[position], productLines));
+    }
+
+    /**
+     * A snapshot whose products or composition lines differ from this one's only for {@code changedId}.
+     * {@code slots} and {@code quantities} hold every other product's vector; the changed product and
+     * the products using it are flattened again.
+     */
+    private BomSnapshot restructured(long changedId, long newVersion, long[] ids, String[] names, double[] newPrices,
+                                     Lines[] newLines, int[][] slots, int[][] quantities, LongIntMap positions,
+                                     Map<Long, long[]> newUsedBy) {
+        BomExplosion.update(changedId, newLines, positions, newUsedBy, materialIds.length, slots, quantities);
+        return new BomSnapshot(newVersion, materialIds, materialNames, stock, slotByMaterialId,
+                ids, names, newPrices, newLines, slots, quantities, positions, newUsedBy);
+    }
+
+    /**
+     * {@link #usedBy} once the product's own lines go from {@code before} to {@code after}; shared when
+     * its components stay the same.
+     */
+    private Map<Long, long[]> usedByAfter(long productId, Lines before, Lines after) {
+        long[] removed = distinct(before.componentIds);
+        long[] added = distinct(after.componentIds);
+        if (Arrays.equals(removed, added)) return usedBy;
+        Map<Long, long[]> updated = new HashMap<>(usedBy);
+        for (long componentId : removed) {
+            long[] parents = updated.get(componentId);
+            long[] remaining = new long[parents.length - 1];
+            for (int out = 0, in = 0; in < parents.length; in++) {
+                if (parents[in] != productId) remaining[out++] = parents[in];
+            }
+            if (remaining.length == 0) {
+                updated.remove(componentId);
+            } else {
+                updated.put(componentId, remaining);
+            }
+        }
+        for (long componentId : added) {
+            updated.merge(componentId, new long[]{productId}, BomSnapshot::concat);
+        }
+        return updated;
+    }
+
+    private static long[] distinct(long[] ids) {
+        return ids.length == 0 ? ids : Arrays.stream(ids).sorted().distinct().toArray();
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] both = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+        return both;
+    }
+
+    private BomSnapshot place(long productId, String name, double price, Lines productLines, long newVersion) {
+        int old = positionOf(productId);
+        int low = 0;
+        int high = productIds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortsBefore(prices[mid], productIds[mid], price, productId)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int insertAt = old >= 0 && old < low ? low - 1 : low;
+
+        int n = productIds.length - (old >= 0 ? 1 : 0) + 1;
+        long[] ids = new long[n];
+        String[] names = new String[n];
+        double[] newPrices = new double[n];
+        Lines[] newLines = new Lines[n];
+        int[][] slots = new int[n][];
+        int[][] quantities = new int[n][];
+        for (int out = 0, in = 0; out < n; out++) {
+            if (out == insertAt) {
+                ids[out] = productId;
+                names[out] = name;
+                newPrices[out] = price;
+                newLines[out] = productLines;
+                if (old >= 0) {
+                    slots[out] = lineSlots[old];
+                    quantities[out] = lineQuantities[old];
+                }
+                continue;
+            }
+            if (in == old) in++;
+            ids[out] = productIds[in];
+            names[out] = productNames[in];
+            newPrices[out] = prices[in];
+            newLines[out] = lines[in];
+            slots[out] = lineSlots[in];
+            quantities[out] = lineQuantities[in];
+            in++;
+        }
+
+        // only the positions between where the product was and where it goes move
+        LongIntMap positions = positionByProductId.copy();
+        int to = old < 0 ? n - 1 : Math.max(old, insertAt);
+        for (int p = old < 0 ? insertAt : Math.min(old, insertAt); p <= to; p++) {
+            positions.put(ids[p], p);
+        }
+        if (old >= 0 && lines[old] == productLines) {
+            return new BomSnapshot(newVersion, materialIds, materialNames, stock, slotByMaterialId,
+                    ids, names, newPrices, newLines, slots, quantities, positions, usedBy);
+        }
+        return restructured(productId, newVersion, ids, names, newPrices, newLines, slots, quantities, positions,
+                usedByAfter(productId, old < 0 ? Lines.EMPTY : lines[old], productLines));
+    }
+
+    /**
+     * A material seen only in a composition so far gets an empty slot until its own change arrives.
+     */
+    private BomSnapshot ensureMaterialSlot(long rawMaterialId) {
+        if (slotOf(rawMaterialId) >= 0) return this;
+        int slot = materialIds.length;
+        long[] ids = Arrays.copyOf(materialIds, slot + 1);
+        String[] names = Arrays.copyOf(materialNames, slot + 1);
+        int[] newStock = Arrays.copyOf(stock, slot + 1);
+        ids[slot] = rawMaterialId;
+        LongIntMap slots = slotByMaterialId.copy();
+        slots.put(rawMaterialId, slot);
+        return new BomSnapshot(version, ids, names, newStock, slots,
+                productIds, productNames, prices, lines, lineSlots, lineQuantities, positionByProductId, usedBy);
+    }
+
+    private static boolean sortsBefore(double price, long id, double otherPrice, long otherId) {
+        int byPrice = Double.compare(otherPrice, price);
+        return byPrice < 0 || (byPrice == 0 && id < otherId);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.project_inventory.domain.planning;
+
+/**
+ * The price-ordered greedy plan: each product, most expensive first, takes as many units as its most
+ * limiting material allows. Runs on the snapshot's arrays and a {@link StockLedger} without allocating.
+ */
+public final class GreedyPlanner {
+
+    private GreedyPlanner() {
+    }
+
+    /**
+     * Writes the units to produce per product position into {@code produced}.
+     */
+    public static void plan(BomSnapshot snapshot, StockLedger ledger, int[] produced) {
+        int[][] lineSlots = snapshot.lineSlots;
+        int[][] lineQuantities = snapshot.lineQuantities;
+
+        for (int p = 0; p < lineSlots.length; p++) {
+            int[] slots = lineSlots[p];
+            int[] quantities = lineQuantities[p];
+            long units = ledger.maxUnits(slots, quantities);
+
+            if (units > 0) {
+                units = Math.min(units, Integer.MAX_VALUE);
+                ledger.consume(slots, quantities, units);
+                produced[p] = (int) units;
+            } else {
+                produced[p] = 0;
+            }
+        }
+    }
+}
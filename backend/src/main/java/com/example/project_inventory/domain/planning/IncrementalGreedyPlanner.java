@@ -0,0 +1,224 @@
+package com.example.project_inventory.domain.planning;
+
+import java.util.Arrays;
+
+/**
+ * The greedy plan of {@link GreedyPlanner}, kept up to date across snapshots that differ only in stock.
+ * <p>
+ * Alongside the units per product it remembers, for every composition line, how much of the material
+ * was left when the product's turn came, and for every material the positions of the products that
+ * consume it. When stock changes, the difference per material is pushed forward through its consumers
+ * in price order: a product is revisited only if one of its materials has a different balance at its
+ * turn, and a material stops propagating as soon as the products re-planned so far have absorbed its
+ * difference. Any other change (products, prices, compositions) rebuilds the state with one full pass.
+ * The result is always identical to a full greedy run over the same snapshot.
+ * <p>
+ * Instances are stateful and synchronized; one instance follows one stream of snapshots.
+ */
+public final class IncrementalGreedyPlanner {
+
+    private BomSnapshot base;
+    private int[] produced;
+    private long[][] availableBefore;
+    private int[][] consumers;
+    private int[][] consumerIndex;
+
+    private long[] difference = new long[0];
+    private int[] touched = new int[16];
+    private int touchedCount;
+    private int[] heap = new int[16];
+    private int heapSize;
+    private int lastRevisited;
+
+    /**
+     * Units to produce per product position of {@code snapshot}, in a new array.
+     */
+    public synchronized int[] plan(BomSnapshot snapshot) {
+        if (base == null || !sameStructure(base, snapshot)) {
+            rebuild(snapshot);
+        } else if (base.stock != snapshot.stock) {
+            applyStock(snapshot.stock);
+        } else {
+            lastRevisited = 0;
+        }
+        base = snapshot;
+        return produced.clone();
+    }
+
+    /**
+     * Products whose units had to be recomputed by the last {@link #plan} call.
+     */
+    public synchronized int lastRevisited() {
+        return lastRevisited;
+    }
+
+    private static boolean sameStructure(BomSnapshot a, BomSnapshot b) {
+        return a.productIds == b.productIds && a.lineSlots == b.lineSlots && a.lineQuantities == b.lineQuantities;
+    }
+
+    private void rebuild(BomSnapshot snapshot) {
+        int[][] lineSlots = snapshot.lineSlots;
+        int[][] lineQuantities = snapshot.lineQuantities;
+        int n = lineSlots.length;
+        int materials = snapshot.stock.length;
+
+        long[] available = new long[materials];
+        for (int slot = 0; slot < materials; slot++) {
+            available[slot] = snapshot.stock[slot];
+        }
+        produced = new int[n];
+        availableBefore = new long[n][];
+        int[] consumerCounts = new int[materials];
+        for (int p = 0; p < n; p++) {
+            int[] slots = lineSlots[p];
+            int[] quantities = lineQuantities[p];
+            long[] before = new long[slots.length];
+            for (int k = 0; k < slots.length; k++) {
+                before[k] = available[slots[k]];
+                consumerCounts[slots[k]]++;
+            }
+            long units = maxUnits(before, quantities);
+            for (int k = 0; k < slots.length; k++) {
+                available[slots[k]] -= quantities[k] * units;
+            }
+            availableBefore[p] = before;
+            produced[p] = (int) units;
+        }
+
+        consumers = new int[materials][];
+        for (int slot = 0; slot < materials; slot++) {
+            consumers[slot] = new int[consumerCounts[slot]];
+        }
+        int[] filled = new int[materials];
+        consumerIndex = new int[n][];
+        for (int p = 0; p < n; p++) {
+            int[] slots = lineSlots[p];
+            consumerIndex[p] = new int[slots.length];
+            for (int k = 0; k < slots.length; k++) {
+                int slot = slots[k];
+                consumerIndex[p][k] = filled[slot];
+                consumers[slot][filled[slot]++] = p;
+            }
+        }
+        lastRevisited = n;
+    }
+
+    private void applyStock(int[] stock) {
+        int[][] lineSlots = base.lineSlots;
+        int[][] lineQuantities = base.lineQuantities;
+        int[] previous = base.stock;
+        if (difference.length < consumers.length) {
+            difference = new long[consumers.length];
+        }
+
+        // materials added since the rebuild have slots past consumers.length and no consumers yet
+        for (int slot = 0; slot < consumers.length; slot++) {
+            long change = (long) stock[slot] - previous[slot];
+            if (change != 0) {
+                addDifference(slot, change);
+                if (consumers[slot].length > 0) {
+                    push(consumers[slot][0]);
+                }
+            }
+        }
+
+        int revisited = 0;
+        int last = -1;
+        while (heapSize > 0) {
+            int p = pop();
+            if (p == last) {
+                continue;
+            }
+            last = p;
+            revisited++;
+
+            int[] slots = lineSlots[p];
+            int[] quantities = lineQuantities[p];
+            long[] before = availableBefore[p];
+            for (int k = 0; k < slots.length; k++) {
+                before[k] += difference[slots[k]];
+            }
+            long units = maxUnits(before, quantities);
+            long change = units - produced[p];
+            if (change != 0) {
+                produced[p] = (int) units;
+                for (int k = 0; k < slots.length; k++) {
+                    addDifference(slots[k], -change * quantities[k]);
+                }
+            }
+            for (int k = 0; k < slots.length; k++) {
+                int slot = slots[k];
+                int next = consumerIndex[p][k] + 1;
+                if (difference[slot] != 0 && next < consumers[slot].length) {
+                    push(consumers[slot][next]);
+                }
+            }
+        }
+        lastRevisited = revisited;
+
+        for (int i = 0; i < touchedCount; i++) {
+            difference[touched[i]] = 0;
+        }
+        touchedCount = 0;
+    }
+
+    /**
+     * Same rule as {@link StockLedger#maxUnits}, on the balances a product saw at its turn.
+     */
+    private static long maxUnits(long[] before, int[] quantities) {
+        long max = Long.MAX_VALUE;
+        for (int k = 0; k < quantities.length; k++) {
+            int required = quantities[k];
+            if (required <= 0) continue;
+            long possible = before[k] / required;
+            if (possible < max) {
+                max = possible;
+            }
+        }
+        if (max == Long.MAX_VALUE || max <= 0) {
+            return 0;
+        }
+        return Math.min(max, Integer.MAX_VALUE);
+    }
+
+    private void addDifference(int slot, long change) {
+        if (change == 0) return;
+        if (difference[slot] == 0) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = slot;
+        }
+        difference[slot] += change;
+    }
+
+    private void push(int position) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= position) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = position;
+    }
+
+    private int pop() {
+        int top = heap[0];
+        int moved = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= moved) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = moved;
+        return top;
+    }
+}
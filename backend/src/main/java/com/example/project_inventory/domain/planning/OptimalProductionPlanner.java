@@ -0,0 +1,442 @@
+package com.example.project_inventory.domain.planning;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves the integer production-mix problem: maximize the value of what is produced without
+ * exceeding any raw material stock. Products that share no material are solved independently;
+ * each group is solved with an LP relaxation (simplex) plus depth-first branch-and-bound.
+ * <p>
+ * The greedy, price-ordered plan is the initial incumbent and every search node contributes a
+ * rounded-down feasible plan, so when the time budget runs out the best plan found so far is returned,
+ * marked as not proven optimal. So is a plan for a group too large to search, or with a relaxation the
+ * simplex gave up on.
+ */
+public class OptimalProductionPlanner {
+
+    private static final double INTEGRALITY_EPS = 1e-6;
+    private static final long MAX_TABLEAU_CELLS = 4_000_000L;
+    private static final SimplexSolver.Result INFEASIBLE = new SimplexSolver.Result(SimplexSolver.Status.INFEASIBLE, null);
+
+    private final long timeBudgetNanos;
+
+    /**
+     * Quantity to produce per product, and whether the search finished and so proved it optimal.
+     */
+    public record Plan(int[] produced, boolean optimal) {
+    }
+
+    public OptimalProductionPlanner(long timeBudgetMillis) {
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    /**
+     * Plans against the snapshot's stock; the result is indexed by product position.
+     */
+    public int[] plan(BomSnapshot snapshot) {
+        return solve(snapshot).produced();
+    }
+
+    public Plan solve(BomSnapshot snapshot) {
+        return solve(snapshot.prices, snapshot.lineSlots, snapshot.lineQuantities, snapshot.stock);
+    }
+
+    public int[] plan(double[] prices, int[][] slots, int[][] quantities, int[] stock) {
+        return solve(prices, slots, quantities, stock).produced();
+    }
+
+    /**
+     * @param prices     unit price per product, products in price-descending order
+     * @param slots      per product, the material slots of its composition lines
+     * @param quantities per product, the required quantity of each composition line
+     * @param stock      available stock per material slot
+     * @return quantity to produce per product, and whether that is proven optimal
+     */
+    public Plan solve(double[] prices, int[][] slots, int[][] quantities, int[] stock) {
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        int[] best = new int[prices.length];
+
+        int[] remaining = stock.clone();
+        greedyFill(slots, quantities, remaining, best);
+        for (int p = 0; p < best.length; p++) {
+            if (!isCandidate(prices[p], quantities[p])) best[p] = 0;
+        }
+
+        // a product sharing no material with another is at its greedy maximum already
+        boolean optimal = true;
+        int[] rowOfSlot = new int[stock.length];
+        Arrays.fill(rowOfSlot, -1);
+        for (int[] group : independentGroups(prices, slots, quantities, stock.length)) {
+            if (group.length == 1) continue;
+            if (System.nanoTime() >= deadline) {
+                optimal = false;
+                break;
+            }
+            optimal &= new GroupSearch(group, prices, slots, quantities, stock, rowOfSlot, deadline).improve(best);
+        }
+
+        remaining = stock.clone();
+        consume(slots, quantities, best, remaining);
+        greedyFill(slots, quantities, remaining, best);
+        return new Plan(best, optimal);
+    }
+
+    private static void greedyFill(int[][] slots, int[][] quantities, int[] remaining, int[] produced) {
+        for (int p = 0; p < slots.length; p++) {
+            int possible = maxProducible(slots[p], quantities[p], remaining);
+            if (possible <= 0) continue;
+            for (int k = 0; k < slots[p].length; k++) {
+                if (quantities[p][k] > 0) {
+                    remaining[slots[p][k]] -= quantities[p][k] * possible;
+                }
+            }
+            produced[p] += possible;
+        }
+    }
+
+    private static int maxProducible(int[] slots, int[] quantities, int[] remaining) {
+        int max = Integer.MAX_VALUE;
+        for (int k = 0; k < slots.length; k++) {
+            int required = quantities[k];
+            if (required <= 0) continue;
+            max = Math.min(max, remaining[slots[k]] / required);
+        }
+        return max == Integer.MAX_VALUE ? 0 : max;
+    }
+
+    private static void consume(int[][] slots, int[][] quantities, int[] produced, int[] remaining) {
+        for (int p = 0; p < slots.length; p++) {
+            if (produced[p] == 0) continue;
+            for (int k = 0; k < slots[p].length; k++) {
+                if (quantities[p][k] > 0) {
+                    remaining[slots[p][k]] -= quantities[p][k] * produced[p];
+                }
+            }
+        }
+    }
+
+    /**
+     * Groups valuable products connected through shared materials (union-find over material slots).
+     */
+    private static List<int[]> independentGroups(double[] prices, int[][] slots, int[][] quantities, int materialCount) {
+        int n = prices.length;
+        int[] parent = new int[n];
+        int[] ownerOfSlot = new int[materialCount];
+        Arrays.fill(ownerOfSlot, -1);
+
+        for (int p = 0; p < n; p++) {
+            parent[p] = p;
+            if (!isCandidate(prices[p], quantities[p])) continue;
+            for (int k = 0; k < slots[p].length; k++) {
+                if (quantities[p][k] <= 0) continue;
+                int owner = ownerOfSlot[slots[p][k]];
+                if (owner < 0) {
+                    ownerOfSlot[slots[p][k]] = p;
+                } else {
+                    union(parent, owner, p);
+                }
+            }
+        }
+
+        int[] sizes = new int[n];
+        for (int p = 0; p < n; p++) {
+            if (isCandidate(prices[p], quantities[p])) sizes[find(parent, p)]++;
+        }
+        int[][] members = new int[n][];
+        int[] fill = new int[n];
+        List<int[]> groups = new ArrayList<>();
+        for (int p = 0; p < n; p++) {
+            if (!isCandidate(prices[p], quantities[p])) continue;
+            int root = find(parent, p);
+            if (members[root] == null) {
+                members[root] = new int[sizes[root]];
+                groups.add(members[root]);
+            }
+            members[root][fill[root]++] = p;
+        }
+        groups.sort((x, y) -> Integer.compare(x.length, y.length));
+        return groups;
+    }
+
+    private static boolean isCandidate(double price, int[] quantities) {
+        if (price <= 0) return false;
+        for (int q : quantities) {
+            if (q > 0) return true;
+        }
+        return false;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int ra = find(parent, a);
+        int rb = find(parent, b);
+        if (ra != rb) parent[Math.max(ra, rb)] = Math.min(ra, rb);
+    }
+
+    /**
+     * Branch-and-bound over one group of products sharing materials. Columns are the group's
+     * products (still in price order), rows are the materials they use.
+     */
+    private static final class GroupSearch {
+
+        private final int[] products;
+        private final double[] value;
+        private final double[][] a;
+        private final double[] b;
+        private final int[] naturalBound;
+        private final long deadline;
+
+        private int[] incumbent;
+        private double incumbentValue;
+
+        /**
+         * {@code rowOfSlot} is scratch space shared between groups; it is handed in filled with -1 and left that way.
+         */
+        GroupSearch(int[] products, double[] prices, int[][] slots, int[][] quantities, int[] stock,
+                    int[] rowOfSlot, long deadline) {
+            this.products = products;
+            this.deadline = deadline;
+
+            int rows = 0;
+            for (int p : products) {
+                for (int k = 0; k < slots[p].length; k++) {
+                    if (quantities[p][k] > 0 && rowOfSlot[slots[p][k]] < 0) {
+                        rowOfSlot[slots[p][k]] = rows++;
+                    }
+                }
+            }
+
+            int n = products.length;
+            this.value = new double[n];
+            this.a = new double[rows][n];
+            this.b = new double[rows];
+            this.naturalBound = new int[n];
+            for (int j = 0; j < n; j++) {
+                int p = products[j];
+                value[j] = prices[p];
+                for (int k = 0; k < slots[p].length; k++) {
+                    if (quantities[p][k] <= 0) continue;
+                    int row = rowOfSlot[slots[p][k]];
+                    a[row][j] += quantities[p][k];
+                    b[row] = stock[slots[p][k]];
+                }
+            }
+            for (int j = 0; j < n; j++) {
+                int bound = Integer.MAX_VALUE;
+                for (int i = 0; i < rows; i++) {
+                    if (a[i][j] > 0) bound = Math.min(bound, (int) Math.floor(b[i] / a[i][j]));
+                }
+                naturalBound[j] = bound;
+            }
+            for (int p : products) {
+                for (int k = 0; k < slots[p].length; k++) {
+                    rowOfSlot[slots[p][k]] = -1;
+                }
+            }
+        }
+
+        /**
+         * Returns whether the search ran to the end, proving the group's part of {@code best} optimal.
+         */
+        boolean improve(int[] best) {
+            int n = products.length;
+            long cells = (long) (b.length + 1) * (b.length + n + 1);
+            if (cells > MAX_TABLEAU_CELLS) return false;
+
+            incumbent = new int[n];
+            for (int j = 0; j < n; j++) {
+                incumbent[j] = best[products[j]];
+            }
+            incumbentValue = valueOf(incumbent);
+
+            Deque<int[][]> stack = new ArrayDeque<>();
+            int[] rootUpper = new int[n];
+            Arrays.fill(rootUpper, Integer.MAX_VALUE);
+            stack.push(new int[][]{new int[n], rootUpper});
+
+            boolean complete = true;
+            while (!stack.isEmpty()) {
+                if (System.nanoTime() > deadline) {
+                    complete = false;
+                    break;
+                }
+                int[][] node = stack.pop();
+                int[] lower = node[0];
+                int[] upper = node[1];
+
+                SimplexSolver.Result relaxation = solveRelaxation(lower, upper);
+                if (relaxation.status() == SimplexSolver.Status.TIMED_OUT) {
+                    complete = false;
+                    break;
+                }
+                if (relaxation.status() != SimplexSolver.Status.OPTIMAL) {
+                    // an unexplored node, unless its bounds leave no solution
+                    complete &= relaxation.status() == SimplexSolver.Status.INFEASIBLE;
+                    continue;
+                }
+                double[] x = relaxation.x();
+                if (valueOfRelaxation(x) <= incumbentValue + INTEGRALITY_EPS) continue;
+
+                offerRounded(x);
+
+                int branch = -1;
+                double mostFractional = INTEGRALITY_EPS;
+                for (int j = 0; j < n; j++) {
+                    double fraction = x[j] - Math.floor(x[j]);
+                    double distance = Math.min(fraction, 1.0 - fraction);
+                    if (distance > mostFractional) {
+                        mostFractional = distance;
+                        branch = j;
+                    }
+                }
+                if (branch < 0) continue;
+
+                int floor = (int) Math.floor(x[branch]);
+                int[] downUpper = upper.clone();
+                downUpper[branch] = floor;
+                stack.push(new int[][]{lower, downUpper});
+
+                int[] upLower = lower.clone();
+                upLower[branch] = floor + 1;
+                if (upLower[branch] <= Math.min(upper[branch], naturalBound[branch])) {
+                    stack.push(new int[][]{upLower, upper});
+                }
+            }
+
+            for (int j = 0; j < n; j++) {
+                best[products[j]] = incumbent[j];
+            }
+            return complete;
+        }
+
+        /**
+         * Solves the LP relaxation with x shifted by its lower bound.
+         */
+        private SimplexSolver.Result solveRelaxation(int[] lower, int[] upper) {
+            int n = products.length;
+            int rows = b.length;
+
+            double[] shiftedB = b.clone();
+            for (int j = 0; j < n; j++) {
+                if (lower[j] == 0) continue;
+                for (int i = 0; i < rows; i++) {
+                    shiftedB[i] -= a[i][j] * lower[j];
+                }
+            }
+            for (double rhs : shiftedB) {
+                if (rhs < -SimplexSolver.EPS) return INFEASIBLE;
+            }
+
+            int[] freeColumns = new int[n];
+            int free = 0;
+            int boundRows = 0;
+            for (int j = 0; j < n; j++) {
+                if (upper[j] < lower[j]) return INFEASIBLE;
+                if (upper[j] > lower[j]) {
+                    freeColumns[free++] = j;
+                    if (upper[j] != Integer.MAX_VALUE) boundRows++;
+                }
+            }
+
+            double[] x = new double[n];
+            for (int j = 0; j < n; j++) {
+                x[j] = lower[j];
+            }
+            if (free == 0) return new SimplexSolver.Result(SimplexSolver.Status.OPTIMAL, x);
+
+            double[][] lp = new double[rows + boundRows][free];
+            double[] rhs = new double[rows + boundRows];
+            double[] objective = new double[free];
+            int boundRow = rows;
+            for (int f = 0; f < free; f++) {
+                int j = freeColumns[f];
+                objective[f] = value[j];
+                for (int i = 0; i < rows; i++) {
+                    lp[i][f] = a[i][j];
+                }
+                if (upper[j] != Integer.MAX_VALUE) {
+                    lp[boundRow][f] = 1.0;
+                    rhs[boundRow++] = upper[j] - lower[j];
+                }
+            }
+            for (int i = 0; i < rows; i++) {
+                rhs[i] = Math.max(0.0, shiftedB[i]);
+            }
+
+            SimplexSolver.Result shifted = SimplexSolver.maximize(lp, rhs, objective, deadline);
+            if (shifted.status() != SimplexSolver.Status.OPTIMAL) return shifted;
+            for (int f = 0; f < free; f++) {
+                x[freeColumns[f]] += shifted.x()[f];
+            }
+            return new SimplexSolver.Result(SimplexSolver.Status.OPTIMAL, x);
+        }
+
+        /**
+         * Rounding every variable down keeps a packing solution feasible; leftover stock is then filled greedily.
+         */
+        private void offerRounded(double[] x) {
+            int n = products.length;
+            int[] candidate = new int[n];
+            for (int j = 0; j < n; j++) {
+                candidate[j] = (int) Math.floor(x[j] + INTEGRALITY_EPS);
+            }
+
+            double[] remaining = b.clone();
+            for (int j = 0; j < n; j++) {
+                if (candidate[j] == 0) continue;
+                for (int i = 0; i < remaining.length; i++) {
+                    remaining[i] -= a[i][j] * candidate[j];
+                }
+            }
+            for (double r : remaining) {
+                if (r < -SimplexSolver.EPS) return;
+            }
+
+            for (int j = 0; j < n; j++) {
+                int possible = Integer.MAX_VALUE;
+                for (int i = 0; i < remaining.length; i++) {
+                    if (a[i][j] > 0) possible = Math.min(possible, (int) Math.floor(remaining[i] / a[i][j] + SimplexSolver.EPS));
+                }
+                if (possible <= 0 || possible == Integer.MAX_VALUE) continue;
+                candidate[j] += possible;
+                for (int i = 0; i < remaining.length; i++) {
+                    remaining[i] -= a[i][j] * possible;
+                }
+            }
+
+            double candidateValue = valueOf(candidate);
+            if (candidateValue > incumbentValue + INTEGRALITY_EPS) {
+                incumbent = candidate;
+                incumbentValue = candidateValue;
+            }
+        }
+
+        private double valueOf(int[] quantities) {
+            double total = 0;
+            for (int j = 0; j < quantities.length; j++) {
+                total += value[j] * quantities[j];
+            }
+            return total;
+        }
+
+        private double valueOfRelaxation(double[] x) {
+            double total = 0;
+            for (int j = 0; j < x.length; j++) {
+                total += value[j] * x[j];
+            }
+            return total;
+        }
+    }
+}
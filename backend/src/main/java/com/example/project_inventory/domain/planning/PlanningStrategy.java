@@ -0,0 +1,21 @@
+package com.example.project_inventory.domain.planning;
+
+import com.example.project_inventory.exception.BusinessException;
+
+import java.util.Locale;
+
+public enum PlanningStrategy {
+    GREEDY,
+    OPTIMAL;
+
+    public static PlanningStrategy from(String value) {
+        if (value == null || value.isBlank()) {
+            return GREEDY;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Unknown planning strategy: " + value);
+        }
+    }
+}
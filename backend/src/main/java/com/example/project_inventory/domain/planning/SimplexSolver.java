@@ -0,0 +1,109 @@
+package com.example.project_inventory.domain.planning;
+
+/**
+ * Dense tableau simplex for packing problems: maximize c.x subject to a.x &lt;= b, x &gt;= 0, with b &gt;= 0,
+ * so the slack basis is always a feasible starting point.
+ */
+final class SimplexSolver {
+
+    static final double EPS = 1e-9;
+
+    enum Status {
+        OPTIMAL, INFEASIBLE, UNBOUNDED, ITERATION_LIMIT, TIMED_OUT
+    }
+
+    /**
+     * {@code x} is only set when the status is {@link Status#OPTIMAL}. The solver itself never reports
+     * {@link Status#INFEASIBLE}; callers use it for bounds that leave no solution.
+     */
+    record Result(Status status, double[] x) {
+    }
+
+    private SimplexSolver() {
+    }
+
+    static Result maximize(double[][] a, double[] b, double[] c, long deadlineNanos) {
+        int m = b.length;
+        int n = c.length;
+        int rhs = n + m;
+        double[][] t = new double[m + 1][rhs + 1];
+        int[] basis = new int[m];
+
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(a[i], 0, t[i], 0, n);
+            t[i][n + i] = 1.0;
+            t[i][rhs] = b[i];
+            basis[i] = n + i;
+        }
+        for (int j = 0; j < n; j++) {
+            t[m][j] = -c[j];
+        }
+
+        int[] nonZero = new int[rhs + 1];
+        int maxIterations = 50 * (m + n) + 1_000;
+
+        for (int iteration = 0; ; iteration++) {
+            if (iteration >= maxIterations) return new Result(Status.ITERATION_LIMIT, null);
+            if ((iteration & 15) == 0 && System.nanoTime() > deadlineNanos) return new Result(Status.TIMED_OUT, null);
+
+            int enter = -1;
+            double mostNegative = -EPS;
+            for (int j = 0; j < rhs; j++) {
+                if (t[m][j] < mostNegative) {
+                    mostNegative = t[m][j];
+                    enter = j;
+                }
+            }
+            if (enter < 0) break;
+
+            int leave = -1;
+            double bestRatio = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < m; i++) {
+                double coefficient = t[i][enter];
+                if (coefficient <= EPS) continue;
+                double ratio = t[i][rhs] / coefficient;
+                if (ratio < bestRatio - EPS || (ratio <= bestRatio + EPS && leave >= 0 && basis[i] < basis[leave])) {
+                    bestRatio = ratio;
+                    leave = i;
+                }
+            }
+            if (leave < 0) return new Result(Status.UNBOUNDED, null);
+
+            pivot(t, leave, enter, nonZero);
+            basis[leave] = enter;
+        }
+
+        double[] x = new double[n];
+        for (int i = 0; i < m; i++) {
+            if (basis[i] < n) {
+                x[basis[i]] = Math.max(0.0, t[i][rhs]);
+            }
+        }
+        return new Result(Status.OPTIMAL, x);
+    }
+
+    private static void pivot(double[][] t, int row, int col, int[] nonZero) {
+        double[] pivotRow = t[row];
+        double inverse = 1.0 / pivotRow[col];
+        int count = 0;
+        for (int j = 0; j < pivotRow.length; j++) {
+            if (pivotRow[j] != 0.0) {
+                pivotRow[j] *= inverse;
+                nonZero[count++] = j;
+            }
+        }
+        pivotRow[col] = 1.0;
+
+        for (int i = 0; i < t.length; i++) {
+            if (i == row) continue;
+            double[] r = t[i];
+            double factor = r[col];
+            if (factor == 0.0) continue;
+            for (int k = 0; k < count; k++) {
+                int j = nonZero[k];
+                r[j] -= factor * pivotRow[j];
+            }
+            r[col] = 0.0;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.project_inventory.domain.planning;
+
+/**
+ * Remaining stock per material slot while a plan is simulated. Balances are kept as longs so that
+ * consumption arithmetic can never overflow; the ledger can be reset and reused between plans.
+ */
+public final class StockLedger {
+
+    private final long[] available;
+
+    public StockLedger(int materialCount) {
+        this.available = new long[materialCount];
+    }
+
+    public static StockLedger of(BomSnapshot snapshot) {
+        StockLedger ledger = new StockLedger(snapshot.materialCount());
+        ledger.reset(snapshot.stock);
+        return ledger;
+    }
+
+    public void reset(int[] stock) {
+        for (int slot = 0; slot < stock.length; slot++) {
+            available[slot] = stock[slot];
+        }
+    }
+
+    public long available(int slot) {
+        return available[slot];
+    }
+
+    /**
+     * Units the composition allows with the remaining stock; 0 when no line requires a positive quantity.
+     */
+    public long maxUnits(int[] slots, int[] quantities) {
+        long max = Long.MAX_VALUE;
+        for (int k = 0; k < slots.length; k++) {
+            int required = quantities[k];
+            if (required <= 0) continue;
+            long possible = available[slots[k]] / required;
+            if (possible < max) {
+                max = possible;
+            }
+        }
+        return max == Long.MAX_VALUE ? 0 : max;
+    }
+
+    public void consume(int[] slots, int[] quantities, long units) {
+        for (int k = 0; k < slots.length; k++) {
+            available[slots[k]] -= quantities[k] * units;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.project_inventory.domain.planning;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * The stock of a snapshot's raw materials at evenly spaced points in time, kept as the balances at
+ * the first point and, for every later point, only the materials that moved since the one before
+ * and by how much. Balances are those once every movement recorded before the point had been made.
+ * <p>
+ * Built once from a time-ordered movement stream, then read through {@link Cursor}s, each of which
+ * walks forward from any point applying one point's changes at a time. Snapshots from a cursor share
+ * the structure of the original, so an {@link IncrementalGreedyPlanner} fed from one cursor only
+ * re-plans what those changes touch. Raw materials not in the snapshot are ignored.
+ */
+public final class StockTimeline {
+
+    private static final int[] NO_SLOTS = new int[0];
+    private static final long[] NO_CHANGES = new long[0];
+
+    private final BomSnapshot snapshot;
+    private final Instant from;
+    private final Duration step;
+    private final long[] start;
+    private final int[][] changedSlots;
+    private final long[][] changes;
+
+    private StockTimeline(BomSnapshot snapshot, Instant from, Duration step, long[] start,
+                          int[][] changedSlots, long[][] changes) {
+        this.snapshot = snapshot;
+        this.from = from;
+        this.step = step;
+        this.start = start;
+        this.changedSlots = changedSlots;
+        this.changes = changes;
+    }
+
+    /**
+     * A builder for {@code points} points, the first at {@code from} and each later one {@code step} after the last.
+     */
+    public static Builder builder(BomSnapshot snapshot, Instant from, Duration step, int points) {
+        if (points < 1) {
+            throw new IllegalArgumentException("At least one point is required");
+        }
+        if (step.isNegative() || step.isZero()) {
+            throw new IllegalArgumentException("Step must be positive");
+        }
+        return new Builder(snapshot, from, step, points);
+    }
+
+    public int points() {
+        return changes.length;
+    }
+
+    public Instant time(int point) {
+        return from.plus(step.multipliedBy(point));
+    }
+
+    /**
+     * The time of the last point; movements at or after it never count.
+     */
+    public Instant end() {
+        return time(points() - 1);
+    }
+
+    /**
+     * Raw materials whose balance differs between {@code point} and the point before; none for the first.
+     */
+    public int changedMaterials(int point) {
+        return changedSlots[point].length;
+    }
+
+    /**
+     * A cursor at {@code point}, positioned by applying every change up to it.
+     */
+    public Cursor cursor(int point) {
+        if (point < 0 || point >= points()) {
+            throw new IndexOutOfBoundsException(point);
+        }
+        Cursor cursor = new Cursor();
+        while (cursor.point < point) {
+            cursor.advance();
+        }
+        return cursor;
+    }
+
+    /**
+     * Walks the timeline forward. Not thread-safe; give each thread its own.
+     */
+    public final class Cursor {
+
+        private final long[] balances = start.clone();
+        private int point;
+
+        private Cursor() {
+        }
+
+        public int point() {
+            return point;
+        }
+
+        public Instant time() {
+            return StockTimeline.this.time(point);
+        }
+
+        /**
+         * Moves to the next point; returns false when no balance changed on the way.
+         */
+        public boolean advance() {
+            if (point + 1 >= points()) {
+                throw new IllegalStateException("Already at the last point");
+            }
+            point++;
+            int[] slots = changedSlots[point];
+            long[] moved = changes[point];
+            for (int i = 0; i < slots.length; i++) {
+                balances[slots[i]] += moved[i];
+            }
+            return slots.length > 0;
+        }
+
+        /**
+         * The snapshot with the stock at this point; a balance below zero counts as no stock.
+         */
+        public BomSnapshot snapshot() {
+            int[] stock = new int[balances.length];
+            for (int slot = 0; slot < stock.length; slot++) {
+                stock[slot] = (int) Math.max(0, Math.min(Integer.MAX_VALUE, balances[slot]));
+            }
+            return snapshot.withStock(stock, snapshot.version());
+        }
+    }
+
+    /**
+     * Takes the balances at the first point, in any order, then the movements in the order they were recorded.
+     */
+    public static final class Builder {
+
+        private final BomSnapshot snapshot;
+        private final Instant from;
+        private final Duration step;
+        private final long[] start;
+        private final int[][] changedSlots;
+        private final long[][] changes;
+
+        private final long[] pending;
+        private final boolean[] marked;
+        private int[] touched = new int[16];
+        private int touchedCount;
+        private int next = 1;
+        private Instant nextTime;
+
+        private Builder(BomSnapshot snapshot, Instant from, Duration step, int points) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.step = step;
+            int materials = snapshot.materialCount();
+            this.start = new long[materials];
+            this.changedSlots = new int[points][];
+            this.changes = new long[points][];
+            this.pending = new long[materials];
+            this.marked = new boolean[materials];
+            changedSlots[0] = NO_SLOTS;
+            changes[0] = NO_CHANGES;
+            nextTime = points > 1 ? from.plus(step) : null;
+        }
+
+        public Builder balance(long rawMaterialId, long quantity) {
+            int slot = snapshot.slotOf(rawMaterialId);
+            if (slot >= 0) {
+                start[slot] = quantity;
+            }
+            return this;
+        }
+
+        /**
+         * Movements recorded before the first point or at or after the last are ignored.
+         */
+        public Builder movement(long rawMaterialId, long quantity, Instant recordedAt) {
+            if (recordedAt.isBefore(from)) {
+                return this;
+            }
+            while (nextTime != null && !recordedAt.isBefore(nextTime)) {
+                close();
+            }
+            if (nextTime == null) {
+                return this;
+            }
+            int slot = snapshot.slotOf(rawMaterialId);
+            if (slot < 0) {
+                return this;
+            }
+            if (!marked[slot]) {
+                marked[slot] = true;
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = slot;
+            }
+            pending[slot] += quantity;
+            return this;
+        }
+
+        public StockTimeline build() {
+            while (nextTime != null) {
+                close();
+            }
+            return new StockTimeline(snapshot, from, step, start, changedSlots, changes);
+        }
+
+        /**
+         * Ends the point being collected with the materials whose movements did not cancel out.
+         */
+        private void close() {
+            int count = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                if (pending[touched[i]] != 0) count++;
+            }
+            int[] slots = count == 0 ? NO_SLOTS : new int[count];
+            long[] moved = count == 0 ? NO_CHANGES : new long[count];
+            int filled = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                if (pending[slot] != 0) {
+                    slots[filled] = slot;
+                    moved[filled++] = pending[slot];
+                }
+                pending[slot] = 0;
+                marked[slot] = false;
+            }
+            touchedCount = 0;
+            changedSlots[next] = slots;
+            changes[next] = moved;
+            next++;
+            nextTime = next < changes.length ? from.plus(step.multipliedBy(next)) : null;
+        }
+    }
+}
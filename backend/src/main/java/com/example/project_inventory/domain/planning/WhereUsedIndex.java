@@ -0,0 +1,185 @@
+package com.example.project_inventory.domain.planning;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse adjacency of the catalog: for each raw material and each product used as a
+ * sub-assembly, the products whose own composition lines use it, with the line count and the
+ * quantity per unit. Answering "what needs X" walks up from X through those lists only, so it
+ * costs in proportion to X's consumers rather than to the catalog.
+ * <p>
+ * Unlike {@link BomSnapshot} this is patched in place, one composition line at a time; every
+ * method is synchronized. Patches are idempotent (lines are keyed by composition id), so replaying
+ * a change the index already holds is harmless.
+ */
+public final class WhereUsedIndex {
+
+    /**
+     * A product that needs the item: {@code lines} and {@code quantity} count its own composition
+     * lines using the item (0 when it only needs it through sub-assemblies), {@code totalQuantity}
+     * is what one unit needs through all of them.
+     */
+    public record Consumer(long productId, int lines, long quantity, long totalQuantity) {
+    }
+
+    private record Line(long targetId, boolean component, int quantity) {
+    }
+
+    private static final class Usage {
+        int lines;
+        long quantity;
+    }
+
+    // product id -> composition id -> line
+    private final Map<Long, Map<Long, Line>> linesByProduct = new HashMap<>();
+    // raw material id -> id of each product with lines using it
+    private final Map<Long, Map<Long, Usage>> usersOfMaterial = new HashMap<>();
+    // component product id -> id of each product with lines using it
+    private final Map<Long, Map<Long, Usage>> usersOfProduct = new HashMap<>();
+
+    public static WhereUsedIndex of(BomSnapshot snapshot) {
+        WhereUsedIndex index = new WhereUsedIndex();
+        for (int p = 0; p < snapshot.productCount(); p++) {
+            long productId = snapshot.productIds[p];
+            BomSnapshot.Lines lines = snapshot.lines[p];
+            for (int k = 0; k < lines.slots.length; k++) {
+                index.putLine(productId, lines.compositionIds[k], snapshot.materialIds[lines.slots[k]], false,
+                        lines.quantities[k]);
+            }
+            for (int k = 0; k < lines.componentIds.length; k++) {
+                index.putLine(productId, lines.componentCompositionIds[k], lines.componentIds[k], true,
+                        lines.componentQuantities[k]);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Adds, or replaces, the line {@code compositionId} of the product: {@code quantity} units of the
+     * raw material, or of the product when {@code component}, {@code targetId}.
+     */
+    public synchronized void putLine(long productId, long compositionId, long targetId, boolean component,
+                                     int quantity) {
+        removeLine(productId, compositionId);
+        linesByProduct.computeIfAbsent(productId, id -> new HashMap<>())
+                .put(compositionId, new Line(targetId, component, quantity));
+        Usage usage = users(component).computeIfAbsent(targetId, id -> new HashMap<>())
+                .computeIfAbsent(productId, id -> new Usage());
+        usage.lines++;
+        usage.quantity += quantity;
+    }
+
+    public synchronized void removeLine(long productId, long compositionId) {
+        Map<Long, Line> lines = linesByProduct.get(productId);
+        Line line = lines == null ? null : lines.remove(compositionId);
+        if (line == null) {
+            return;
+        }
+        if (lines.isEmpty()) {
+            linesByProduct.remove(productId);
+        }
+        Map<Long, Usage> users = users(line.component()).get(line.targetId());
+        Usage usage = users.get(productId);
+        usage.lines--;
+        usage.quantity -= line.quantity();
+        if (usage.lines == 0) {
+            users.remove(productId);
+            if (users.isEmpty()) {
+                users(line.component()).remove(line.targetId());
+            }
+        }
+    }
+
+    /**
+     * Drops all of the product's own lines.
+     */
+    public synchronized void removeProduct(long productId) {
+        Map<Long, Line> lines = linesByProduct.get(productId);
+        if (lines != null) {
+            for (Long compositionId : List.copyOf(lines.keySet())) {
+                removeLine(productId, compositionId);
+            }
+        }
+    }
+
+    /**
+     * How many products have lines using the raw material directly.
+     */
+    public synchronized int directUsersOfMaterial(long rawMaterialId) {
+        Map<Long, Usage> users = usersOfMaterial.get(rawMaterialId);
+        return users == null ? 0 : users.size();
+    }
+
+    public synchronized List<Consumer> consumersOfMaterial(long rawMaterialId) {
+        return consumers(usersOfMaterial.get(rawMaterialId));
+    }
+
+    public synchronized List<Consumer> consumersOfProduct(long productId) {
+        return consumers(usersOfProduct.get(productId));
+    }
+
+    private Map<Long, Map<Long, Usage>> users(boolean component) {
+        return component ? usersOfProduct : usersOfMaterial;
+    }
+
+    /**
+     * The direct users and, going up through the component lists, everything built from them;
+     * direct users first, then by quantity per unit.
+     */
+    private List<Consumer> consumers(Map<Long, Usage> direct) {
+        if (direct == null || direct.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> closure = new LinkedHashSet<>(direct.keySet());
+        ArrayDeque<Long> pending = new ArrayDeque<>(direct.keySet());
+        while (!pending.isEmpty()) {
+            Map<Long, Usage> parents = usersOfProduct.get(pending.poll());
+            if (parents != null) {
+                for (Long parent : parents.keySet()) {
+                    if (closure.add(parent)) pending.add(parent);
+                }
+            }
+        }
+
+        Map<Long, Long> totals = new HashMap<>();
+        List<Consumer> consumers = new ArrayList<>(closure.size());
+        for (Long productId : closure) {
+            Usage own = direct.get(productId);
+            consumers.add(new Consumer(productId, own == null ? 0 : own.lines, own == null ? 0 : own.quantity,
+                    total(productId, direct, closure, totals)));
+        }
+        consumers.sort(Comparator.comparing((Consumer c) -> c.lines() == 0)
+                .thenComparing(Comparator.comparingLong(Consumer::totalQuantity).reversed())
+                .thenComparingLong(Consumer::productId));
+        return consumers;
+    }
+
+    /**
+     * Units of the item one unit of the product needs: its own lines plus, for each component line
+     * whose component needs the item, the line quantity times the component's total.
+     */
+    private long total(long productId, Map<Long, Usage> direct, Set<Long> closure, Map<Long, Long> totals) {
+        Long known = totals.get(productId);
+        if (known != null) {
+            return known;
+        }
+        // component lines never form a cycle; this only keeps a corrupt index from recursing forever
+        totals.put(productId, 0L);
+        Usage own = direct.get(productId);
+        long total = own == null ? 0 : own.quantity;
+        for (Line line : linesByProduct.getOrDefault(productId, Map.of()).values()) {
+            if (line.component() && closure.contains(line.targetId())) {
+                total += line.quantity() * total(line.targetId(), direct, closure, totals);
+            }
+        }
+        totals.put(productId, total);
+        return total;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.project_inventory.domain.repository;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plain JDBC access for the bulk import/export: batched inserts that bypass the persistence context,
+ * and forward-only scans that never hydrate entities. Inserted entities must already carry an id
+ * from {@link SequenceIdAllocator}. Callers keep id lists under 1000 entries, the Oracle limit for
+ * an IN list.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CatalogBulkRepository {
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public void insertRawMaterials(Collection<RawMaterial> materials) {
+        jdbcTemplate.batchUpdate("INSERT INTO raw_material (id, name, stock_quantity) VALUES (?, ?, ?)",
+                materials, materials.size(), (ps, material) -> {
+                    ps.setLong(1, material.getId());
+                    ps.setString(2, material.getName());
+                    ps.setInt(3, material.getStockQuantity());
+                });
+    }
+
+    public void insertProducts(Collection<Product> products) {
+        jdbcTemplate.batchUpdate("INSERT INTO product (id, name, price) VALUES (?, ?, ?)",
+                products, products.size(), (ps, product) -> {
+                    ps.setLong(1, product.getId());
+                    ps.setString(2, product.getName());
+                    ps.setDouble(3, product.getPrice());
+                });
+    }
+
+    public void insertCompositions(Collection<ProductComposition> compositions) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO product_composition (id, product_id, raw_material_id, required_quantity) VALUES (?, ?, ?, ?)",
+                compositions, compositions.size(), (ps, composition) -> {
+                    ps.setLong(1, composition.getId());
+                    ps.setLong(2, composition.getProduct().getId());
+                    ps.setLong(3, composition.getRawMaterial().getId());
+                    ps.setInt(4, composition.getRequiredQuantity());
+                });
+    }
+
+    public Set<Long> findExistingProductIds(Collection<Long> ids) {
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT id FROM product WHERE id IN (:ids)", Map.of("ids", ids), Long.class));
+    }
+
+    public Set<Long> findExistingRawMaterialIds(Collection<Long> ids) {
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT id FROM raw_material WHERE id IN (:ids)", Map.of("ids", ids), Long.class));
+    }
+
+    /**
+     * Raw material ids already in the BOM of each of the given products.
+     */
+    public Map<Long, Set<Long>> findRawMaterialIdsByProductIds(Collection<Long> productIds) {
+        Map<Long, Set<Long>> byProduct = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT product_id, raw_material_id FROM product_composition WHERE product_id IN (:ids)",
+                Map.of("ids", productIds),
+                (RowCallbackHandler) rs -> byProduct.computeIfAbsent(rs.getLong(1), id -> new HashSet<>())
+                        .add(rs.getLong(2)));
+        return byProduct;
+    }
+
+    /**
+     * Columns: id, name, current stock.
+     */
+    public void forEachRawMaterial(RowCallbackHandler handler) {
+        scan("SELECT m.id, m.name, m.stock_quantity + COALESCE((SELECT SUM(s.quantity) FROM stock_movement s " +
+                "WHERE s.raw_material_id = m.id AND (m.stock_as_of IS NULL OR s.recorded_at >= m.stock_as_of)), 0) " +
+                "FROM raw_material m ORDER BY m.id", handler);
+    }
+
+    /**
+     * Columns: id, name, price.
+     */
+    public void forEachProduct(RowCallbackHandler handler) {
+        scan("SELECT id, name, price FROM product ORDER BY id", handler);
+    }
+
+    /**
+     * Columns: id, product_id, raw_material_id, component_product_id, required_quantity.
+     */
+    public void forEachComposition(RowCallbackHandler handler) {
+        scan("SELECT id, product_id, raw_material_id, component_product_id, required_quantity " +
+                "FROM product_composition ORDER BY id", handler);
+    }
+
+    private void scan(String sql, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            return statement;
+        }, handler);
+    }
+}
@@ -2,8 +2,38 @@ package com.example.project_inventory.domain.repository;
 
 import com.example.project_inventory.domain.model.ProductComposition;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ProductCompositionRepository extends JpaRepository<ProductComposition, Long> {
+
+    @Query("SELECT c FROM ProductComposition c " +
+            "JOIN FETCH c.product " +
+            "LEFT JOIN FETCH c.rawMaterial " +
+            "LEFT JOIN FETCH c.componentProduct " +
+            "WHERE c.product.id IN :productIds " +
+            "ORDER BY c.id")
+    List<ProductComposition> findAllWithRawMaterialByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    boolean existsByProductIdAndRawMaterialId(Long productId, Long rawMaterialId);
+
+    boolean existsByProductIdAndComponentProductId(Long productId, Long componentProductId);
+
+    @Modifying
+    @Query("DELETE FROM ProductComposition c WHERE c.id = :id AND c.product.id = :productId")
+    int deleteByIdAndProductId(@Param("id") Long id, @Param("productId") Long productId);
+
+    /**
+     * Deletes every composition line of the product, unless another product uses it as a component.
+     */
+    @Modifying
+    @Query("DELETE FROM ProductComposition c WHERE c.product.id = :productId " +
+            "AND NOT EXISTS (SELECT u.id FROM ProductComposition u WHERE u.componentProduct.id = :productId)")
+    int deleteAllOfProductUnlessUsedAsComponent(@Param("productId") Long productId);
 }
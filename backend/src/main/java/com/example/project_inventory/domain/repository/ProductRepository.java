@@ -1,10 +1,23 @@
 package com.example.project_inventory.domain.repository;
 
 import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.dto.ProductSummaryDTO;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -12,6 +25,52 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT DISTINCT p FROM Product p " +
             "LEFT JOIN FETCH p.compositions c " +
             "LEFT JOIN FETCH c.rawMaterial " +
+            "LEFT JOIN FETCH c.componentProduct " +
             "ORDER BY p.price DESC")
     List<Product> findAllWithCompositionsOrderByPriceDesc();
-}
\ No newline at end of file
+
+    @Query("SELECT DISTINCT p FROM Product p " +
+            "LEFT JOIN FETCH p.compositions c " +
+            "LEFT JOIN FETCH c.rawMaterial " +
+            "LEFT JOIN FETCH c.componentProduct " +
+            "WHERE p.id IN :ids")
+    List<Product> findAllWithCompositionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Locks the products' rows until the transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT c.componentProduct.id FROM ProductComposition c " +
+            "WHERE c.product.id IN :ids AND c.componentProduct IS NOT NULL")
+    List<Long> findComponentIdsOf(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Product p ORDER BY p.price DESC, p.id")
+    Stream<Product> streamAllOrderByPriceDesc();
+
+    @Query("SELECT new com.example.project_inventory.dto.ProductSummaryDTO(p.id, p.name, p.price) " +
+            "FROM Product p ORDER BY p.price DESC, p.id")
+    List<ProductSummaryDTO> findSummariesOrderByPriceDesc(Limit limit);
+
+    @Query("SELECT new com.example.project_inventory.dto.ProductSummaryDTO(p.id, p.name, p.price) " +
+            "FROM Product p " +
+            "WHERE p.price < :price OR (p.price = :price AND p.id > :id) " +
+            "ORDER BY p.price DESC, p.id")
+    List<ProductSummaryDTO> findSummariesAfter(@Param("price") Double price, @Param("id") Long id, Limit limit);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.name = :name, p.price = :price WHERE p.id = :id")
+    int updateDetails(@Param("id") Long id, @Param("name") String name, @Param("price") Double price);
+
+    /**
+     * Deletes the product unless another product uses it as a component; its own composition lines
+     * must be gone already. Returns 0 when nothing was deleted, for either reason.
+     */
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.id = :id " +
+            "AND NOT EXISTS (SELECT c.id FROM ProductComposition c WHERE c.componentProduct.id = :id)")
+    int deleteUnlessUsedAsComponent(@Param("id") Long id);
+}
@@ -1,9 +1,37 @@
 package com.example.project_inventory.domain.repository;
 
 import com.example.project_inventory.domain.model.RawMaterial;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface RawMaterialRepository extends JpaRepository<RawMaterial, Long> {
-}
\ No newline at end of file
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT m FROM RawMaterial m ORDER BY m.id")
+    Stream<RawMaterial> streamAll();
+
+    List<RawMaterial> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT m.id AS rawMaterialId, m.stockQuantity + COALESCE(SUM(s.quantity), 0) AS balance " +
+            "FROM RawMaterial m LEFT JOIN StockMovement s " +
+            "ON s.rawMaterialId = m.id AND (m.stockAsOf IS NULL OR s.recordedAt >= m.stockAsOf) " +
+            "GROUP BY m.id, m.stockQuantity")
+    List<StockBalance> findStockBalances();
+
+    interface StockBalance {
+        Long getRawMaterialId();
+
+        Long getBalance();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.project_inventory.domain.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Hands out entity ids for rows written with plain JDBC. Ids come from the entity's own Hibernate
+ * generator, so the bulk writer and the ORM draw from the same pooled-lo blocks and can never
+ * collide, whatever the sequence's increment is. The sequence is read on the caller's transaction,
+ * so no second connection is taken from the pool.
+ */
+@Component
+@RequiredArgsConstructor
+public class SequenceIdAllocator {
+
+    private final EntityManager entityManager;
+
+    @Transactional
+    public long[] allocate(Class<?> entityType, int count) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(entityType)
+                .getGenerator();
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = ((Number) generator.generate(session, null)).longValue();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.project_inventory.domain.repository;
+
+import com.example.project_inventory.domain.model.Site;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SiteRepository extends JpaRepository<Site, Long> {
+
+    boolean existsByCode(String code);
+
+    List<Site> findAllByOrderByCode();
+}
@@ -0,0 +1,346 @@
+package com.example.project_inventory.domain.repository;
+
+import com.example.project_inventory.domain.model.StockMovement;
+import com.example.project_inventory.domain.model.StockMovementType;
+import com.example.project_inventory.domain.model.StockSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The stock journal in plain JDBC; callers keep id lists under Oracle's 1000-entry IN limit.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockRepository {
+
+    private static final String UNFOLDED = "(m.stock_as_of IS NULL OR s.recorded_at >= m.stock_as_of)";
+    private static final String BALANCES =
+            "SELECT m.id, m.stock_quantity + COALESCE(SUM(s.quantity), 0) FROM raw_material m " +
+                    "LEFT JOIN stock_movement s ON s.raw_material_id = m.id AND " + UNFOLDED;
+    private static final String BALANCES_AT =
+            "SELECT m.id, m.stock_quantity + " +
+                    "COALESCE(SUM(CASE WHEN s.recorded_at < ? THEN s.quantity ELSE -s.quantity END), 0) " +
+                    "FROM raw_material m LEFT JOIN stock_movement s ON s.raw_material_id = m.id AND (" +
+                    "(m.stock_as_of IS NULL AND s.recorded_at < ?) OR " +
+                    "(s.recorded_at >= m.stock_as_of AND s.recorded_at < ?) OR " +
+                    "(s.recorded_at >= ? AND s.recorded_at < m.stock_as_of)) " +
+                    "GROUP BY m.id, m.stock_quantity";
+    private static final String SITE_BALANCES =
+            "SELECT raw_material_id, SUM(quantity) FROM (" +
+                    "SELECT ss.raw_material_id, ss.quantity FROM site_stock ss " +
+                    "JOIN raw_material m ON m.id = ss.raw_material_id WHERE ss.site_id = :site%1$s " +
+                    "UNION ALL " +
+                    "SELECT s.raw_material_id, s.quantity FROM stock_movement s " +
+                    "JOIN raw_material m ON m.id = s.raw_material_id WHERE s.site_id = :site%1$s AND " + UNFOLDED +
+                    ") GROUP BY raw_material_id";
+    private static final String ALL_SITE_BALANCES =
+            "SELECT site_id, raw_material_id, SUM(quantity) FROM (" +
+                    "SELECT ss.site_id, ss.raw_material_id, ss.quantity FROM site_stock ss " +
+                    "JOIN raw_material m ON m.id = ss.raw_material_id " +
+                    "UNION ALL " +
+                    "SELECT s.site_id, s.raw_material_id, s.quantity FROM stock_movement s " +
+                    "JOIN raw_material m ON m.id = s.raw_material_id WHERE s.site_id IS NOT NULL AND " + UNFOLDED +
+                    ") GROUP BY site_id, raw_material_id";
+    private static final String SITED_BALANCES =
+            "SELECT raw_material_id, SUM(quantity) FROM (" +
+                    "SELECT ss.raw_material_id, ss.quantity FROM site_stock ss " +
+                    "JOIN raw_material m ON m.id = ss.raw_material_id WHERE m.id IN (:ids) " +
+                    "UNION ALL " +
+                    "SELECT s.raw_material_id, s.quantity FROM stock_movement s " +
+                    "JOIN raw_material m ON m.id = s.raw_material_id " +
+                    "WHERE m.id IN (:ids) AND s.site_id IS NOT NULL AND " + UNFOLDED +
+                    ") GROUP BY raw_material_id";
+    private static final Timestamp EPOCH = Timestamp.from(Instant.EPOCH);
+    private static final int SCAN_FETCH_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final SequenceIdAllocator idAllocator;
+
+    private record Base(long quantity, Timestamp asOf) {
+    }
+
+    private record Fold(long materialId, long stock, Timestamp asOf, long change) {
+    }
+
+    /**
+     * No-op updates that leave the version alone; pass ids ascending so concurrent writers lock in the same order.
+     */
+    public void lock(long[] materialIds) {
+        jdbcTemplate.batchUpdate("UPDATE raw_material SET stock_as_of = stock_as_of WHERE id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, materialIds[i]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return materialIds.length;
+                    }
+                });
+    }
+
+    /**
+     * Gives each movement an id from {@link SequenceIdAllocator} and inserts them all in one batch.
+     */
+    public void append(List<StockMovement> movements) {
+        long[] ids = idAllocator.allocate(StockMovement.class, movements.size());
+        for (int i = 0; i < ids.length; i++) {
+            movements.get(i).setId(ids[i]);
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO stock_movement " +
+                        "(id, raw_material_id, site_id, movement_type, quantity, recorded_at, reference) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                movements, movements.size(), (ps, movement) -> {
+                    ps.setLong(1, movement.getId());
+                    ps.setLong(2, movement.getRawMaterialId());
+                    if (movement.getSiteId() == null) {
+                        ps.setNull(3, Types.BIGINT);
+                    } else {
+                        ps.setLong(3, movement.getSiteId());
+                    }
+                    ps.setString(4, movement.getType().name());
+                    ps.setLong(5, movement.getQuantity());
+                    ps.setTimestamp(6, Timestamp.from(movement.getRecordedAt()));
+                    ps.setString(7, movement.getReference());
+                });
+    }
+
+    /**
+     * Current balance of each of the raw materials that exists.
+     */
+    public Map<Long, Long> findBalances(Collection<Long> materialIds) {
+        Map<Long, Long> balances = new HashMap<>();
+        namedParameterJdbcTemplate.query(BALANCES + " WHERE m.id IN (:ids) GROUP BY m.id, m.stock_quantity",
+                Map.of("ids", materialIds),
+                (RowCallbackHandler) rs -> balances.put(rs.getLong(1), rs.getLong(2)));
+        return balances;
+    }
+
+    /**
+     * Columns: id, balance.
+     */
+    public void forEachBalance(RowCallbackHandler handler) {
+        jdbcTemplate.query(BALANCES + " GROUP BY m.id, m.stock_quantity", handler);
+    }
+
+    /**
+     * Balance at the site of every raw material that has ever moved there; only the site's rows are read.
+     */
+    public Map<Long, Long> findSiteBalances(long siteId) {
+        Map<Long, Long> balances = new HashMap<>();
+        namedParameterJdbcTemplate.query(SITE_BALANCES.formatted(""), Map.of("site", siteId),
+                (RowCallbackHandler) rs -> balances.put(rs.getLong(1), rs.getLong(2)));
+        return balances;
+    }
+
+    /**
+     * Balance at the site of each of the raw materials that has ever moved there.
+     */
+    public Map<Long, Long> findSiteBalances(long siteId, Collection<Long> materialIds) {
+        Map<Long, Long> balances = new HashMap<>();
+        namedParameterJdbcTemplate.query(SITE_BALANCES.formatted(" AND m.id IN (:ids)"),
+                Map.of("site", siteId, "ids", materialIds),
+                (RowCallbackHandler) rs -> balances.put(rs.getLong(1), rs.getLong(2)));
+        return balances;
+    }
+
+    /**
+     * Columns: site id, raw material id, balance at the site; every site's balances in one statement.
+     */
+    public void forEachSiteBalance(RowCallbackHandler handler) {
+        jdbcTemplate.query(ALL_SITE_BALANCES, handler);
+    }
+
+    /**
+     * What all sites together hold of each of the raw materials that has ever moved at one; the rest of
+     * its balance is held at no site.
+     */
+    public Map<Long, Long> findSitedBalances(Collection<Long> materialIds) {
+        Map<Long, Long> balances = new HashMap<>();
+        namedParameterJdbcTemplate.query(SITED_BALANCES, Map.of("ids", materialIds),
+                (RowCallbackHandler) rs -> balances.put(rs.getLong(1), rs.getLong(2)));
+        return balances;
+    }
+
+    /**
+     * Columns: id, balance once every movement recorded before {@code at} had been made. One grouped
+     * query from each raw material's row: the movements since its last fold are added when {@code at}
+     * is later, and those between {@code at} and the fold taken back when it is earlier.
+     */
+    public void forEachBalanceAt(Instant at, RowCallbackHandler handler) {
+        Timestamp time = Timestamp.from(at);
+        jdbcTemplate.query(BALANCES_AT, handler, time, time, time, time);
+    }
+
+    /**
+     * Columns: raw_material_id, quantity, recorded_at; every movement recorded in [{@code from},
+     * {@code to}), in the order they were recorded.
+     */
+    public void forEachMovementBetween(Instant from, Instant to, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT raw_material_id, quantity, recorded_at FROM stock_movement " +
+                            "WHERE recorded_at >= ? AND recorded_at < ? ORDER BY recorded_at, id");
+            statement.setTimestamp(1, Timestamp.from(from));
+            statement.setTimestamp(2, Timestamp.from(to));
+            statement.setFetchSize(SCAN_FETCH_SIZE);
+            return statement;
+        }, handler);
+    }
+
+    /**
+     * Starts from the nearest snapshot, so at most one fold interval of movements is summed.
+     */
+    public Long findBalanceAt(long materialId, Instant at) {
+        Timestamp time = Timestamp.from(at);
+        List<Base> bases = jdbcTemplate.query(
+                "SELECT quantity, as_of FROM stock_snapshot WHERE raw_material_id = ? AND as_of <= ? " +
+                        "ORDER BY as_of DESC FETCH FIRST 1 ROWS ONLY",
+                (rs, i) -> new Base(rs.getLong(1), rs.getTimestamp(2)), materialId, time);
+        if (bases.isEmpty()) {
+            bases = jdbcTemplate.query(
+                    "SELECT quantity, as_of FROM stock_snapshot WHERE raw_material_id = ? AND as_of > ? " +
+                            "ORDER BY as_of FETCH FIRST 1 ROWS ONLY",
+                    (rs, i) -> new Base(rs.getLong(1), rs.getTimestamp(2)), materialId, time);
+        }
+        if (bases.isEmpty()) {
+            bases = jdbcTemplate.query("SELECT stock_quantity, stock_as_of FROM raw_material WHERE id = ?",
+                    (rs, i) -> new Base(rs.getLong(1), rs.getTimestamp(2)), materialId);
+        }
+        if (bases.isEmpty()) {
+            return null;
+        }
+        Base base = bases.get(0);
+        if (base.asOf() == null) {
+            return base.quantity() + sumMovements(materialId, EPOCH, time);
+        }
+        return time.before(base.asOf())
+                ? base.quantity() - sumMovements(materialId, time, base.asOf())
+                : base.quantity() + sumMovements(materialId, base.asOf(), time);
+    }
+
+    /**
+     * Up to {@code limit} of the raw material's movements with an id above {@code afterId}, by id.
+     */
+    public List<StockMovement> findMovements(long materialId, long afterId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, site_id, movement_type, quantity, recorded_at, reference FROM stock_movement " +
+                        "WHERE raw_material_id = ? AND id > ? ORDER BY id FETCH FIRST ? ROWS ONLY",
+                (rs, i) -> {
+                    StockMovement movement = new StockMovement();
+                    movement.setId(rs.getLong(1));
+                    movement.setRawMaterialId(materialId);
+                    movement.setSiteId(rs.getObject(2, Long.class));
+                    movement.setType(StockMovementType.valueOf(rs.getString(3)));
+                    movement.setQuantity(rs.getLong(4));
+                    movement.setRecordedAt(rs.getTimestamp(5).toInstant());
+                    movement.setReference(rs.getString(6));
+                    return movement;
+                }, materialId, afterId, limit);
+    }
+
+    /**
+     * Rows are only updated if they still hold what was read, so folds racing on two nodes count a movement once.
+     */
+    public int fold(Instant before) {
+        Timestamp cutoff = Timestamp.from(before);
+        List<Fold> folds = jdbcTemplate.query(
+                "SELECT m.id, m.stock_quantity, m.stock_as_of, SUM(s.quantity) FROM raw_material m " +
+                        "JOIN stock_movement s ON s.raw_material_id = m.id " +
+                        "WHERE s.recorded_at < ? AND " + UNFOLDED + " GROUP BY m.id, m.stock_quantity, m.stock_as_of",
+                (rs, i) -> new Fold(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3), rs.getLong(4)), cutoff);
+        if (folds.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE raw_material SET stock_quantity = ?, stock_as_of = ? " +
+                        "WHERE id = ? AND stock_quantity = ? AND COALESCE(stock_as_of, ?) = ?",
+                folds, folds.size(), (ps, fold) -> {
+                    Timestamp previous = fold.asOf() == null ? EPOCH : fold.asOf();
+                    ps.setLong(1, fold.stock() + fold.change());
+                    ps.setTimestamp(2, cutoff);
+                    ps.setLong(3, fold.materialId());
+                    ps.setLong(4, fold.stock());
+                    ps.setTimestamp(5, EPOCH);
+                    ps.setTimestamp(6, previous);
+                });
+
+        List<Fold> applied = new ArrayList<>(folds.size());
+        for (int i = 0; i < folds.size(); i++) {
+            if (counts[0][i] > 0) applied.add(folds.get(i));
+        }
+        if (applied.isEmpty()) {
+            return 0;
+        }
+        // the material rows stay locked by the update above, so no other fold can touch these site rows
+        jdbcTemplate.batchUpdate(
+                "MERGE INTO site_stock t USING (" +
+                        "SELECT site_id, raw_material_id, SUM(quantity) AS quantity FROM stock_movement " +
+                        "WHERE raw_material_id = ? AND site_id IS NOT NULL AND recorded_at >= ? AND recorded_at < ? " +
+                        "GROUP BY site_id, raw_material_id) s " +
+                        "ON (t.site_id = s.site_id AND t.raw_material_id = s.raw_material_id) " +
+                        "WHEN MATCHED THEN UPDATE SET t.quantity = t.quantity + s.quantity " +
+                        "WHEN NOT MATCHED THEN INSERT (site_id, raw_material_id, quantity) " +
+                        "VALUES (s.site_id, s.raw_material_id, s.quantity)",
+                applied, applied.size(), (ps, fold) -> {
+                    ps.setLong(1, fold.materialId());
+                    ps.setTimestamp(2, fold.asOf() == null ? EPOCH : fold.asOf());
+                    ps.setTimestamp(3, cutoff);
+                });
+
+        long[] ids = idAllocator.allocate(StockSnapshot.class, applied.size());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO stock_snapshot (id, raw_material_id, quantity, as_of) VALUES (?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Fold fold = applied.get(i);
+                        ps.setLong(1, ids[i]);
+                        ps.setLong(2, fold.materialId());
+                        ps.setLong(3, fold.stock() + fold.change());
+                        ps.setTimestamp(4, cutoff);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return applied.size();
+                    }
+                });
+        return applied.size();
+    }
+
+    /**
+     * Deletes the raw material's movements, site rows and snapshots.
+     */
+    public void deleteJournal(long materialId) {
+        for (String table : List.of("stock_movement", "site_stock", "stock_snapshot")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE raw_material_id = ?", materialId);
+        }
+    }
+
+    private long sumMovements(long materialId, Timestamp from, Timestamp to) {
+        Long sum = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0) FROM stock_movement " +
+                        "WHERE raw_material_id = ? AND recorded_at >= ? AND recorded_at < ?",
+                Long.class, materialId, from, to);
+        return sum == null ? 0 : sum;
+    }
+}
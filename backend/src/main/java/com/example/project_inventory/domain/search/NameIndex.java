@@ -0,0 +1,369 @@
+package com.example.project_inventory.domain.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix and typo-tolerant name search; lock-free reads, since posting arrays are replaced, never changed.
+ */
+public final class NameIndex {
+
+    public static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparingInt(hit -> hit.name().length())
+            .thenComparing(Hit::name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingLong(Hit::id);
+
+    // bounds the ranking of a one- or two-letter query; the exact term's names come first
+    static final int MAX_MATCHES = 10_000;
+
+    private static final int EXACT = 4;
+    private static final int PREFIX = 3;
+    private static final int FUZZY = 1;
+    private static final int LEADING_TERM_BONUS = 1;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    public record Hit(long id, String name, int score) {
+    }
+
+    private record Entry(String name, String[] terms) {
+    }
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, long[]> postings = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public synchronized void put(long id, String name) {
+        Entry previous = entries.get(id);
+        if (previous != null && previous.name().equals(name)) {
+            return;
+        }
+        String[] terms = terms(name);
+        Set<String> kept = new HashSet<>(Arrays.asList(terms));
+        if (previous != null) {
+            for (String term : previous.terms()) {
+                if (!kept.remove(term)) {
+                    removePosting(term, id);
+                }
+            }
+        }
+        entries.put(id, new Entry(name, terms));
+        for (String term : kept) {
+            addPosting(term, id);
+        }
+    }
+
+    public synchronized void remove(long id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            for (String term : previous.terms()) {
+                removePosting(term, id);
+            }
+        }
+    }
+
+    /**
+     * Every query term matches as a prefix; terms of four letters or more also within a typo or two.
+     */
+    public List<Hit> search(String query, int limit) {
+        String[] tokens = terms(query);
+        if (tokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        // the term with the fewest postings drives; every name it yields must match all the others too
+        String driver = null;
+        long driverSize = Long.MAX_VALUE;
+        for (String token : tokens) {
+            long size = 0;
+            for (long[] ids : prefixRange(token)) {
+                size += ids.length;
+                if (size >= driverSize) break;
+            }
+            if (size < driverSize) {
+                driver = token;
+                driverSize = size;
+            }
+        }
+
+        // the worst of the best hits so far on top
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        Set<Long> matched = new HashSet<>();
+        rank(prefixRange(driver), tokens, matched, best, limit);
+        if (matched.size() < limit && maxDistance(driver) > 0) {
+            List<long[]> similar = new ArrayList<>();
+            for (String term : similarTerms(driver)) {
+                long[] ids = postings.get(term);
+                if (ids != null) similar.add(ids);
+            }
+            rank(similar, tokens, matched, best, limit);
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    static String[] terms(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : SEPARATORS.split(folded)) {
+            if (!term.isEmpty()) terms.add(term);
+        }
+        return terms.toArray(String[]::new);
+    }
+
+    private Collection<long[]> prefixRange(String token) {
+        return postings.subMap(token, true, token + Character.MAX_VALUE, false).values();
+    }
+
+    private void rank(Iterable<long[]> lists, String[] tokens, Set<Long> matched, PriorityQueue<Hit> best,
+                      int limit) {
+        for (long[] ids : lists) {
+            for (long id : ids) {
+                if (matched.size() == MAX_MATCHES) return;
+                Entry entry = entries.get(id);
+                int score = entry == null ? 0 : score(tokens, entry.terms());
+                // a name holding two terms with the driver's prefix is listed twice
+                if (score == 0 || !matched.add(id)) continue;
+                Hit hit = new Hit(id, entry.name(), score);
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (RANKING.compare(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+        }
+    }
+
+    /**
+     * 0 when some query term matches none of the name's terms.
+     */
+    private static int score(String[] tokens, String[] nameTerms) {
+        int total = 0;
+        for (String token : tokens) {
+            int best = 0;
+            for (String term : nameTerms) {
+                if (term.equals(token)) {
+                    best = EXACT;
+                    break;
+                }
+                if (term.startsWith(token)) best = PREFIX;
+            }
+            // the edit distance only runs for the terms nothing else matched
+            if (best == 0 && isFuzzyMatch(token, nameTerms)) best = FUZZY;
+            if (best == 0) return 0;
+            total += best;
+        }
+        if (nameTerms.length > 0 && nameTerms[0].startsWith(tokens[0])) {
+            total += LEADING_TERM_BONUS;
+        }
+        return total;
+    }
+
+    private static boolean isFuzzyMatch(String token, String[] nameTerms) {
+        int max = maxDistance(token);
+        if (max > 0) {
+            for (String term : nameTerms) {
+                if (prefixDistance(token, term, max) <= max) return true;
+            }
+        }
+        return false;
+    }
+
+    private static int maxDistance(String token) {
+        if (token.length() < MIN_FUZZY_LENGTH || !isFuzzyIndexed(token)) return 0;
+        return token.length() < 8 ? 1 : 2;
+    }
+
+    private static boolean isFuzzyIndexed(String term) {
+        if (term.length() < 3) return false;
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isLetter(term.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Edit distance to the closest prefix of {@code term}, capped at {@code max + 1}.
+     */
+    static int prefixDistance(String token, String term, int max) {
+        int n = term.length();
+        int[] before = new int[n + 1];
+        int[] previous = new int[n + 1];
+        int[] row = new int[n + 1];
+        for (int j = 0; j <= n; j++) previous[j] = j;
+        for (int i = 1; i <= token.length(); i++) {
+            row[0] = i;
+            int rowMin = row[0];
+            char t = token.charAt(i - 1);
+            for (int j = 1; j <= n; j++) {
+                char c = term.charAt(j - 1);
+                int cost = t == c ? 0 : 1;
+                int d = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && t == term.charAt(j - 2) && token.charAt(i - 2) == c) {
+                    d = Math.min(d, before[j - 2] + 1);
+                }
+                row[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+            int[] recycled = before;
+            before = previous;
+            previous = row;
+            row = recycled;
+        }
+        int best = max + 1;
+        for (int j = 0; j <= n; j++) best = Math.min(best, previous[j]);
+        return best;
+    }
+
+    /**
+     * A term {@code k} edits away still shares all but about {@code 3k} of the token's trigrams.
+     */
+    private List<String> similarTerms(String token) {
+        int max = maxDistance(token);
+        List<String> grams = trigramsOf(token);
+        int required = Math.max(1, grams.size() - 3 * max);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            Set<String> terms = trigrams.get(gram);
+            if (terms != null) {
+                for (String term : terms) shared.merge(term, 1, Integer::sum);
+            }
+        }
+        List<String> similar = new ArrayList<>();
+        shared.forEach((term, count) -> {
+            if (count >= required && !term.startsWith(token) && prefixDistance(token, term, max) <= max) {
+                similar.add(term);
+            }
+        });
+        similar.sort(Comparator.comparingInt((String term) -> prefixDistance(token, term, max))
+                .thenComparing(Comparator.naturalOrder()));
+        return similar;
+    }
+
+    private static List<String> trigramsOf(String term) {
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            grams.add(term.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private void addPosting(String term, long id) {
+        long[] ids = postings.get(term);
+        if (ids == null) {
+            postings.put(term, new long[]{id});
+            indexTrigrams(term);
+            return;
+        }
+        int at = Arrays.binarySearch(ids, id);
+        if (at >= 0) return;
+        int insertion = -at - 1;
+        long[] copy = new long[ids.length + 1];
+        System.arraycopy(ids, 0, copy, 0, insertion);
+        copy[insertion] = id;
+        System.arraycopy(ids, insertion, copy, insertion + 1, ids.length - insertion);
+        postings.put(term, copy);
+    }
+
+    private void removePosting(String term, long id) {
+        long[] ids = postings.get(term);
+        int at = ids == null ? -1 : Arrays.binarySearch(ids, id);
+        if (at < 0) return;
+        if (ids.length == 1) {
+            postings.remove(term);
+            if (isFuzzyIndexed(term)) {
+                for (String gram : trigramsOf(term)) {
+                    Set<String> terms = trigrams.get(gram);
+                    if (terms != null) {
+                        terms.remove(term);
+                        if (terms.isEmpty()) trigrams.remove(gram);
+                    }
+                }
+            }
+            return;
+        }
+        long[] copy = new long[ids.length - 1];
+        System.arraycopy(ids, 0, copy, 0, at);
+        System.arraycopy(ids, at + 1, copy, at, ids.length - at - 1);
+        postings.put(term, copy);
+    }
+
+    private void indexTrigrams(String term) {
+        if (isFuzzyIndexed(term)) {
+            for (String gram : trigramsOf(term)) {
+                trigrams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(term);
+            }
+        }
+    }
+
+    /**
+     * Builds the posting lists in one go; a {@link #put} per name would copy common terms' lists over and over.
+     */
+    public static final class Builder {
+
+        private final Map<Long, String> names = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(long id, String name) {
+            names.put(id, name);
+            return this;
+        }
+
+        public NameIndex build() {
+            NameIndex index = new NameIndex();
+            Map<String, long[]> lists = new HashMap<>();
+            Map<String, Integer> sizes = new HashMap<>();
+            names.forEach((id, name) -> {
+                String[] terms = terms(name);
+                index.entries.put(id, new Entry(name, terms));
+                for (String term : terms) {
+                    int size = sizes.merge(term, 1, Integer::sum);
+                    long[] ids = lists.computeIfAbsent(term, t -> new long[4]);
+                    if (size > ids.length) {
+                        ids = Arrays.copyOf(ids, ids.length * 2);
+                        lists.put(term, ids);
+                    }
+                    ids[size - 1] = id;
+                }
+            });
+            lists.forEach((term, ids) -> {
+                long[] sorted = Arrays.copyOf(ids, sizes.get(term));
+                Arrays.sort(sorted);
+                index.postings.put(term, sorted);
+                index.indexTrigrams(term);
+            });
+            return index;
+        }
+    }
+}
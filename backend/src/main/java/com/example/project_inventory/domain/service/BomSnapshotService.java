@@ -0,0 +1,211 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.event.CatalogEvent;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.repository.ProductRepository;
+import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The current {@link BomSnapshot}, patched from committed {@link CatalogEvent}s and re-read every
+ * {@code catalog.snapshot.refresh-ms} to repair patches applied out of commit order.
+ */
+@Slf4j
+@Service
+public class BomSnapshotService {
+
+    private final ProductRepository productRepository;
+    private final RawMaterialRepository rawMaterialRepository;
+    private final TransactionOperations transactionOperations;
+
+    private final SingleFlightLoader<BomSnapshot> snapshots = new SingleFlightLoader<>(this::read, this::loaded);
+    private final AtomicLong versions = new AtomicLong();
+    private final DistributionSummary bomFanOut;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bom-snapshot-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BomSnapshotService(ProductRepository productRepository,
+                              RawMaterialRepository rawMaterialRepository,
+                              TransactionOperations transactionOperations,
+                              MeterRegistry meterRegistry,
+                              @Value("${catalog.snapshot.refresh-ms:300000}") long refreshMs) {
+        this.productRepository = productRepository;
+        this.rawMaterialRepository = rawMaterialRepository;
+        this.transactionOperations = transactionOperations;
+        this.bomFanOut = DistributionSummary.builder("catalog.bom.fanout")
+                .description("Raw materials per product, sampled on every full snapshot load")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("catalog.products", snapshots,
+                        loader -> loader.peek() == null ? Double.NaN : loader.peek().productCount())
+                .description("Products in the current BOM snapshot")
+                .register(meterRegistry);
+        Gauge.builder("catalog.materials", snapshots,
+                        loader -> loader.peek() == null ? Double.NaN : loader.peek().materialCount())
+                .description("Raw materials in the current BOM snapshot")
+                .register(meterRegistry);
+        if (refreshMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public BomSnapshot current() {
+        return snapshots.get();
+    }
+
+    public void invalidate() {
+        snapshots.invalidate();
+    }
+
+    /**
+     * An unchanged catalog keeps its version, and so its ETag.
+     */
+    public void refresh() {
+        BomSnapshot previous = snapshots.peek();
+        if (previous == null) {
+            return;
+        }
+        long seenBefore = snapshots.changesSeen();
+        BomSnapshot loaded = read();
+        if (!loaded.sameCatalog(previous) && snapshots.replace(previous, seenBefore, loaded)) {
+            log.debug("BOM snapshot refreshed: {} products, {} materials",
+                    loaded.productCount(), loaded.materialCount());
+        }
+    }
+
+    // first, so listeners that read the snapshot (WhereUsedService) see the change already applied
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (event instanceof CatalogEvent.BatchApplied) {
+            invalidate();
+            return;
+        }
+        snapshots.update(snapshot -> apply(snapshot, event));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("BOM snapshot refresh failed; retrying next interval", e);
+        }
+    }
+
+    private void loaded(BomSnapshot loaded) {
+        for (int p = 0; p < loaded.productCount(); p++) {
+            bomFanOut.record(loaded.lineSlots(p).length);
+        }
+        log.debug("BOM snapshot loaded: {} products, {} materials", loaded.productCount(), loaded.materialCount());
+    }
+
+    private BomSnapshot read() {
+        return transactionOperations.execute(status -> withJournalStock(BomSnapshot.of(
+                productRepository.findAllWithCompositionsOrderByPriceDesc(),
+                rawMaterialRepository.findAll(),
+                versions.incrementAndGet())));
+    }
+
+    /**
+     * One statement, so a fold committing meanwhile is either all in the balances or not at all.
+     */
+    private BomSnapshot withJournalStock(BomSnapshot snapshot) {
+        int[] stock = new int[snapshot.materialCount()];
+        for (int slot = 0; slot < stock.length; slot++) {
+            stock[slot] = snapshot.stock(slot);
+        }
+        for (RawMaterialRepository.StockBalance balance : rawMaterialRepository.findStockBalances()) {
+            int slot = snapshot.slotOf(balance.getRawMaterialId());
+            if (slot >= 0) {
+                stock[slot] = (int) Math.max(0, Math.min(Integer.MAX_VALUE, balance.getBalance()));
+            }
+        }
+        return snapshot.withStock(stock, snapshot.version());
+    }
+
+    private BomSnapshot apply(BomSnapshot snapshot, CatalogEvent event) {
+        long version = versions.incrementAndGet();
+        if (event instanceof CatalogEvent.ProductSaved saved) {
+            int components = 0;
+            for (CatalogEvent.BomLine line : saved.lines()) {
+                if (line.componentProductId() != null) components++;
+            }
+            int size = saved.lines().size() - components;
+            long[] compositionIds = new long[size];
+            long[] rawMaterialIds = new long[size];
+            int[] quantities = new int[size];
+            long[] componentCompositionIds = new long[components];
+            long[] componentIds = new long[components];
+            int[] componentQuantities = new int[components];
+            int k = 0;
+            int c = 0;
+            for (CatalogEvent.BomLine line : saved.lines()) {
+                long compositionId = line.compositionId() == null ? 0L : line.compositionId();
+                if (line.componentProductId() != null) {
+                    componentCompositionIds[c] = compositionId;
+                    componentIds[c] = line.componentProductId();
+                    componentQuantities[c++] = line.requiredQuantity();
+                } else {
+                    compositionIds[k] = compositionId;
+                    rawMaterialIds[k] = line.rawMaterialId();
+                    quantities[k++] = line.requiredQuantity();
+                }
+            }
+            return snapshot.withProduct(saved.productId(), saved.name(), saved.price(),
+                    compositionIds, rawMaterialIds, quantities,
+                    componentCompositionIds, componentIds, componentQuantities, version);
+        }
+        if (event instanceof CatalogEvent.ProductUpdated updated) {
+            return snapshot.withProductDetails(updated.productId(), updated.name(), updated.price(), version);
+        }
+        if (event instanceof CatalogEvent.ProductDeleted deleted) {
+            return snapshot.withoutProduct(deleted.productId(), version);
+        }
+        if (event instanceof CatalogEvent.CompositionAdded added) {
+            if (added.line().componentProductId() != null) {
+                return snapshot.withComponent(added.productId(), added.line().compositionId(),
+                        added.line().componentProductId(), added.line().requiredQuantity(), version);
+            }
+            return snapshot.withComposition(added.productId(), added.line().compositionId(),
+                    added.line().rawMaterialId(), added.line().requiredQuantity(), version);
+        }
+        if (event instanceof CatalogEvent.CompositionRemoved removed) {
+            return snapshot.withoutComposition(removed.productId(), removed.compositionId(), version);
+        }
+        if (event instanceof CatalogEvent.RawMaterialSaved material) {
+            int slot = snapshot.slotOf(material.rawMaterialId());
+            int stock = material.stockQuantity() != null ? material.stockQuantity() : slot < 0 ? 0 : snapshot.stock(slot);
+            return snapshot.withMaterial(material.rawMaterialId(), material.name(), stock, version);
+        }
+        if (event instanceof CatalogEvent.StockMoved moved) {
+            return snapshot.withStockChanges(moved.changes(), version);
+        }
+        if (event instanceof CatalogEvent.RawMaterialDeleted deleted) {
+            return snapshot.withoutMaterial(deleted.rawMaterialId(), version);
+        }
+        return snapshot;
+    }
+}
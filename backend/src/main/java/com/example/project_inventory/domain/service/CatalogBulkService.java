@@ -0,0 +1,360 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.bulk.BulkFormat;
+import com.example.project_inventory.domain.bulk.Csv;
+import com.example.project_inventory.domain.bulk.RecordReader;
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.repository.CatalogBulkRepository;
+import com.example.project_inventory.domain.repository.SequenceIdAllocator;
+import com.example.project_inventory.dto.BulkImportResultDTO;
+import com.example.project_inventory.dto.BulkLineErrorDTO;
+import com.example.project_inventory.exception.BusinessException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bulk import and export of raw materials, products and BOM lines as CSV or NDJSON.
+ * <p>
+ * Imports read the body one record at a time, validate each record with {@link CatalogValidator},
+ * and write accepted records with JDBC batches of {@value #CHUNK_SIZE}, one transaction per chunk.
+ * Ids are taken from the entity sequences up front, so no generated keys are read back.
+ * Invalid records are reported by line number and skipped; they never fail the rest of the import.
+ * Exports scan the tables with a forward-only cursor and write each row as it is read.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogBulkService {
+
+    // also keeps the id lists of the reference checks under Oracle's 1000-element IN limit
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final CatalogBulkRepository bulkRepository;
+    private final SequenceIdAllocator idAllocator;
+    private final BomSnapshotService bomSnapshotService;
+    private final CatalogCache catalogCache;
+    private final CatalogSearchService catalogSearchService;
+    private final WhereUsedService whereUsedService;
+    private final TransactionOperations transactionOperations;
+    private final ObjectMapper objectMapper;
+
+    public BulkImportResultDTO importRawMaterials(InputStream body, BulkFormat format) {
+        return importRecords(body, format, record -> {
+            RawMaterial material = new RawMaterial();
+            material.setName(text(record, "name"));
+            material.setStockQuantity(integer(record, "stockQuantity"));
+            CatalogValidator.validateRawMaterial(material.getName(), material.getStockQuantity());
+            return material;
+        }, (chunk, rejected) -> {
+            List<RawMaterial> materials = values(chunk);
+            long[] ids = idAllocator.allocate(RawMaterial.class, materials.size());
+            for (int i = 0; i < ids.length; i++) {
+                materials.get(i).setId(ids[i]);
+            }
+            bulkRepository.insertRawMaterials(materials);
+            return materials.size();
+        });
+    }
+
+    public BulkImportResultDTO importProducts(InputStream body, BulkFormat format) {
+        return importRecords(body, format, record -> {
+            Product product = new Product();
+            product.setName(text(record, "name"));
+            product.setPrice(decimal(record, "price"));
+            CatalogValidator.validateProduct(product.getName(), product.getPrice());
+            return product;
+        }, (chunk, rejected) -> {
+            List<Product> products = values(chunk);
+            long[] ids = idAllocator.allocate(Product.class, products.size());
+            for (int i = 0; i < ids.length; i++) {
+                products.get(i).setId(ids[i]);
+            }
+            bulkRepository.insertProducts(products);
+            return products.size();
+        });
+    }
+
+    /**
+     * BOM lines with columns {@code productId}, {@code rawMaterialId} and {@code quantity}
+     * ({@code requiredQuantity} is accepted too, so an export can be imported back). Only raw material
+     * lines are imported; component lines go through the product API, which checks for cycles.
+     */
+    public BulkImportResultDTO importCompositions(InputStream body, BulkFormat format) {
+        return importRecords(body, format, record -> {
+            Long productId = id(record, "productId");
+            Long rawMaterialId = id(record, "rawMaterialId");
+            Integer quantity = record.containsKey("quantity")
+                    ? integer(record, "quantity")
+                    : integer(record, "requiredQuantity");
+            CatalogValidator.validateRequiredQuantity(quantity);
+
+            ProductComposition composition = new ProductComposition();
+            composition.setProduct(new Product());
+            composition.getProduct().setId(productId);
+            composition.setRawMaterial(new RawMaterial());
+            composition.getRawMaterial().setId(rawMaterialId);
+            composition.setRequiredQuantity(quantity);
+            return composition;
+        }, this::writeCompositions);
+    }
+
+    public void exportRawMaterials(BulkFormat format, OutputStream out) throws IOException {
+        export(format, out, new String[]{"id", "name", "stockQuantity"}, bulkRepository::forEachRawMaterial);
+    }
+
+    public void exportProducts(BulkFormat format, OutputStream out) throws IOException {
+        export(format, out, new String[]{"id", "name", "price"}, bulkRepository::forEachProduct);
+    }
+
+    public void exportCompositions(BulkFormat format, OutputStream out) throws IOException {
+        export(format, out, new String[]{"id", "productId", "rawMaterialId", "componentProductId", "requiredQuantity"},
+                bulkRepository::forEachComposition);
+    }
+
+    private int writeCompositions(List<Line<ProductComposition>> chunk, List<BulkLineErrorDTO> rejected) {
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> rawMaterialIds = new HashSet<>();
+        for (Line<ProductComposition> line : chunk) {
+            productIds.add(line.value().getProduct().getId());
+            rawMaterialIds.add(line.value().getRawMaterial().getId());
+        }
+        Set<Long> existingProducts = bulkRepository.findExistingProductIds(productIds);
+        Set<Long> existingMaterials = bulkRepository.findExistingRawMaterialIds(rawMaterialIds);
+        // a copy, since the lines accepted below are added to it
+        Map<Long, Set<Long>> bom = new HashMap<>();
+        if (!existingProducts.isEmpty()) {
+            bulkRepository.findRawMaterialIdsByProductIds(existingProducts)
+                    .forEach((productId, materials) -> bom.put(productId, new HashSet<>(materials)));
+        }
+
+        List<ProductComposition> accepted = new ArrayList<>(chunk.size());
+        for (Line<ProductComposition> line : chunk) {
+            Long productId = line.value().getProduct().getId();
+            Long rawMaterialId = line.value().getRawMaterial().getId();
+            if (!existingProducts.contains(productId)) {
+                rejected.add(new BulkLineErrorDTO(line.number(), "Product not found with id: " + productId));
+            } else if (!existingMaterials.contains(rawMaterialId)) {
+                rejected.add(new BulkLineErrorDTO(line.number(), "Raw material not found with id: " + rawMaterialId));
+            } else if (!bom.computeIfAbsent(productId, id -> new HashSet<>()).add(rawMaterialId)) {
+                rejected.add(new BulkLineErrorDTO(line.number(),
+                        "Raw material " + rawMaterialId + " is already associated with product " + productId));
+            } else {
+                accepted.add(line.value());
+            }
+        }
+        if (!accepted.isEmpty()) {
+            long[] ids = idAllocator.allocate(ProductComposition.class, accepted.size());
+            for (int i = 0; i < ids.length; i++) {
+                accepted.get(i).setId(ids[i]);
+            }
+            bulkRepository.insertCompositions(accepted);
+        }
+        return accepted.size();
+    }
+
+    private <T> BulkImportResultDTO importRecords(InputStream body, BulkFormat format,
+                                                  Function<Map<String, String>, T> parser,
+                                                  ChunkWriter<T> writer) {
+        ImportTally tally = new ImportTally();
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), IO_BUFFER_SIZE);
+        RecordReader reader = new RecordReader(lines, format, objectMapper);
+        List<Line<T>> chunk = new ArrayList<>(CHUNK_SIZE);
+        try {
+            while (true) {
+                Map<String, String> record;
+                try {
+                    record = reader.next();
+                } catch (BusinessException e) {
+                    tally.read++;
+                    tally.reject(reader.lineNumber(), e.getMessage());
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+                tally.read++;
+                try {
+                    chunk.add(new Line<>(reader.lineNumber(), parser.apply(record)));
+                } catch (BusinessException e) {
+                    tally.reject(reader.lineNumber(), e.getMessage());
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    flush(chunk, writer, tally);
+                }
+            }
+            flush(chunk, writer, tally);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // rows were written behind the entity layer, so no catalog event describes them
+            bomSnapshotService.invalidate();
+            catalogCache.invalidateAll();
+            catalogSearchService.invalidate();
+            whereUsedService.invalidate();
+        }
+        log.debug("Bulk import: {} read, {} imported, {} rejected", tally.read, tally.imported, tally.rejected);
+        return tally.toDto();
+    }
+
+    private <T> void flush(List<Line<T>> chunk, ChunkWriter<T> writer, ImportTally tally) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<BulkLineErrorDTO> rejected = new ArrayList<>();
+        try {
+            Integer written = transactionOperations.execute(status -> writer.write(chunk, rejected));
+            tally.imported += written;
+            rejected.forEach(error -> tally.reject(error.getLine(), error.getMessage()));
+        } catch (DataAccessException e) {
+            String message = "Rejected by the database: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            chunk.forEach(line -> tally.reject(line.number(), message));
+        }
+        chunk.clear();
+    }
+
+    private void export(BulkFormat format, OutputStream out, String[] columns,
+                        Consumer<RowCallbackHandler> scan) throws IOException {
+        if (format == BulkFormat.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), IO_BUFFER_SIZE);
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+            scan.accept(rs -> {
+                try {
+                    for (int i = 0; i < columns.length; i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        writer.write(Csv.escape(plain(rs.getObject(i + 1))));
+                    }
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            return;
+        }
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        scan.accept(rs -> {
+            try {
+                generator.writeStartObject();
+                for (int i = 0; i < columns.length; i++) {
+                    generator.writeFieldName(columns[i]);
+                    generator.writeObject(rs.getObject(i + 1));
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+    }
+
+    private static String plain(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+    }
+
+    private static <T> List<T> values(List<Line<T>> chunk) {
+        return chunk.stream().map(Line::value).toList();
+    }
+
+    private static String text(Map<String, String> record, String column) {
+        return record.get(column);
+    }
+
+    private static Long id(Map<String, String> record, String column) {
+        String value = record.get(column);
+        if (value == null) {
+            throw new BusinessException(column + " is required");
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new BusinessException(column + " is not a valid id: " + value);
+        }
+    }
+
+    private static Integer integer(Map<String, String> record, String column) {
+        String value = record.get(column);
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new BusinessException(column + " is not a valid integer: " + value);
+        }
+    }
+
+    private static Double decimal(Map<String, String> record, String column) {
+        String value = record.get(column);
+        try {
+            return value == null ? null : Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new BusinessException(column + " is not a valid number: " + value);
+        }
+    }
+
+    private record Line<T>(long number, T value) {
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        /**
+         * Writes the acceptable part of {@code chunk}, adds the rest to {@code rejected} and
+         * returns how many rows were written. Runs inside the chunk's transaction.
+         */
+        int write(List<Line<T>> chunk, List<BulkLineErrorDTO> rejected);
+    }
+
+    private static final class ImportTally {
+        private long read;
+        private long imported;
+        private long rejected;
+        private final List<BulkLineErrorDTO> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BulkLineErrorDTO(line, message));
+            }
+        }
+
+        BulkImportResultDTO toDto() {
+            return new BulkImportResultDTO(read, imported, rejected, errors, rejected > errors.size());
+        }
+    }
+}
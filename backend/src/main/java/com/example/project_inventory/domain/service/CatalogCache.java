@@ -0,0 +1,202 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.event.CatalogEvent;
+import com.example.project_inventory.dto.ProductCompositionDTO;
+import com.example.project_inventory.dto.ProductDTO;
+import com.example.project_inventory.dto.RawMaterialDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of product and raw material details, keyed by id.
+ * <p>
+ * Entries are dropped after each write commits, from the same {@link CatalogEvent}s that patch the
+ * BOM snapshot. A product's details embed the names of its raw materials and component products, so
+ * renaming either also drops the cached products that show the old name; a stock-only change leaves
+ * them alone.
+ * Entries are bounded in number and expire after a fixed time as a backstop for writes that do not
+ * go through the services. Callers always get a copy, never the cached instance.
+ */
+public class CatalogCache {
+
+    private final Cache<Long, ProductDTO> products;
+    private final Cache<Long, RawMaterialDTO> rawMaterials;
+
+    // raw material id -> ids of products cached while listing it; ids are only unlinked on delete, so it can over-report
+    private final Map<Long, Set<Long>> productsByMaterial = new ConcurrentHashMap<>();
+    // component product id -> ids of products cached while listing it, same caveat
+    private final Map<Long, Set<Long>> productsByComponent = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CatalogCache(long maximumSize, Duration expireAfterWrite, MeterRegistry meterRegistry) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.rawMaterials = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, rawMaterials, "rawMaterials");
+    }
+
+    public ProductDTO product(Long id, Function<Long, ProductDTO> loader) {
+        return copy(get(products, id, key -> {
+            ProductDTO loaded = loader.apply(key);
+            if (loaded.getCompositions() != null) {
+                for (ProductCompositionDTO comp : loaded.getCompositions()) {
+                    index(comp).computeIfAbsent(lineTarget(comp), m -> ConcurrentHashMap.newKeySet()).add(key);
+                }
+            }
+            return loaded;
+        }));
+    }
+
+    public RawMaterialDTO rawMaterial(Long id, Function<Long, RawMaterialDTO> loader) {
+        return copy(get(rawMaterials, id, loader));
+    }
+
+    /**
+     * Drops everything, for writes that bypass the services or are too many to describe one by one.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        products.invalidateAll();
+        rawMaterials.invalidateAll();
+        productsByMaterial.clear();
+        productsByComponent.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (event instanceof CatalogEvent.BatchApplied) {
+            invalidateAll();
+            return;
+        }
+        invalidations.incrementAndGet();
+        if (event instanceof CatalogEvent.ProductSaved saved) {
+            products.invalidate(saved.productId());
+        } else if (event instanceof CatalogEvent.ProductUpdated updated) {
+            products.invalidate(updated.productId());
+            invalidateProductsShowing(productsByComponent, updated.productId(), updated.name());
+        } else if (event instanceof CatalogEvent.ProductDeleted deleted) {
+            // a deleted product is never loaded again, so its links can go
+            unlink(deleted.productId());
+            products.invalidate(deleted.productId());
+            invalidateProductsShowing(productsByComponent, deleted.productId(), null);
+            productsByComponent.remove(deleted.productId());
+        } else if (event instanceof CatalogEvent.CompositionAdded added) {
+            products.invalidate(added.productId());
+        } else if (event instanceof CatalogEvent.CompositionRemoved removed) {
+            products.invalidate(removed.productId());
+        } else if (event instanceof CatalogEvent.RawMaterialSaved material) {
+            rawMaterials.invalidate(material.rawMaterialId());
+            invalidateProductsShowing(productsByMaterial, material.rawMaterialId(), material.name());
+        } else if (event instanceof CatalogEvent.RawMaterialDeleted deleted) {
+            rawMaterials.invalidate(deleted.rawMaterialId());
+            invalidateProductsShowing(productsByMaterial, deleted.rawMaterialId(), null);
+            productsByMaterial.remove(deleted.rawMaterialId());
+        } else if (event instanceof CatalogEvent.StockMoved moved) {
+            rawMaterials.invalidateAll(moved.changes().keySet());
+        }
+    }
+
+    private <V> V get(Cache<Long, V> cache, Long id, Function<Long, V> loader) {
+        long before = invalidations.get();
+        boolean[] loaded = {false};
+        V value = cache.get(id, key -> {
+            loaded[0] = true;
+            return loader.apply(key);
+        });
+        if (loaded[0] && invalidations.get() != before) {
+            // a write committed while this was being read, so it may predate that write; serve it but don't keep it
+            cache.asMap().remove(id, value);
+        }
+        return value;
+    }
+
+    /**
+     * Drops the cached products whose compositions show a name for {@code targetId} (a raw material or
+     * a component product, per {@code index}) other than {@code name}, or every cached product listing
+     * it when {@code name} is null.
+     */
+    private void invalidateProductsShowing(Map<Long, Set<Long>> index, Long targetId, String name) {
+        Set<Long> productIds = index.getOrDefault(targetId, Set.of());
+        boolean components = index == productsByComponent;
+        for (Long productId : productIds) {
+            ProductDTO cached = products.getIfPresent(productId);
+            if (cached != null && cached.getCompositions() != null && cached.getCompositions().stream()
+                    .anyMatch(comp -> components
+                            ? targetId.equals(comp.getComponentProductId())
+                                    && (name == null || !name.equals(comp.getComponentProductName()))
+                            : targetId.equals(comp.getRawMaterialId())
+                                    && (name == null || !name.equals(comp.getRawMaterialName())))) {
+                products.invalidate(productId);
+            }
+        }
+    }
+
+    private void unlink(Long productId) {
+        ProductDTO cached = products.getIfPresent(productId);
+        if (cached != null && cached.getCompositions() != null) {
+            for (ProductCompositionDTO comp : cached.getCompositions()) {
+                Set<Long> productIds = index(comp).get(lineTarget(comp));
+                if (productIds != null) {
+                    productIds.remove(productId);
+                }
+            }
+        }
+    }
+
+    private Map<Long, Set<Long>> index(ProductCompositionDTO comp) {
+        return comp.getComponentProductId() != null ? productsByComponent : productsByMaterial;
+    }
+
+    private static Long lineTarget(ProductCompositionDTO comp) {
+        return comp.getComponentProductId() != null ? comp.getComponentProductId() : comp.getRawMaterialId();
+    }
+
+    private static ProductDTO copy(ProductDTO source) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(source.getId());
+        dto.setName(source.getName());
+        dto.setPrice(source.getPrice());
+        if (source.getCompositions() != null) {
+            dto.setCompositions(source.getCompositions().stream().map(CatalogCache::copy).toList());
+        }
+        return dto;
+    }
+
+    private static ProductCompositionDTO copy(ProductCompositionDTO source) {
+        ProductCompositionDTO dto = new ProductCompositionDTO();
+        dto.setId(source.getId());
+        dto.setRawMaterialId(source.getRawMaterialId());
+        dto.setRawMaterialName(source.getRawMaterialName());
+        dto.setComponentProductId(source.getComponentProductId());
+        dto.setComponentProductName(source.getComponentProductName());
+        dto.setRequiredQuantity(source.getRequiredQuantity());
+        return dto;
+    }
+
+    private static RawMaterialDTO copy(RawMaterialDTO source) {
+        RawMaterialDTO dto = new RawMaterialDTO();
+        dto.setId(source.getId());
+        dto.setName(source.getName());
+        dto.setStockQuantity(source.getStockQuantity());
+        dto.setVersion(source.getVersion());
+        return dto;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.event.CatalogEvent;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.repository.ProductRepository;
+import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import com.example.project_inventory.domain.search.NameIndex;
+import com.example.project_inventory.dto.CursorPageDTO;
+import com.example.project_inventory.dto.ProductSummaryDTO;
+import com.example.project_inventory.dto.SearchHitDTO;
+import com.example.project_inventory.exception.BusinessException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Name search from in-memory {@link NameIndex}es, built on first use and patched from {@link CatalogEvent}s.
+ */
+@Slf4j
+@Service
+public class CatalogSearchService {
+
+    public static final String PRODUCT = "product";
+    public static final String RAW_MATERIAL = "raw-material";
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+    // NameIndex.RANKING, with products before raw materials on a full tie
+    private static final Comparator<SearchHitDTO> RANKING = Comparator.comparing(SearchHitDTO::getScore).reversed()
+            .thenComparingInt(hit -> hit.getName().length())
+            .thenComparing(SearchHitDTO::getName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(SearchHitDTO::getType)
+            .thenComparing(SearchHitDTO::getId);
+
+    private final ProductRepository productRepository;
+    private final RawMaterialRepository rawMaterialRepository;
+    private final TransactionOperations transactionOperations;
+
+    private final SingleFlightLoader<Indexes> indexes = new SingleFlightLoader<>(
+            () -> new Indexes(loadProducts(), loadRawMaterials()),
+            loaded -> log.debug("Search index loaded: {} products, {} raw materials",
+                    loaded.products().size(), loaded.rawMaterials().size()));
+
+    private record Indexes(NameIndex products, NameIndex rawMaterials) {
+    }
+
+    public CatalogSearchService(ProductRepository productRepository,
+                                RawMaterialRepository rawMaterialRepository,
+                                TransactionOperations transactionOperations,
+                                MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.rawMaterialRepository = rawMaterialRepository;
+        this.transactionOperations = transactionOperations;
+        Gauge.builder("catalog.search.names", indexes, loader -> loader.peek() == null ? Double.NaN
+                        : loader.peek().products().size() + loader.peek().rawMaterials().size())
+                .description("Product and raw material names in the search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@code type} is {@value #PRODUCT}, {@value #RAW_MATERIAL} or {@code all}.
+     */
+    public CursorPageDTO<SearchHitDTO> search(String query, String type, String cursor, int size) {
+        PageCursor.requireValidSize(size);
+        String scope = type == null ? "all" : type;
+        if (!scope.equals("all") && !scope.equals(PRODUCT) && !scope.equals(RAW_MATERIAL)) {
+            throw new BusinessException("Unknown search type: " + type);
+        }
+        int offset = cursor == null || cursor.isBlank() ? 0 : PageCursor.decodeOffset(cursor);
+        if (query == null || query.isBlank()) {
+            return new CursorPageDTO<>(List.of(), null);
+        }
+
+        Indexes indexes = this.indexes.get();
+        // one more than the page, to tell whether there is a next one
+        int limit = offset + size + 1;
+        List<SearchHitDTO> hits = new ArrayList<>();
+        if (!scope.equals(RAW_MATERIAL)) {
+            indexes.products().search(query, limit).forEach(hit -> hits.add(toDto(PRODUCT, hit)));
+        }
+        if (!scope.equals(PRODUCT)) {
+            indexes.rawMaterials().search(query, limit).forEach(hit -> hits.add(toDto(RAW_MATERIAL, hit)));
+        }
+        hits.sort(RANKING);
+
+        boolean hasNext = hits.size() > offset + size;
+        List<SearchHitDTO> items = hits.subList(Math.min(offset, hits.size()), Math.min(offset + size, hits.size()));
+        return new CursorPageDTO<>(List.copyOf(items), hasNext ? PageCursor.encodeOffset(offset + size) : null);
+    }
+
+    public void invalidate() {
+        indexes.invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (event instanceof CatalogEvent.BatchApplied) {
+            invalidate();
+            return;
+        }
+        indexes.changed();
+        Indexes indexes = this.indexes.peek();
+        if (indexes == null) {
+            return;
+        }
+        if (event instanceof CatalogEvent.ProductSaved saved) {
+            indexes.products().put(saved.productId(), saved.name());
+        } else if (event instanceof CatalogEvent.ProductUpdated updated) {
+            indexes.products().put(updated.productId(), updated.name());
+        } else if (event instanceof CatalogEvent.ProductDeleted deleted) {
+            indexes.products().remove(deleted.productId());
+        } else if (event instanceof CatalogEvent.RawMaterialSaved material) {
+            // a stock change repeats the name, which the index ignores
+            indexes.rawMaterials().put(material.rawMaterialId(), material.name());
+        } else if (event instanceof CatalogEvent.RawMaterialDeleted deleted) {
+            indexes.rawMaterials().remove(deleted.rawMaterialId());
+        }
+    }
+
+    private NameIndex loadProducts() {
+        NameIndex.Builder builder = NameIndex.builder();
+        List<ProductSummaryDTO> page = transactionOperations.execute(status ->
+                productRepository.findSummariesOrderByPriceDesc(Limit.of(LOAD_PAGE_SIZE)));
+        while (!page.isEmpty()) {
+            page.forEach(product -> builder.add(product.getId(), product.getName()));
+            ProductSummaryDTO last = page.get(page.size() - 1);
+            page = page.size() < LOAD_PAGE_SIZE ? List.of() : transactionOperations.execute(status ->
+                    productRepository.findSummariesAfter(last.getPrice(), last.getId(), Limit.of(LOAD_PAGE_SIZE)));
+        }
+        return builder.build();
+    }
+
+    private NameIndex loadRawMaterials() {
+        NameIndex.Builder builder = NameIndex.builder();
+        long after = Long.MIN_VALUE;
+        while (true) {
+            long from = after;
+            List<RawMaterial> page = transactionOperations.execute(status ->
+                    rawMaterialRepository.findByIdGreaterThanOrderByIdAsc(from, Limit.of(LOAD_PAGE_SIZE)));
+            page.forEach(material -> builder.add(material.getId(), material.getName()));
+            if (page.size() < LOAD_PAGE_SIZE) {
+                return builder.build();
+            }
+            after = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private static SearchHitDTO toDto(String type, NameIndex.Hit hit) {
+        return new SearchHitDTO(type, hit.id(), hit.name(), hit.score());
+    }
+}
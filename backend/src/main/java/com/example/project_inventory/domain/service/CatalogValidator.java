@@ -0,0 +1,44 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.exception.BusinessException;
+
+/**
+ * Field rules for catalog entities, shared by the single-entity services and the bulk import so
+ * both reject exactly the same input with the same message.
+ */
+public final class CatalogValidator {
+
+    private CatalogValidator() {
+    }
+
+    public static void validateProduct(String name, Double price) {
+        if (name == null || name.isBlank()) {
+            throw new BusinessException("Product name is required");
+        }
+        if (price == null || price < 0) {
+            throw new BusinessException("Product price must be a non-negative value");
+        }
+    }
+
+    public static void validateRawMaterial(String name, Integer stockQuantity) {
+        validateRawMaterialName(name);
+        if (stockQuantity == null || stockQuantity < 0) {
+            throw new BusinessException("Stock quantity must be a non-negative value");
+        }
+    }
+
+    public static void validateRawMaterialName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new BusinessException("Raw material name is required");
+        }
+    }
+
+    public static void validateRequiredQuantity(Integer quantity) {
+        if (quantity == null) {
+            throw new BusinessException("quantity is required");
+        }
+        if (quantity < 1) {
+            throw new BusinessException("quantity must be at least 1");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursors: the sort key of the last row of a page, base64url encoded. The prefix
+ * keeps a product cursor from being replayed against the raw material listing and vice versa.
+ * Search results have no stable sort key, so their cursor is a plain offset into the ranking.
+ */
+final class PageCursor {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final String PRICE_AND_ID = "p";
+    private static final String ID = "i";
+    private static final String OFFSET = "o";
+
+    record PriceAndId(double price, long id) {
+    }
+
+    private PageCursor() {
+    }
+
+    static void requireValidSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    static String encode(double price, long id) {
+        return encode(PRICE_AND_ID + ":" + price + ":" + id);
+    }
+
+    static String encode(long id) {
+        return encode(ID + ":" + id);
+    }
+
+    static String encodeOffset(int offset) {
+        return encode(OFFSET + ":" + offset);
+    }
+
+    static PriceAndId decodePriceAndId(String cursor) {
+        String[] parts = decode(cursor, PRICE_AND_ID, 3);
+        try {
+            return new PriceAndId(Double.parseDouble(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+    }
+
+    static long decodeId(String cursor) {
+        String[] parts = decode(cursor, ID, 2);
+        try {
+            return Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+    }
+
+    static int decodeOffset(String cursor) {
+        String[] parts = decode(cursor, OFFSET, 2);
+        try {
+            int offset = Integer.parseInt(parts[1]);
+            if (offset < 0) {
+                throw invalid();
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor, String kind, int expectedParts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+        String[] parts = raw.split(":");
+        if (parts.length != expectedParts || !parts[0].equals(kind)) {
+            throw invalid();
+        }
+        return parts;
+    }
+
+    private static BusinessException invalid() {
+        return new BusinessException("Invalid page cursor");
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.exception.BusinessException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Waits for tasks submitted to the shared planning pool.
+ */
+final class PlanningTasks {
+
+    private PlanningTasks() {
+    }
+
+    /**
+     * The task's result; what it threw is rethrown as is when unchecked.
+     */
+    static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Interrupted while planning");
+        }
+    }
+}
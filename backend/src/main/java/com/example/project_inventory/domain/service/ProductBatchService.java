@@ -0,0 +1,214 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.event.CatalogEvent;
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.repository.ProductCompositionRepository;
+import com.example.project_inventory.domain.repository.ProductRepository;
+import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import com.example.project_inventory.dto.BatchItemErrorDTO;
+import com.example.project_inventory.dto.CompositionAddDTO;
+import com.example.project_inventory.dto.CompositionRemoveDTO;
+import com.example.project_inventory.dto.ProductBatchRequestDTO;
+import com.example.project_inventory.dto.ProductBatchResultDTO;
+import com.example.project_inventory.dto.ProductUpdateDTO;
+import com.example.project_inventory.exception.BusinessException;
+import com.example.project_inventory.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Applies many product updates and composition changes in one transaction, against entities read up front.
+ * Only a component line's cycle check queries per item, after Hibernate flushes the lines added before it.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductBatchService {
+
+    // keeps the prefetch id lists under Oracle's 1000-element IN limit
+    private static final int PREFETCH_CHUNK_SIZE = 1000;
+    private static final int MAX_PATCH_EVENTS = 500;
+
+    private final ProductRepository productRepository;
+    private final ProductCompositionRepository compositionRepository;
+    private final RawMaterialRepository rawMaterialRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public ProductBatchResultDTO apply(ProductBatchRequestDTO request) {
+        List<ProductUpdateDTO> updates = orEmpty(request.getUpdates());
+        List<CompositionRemoveDTO> removals = orEmpty(request.getCompositionsToRemove());
+        List<CompositionAddDTO> additions = orEmpty(request.getCompositionsToAdd());
+
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> rawMaterialIds = new HashSet<>();
+        Set<Long> lockedIds = new HashSet<>();
+        updates.forEach(item -> addIfPresent(productIds, item.getId()));
+        removals.forEach(item -> addIfPresent(productIds, item.getProductId()));
+        for (CompositionAddDTO item : additions) {
+            addIfPresent(productIds, item.getProductId());
+            addIfPresent(productIds, item.getComponentProductId());
+            addIfPresent(rawMaterialIds, item.getRawMaterialId());
+            if (item.getProductId() != null && item.getComponentProductId() != null) {
+                lockedIds.add(item.getProductId());
+                lockedIds.add(item.getComponentProductId());
+            }
+        }
+
+        // before the lines are read, so the duplicate checks see what a concurrent batch committed
+        prefetch(lockedIds, productRepository::lockAllByIdIn, Product::getId);
+        Batch batch = new Batch(
+                prefetch(productIds, productRepository::findAllWithCompositionsByIdIn, Product::getId),
+                prefetch(rawMaterialIds, rawMaterialRepository::findAllById, RawMaterial::getId));
+
+        for (int i = 0; i < updates.size(); i++) {
+            ProductUpdateDTO item = updates.get(i);
+            batch.run("updates", i, () -> update(batch, item));
+        }
+        for (int i = 0; i < removals.size(); i++) {
+            CompositionRemoveDTO item = removals.get(i);
+            batch.run("compositionsToRemove", i, () -> removeComposition(batch, item));
+        }
+        for (int i = 0; i < additions.size(); i++) {
+            CompositionAddDTO item = additions.get(i);
+            batch.run("compositionsToAdd", i, () -> addComposition(batch, item));
+        }
+
+        if (batch.events.size() > MAX_PATCH_EVENTS) {
+            eventPublisher.publishEvent(new CatalogEvent.BatchApplied(batch.events.size()));
+        } else {
+            batch.events.forEach(eventPublisher::publishEvent);
+        }
+        return new ProductBatchResultDTO(batch.events.size(), batch.errors.size(), batch.errors);
+    }
+
+    private void update(Batch batch, ProductUpdateDTO item) {
+        Product product = batch.product(item.getId());
+        CatalogValidator.validateProduct(item.getName(), item.getPrice());
+        product.setName(item.getName());
+        product.setPrice(item.getPrice());
+        batch.events.add(new CatalogEvent.ProductUpdated(product.getId(), product.getName(), product.getPrice()));
+    }
+
+    private void removeComposition(Batch batch, CompositionRemoveDTO item) {
+        Product product = batch.product(item.getProductId());
+        ProductComposition composition = product.getCompositions().stream()
+                .filter(c -> c.getId() != null && c.getId().equals(item.getCompositionId()))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Composition not found with id: "
+                        + item.getCompositionId() + " in product with id: " + product.getId()));
+
+        // orphan removal deletes the row at flush
+        product.getCompositions().remove(composition);
+        batch.events.add(new CatalogEvent.CompositionRemoved(product.getId(), composition.getId()));
+    }
+
+    private void addComposition(Batch batch, CompositionAddDTO item) {
+        if ((item.getRawMaterialId() == null) == (item.getComponentProductId() == null)) {
+            throw new BusinessException("Give either rawMaterialId or componentProductId");
+        }
+        CatalogValidator.validateRequiredQuantity(item.getQuantity());
+        Product product = batch.product(item.getProductId());
+
+        ProductComposition composition = new ProductComposition();
+        composition.setProduct(product);
+        composition.setRequiredQuantity(item.getQuantity());
+
+        if (item.getComponentProductId() != null) {
+            Product component = batch.product(item.getComponentProductId());
+            boolean alreadyExists = product.getCompositions().stream()
+                    .anyMatch(c -> c.getComponentProduct() != null
+                            && c.getComponentProduct().getId().equals(component.getId()));
+            if (alreadyExists) {
+                throw new BusinessException("Product '" + component.getName() +
+                        "' is already a component of this product");
+            }
+            if (ProductService.wouldContainItself(productRepository, product.getId(), component.getId())) {
+                throw new BusinessException("Product '" + component.getName() + "' cannot be a component of '" +
+                        product.getName() + "': it would contain itself");
+            }
+            composition.setComponentProduct(component);
+        } else {
+            RawMaterial rawMaterial = batch.rawMaterials.get(item.getRawMaterialId());
+            if (rawMaterial == null) {
+                throw new ResourceNotFoundException("Raw material not found with id: " + item.getRawMaterialId());
+            }
+            boolean alreadyExists = product.getCompositions().stream()
+                    .anyMatch(c -> c.getRawMaterial() != null && c.getRawMaterial().getId().equals(rawMaterial.getId()));
+            if (alreadyExists) {
+                throw new BusinessException("Raw material '" + rawMaterial.getName() +
+                        "' is already associated with this product");
+            }
+            composition.setRawMaterial(rawMaterial);
+        }
+
+        // takes an id from the sequence block; the insert waits for the flush
+        ProductComposition saved = compositionRepository.save(composition);
+        product.getCompositions().add(saved);
+        batch.events.add(new CatalogEvent.CompositionAdded(product.getId(), ProductService.toBomLine(saved)));
+    }
+
+    private static <T> Map<Long, T> prefetch(Set<Long> ids, Function<List<Long>, List<T>> finder,
+                                             Function<T, Long> idOf) {
+        Map<Long, T> found = new HashMap<>();
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += PREFETCH_CHUNK_SIZE) {
+            for (T entity : finder.apply(all.subList(from, Math.min(from + PREFETCH_CHUNK_SIZE, all.size())))) {
+                found.put(idOf.apply(entity), entity);
+            }
+        }
+        return found;
+    }
+
+    private static void addIfPresent(Set<Long> ids, Long id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private static <T> List<T> orEmpty(List<T> items) {
+        return items == null ? List.of() : items;
+    }
+
+    /**
+     * What one batch has read and done so far.
+     */
+    private static final class Batch {
+        private final Map<Long, Product> products;
+        private final Map<Long, RawMaterial> rawMaterials;
+        private final List<CatalogEvent> events = new ArrayList<>();
+        private final List<BatchItemErrorDTO> errors = new ArrayList<>();
+
+        Batch(Map<Long, Product> products, Map<Long, RawMaterial> rawMaterials) {
+            this.products = products;
+            this.rawMaterials = rawMaterials;
+        }
+
+        Product product(Long id) {
+            Product product = id == null ? null : products.get(id);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found with id: " + id);
+            }
+            return product;
+        }
+
+        void run(String list, int index, Runnable item) {
+            try {
+                item.run();
+            } catch (BusinessException | ResourceNotFoundException e) {
+                errors.add(new BatchItemErrorDTO(list, index, e.getMessage()));
+            }
+        }
+    }
+}
@@ -1,30 +1,58 @@
 package com.example.project_inventory.domain.service;
 
+import com.example.project_inventory.domain.event.CatalogEvent;
 import com.example.project_inventory.domain.model.Product;
 import com.example.project_inventory.domain.model.ProductComposition;
 import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.planning.BomSnapshot;
 import com.example.project_inventory.domain.repository.ProductCompositionRepository;
 import com.example.project_inventory.domain.repository.ProductRepository;
 import com.example.project_inventory.domain.repository.RawMaterialRepository;
 import com.example.project_inventory.dto.CompositionRequestDTO;
+import com.example.project_inventory.dto.CursorPageDTO;
+import com.example.project_inventory.dto.MaterialRequirementDTO;
 import com.example.project_inventory.dto.ProductCompositionDTO;
 import com.example.project_inventory.dto.ProductDTO;
+import com.example.project_inventory.dto.ProductSummaryDTO;
 import com.example.project_inventory.exception.BusinessException;
 import com.example.project_inventory.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final int STREAM_CHUNK_SIZE = 500;
+    // keeps the cycle check's id lists under Oracle's 1000-element IN limit
+    private static final int IN_LIST_CHUNK_SIZE = 1000;
+
     private final ProductRepository productRepository;
     private final ProductCompositionRepository compositionRepository;
     private final RawMaterialRepository rawMaterialRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final CatalogCache catalogCache;
+    private final TransactionOperations transactionOperations;
+    private final BomSnapshotService bomSnapshotService;
 
+    @Transactional(readOnly = true)
     public List<ProductDTO> findAll() {
         return productRepository.findAllWithCompositionsOrderByPriceDesc()
                 .stream()
@@ -32,10 +60,82 @@ public class ProductService {
                 .toList();
     }
 
+    /**
+     * Hands every product, price-descending, to {@code sink} without holding the catalog in memory.
+     * Products are read through a cursor; their compositions are fetched one chunk at a time and the
+     * persistence context is cleared after each chunk.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ProductDTO> sink) {
+        List<Product> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        try (Stream<Product> products = productRepository.streamAllOrderByPriceDesc()) {
+            products.forEach(product -> {
+                chunk.add(product);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    emitChunk(chunk, sink);
+                }
+            });
+        }
+        if (!chunk.isEmpty()) {
+            emitChunk(chunk, sink);
+        }
+    }
+
+    /**
+     * One keyset page of products ordered by price descending, then id. Only id, name and price are
+     * selected, so no composition or raw material row is read.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductSummaryDTO> findPage(String cursor, int size) {
+        PageCursor.requireValidSize(size);
+        List<ProductSummaryDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = productRepository.findSummariesOrderByPriceDesc(Limit.of(size + 1));
+        } else {
+            PageCursor.PriceAndId after = PageCursor.decodePriceAndId(cursor);
+            rows = productRepository.findSummariesAfter(after.price(), after.id(), Limit.of(size + 1));
+        }
+
+        // one extra row tells whether there is a next page without a count query
+        if (rows.size() <= size) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<ProductSummaryDTO> items = new ArrayList<>(rows.subList(0, size));
+        ProductSummaryDTO last = items.get(size - 1);
+        return new CursorPageDTO<>(items, PageCursor.encode(last.getPrice(), last.getId()));
+    }
+
+    /**
+     * Same page as {@link #findPage}, with the compositions of the page's products loaded in one query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductDTO> findPageWithCompositions(String cursor, int size) {
+        CursorPageDTO<ProductSummaryDTO> page = findPage(cursor, size);
+        List<ProductDTO> items = page.getItems().stream()
+                .map(summary -> toDtoWithoutCompositions(summary.getId(), summary.getName(), summary.getPrice()))
+                .toList();
+        attachCompositions(items);
+        items.forEach(this::attachRequirements);
+        return new CursorPageDTO<>(items, page.getNextCursor());
+    }
+
+    /**
+     * Product details, served from {@link CatalogCache}. A miss reads the product and its compositions
+     * with their raw materials in two queries. The flattened requirements are not cached; they come
+     * from the current BOM snapshot on every call, so a change deep in a sub-assembly shows at once.
+     */
     public ProductDTO findByIdAsDto(Long id) {
-        return convertToDto(findById(id));
+        ProductDTO dto = catalogCache.product(id, key -> transactionOperations.execute(status -> {
+            Product product = findById(key);
+            ProductDTO loaded = toDtoWithoutCompositions(product.getId(), product.getName(), product.getPrice());
+            attachCompositions(List.of(loaded));
+            return loaded;
+        }));
+        attachRequirements(dto);
+        return dto;
     }
 
+    @Transactional(readOnly = true)
     public Product findById(Long id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
@@ -43,81 +143,165 @@ public class ProductService {
 
     @Transactional
     public ProductDTO save(Product product) {
-        if (product.getName() == null || product.getName().isBlank()) {
-            throw new BusinessException("Product name is required");
-        }
-        if (product.getPrice() == null || product.getPrice() < 0) {
-            throw new BusinessException("Product price must be a non-negative value");
-        }
+        CatalogValidator.validateProduct(product.getName(), product.getPrice());
         if (product.getCompositions() != null) {
-            product.getCompositions().forEach(comp -> comp.setProduct(product));
+            for (ProductComposition comp : product.getCompositions()) {
+                if ((comp.getRawMaterial() == null) == (comp.getComponentProduct() == null)) {
+                    throw new BusinessException("Each composition needs either a raw material or a component product");
+                }
+                if (comp.getRawMaterial() != null) {
+                    // a reference by id alone has no version, so it would be taken for a new raw material
+                    comp.setRawMaterial(findRawMaterial(comp.getRawMaterial().getId()));
+                }
+                comp.setProduct(product);
+            }
         }
-        return convertToDto(productRepository.save(product));
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogEvent.ProductSaved(
+                saved.getId(), saved.getName(), saved.getPrice(), toBomLines(saved)));
+        return convertToDto(saved);
     }
 
+    /**
+     * One conditional {@code UPDATE}, then the compositions for the response in one query; the product
+     * itself is never loaded.
+     */
     @Transactional
     public ProductDTO update(Long id, Product productDetails) {
-        Product product = findById(id);
+        CatalogValidator.validateProduct(productDetails.getName(), productDetails.getPrice());
 
-        if (productDetails.getName() == null || productDetails.getName().isBlank()) {
-            throw new BusinessException("Product name is required");
-        }
-        if (productDetails.getPrice() == null || productDetails.getPrice() < 0) {
-            throw new BusinessException("Product price must be a non-negative value");
+        if (productRepository.updateDetails(id, productDetails.getName(), productDetails.getPrice()) == 0) {
+            throw new ResourceNotFoundException("Product not found with id: " + id);
         }
+        eventPublisher.publishEvent(new CatalogEvent.ProductUpdated(id, productDetails.getName(), productDetails.getPrice()));
 
-        product.setName(productDetails.getName());
-        product.setPrice(productDetails.getPrice());
-
-        return convertToDto(productRepository.save(product));
+        ProductDTO dto = toDtoWithoutCompositions(id, productDetails.getName(), productDetails.getPrice());
+        attachCompositions(List.of(dto));
+        attachRequirements(dto);
+        return dto;
     }
 
+    /**
+     * Two conditional {@code DELETE}s, the product's lines and then the product, both skipped when
+     * another product uses it as a component. Only when nothing was deleted is the reason looked up.
+     */
     @Transactional
     public void delete(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Product not found with id: " + id);
+        compositionRepository.deleteAllOfProductUnlessUsedAsComponent(id);
+        if (productRepository.deleteUnlessUsedAsComponent(id) == 0) {
+            if (!productRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Product not found with id: " + id);
+            }
+            throw new BusinessException("Product is used as a component of other products; remove it from them first");
         }
-        productRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogEvent.ProductDeleted(id));
     }
 
+    /**
+     * Adds a raw material line, or a component line that uses another product as a sub-assembly. A
+     * component that already contains this product at any depth is rejected, since the BOM would
+     * become a cycle; see {@link #wouldContainItself}. Duplicates are checked with one existence
+     * query, so the product's other lines are never loaded.
+     */
     @Transactional
     public ProductCompositionDTO addComposition(Long productId, CompositionRequestDTO request) {
-        Product product = findById(productId);
-
-        RawMaterial rawMaterial = rawMaterialRepository.findById(request.getRawMaterialId())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Raw material not found with id: " + request.getRawMaterialId()));
-
-        boolean alreadyExists = product.getCompositions().stream()
-                .anyMatch(c -> c.getRawMaterial().getId().equals(rawMaterial.getId()));
-        if (alreadyExists) {
-            throw new BusinessException("Raw material '" + rawMaterial.getName() +
-                    "' is already associated with this product");
+        if ((request.getRawMaterialId() == null) == (request.getComponentProductId() == null)) {
+            throw new BusinessException("Give either rawMaterialId or componentProductId");
         }
-
         ProductComposition composition = new ProductComposition();
-        composition.setProduct(product);
-        composition.setRawMaterial(rawMaterial);
         composition.setRequiredQuantity(request.getQuantity());
 
+        if (request.getComponentProductId() != null) {
+            Long componentId = request.getComponentProductId();
+            Map<Long, Product> locked = new HashMap<>();
+            productRepository.lockAllByIdIn(List.of(productId, componentId)).forEach(p -> locked.put(p.getId(), p));
+            Product product = requireLocked(locked, productId);
+            Product component = requireLocked(locked, componentId);
+            if (compositionRepository.existsByProductIdAndComponentProductId(productId, componentId)) {
+                throw new BusinessException("Product '" + component.getName() +
+                        "' is already a component of this product");
+            }
+            if (wouldContainItself(productRepository, productId, componentId)) {
+                throw new BusinessException("Product '" + component.getName() + "' cannot be a component of '" +
+                        product.getName() + "': it would contain itself");
+            }
+            composition.setProduct(product);
+            composition.setComponentProduct(component);
+        } else {
+            composition.setProduct(findById(productId));
+            RawMaterial rawMaterial = findRawMaterial(request.getRawMaterialId());
+            if (compositionRepository.existsByProductIdAndRawMaterialId(productId, rawMaterial.getId())) {
+                throw new BusinessException("Raw material '" + rawMaterial.getName() +
+                        "' is already associated with this product");
+            }
+            composition.setRawMaterial(rawMaterial);
+        }
+
         ProductComposition saved = compositionRepository.save(composition);
+        eventPublisher.publishEvent(new CatalogEvent.CompositionAdded(productId, toBomLine(saved)));
         return convertCompositionToDto(saved);
     }
 
-    @Transactional
-    public void removeComposition(Long productId, Long compositionId) {
-        if (!productRepository.existsById(productId)) {
-            throw new ResourceNotFoundException("Product not found with id: " + productId);
+    /**
+     * Whether {@code componentId} contains {@code productId} at any depth, read from the database.
+     * The caller holds the locks on both rows, and every product reached is locked before its lines
+     * are read, so a concurrent change to one of them waits for this transaction to end.
+     */
+    static boolean wouldContainItself(ProductRepository productRepository, Long productId, Long componentId) {
+        if (componentId.equals(productId)) {
+            return true;
         }
-        ProductComposition composition = compositionRepository.findById(compositionId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Composition not found with id: " + compositionId));
+        Set<Long> reached = new HashSet<>(List.of(componentId));
+        List<Long> frontier = List.of(componentId);
+        while (!frontier.isEmpty()) {
+            List<Long> next = new ArrayList<>();
+            for (int from = 0; from < frontier.size(); from += IN_LIST_CHUNK_SIZE) {
+                List<Long> chunk = frontier.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, frontier.size()));
+                for (Long id : productRepository.findComponentIdsOf(chunk)) {
+                    if (id.equals(productId)) {
+                        return true;
+                    }
+                    if (reached.add(id)) {
+                        next.add(id);
+                    }
+                }
+            }
+            for (int from = 0; from < next.size(); from += IN_LIST_CHUNK_SIZE) {
+                productRepository.lockAllByIdIn(next.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, next.size())));
+            }
+            frontier = next;
+        }
+        return false;
+    }
 
-        if (!composition.getProduct().getId().equals(productId)) {
-            throw new BusinessException("Composition does not belong to product with id: " + productId);
+    private static Product requireLocked(Map<Long, Product> locked, Long id) {
+        Product product = locked.get(id);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product not found with id: " + id);
         }
+        return product;
+    }
+
+    private RawMaterial findRawMaterial(Long id) {
+        return Optional.ofNullable(id).flatMap(rawMaterialRepository::findById)
+                .orElseThrow(() -> new ResourceNotFoundException("Raw material not found with id: " + id));
+    }
 
-        compositionRepository.deleteById(compositionId);
+    /**
+     * One conditional {@code DELETE} on both ids; the reason is only looked up when no row matched.
+     */
+    @Transactional
+    public void removeComposition(Long productId, Long compositionId) {
+        if (compositionRepository.deleteByIdAndProductId(compositionId, productId) == 0) {
+            if (!productRepository.existsById(productId)) {
+                throw new ResourceNotFoundException("Product not found with id: " + productId);
+            }
+            if (!compositionRepository.existsById(compositionId)) {
+                throw new ResourceNotFoundException("Composition not found with id: " + compositionId);
+            }
+            throw new BusinessException("Composition does not belong to product with id: " + productId);
+        }
+        eventPublisher.publishEvent(new CatalogEvent.CompositionRemoved(productId, compositionId));
     }
 
     public ProductDTO convertToDto(Product product) {
@@ -130,14 +314,113 @@ public class ProductService {
                     .map(this::convertCompositionToDto)
                     .toList());
         }
+        attachRequirements(dto);
         return dto;
     }
 
+    private void emitChunk(List<Product> chunk, Consumer<ProductDTO> sink) {
+        List<ProductDTO> dtos = new ArrayList<>(chunk.size());
+        for (Product product : chunk) {
+            dtos.add(toDtoWithoutCompositions(product.getId(), product.getName(), product.getPrice()));
+        }
+        attachCompositions(dtos);
+        dtos.forEach(this::attachRequirements);
+        dtos.forEach(sink);
+        chunk.clear();
+        entityManager.clear();
+    }
+
+    private ProductDTO toDtoWithoutCompositions(Long id, String name, Double price) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setPrice(price);
+        return dto;
+    }
+
+    /**
+     * Fills the compositions of {@code dtos} with one query instead of one lazy load per product.
+     */
+    private void attachCompositions(List<ProductDTO> dtos) {
+        if (dtos.isEmpty()) {
+            return;
+        }
+        List<Long> ids = dtos.stream().map(ProductDTO::getId).toList();
+        Map<Long, List<ProductCompositionDTO>> compositionsByProduct = new HashMap<>();
+        for (ProductComposition comp : compositionRepository.findAllWithRawMaterialByProductIdIn(ids)) {
+            compositionsByProduct.computeIfAbsent(comp.getProduct().getId(), id -> new ArrayList<>())
+                    .add(convertCompositionToDto(comp));
+        }
+        for (ProductDTO dto : dtos) {
+            dto.setCompositions(compositionsByProduct.getOrDefault(dto.getId(), List.of()));
+        }
+    }
+
+    /**
+     * Raw material totals per unit, from the compositions already on {@code dto}: material lines count
+     * as they are and each component line adds that product's flattened vector from the BOM snapshot,
+     * so levels below the first are never read from the database.
+     */
+    private void attachRequirements(ProductDTO dto) {
+        if (dto.getCompositions() == null) {
+            return;
+        }
+        Map<Long, Long> totals = new TreeMap<>();
+        Map<Long, String> names = new HashMap<>();
+        BomSnapshot snapshot = null;
+        for (ProductCompositionDTO comp : dto.getCompositions()) {
+            if (comp.getComponentProductId() == null) {
+                totals.merge(comp.getRawMaterialId(), (long) comp.getRequiredQuantity(), Long::sum);
+                names.put(comp.getRawMaterialId(), comp.getRawMaterialName());
+                continue;
+            }
+            if (snapshot == null) {
+                snapshot = bomSnapshotService.current();
+            }
+            int position = snapshot.positionOf(comp.getComponentProductId());
+            if (position < 0) {
+                continue;
+            }
+            int[] slots = snapshot.lineSlots(position);
+            int[] quantities = snapshot.lineQuantities(position);
+            for (int k = 0; k < slots.length; k++) {
+                long materialId = snapshot.materialId(slots[k]);
+                totals.merge(materialId, (long) comp.getRequiredQuantity() * quantities[k], Long::sum);
+                names.putIfAbsent(materialId, snapshot.materialName(slots[k]));
+            }
+        }
+        List<MaterialRequirementDTO> requirements = new ArrayList<>(totals.size());
+        totals.forEach((materialId, quantity) -> requirements.add(new MaterialRequirementDTO(
+                materialId, names.get(materialId), (int) Math.min(quantity, Integer.MAX_VALUE))));
+        dto.setRequirements(requirements);
+    }
+
+    private List<CatalogEvent.BomLine> toBomLines(Product product) {
+        if (product.getCompositions() == null) {
+            return List.of();
+        }
+        return product.getCompositions().stream()
+                .map(ProductService::toBomLine)
+                .toList();
+    }
+
+    static CatalogEvent.BomLine toBomLine(ProductComposition comp) {
+        return new CatalogEvent.BomLine(comp.getId(),
+                comp.getRawMaterial() == null ? null : comp.getRawMaterial().getId(),
+                comp.getComponentProduct() == null ? null : comp.getComponentProduct().getId(),
+                comp.getRequiredQuantity());
+    }
+
     private ProductCompositionDTO convertCompositionToDto(ProductComposition comp) {
         ProductCompositionDTO dto = new ProductCompositionDTO();
         dto.setId(comp.getId());
-        dto.setRawMaterialId(comp.getRawMaterial().getId());
-        dto.setRawMaterialName(comp.getRawMaterial().getName());
+        if (comp.getComponentProduct() != null) {
+            dto.setComponentProductId(comp.getComponentProduct().getId());
+            dto.setComponentProductName(comp.getComponentProduct().getName());
+        } else {
+            dto.setRawMaterialId(comp.getRawMaterial().getId());
+            dto.setRawMaterialName(comp.getRawMaterial().getName());
+        }
         dto.setRequiredQuantity(comp.getRequiredQuantity());
         return dto;
     }
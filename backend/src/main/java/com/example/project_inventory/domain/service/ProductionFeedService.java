@@ -0,0 +1,371 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.event.CatalogEvent;
+import com.example.project_inventory.domain.planning.PlanningStrategy;
+import com.example.project_inventory.dto.ProductionItemDTO;
+import com.example.project_inventory.dto.ProductionPlanDeltaDTO;
+import com.example.project_inventory.dto.ProductionReportDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the production plan to server-sent-event subscribers: the whole plan once on subscribe
+ * ({@code plan} event), then only what changed ({@code delta} events).
+ * <p>
+ * Catalog events don't recompute anything themselves; they schedule one refresh after a short
+ * debounce, so a burst of writes yields one delta. Each refresh asks {@link ProductionService}
+ * for the current suggestion, which is memoized per catalog version, diffs it against the last one
+ * sent and serializes the delta once for every subscriber of that strategy. Event ids are the
+ * report's ETag; a client reconnecting with a {@code Last-Event-ID} that is still current gets no
+ * initial plan.
+ * <p>
+ * Writing to a client can block for as long as the client doesn't read, so events are only queued
+ * per subscriber and written by a bounded sender pool ({@code production.feed.sender-threads}). A
+ * subscriber with more than {@code production.feed.max-pending-events} events still queued, or with
+ * one write blocked for longer than {@code production.feed.send-timeout-ms}, is dropped and its
+ * sender thread freed; its browser reconnects and starts again from the whole plan.
+ */
+@Slf4j
+@Service
+public class ProductionFeedService {
+
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    private final ProductionService productionService;
+    private final ObjectMapper objectMapper;
+    private final long debounceMs;
+    private final long subscriptionTimeoutMs;
+    private final int maxPendingEvents;
+    private final long sendTimeoutNanos;
+    private final Map<PlanningStrategy, Channel> channels = new EnumMap<>(PlanningStrategy.class);
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "production-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService sender;
+
+    public ProductionFeedService(ProductionService productionService,
+                                 ObjectMapper objectMapper,
+                                 @Value("${production.feed.debounce-ms:250}") long debounceMs,
+                                 @Value("${production.feed.timeout-ms:1800000}") long subscriptionTimeoutMs,
+                                 @Value("${production.feed.max-pending-events:16}") int maxPendingEvents,
+                                 @Value("${production.feed.sender-threads:4}") int senderThreads,
+                                 @Value("${production.feed.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.productionService = productionService;
+        this.objectMapper = objectMapper;
+        this.debounceMs = debounceMs;
+        this.subscriptionTimeoutMs = subscriptionTimeoutMs;
+        this.maxPendingEvents = maxPendingEvents;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "production-feed-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (PlanningStrategy strategy : PlanningStrategy.values()) {
+            channels.put(strategy, new Channel(strategy));
+        }
+        scheduler.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        long checkMs = Math.max(1, sendTimeoutMs / 2);
+        scheduler.scheduleAtFixedRate(this::dropStalled, checkMs, checkMs, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(PlanningStrategy strategy, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(subscriptionTimeoutMs);
+        subscribe(emitter, strategy, lastEventId);
+        return emitter;
+    }
+
+    /**
+     * Subscribes an emitter the caller created.
+     */
+    public void subscribe(SseEmitter emitter, PlanningStrategy strategy, String lastEventId) {
+        channels.get(strategy).add(emitter, lastEventId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::refreshAll, debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        channels.values().forEach(Channel::completeAll);
+        sender.shutdownNow();
+    }
+
+    private void refreshAll() {
+        // cleared first, so a change committed while refreshing schedules another refresh
+        refreshScheduled.set(false);
+        for (Channel channel : channels.values()) {
+            if (!channel.hasSubscribers()) {
+                // brought up to date by the next subscribe
+                continue;
+            }
+            try {
+                channel.refresh();
+            } catch (RuntimeException e) {
+                log.warn("Production feed refresh failed for {}", channel.strategy, e);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        channels.values().forEach(Channel::heartbeat);
+    }
+
+    private void dropStalled() {
+        long now = System.nanoTime();
+        channels.values().forEach(channel -> channel.dropStalled(now));
+    }
+
+    /**
+     * What turns {@code before} into {@code after}, with items matched by product id.
+     */
+    public static ProductionPlanDeltaDTO diff(ProductionReportDTO before, ProductionReportDTO after) {
+        Map<Long, ProductionItemDTO> previous = new LinkedHashMap<>();
+        for (ProductionItemDTO item : before.getSuggestedItems()) {
+            previous.put(item.getProductId(), item);
+        }
+        List<ProductionItemDTO> added = new ArrayList<>();
+        List<ProductionItemDTO> changed = new ArrayList<>();
+        for (ProductionItemDTO item : after.getSuggestedItems()) {
+            ProductionItemDTO old = previous.remove(item.getProductId());
+            if (old == null) {
+                added.add(item);
+            } else if (!old.equals(item)) {
+                changed.add(item);
+            }
+        }
+        return new ProductionPlanDeltaDTO(added, changed, List.copyOf(previous.keySet()), after.getTotalEstimatedValue());
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Subscribers of one strategy and the last plan they were sent. Events are queued under the
+     * channel's lock, so a new subscriber never misses a delta or gets one that predates its initial plan.
+     */
+    private final class Channel {
+
+        private final PlanningStrategy strategy;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private ProductionService.Suggestion last;
+
+        Channel(PlanningStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        void add(SseEmitter emitter, String lastEventId) {
+            // planned before taking the lock, so a slow plan holds up neither refreshes nor other subscribers
+            ProductionService.Suggestion current = productionService.suggest(strategy);
+            synchronized (this) {
+                advance(current);
+                Subscriber subscriber = new Subscriber(emitter);
+                emitter.onCompletion(() -> subscribers.remove(subscriber));
+                emitter.onTimeout(emitter::complete);
+                emitter.onError(error -> subscribers.remove(subscriber));
+                if (!Objects.equals(lastEventId, last.etag())) {
+                    subscriber.offer(SseEmitter.event().name("plan").id(last.etag())
+                            .data(json(last.report()), MediaType.APPLICATION_JSON).build());
+                }
+                subscribers.add(subscriber);
+            }
+        }
+
+        void refresh() {
+            advance(productionService.suggest(strategy));
+        }
+
+        /**
+         * Makes {@code current} the last plan and sends subscribers the delta, unless a plan at least as
+         * new was already taken.
+         */
+        private synchronized void advance(ProductionService.Suggestion current) {
+            if (last != null && last.version() >= current.version()) {
+                return;
+            }
+            ProductionService.Suggestion previous = last;
+            last = current;
+            if (previous == null || subscribers.isEmpty()) {
+                return;
+            }
+            ProductionPlanDeltaDTO delta = diff(previous.report(), current.report());
+            if (delta.getAdded().isEmpty() && delta.getChanged().isEmpty() && delta.getRemovedProductIds().isEmpty()) {
+                // the catalog changed in a way the plan doesn't show
+                return;
+            }
+            broadcast(SseEmitter.event().name("delta").id(current.etag())
+                    .data(json(delta), MediaType.APPLICATION_JSON).build());
+            log.debug("Production feed {}: {} added, {} changed, {} removed, sent to {} subscribers", strategy,
+                    delta.getAdded().size(), delta.getChanged().size(), delta.getRemovedProductIds().size(),
+                    subscribers.size());
+        }
+
+        boolean hasSubscribers() {
+            return !subscribers.isEmpty();
+        }
+
+        synchronized void heartbeat() {
+            if (!subscribers.isEmpty()) {
+                broadcast(SseEmitter.event().comment("keep-alive").build());
+            }
+        }
+
+        void dropStalled(long now) {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.interruptIfStalled(now)) {
+                    log.debug("Production feed {}: dropping a subscriber whose write is stalled", strategy);
+                    subscribers.remove(subscriber);
+                }
+            }
+        }
+
+        synchronized void completeAll() {
+            subscribers.forEach(subscriber -> subscriber.emitter.complete());
+            subscribers.clear();
+        }
+
+        /**
+         * Queues an event that was built once; a builder can't be sent more than once.
+         */
+        private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.offer(event)) {
+                    log.debug("Production feed {}: dropping a subscriber {} events behind", strategy, maxPendingEvents);
+                    subscribers.remove(subscriber);
+                    subscriber.emitter.complete();
+                }
+            }
+        }
+
+        /**
+         * One client's emitter and the events queued for it, written in order by one sender task at a time.
+         */
+        private final class Subscriber {
+
+            private final SseEmitter emitter;
+            private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+            private final AtomicInteger pendingCount = new AtomicInteger();
+            private final AtomicBoolean draining = new AtomicBoolean();
+            // the thread blocked in a write and since when; guarded by this
+            private Thread sendingThread;
+            private long sendStartedAt;
+            private boolean timedOut;
+
+            Subscriber(SseEmitter emitter) {
+                this.emitter = emitter;
+            }
+
+            /**
+             * Queues the event; false when the client already has as many waiting as it may.
+             */
+            boolean offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+                if (pendingCount.incrementAndGet() > maxPendingEvents) {
+                    return false;
+                }
+                pending.add(event);
+                if (draining.compareAndSet(false, true)) {
+                    sender.execute(this::drain);
+                }
+                return true;
+            }
+
+            private void drain() {
+                do {
+                    Set<ResponseBodyEmitter.DataWithMediaType> event;
+                    while ((event = pending.poll()) != null) {
+                        try {
+                            send(event);
+                        } catch (IOException | IllegalStateException e) {
+                            // the client went away and the container completes the emitter, or it stalled and we do
+                            subscribers.remove(this);
+                            if (isTimedOut()) {
+                                emitter.complete();
+                            }
+                            return;
+                        }
+                        pendingCount.decrementAndGet();
+                    }
+                    draining.set(false);
+                    // an event queued after the last poll but before the flag cleared is still ours to send
+                } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+            }
+
+            private void send(Set<ResponseBodyEmitter.DataWithMediaType> event) throws IOException {
+                synchronized (this) {
+                    if (timedOut) {
+                        throw new IOException("Write to a stalled subscriber");
+                    }
+                    sendingThread = Thread.currentThread();
+                    sendStartedAt = System.nanoTime();
+                }
+                try {
+                    emitter.send(event);
+                } finally {
+                    synchronized (this) {
+                        sendingThread = null;
+                        if (timedOut) {
+                            // the interrupt was meant for this write, not the pool's next task
+                            Thread.interrupted();
+                        }
+                    }
+                }
+            }
+
+            /**
+             * Interrupts a write blocked for longer than the send timeout; true when it did.
+             */
+            synchronized boolean interruptIfStalled(long now) {
+                if (sendingThread == null || timedOut || now - sendStartedAt < sendTimeoutNanos) {
+                    return false;
+                }
+                timedOut = true;
+                sendingThread.interrupt();
+                return true;
+            }
+
+            private synchronized boolean isTimedOut() {
+                return timedOut;
+            }
+        }
+    }
+}
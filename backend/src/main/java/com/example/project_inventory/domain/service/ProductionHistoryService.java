@@ -0,0 +1,126 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.planning.IncrementalGreedyPlanner;
+import com.example.project_inventory.domain.planning.PlanningStrategy;
+import com.example.project_inventory.domain.planning.StockTimeline;
+import com.example.project_inventory.domain.repository.StockRepository;
+import com.example.project_inventory.dto.PointInTimeReportDTO;
+import com.example.project_inventory.dto.ProductionReportDTO;
+import com.example.project_inventory.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Production reports as of earlier points in time, planned from the stock the journal had then.
+ * <p>
+ * The stock is replayed, not reconstructed per point: one grouped query gives every balance at the
+ * first point and one ordered scan of the journal up to the last gives what moved in between, which
+ * becomes a {@link StockTimeline}. The points are split into contiguous runs planned in parallel on
+ * the shared planning pool; within a run each point only applies the materials that moved since the one
+ * before, greedy plans follow them with an {@link IncrementalGreedyPlanner}, and a point where
+ * nothing moved repeats the report before it. Reports are handed over in time order.
+ * <p>
+ * Only stock has a history. Products, compositions and prices are the catalog's current ones, and a
+ * raw material's opening stock counts from before it was created. Points must be older than the
+ * journal's settle time, so a movement still committing can never be missed by one query and seen
+ * by the other.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductionHistoryService {
+
+    static final int MAX_POINTS = 1_000;
+    private static final Duration MIN_STEP = Duration.ofMinutes(1);
+
+    private final BomSnapshotService bomSnapshotService;
+    private final ProductionService productionService;
+    private final StockRepository stockRepository;
+    private final StockJournalService stockJournalService;
+    private final ForkJoinPool planningPool;
+
+    /**
+     * Reads the stock at every point from {@code from} to {@code to} at most, {@code step} apart;
+     * {@code to} defaults to {@code from}.
+     */
+    public StockTimeline timeline(Instant from, Instant to, Duration step) {
+        if (from == null) {
+            throw new BusinessException("from is required");
+        }
+        Instant until = to == null ? from : to;
+        if (until.isBefore(from)) {
+            throw new BusinessException("to must not be before from");
+        }
+        if (step == null || step.compareTo(MIN_STEP) < 0) {
+            throw new BusinessException("step must be at least " + MIN_STEP);
+        }
+        long points = Duration.between(from, until).dividedBy(step) + 1;
+        if (points > MAX_POINTS) {
+            throw new BusinessException("At most " + MAX_POINTS + " points per request; got " + points);
+        }
+        Instant settled = stockJournalService.settledBefore();
+        if (!until.isBefore(settled)) {
+            throw new BusinessException("Stock is only settled before " + settled + "; choose an earlier 'to'");
+        }
+
+        StockTimeline.Builder builder = StockTimeline.builder(bomSnapshotService.current(), from, step, (int) points);
+        stockRepository.forEachBalanceAt(from, rs -> builder.balance(rs.getLong(1), rs.getLong(2)));
+        if (points > 1) {
+            stockRepository.forEachMovementBetween(from, from.plus(step.multipliedBy(points - 1)),
+                    rs -> builder.movement(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).toInstant()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Plans every point of {@code timeline} and hands each report to {@code sink} in time order.
+     */
+    public void replay(StockTimeline timeline, PlanningStrategy strategy, Consumer<PointInTimeReportDTO> sink) {
+        int points = timeline.points();
+        int runs = Math.min(points, planningPool.getParallelism());
+
+        List<Future<List<PointInTimeReportDTO>>> futures = new ArrayList<>(runs);
+        try {
+            for (int run = 0; run < runs; run++) {
+                int first = (int) ((long) points * run / runs);
+                int last = (int) ((long) points * (run + 1) / runs);
+                futures.add(planningPool.submit(() -> plan(timeline, first, last, strategy)));
+            }
+            for (Future<List<PointInTimeReportDTO>> future : futures) {
+                PlanningTasks.join(future).forEach(sink);
+            }
+        } finally {
+            // a client that went away leaves nobody to read the rest
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Reports for points {@code first} (inclusive) to {@code last} (exclusive), walking one cursor forward.
+     */
+    private List<PointInTimeReportDTO> plan(StockTimeline timeline, int first, int last, PlanningStrategy strategy) {
+        IncrementalGreedyPlanner greedyPlanner = new IncrementalGreedyPlanner();
+        StockTimeline.Cursor cursor = timeline.cursor(first);
+        List<PointInTimeReportDTO> reports = new ArrayList<>(last - first);
+        ProductionReportDTO report = null;
+        for (int point = first; point < last; point++) {
+            boolean moved = point > first && cursor.advance();
+            if (report == null || moved) {
+                BomSnapshot snapshot = cursor.snapshot();
+                report = strategy == PlanningStrategy.OPTIMAL
+                        ? productionService.evaluate(snapshot, strategy)
+                        : ProductionService.toReport(snapshot, greedyPlanner.plan(snapshot));
+            }
+            reports.add(new PointInTimeReportDTO(cursor.time(), report));
+        }
+        return reports;
+    }
+}
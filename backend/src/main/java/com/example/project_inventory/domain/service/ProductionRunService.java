@@ -0,0 +1,143 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.repository.ProductCompositionRepository;
+import com.example.project_inventory.domain.repository.ProductRepository;
+import com.example.project_inventory.dto.MaterialConsumptionDTO;
+import com.example.project_inventory.dto.ProductionRunDTO;
+import com.example.project_inventory.dto.ProductionRunRequestDTO;
+import com.example.project_inventory.exception.BusinessException;
+import com.example.project_inventory.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Consumes a run's whole BOM in one transaction, sub-assemblies included, locking balances in material id order.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductionRunService {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_MILLIS = 10;
+
+    private final ProductRepository productRepository;
+    private final ProductCompositionRepository compositionRepository;
+    private final StockJournalService stockJournalService;
+    private final TransactionOperations transactionOperations;
+    private final BomSnapshotService bomSnapshotService;
+
+    public ProductionRunDTO confirmRun(ProductionRunRequestDTO request) {
+        CatalogValidator.validateRequiredQuantity(request.getQuantity());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionOperations.execute(status ->
+                        consume(request.getProductId(), request.getQuantity(), request.getSiteId()));
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Production run for product {} hit contention (attempt {}), retrying",
+                        request.getProductId(), attempt);
+                backOff(attempt);
+            }
+        }
+    }
+
+    private ProductionRunDTO consume(Long productId, int units, Long siteId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+        List<ProductComposition> lines = compositionRepository.findAllWithRawMaterialByProductIdIn(List.of(productId));
+        if (lines.isEmpty()) {
+            throw new BusinessException("Product '" + product.getName() + "' has no raw materials to consume");
+        }
+
+        // sorted by material id: the lock order every concurrent run agrees on
+        TreeMap<Long, Long> required = new TreeMap<>();
+        Map<Long, String> names = new HashMap<>();
+        BomSnapshot snapshot = null;
+        for (ProductComposition line : lines) {
+            long perLine = (long) units * line.getRequiredQuantity();
+            if (line.getRawMaterial() != null) {
+                required.merge(line.getRawMaterial().getId(), perLine, ProductionRunService::saturatedSum);
+                names.put(line.getRawMaterial().getId(), line.getRawMaterial().getName());
+                continue;
+            }
+            if (snapshot == null) {
+                snapshot = bomSnapshotService.current();
+            }
+            Product component = line.getComponentProduct();
+            int position = snapshot.positionOf(component.getId());
+            if (position < 0 || snapshot.lineSlots(position).length == 0) {
+                throw new BusinessException("Component '" + component.getName() + "' of '" + product.getName() +
+                        "' has no raw materials to consume");
+            }
+            int[] slots = snapshot.lineSlots(position);
+            int[] quantities = snapshot.lineQuantities(position);
+            for (int k = 0; k < slots.length; k++) {
+                long materialId = snapshot.materialId(slots[k]);
+                required.merge(materialId, saturatedProduct(perLine, quantities[k]), ProductionRunService::saturatedSum);
+                names.putIfAbsent(materialId, snapshot.materialName(slots[k]));
+            }
+        }
+        long[] materialIds = new long[required.size()];
+        long[] quantities = new long[required.size()];
+        int k = 0;
+        for (Map.Entry<Long, Long> entry : required.entrySet()) {
+            materialIds[k] = entry.getKey();
+            quantities[k++] = entry.getValue();
+        }
+
+        long[] remaining = stockJournalService.consume(materialIds, quantities, siteId,
+                "Production run: " + units + " x product " + product.getId());
+        for (int i = 0; i < remaining.length; i++) {
+            if (remaining[i] < 0) {
+                throw new BusinessException("Insufficient stock of raw material '" + names.get(materialIds[i]) +
+                        "' to produce " + units + " unit(s) of '" + product.getName() + "'");
+            }
+        }
+
+        List<MaterialConsumptionDTO> consumed = new ArrayList<>(materialIds.length);
+        for (int i = 0; i < materialIds.length; i++) {
+            Long materialId = materialIds[i];
+            consumed.add(new MaterialConsumptionDTO(materialId, names.get(materialId), quantities[i],
+                    (int) Math.min(remaining[i], Integer.MAX_VALUE)));
+        }
+        return new ProductionRunDTO(product.getId(), product.getName(), units, consumed);
+    }
+
+    // quantities past Long.MAX_VALUE can't be in stock either; capping keeps them failing as shortages
+    private static long saturatedProduct(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        return high != 0 || low < 0 ? Long.MAX_VALUE : low;
+    }
+
+    private static long saturatedSum(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static void backOff(int attempt) {
+        try {
+            // jittered so runs that collided once don't collide again in lockstep
+            Thread.sleep(BACKOFF_MILLIS * attempt + ThreadLocalRandom.current().nextLong(BACKOFF_MILLIS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Interrupted while retrying the production run");
+        }
+    }
+}
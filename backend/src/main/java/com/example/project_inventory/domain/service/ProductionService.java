@@ -1,70 +1,193 @@
 package com.example.project_inventory.domain.service;
 
-import com.example.project_inventory.domain.model.Product;
-import com.example.project_inventory.domain.model.RawMaterial;
-import com.example.project_inventory.domain.repository.ProductRepository;
-import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.planning.GreedyPlanner;
+import com.example.project_inventory.domain.planning.IncrementalGreedyPlanner;
+import com.example.project_inventory.domain.planning.OptimalProductionPlanner;
+import com.example.project_inventory.domain.planning.PlanningStrategy;
+import com.example.project_inventory.domain.planning.StockLedger;
 import com.example.project_inventory.dto.ProductionItemDTO;
 import com.example.project_inventory.dto.ProductionReportDTO;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.util.*;
-import java.util.stream.Collectors;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class ProductionService {
 
-    private final ProductRepository productRepository;
-    private final RawMaterialRepository rawMaterialRepository;
+    private static final int LOAD = 0;
+    private static final int PLAN = 1;
+    private static final int REPORT = 2;
+    private static final String[] PHASES = {"load", "plan", "report"};
+
+    private final BomSnapshotService bomSnapshotService;
+    private final OptimalProductionPlanner optimalProductionPlanner;
+    private final IncrementalGreedyPlanner greedyPlanner = new IncrementalGreedyPlanner();
+    private final Map<PlanningStrategy, Timer[]> phaseTimers = new EnumMap<>(PlanningStrategy.class);
+    private final Map<PlanningStrategy, AtomicReference<Memo>> memos = new EnumMap<>(PlanningStrategy.class);
+    private final Counter unprovenPlans;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * A suggestion and its entity tag, which changes whenever the report can change.
+     */
+    public record Suggestion(ProductionReportDTO report, String etag, long version) {
+    }
+
+    private record Memo(long version, CompletableFuture<ProductionReportDTO> report) {
+    }
+
+    public ProductionService(BomSnapshotService bomSnapshotService,
+                             OptimalProductionPlanner optimalProductionPlanner,
+                             MeterRegistry meterRegistry) {
+        this.bomSnapshotService = bomSnapshotService;
+        this.optimalProductionPlanner = optimalProductionPlanner;
+        for (PlanningStrategy strategy : PlanningStrategy.values()) {
+            Timer[] timers = new Timer[PHASES.length];
+            for (int phase = 0; phase < PHASES.length; phase++) {
+                timers[phase] = Timer.builder("production.suggestion")
+                        .description("Time spent in each phase of the production suggestion")
+                        .tag("phase", PHASES[phase])
+                        .tag("strategy", strategy.name().toLowerCase(Locale.ROOT))
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+            }
+            phaseTimers.put(strategy, timers);
+            memos.put(strategy, new AtomicReference<>());
+        }
+        this.unprovenPlans = Counter.builder("production.optimal.unproven")
+                .description("Optimal plans returned before the search could prove them optimal")
+                .register(meterRegistry);
+    }
 
-    @Transactional(readOnly = true)
     public ProductionReportDTO calculateSuggestedProduction() {
-        List<Product> products = productRepository.findAllWithCompositionsOrderByPriceDesc();
+        return calculateSuggestedProduction(PlanningStrategy.GREEDY);
+    }
 
-        Map<Long, Integer> temporaryStock = rawMaterialRepository.findAll().stream()
-                .collect(Collectors.toMap(RawMaterial::getId, RawMaterial::getStockQuantity));
+    public ProductionReportDTO calculateSuggestedProduction(PlanningStrategy strategy) {
+        return suggest(strategy).report();
+    }
 
-        List<ProductionItemDTO> items = new ArrayList<>();
+    /**
+     * The suggestion for the current catalog. Reports are kept per strategy and reused until the BOM
+     * snapshot version changes, which every catalog write causes; concurrent callers for a version
+     * that is not computed yet share one computation. The report is shared, so callers must not
+     * modify it.
+     */
+    public Suggestion suggest(PlanningStrategy strategy) {
+        long start = System.nanoTime();
+        BomSnapshot snapshot = bomSnapshotService.current();
+        phaseTimers.get(strategy)[LOAD].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        AtomicReference<Memo> memo = memos.get(strategy);
+        while (true) {
+            Memo known = memo.get();
+            if (known != null && known.version() >= snapshot.version()) {
+                return new Suggestion(join(known.report()), etag(strategy, known.version()), known.version());
+            }
+            Memo mine = new Memo(snapshot.version(), new CompletableFuture<>());
+            if (memo.compareAndSet(known, mine)) {
+                try {
+                    ProductionReportDTO report = compute(snapshot, strategy);
+                    mine.report().complete(report);
+                    return new Suggestion(report, etag(strategy, mine.version()), mine.version());
+                } catch (RuntimeException e) {
+                    // let the next caller try again instead of replaying the failure
+                    memo.compareAndSet(mine, null);
+                    mine.report().completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+    }
 
-        for (Product product : products) {
-            if (product.getCompositions() == null || product.getCompositions().isEmpty()) continue;
+    /**
+     * Plans {@code snapshot} and builds the report, without looking at or filling the memo.
+     */
+    public ProductionReportDTO compute(BomSnapshot snapshot, PlanningStrategy strategy) {
+        Timer[] timers = phaseTimers.get(strategy);
+        long start = System.nanoTime();
+        int[] produced;
+        if (strategy == PlanningStrategy.OPTIMAL) {
+            produced = solveOptimal(snapshot);
+        } else {
+            produced = greedyPlanner.plan(snapshot);
+        }
+        long planned = System.nanoTime();
+        timers[PLAN].record(planned - start, TimeUnit.NANOSECONDS);
 
-            int maxQuantity = Integer.MAX_VALUE;
+        ProductionReportDTO report = toReport(snapshot, produced);
+        timers[REPORT].record(System.nanoTime() - planned, TimeUnit.NANOSECONDS);
+        return report;
+    }
 
-            for (var comp : product.getCompositions()) {
-                int required = comp.getRequiredQuantity();
-                if (required <= 0) continue;
+    /**
+     * Plans a snapshot that is not the catalog's, such as a what-if variant of it. Nothing is shared
+     * with the suggestion path: no memo, no timers and a full greedy pass instead of the incremental
+     * planner, whose state follows the live catalog. Safe to call from several threads at once.
+     */
+    public ProductionReportDTO evaluate(BomSnapshot snapshot, PlanningStrategy strategy) {
+        return toReport(snapshot, plan(snapshot, strategy));
+    }
 
-                int available = temporaryStock.getOrDefault(comp.getRawMaterial().getId(), 0);
-                int possible = available / required;
+    /**
+     * Units per product position for {@link #evaluate}, without the report.
+     */
+    int[] plan(BomSnapshot snapshot, PlanningStrategy strategy) {
+        if (strategy == PlanningStrategy.OPTIMAL) {
+            return solveOptimal(snapshot);
+        }
+        int[] produced = new int[snapshot.productCount()];
+        GreedyPlanner.plan(snapshot, StockLedger.of(snapshot), produced);
+        return produced;
+    }
 
-                if (possible < maxQuantity) {
-                    maxQuantity = possible;
-                }
-            }
+    private int[] solveOptimal(BomSnapshot snapshot) {
+        OptimalProductionPlanner.Plan plan = optimalProductionPlanner.solve(snapshot);
+        if (!plan.optimal()) {
+            unprovenPlans.increment();
+            log.debug("Optimal plan for snapshot {} is the best found, not proven optimal", snapshot.version());
+        }
+        return plan.produced();
+    }
 
-            if (maxQuantity > 0 && maxQuantity != Integer.MAX_VALUE) {
-                for (var comp : product.getCompositions()) {
-                    Long matId = comp.getRawMaterial().getId();
-                    int totalUsed = comp.getRequiredQuantity() * maxQuantity;
-                    temporaryStock.put(matId, temporaryStock.get(matId) - totalUsed);
-                }
+    private String etag(PlanningStrategy strategy, long version) {
+        // versions restart with the application, the epoch keeps tags from an earlier run from matching
+        return "\"" + epoch + "-" + version + "-" + strategy.name().toLowerCase(Locale.ROOT) + "\"";
+    }
+
+    private static ProductionReportDTO join(CompletableFuture<ProductionReportDTO> report) {
+        try {
+            return report.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
 
+    static ProductionReportDTO toReport(BomSnapshot snapshot, int[] produced) {
+        List<ProductionItemDTO> items = new ArrayList<>();
+        double total = 0;
+        for (int p = 0; p < produced.length; p++) {
+            if (produced[p] > 0) {
+                double subtotal = produced[p] * snapshot.price(p);
                 items.add(new ProductionItemDTO(
-                        product.getName(),
-                        maxQuantity,
-                        maxQuantity * product.getPrice()
-                ));
+                        snapshot.productId(p), snapshot.productName(p), produced[p], subtotal));
+                total += subtotal;
             }
         }
-
-        double total = items.stream()
-                .mapToDouble(ProductionItemDTO::getSubtotal)
-                .sum();
-
         return new ProductionReportDTO(items, total);
     }
 }
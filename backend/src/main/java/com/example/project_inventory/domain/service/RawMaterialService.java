@@ -1,22 +1,39 @@
 package com.example.project_inventory.domain.service;
 
+import com.example.project_inventory.domain.event.CatalogEvent;
 import com.example.project_inventory.domain.model.RawMaterial;
 import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import com.example.project_inventory.dto.CursorPageDTO;
 import com.example.project_inventory.dto.RawMaterialDTO;
 import com.example.project_inventory.exception.BusinessException;
 import com.example.project_inventory.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class RawMaterialService {
 
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final RawMaterialRepository rawMaterialRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final CatalogCache catalogCache;
+    private final WhereUsedService whereUsedService;
+    private final StockJournalService stockJournalService;
 
+    @Transactional(readOnly = true)
     public List<RawMaterialDTO> findAll() {
         return rawMaterialRepository.findAll()
                 .stream()
@@ -24,52 +41,120 @@ public class RawMaterialService {
                 .toList();
     }
 
+    /**
+     * One keyset page of raw materials ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RawMaterialDTO> findPage(String cursor, int size) {
+        PageCursor.requireValidSize(size);
+        long after = cursor == null || cursor.isBlank() ? Long.MIN_VALUE : PageCursor.decodeId(cursor);
+        List<RawMaterial> rows = rawMaterialRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size + 1));
+
+        boolean hasNext = rows.size() > size;
+        List<RawMaterialDTO> items = rows.stream()
+                .limit(size)
+                .map(this::convertToDto)
+                .toList();
+        String nextCursor = hasNext ? PageCursor.encode(items.get(size - 1).getId()) : null;
+        return new CursorPageDTO<>(items, nextCursor);
+    }
+
+    /**
+     * Hands every raw material, by id, to {@code sink} through a cursor, clearing the persistence
+     * context every {@value #STREAM_CHUNK_SIZE} rows so memory stays flat.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<RawMaterialDTO> sink) {
+        try (Stream<RawMaterial> materials = rawMaterialRepository.streamAll()) {
+            int[] count = {0};
+            materials.forEach(material -> {
+                sink.accept(convertToDto(material));
+                if (++count[0] % STREAM_CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                }
+            });
+        }
+    }
+
+    /**
+     * Raw material details, served from {@link CatalogCache}.
+     */
     public RawMaterialDTO findByIdAsDto(Long id) {
-        return convertToDto(findById(id));
+        return catalogCache.rawMaterial(id, key -> convertToDto(findById(key)));
     }
 
+    @Transactional(readOnly = true)
     public RawMaterial findById(Long id) {
         return rawMaterialRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Raw material not found with id: " + id));
     }
 
+    /**
+     * Creates the raw material; its stock quantity is the opening balance of its stock journal.
+     */
     @Transactional
     public RawMaterialDTO save(RawMaterial material) {
         validateMaterial(material);
-        return convertToDto(rawMaterialRepository.save(material));
+        RawMaterial saved = rawMaterialRepository.save(material);
+        eventPublisher.publishEvent(new CatalogEvent.RawMaterialSaved(
+                saved.getId(), saved.getName(), saved.getStockQuantity()));
+        return convertToDto(saved);
     }
 
+    /**
+     * Stock only changes when the caller sends the balance it read, so a stale copy can't undo later movements.
+     */
     @Transactional
-    public RawMaterialDTO update(Long id, RawMaterial materialDetails) {
-        validateMaterial(materialDetails);
+    public RawMaterialDTO update(Long id, RawMaterial materialDetails, Integer expectedStockQuantity) {
+        if (expectedStockQuantity != null) {
+            validateMaterial(materialDetails);
+        } else {
+            CatalogValidator.validateRawMaterialName(materialDetails.getName());
+        }
         RawMaterial material = findById(id);
+        if (materialDetails.getVersion() != null && !materialDetails.getVersion().equals(material.getVersion())) {
+            // the client edited a copy that someone else has changed since
+            throw new ObjectOptimisticLockingFailureException(RawMaterial.class, id);
+        }
         material.setName(materialDetails.getName());
-        material.setStockQuantity(materialDetails.getStockQuantity());
-        return convertToDto(rawMaterialRepository.save(material));
+        RawMaterial saved = rawMaterialRepository.save(material);
+        eventPublisher.publishEvent(new CatalogEvent.RawMaterialSaved(saved.getId(), saved.getName(), null));
+        RawMaterialDTO dto = convertToDto(saved);
+        if (expectedStockQuantity != null) {
+            dto.setStockQuantity((int) stockJournalService.adjustTo(id, expectedStockQuantity,
+                    materialDetails.getStockQuantity(), "Raw material update"));
+        }
+        return dto;
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!rawMaterialRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Raw material not found with id: " + id);
+        RawMaterial material = rawMaterialRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Raw material not found with id: " + id));
+        // answered from memory; a composition committed meanwhile is still caught by the foreign key
+        int users = whereUsedService.directUsersOfRawMaterial(id);
+        if (users > 0) {
+            throw new BusinessException("Raw material is used by " + users +
+                    " product(s); remove it from their compositions first");
         }
-        rawMaterialRepository.deleteById(id);
+        stockJournalService.discard(id);
+        rawMaterialRepository.delete(material);
+        eventPublisher.publishEvent(new CatalogEvent.RawMaterialDeleted(id));
     }
 
     private void validateMaterial(RawMaterial material) {
-        if (material.getName() == null || material.getName().isBlank()) {
-            throw new BusinessException("Raw material name is required");
-        }
-        if (material.getStockQuantity() == null || material.getStockQuantity() < 0) {
-            throw new BusinessException("Stock quantity must be a non-negative value");
-        }
+        CatalogValidator.validateRawMaterial(material.getName(), material.getStockQuantity());
     }
 
     public RawMaterialDTO convertToDto(RawMaterial material) {
         RawMaterialDTO dto = new RawMaterialDTO();
         dto.setId(material.getId());
         dto.setName(material.getName());
-        dto.setStockQuantity(material.getStockQuantity());
+        // the entity only holds stock as of the last journal fold
+        OptionalLong balance = stockJournalService.balance(material.getId());
+        dto.setStockQuantity(balance.isPresent() ? (int) Math.min(balance.getAsLong(), Integer.MAX_VALUE)
+                : material.getStockQuantity());
+        dto.setVersion(material.getVersion());
         return dto;
     }
 }
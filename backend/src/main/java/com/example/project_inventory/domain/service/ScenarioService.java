@@ -0,0 +1,114 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.planning.PlanningStrategy;
+import com.example.project_inventory.dto.PriceOverrideDTO;
+import com.example.project_inventory.dto.ProductionReportDTO;
+import com.example.project_inventory.dto.ScenarioComparisonDTO;
+import com.example.project_inventory.dto.ScenarioDTO;
+import com.example.project_inventory.dto.ScenarioRequestDTO;
+import com.example.project_inventory.dto.ScenarioResultDTO;
+import com.example.project_inventory.dto.StockOverrideDTO;
+import com.example.project_inventory.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * What-if planning: each scenario overrides some stock quantities and prices and is planned as if
+ * the catalog looked like that, next to the plan for the catalog as it is.
+ * <p>
+ * All scenarios of a request derive from one BOM snapshot taken when the request starts, so they
+ * are compared against the same baseline even if the catalog changes meanwhile. Overrides only
+ * produce new immutable snapshots; nothing is written and the database is never read. Scenarios
+ * are planned in parallel on the shared planning pool, so a large batch does not starve the common
+ * pool used by the rest of the application.
+ */
+@Service
+@RequiredArgsConstructor
+public class ScenarioService {
+
+    private final BomSnapshotService bomSnapshotService;
+    private final ProductionService productionService;
+    private final ForkJoinPool planningPool;
+
+    public ScenarioComparisonDTO compare(ScenarioRequestDTO request) {
+        PlanningStrategy strategy = PlanningStrategy.from(request.getStrategy());
+        BomSnapshot base = bomSnapshotService.current();
+
+        List<Callable<ProductionReportDTO>> tasks = new ArrayList<>();
+        tasks.add(() -> productionService.evaluate(base, strategy));
+        for (ScenarioDTO scenario : request.getScenarios()) {
+            tasks.add(() -> productionService.evaluate(apply(base, scenario), strategy));
+        }
+
+        List<ProductionReportDTO> reports = new ArrayList<>(tasks.size());
+        for (Future<ProductionReportDTO> future : planningPool.invokeAll(tasks)) {
+            reports.add(PlanningTasks.join(future));
+        }
+
+        ProductionReportDTO baseline = reports.get(0);
+        List<ScenarioResultDTO> results = new ArrayList<>(request.getScenarios().size());
+        for (int i = 0; i < request.getScenarios().size(); i++) {
+            ProductionReportDTO report = reports.get(i + 1);
+            results.add(new ScenarioResultDTO(request.getScenarios().get(i).getName(), report,
+                    report.getTotalEstimatedValue() - baseline.getTotalEstimatedValue()));
+        }
+        return new ScenarioComparisonDTO(baseline, results);
+    }
+
+    /**
+     * {@code base} with the scenario's overrides, applied in the order given. A relative stock change
+     * that would go below zero leaves the material with no stock.
+     */
+    static BomSnapshot apply(BomSnapshot base, ScenarioDTO scenario) {
+        BomSnapshot snapshot = base;
+        if (scenario.getStock() != null && !scenario.getStock().isEmpty()) {
+            int[] stock = base.stockCopy();
+            for (StockOverrideDTO override : scenario.getStock()) {
+                int slot = base.slotOf(override.getRawMaterialId());
+                if (slot < 0) {
+                    throw new BusinessException("Scenario '" + scenario.getName() + "': raw material not found with ID: "
+                            + override.getRawMaterialId());
+                }
+                if ((override.getStockQuantity() == null) == (override.getChange() == null)) {
+                    throw new BusinessException("Scenario '" + scenario.getName()
+                            + "': give either stockQuantity or change for raw material " + override.getRawMaterialId());
+                }
+                long quantity = override.getStockQuantity() != null
+                        ? override.getStockQuantity()
+                        : (long) stock[slot] + override.getChange();
+                stock[slot] = (int) Math.max(0, Math.min(quantity, Integer.MAX_VALUE));
+            }
+            snapshot = snapshot.withStock(stock, base.version());
+        }
+        if (scenario.getPrices() != null) {
+            for (PriceOverrideDTO override : scenario.getPrices()) {
+                int position = snapshot.positionOf(override.getProductId());
+                if (position < 0) {
+                    throw new BusinessException("Scenario '" + scenario.getName() + "': product not found with ID: "
+                            + override.getProductId());
+                }
+                if ((override.getPrice() == null) == (override.getChangePercent() == null)) {
+                    throw new BusinessException("Scenario '" + scenario.getName()
+                            + "': give either price or changePercent for product " + override.getProductId());
+                }
+                double price = override.getPrice() != null
+                        ? override.getPrice()
+                        : snapshot.price(position) * (1 + override.getChangePercent() / 100);
+                if (price < 0) {
+                    throw new BusinessException("Scenario '" + scenario.getName()
+                            + "': price of product " + override.getProductId() + " would be negative");
+                }
+                snapshot = snapshot.withProductDetails(override.getProductId(), snapshot.productName(position),
+                        price, base.version());
+            }
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.project_inventory.domain.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Loads on first use, one reader at a time, and never keeps a read that an event raced with.
+ */
+final class SingleFlightLoader<T> {
+
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final Supplier<T> reader;
+    private final Consumer<T> onLoaded;
+
+    private final AtomicReference<T> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<T>> loading = new AtomicReference<>();
+    private final AtomicLong changesSeen = new AtomicLong();
+
+    SingleFlightLoader(Supplier<T> reader, Consumer<T> onLoaded) {
+        this.reader = reader;
+        this.onLoaded = onLoaded;
+    }
+
+    T get() {
+        T value = current.get();
+        return value != null ? value : loadOnce();
+    }
+
+    T peek() {
+        return current.get();
+    }
+
+    long changesSeen() {
+        return changesSeen.get();
+    }
+
+    /**
+     * Counts a change; call it before patching what {@link #peek()} returns.
+     */
+    void changed() {
+        changesSeen.incrementAndGet();
+    }
+
+    void update(UnaryOperator<T> patch) {
+        changesSeen.incrementAndGet();
+        current.updateAndGet(value -> value == null ? null : patch.apply(value));
+    }
+
+    void invalidate() {
+        changesSeen.incrementAndGet();
+        current.set(null);
+    }
+
+    /**
+     * Swaps in {@code value} for {@code expected}, unless a change was counted since {@code seenBefore}.
+     */
+    boolean replace(T expected, long seenBefore, T value) {
+        return changesSeen.get() == seenBefore && current.compareAndSet(expected, value);
+    }
+
+    private T loadOnce() {
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> running = loading.compareAndExchange(null, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            T loaded = load();
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.compareAndSet(mine, null);
+        }
+    }
+
+    private T load() {
+        for (int attempt = 1; ; attempt++) {
+            long seenBefore = changesSeen.get();
+            T loaded = reader.get();
+            if (changesSeen.get() == seenBefore) {
+                T winner = current.compareAndExchange(null, loaded);
+                if (winner != null) {
+                    return winner;
+                }
+                // an event counted just before the publish found nothing to patch; take it back
+                if (changesSeen.get() == seenBefore) {
+                    onLoaded.accept(loaded);
+                    return loaded;
+                }
+                current.compareAndSet(loaded, null);
+            }
+            // served to the callers waiting on it, not kept
+            if (attempt == MAX_LOAD_ATTEMPTS) {
+                return loaded;
+            }
+        }
+    }
+}
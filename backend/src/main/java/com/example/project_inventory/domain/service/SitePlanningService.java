@@ -0,0 +1,98 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.model.Site;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.planning.PlanningStrategy;
+import com.example.project_inventory.domain.repository.SiteRepository;
+import com.example.project_inventory.domain.repository.StockRepository;
+import com.example.project_inventory.dto.MultiSiteReportDTO;
+import com.example.project_inventory.dto.ProductionReportDTO;
+import com.example.project_inventory.dto.SiteReportDTO;
+import com.example.project_inventory.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Production suggestions per site, each planned from that site's stock alone.
+ * <p>
+ * Every site reads only its own partition of the journal and lays it over the shared BOM snapshot,
+ * so sites derive from the same catalog and share its products, prices and composition arrays;
+ * only the stock vector is per site. Suggesting for all sites reads every site's balances in one
+ * statement, runs one task per site on the shared planning pool, and adds their plans up into a
+ * combined report.
+ */
+@Service
+@RequiredArgsConstructor
+public class SitePlanningService {
+
+    private final BomSnapshotService bomSnapshotService;
+    private final ProductionService productionService;
+    private final StockRepository stockRepository;
+    private final SiteRepository siteRepository;
+    private final ForkJoinPool planningPool;
+
+    public ProductionReportDTO suggest(Long siteId, PlanningStrategy strategy) {
+        Site site = siteRepository.findById(siteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Site not found with id: " + siteId));
+        BomSnapshot base = bomSnapshotService.current();
+        int[] stock = new int[base.materialCount()];
+        stockRepository.findSiteBalances(site.getId())
+                .forEach((materialId, balance) -> put(base, stock, materialId, balance));
+        return ProductionService.toReport(base, plan(base, stock, strategy));
+    }
+
+    public MultiSiteReportDTO suggestAll(PlanningStrategy strategy) {
+        List<Site> sites = siteRepository.findAllByOrderByCode();
+        BomSnapshot base = bomSnapshotService.current();
+
+        Map<Long, int[]> stocks = new HashMap<>();
+        stockRepository.forEachSiteBalance(rs -> {
+            int[] stock = stocks.computeIfAbsent(rs.getLong(1), siteId -> new int[base.materialCount()]);
+            put(base, stock, rs.getLong(2), rs.getLong(3));
+        });
+        List<Callable<int[]>> tasks = new ArrayList<>(sites.size());
+        for (Site site : sites) {
+            int[] stock = stocks.getOrDefault(site.getId(), new int[base.materialCount()]);
+            tasks.add(() -> plan(base, stock, strategy));
+        }
+        List<SiteReportDTO> reports = new ArrayList<>(sites.size());
+        long[] total = new long[base.productCount()];
+        int i = 0;
+        for (Future<int[]> future : planningPool.invokeAll(tasks)) {
+            Site site = sites.get(i++);
+            int[] produced = PlanningTasks.join(future);
+            for (int p = 0; p < produced.length; p++) {
+                total[p] += produced[p];
+            }
+            reports.add(new SiteReportDTO(site.getId(), site.getCode(), ProductionService.toReport(base, produced)));
+        }
+
+        int[] combined = new int[total.length];
+        for (int p = 0; p < total.length; p++) {
+            combined[p] = (int) Math.min(total[p], Integer.MAX_VALUE);
+        }
+        return new MultiSiteReportDTO(reports, ProductionService.toReport(base, combined));
+    }
+
+    /**
+     * Plans {@code base} with a site's stock; materials the site never held have none.
+     */
+    private int[] plan(BomSnapshot base, int[] stock, PlanningStrategy strategy) {
+        return productionService.plan(base.withStock(stock, base.version()), strategy);
+    }
+
+    private static void put(BomSnapshot base, int[] stock, long materialId, long balance) {
+        int slot = base.slotOf(materialId);
+        if (slot >= 0) {
+            stock[slot] = (int) Math.max(0, Math.min(Integer.MAX_VALUE, balance));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.model.Site;
+import com.example.project_inventory.domain.repository.SiteRepository;
+import com.example.project_inventory.dto.SiteDTO;
+import com.example.project_inventory.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class SiteService {
+
+    private final SiteRepository siteRepository;
+
+    @Transactional(readOnly = true)
+    public List<SiteDTO> findAll() {
+        return siteRepository.findAllByOrderByCode().stream()
+                .map(SiteService::toDto)
+                .toList();
+    }
+
+    @Transactional
+    public SiteDTO create(SiteDTO request) {
+        String code = request.getCode().trim();
+        if (siteRepository.existsByCode(code)) {
+            throw new BusinessException("A site with code '" + code + "' already exists");
+        }
+        Site site = new Site();
+        site.setCode(code);
+        site.setName(request.getName().trim());
+        return toDto(siteRepository.save(site));
+    }
+
+    private static SiteDTO toDto(Site site) {
+        SiteDTO dto = new SiteDTO();
+        dto.setId(site.getId());
+        dto.setCode(site.getCode());
+        dto.setName(site.getName());
+        return dto;
+    }
+}
@@ -0,0 +1,508 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.event.CatalogEvent;
+import com.example.project_inventory.domain.model.StockMovement;
+import com.example.project_inventory.domain.model.StockMovementType;
+import com.example.project_inventory.domain.model.StockSnapshot;
+import com.example.project_inventory.domain.repository.SiteRepository;
+import com.example.project_inventory.domain.repository.StockRepository;
+import com.example.project_inventory.dto.CursorPageDTO;
+import com.example.project_inventory.dto.StockAdjustmentDTO;
+import com.example.project_inventory.dto.StockBalanceDTO;
+import com.example.project_inventory.dto.StockMovementDTO;
+import com.example.project_inventory.dto.StockReceiptDTO;
+import com.example.project_inventory.dto.StockTransferDTO;
+import com.example.project_inventory.exception.BusinessException;
+import com.example.project_inventory.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock as an append-only journal; a movement that commits later than {@code stock.journal.settle-ms} is never folded.
+ */
+@Slf4j
+@Service
+public class StockJournalService {
+
+    private final StockRepository stockRepository;
+    private final SiteRepository siteRepository;
+    private final TransactionOperations transactionOperations;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration settleTime;
+    private final Duration commitWindow;
+    private final Map<StockMovementType, Counter> movementCounters = new EnumMap<>(StockMovementType.class);
+
+    private final SingleFlightLoader<Map<Long, Long>> balances = new SingleFlightLoader<>(this::read, loaded -> { });
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-journal-fold");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockJournalService(StockRepository stockRepository,
+                               SiteRepository siteRepository,
+                               TransactionOperations transactionOperations,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${stock.journal.fold-interval-ms:60000}") long foldIntervalMs,
+                               @Value("${stock.journal.settle-ms:30000}") long settleMs) {
+        this.stockRepository = stockRepository;
+        this.siteRepository = siteRepository;
+        this.transactionOperations = transactionOperations;
+        this.eventPublisher = eventPublisher;
+        this.settleTime = Duration.ofMillis(settleMs);
+        this.commitWindow = settleTime.dividedBy(2);
+        for (StockMovementType type : StockMovementType.values()) {
+            movementCounters.put(type, Counter.builder("stock.movements")
+                    .description("Movements appended to the stock journal")
+                    .tag("type", type.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        if (foldIntervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::foldQuietly, foldIntervalMs, foldIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * The current balance from the running totals, or empty when this node doesn't know the raw material.
+     */
+    public OptionalLong balance(long rawMaterialId) {
+        Long balance = balances().get(rawMaterialId);
+        return balance == null ? OptionalLong.empty() : OptionalLong.of(balance);
+    }
+
+    /**
+     * The current balance, or the balance once every movement recorded before {@code at} had been made.
+     */
+    @Transactional(readOnly = true)
+    public StockBalanceDTO balanceOf(Long rawMaterialId, Instant at) {
+        Long quantity = at == null ? currentBalances(Set.of(rawMaterialId)).get(rawMaterialId)
+                : stockRepository.findBalanceAt(rawMaterialId, at);
+        if (quantity == null) {
+            throw new ResourceNotFoundException("Raw material not found with id: " + rawMaterialId);
+        }
+        return new StockBalanceDTO(rawMaterialId, quantity, at);
+    }
+
+    /**
+     * Balance at the site of every raw material that has ever moved there, by raw material id.
+     */
+    @Transactional(readOnly = true)
+    public List<StockBalanceDTO> siteBalances(Long siteId) {
+        requireSites(Set.of(siteId));
+        return new TreeMap<>(stockRepository.findSiteBalances(siteId)).entrySet().stream()
+                .map(balance -> new StockBalanceDTO(balance.getKey(), balance.getValue(), null))
+                .toList();
+    }
+
+    /**
+     * One keyset page of the raw material's movements, by id.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<StockMovementDTO> movements(Long rawMaterialId, String cursor, int size) {
+        PageCursor.requireValidSize(size);
+        long after = cursor == null || cursor.isBlank() ? Long.MIN_VALUE : PageCursor.decodeId(cursor);
+        List<StockMovement> rows = stockRepository.findMovements(rawMaterialId, after, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<StockMovementDTO> items = rows.stream()
+                .limit(size)
+                .map(StockJournalService::toDto)
+                .toList();
+        String nextCursor = hasNext ? PageCursor.encode(items.get(size - 1).getId()) : null;
+        return new CursorPageDTO<>(items, nextCursor);
+    }
+
+    /**
+     * Appends the receipts without locking anything; the raw materials only have to exist.
+     */
+    @Transactional(timeoutString = "${stock.journal.transaction-timeout-seconds:10}")
+    public List<StockMovementDTO> receive(List<StockReceiptDTO> receipts) {
+        if (receipts == null || receipts.isEmpty()) {
+            throw new BusinessException("At least one receipt is required");
+        }
+        Set<Long> rawMaterialIds = new LinkedHashSet<>();
+        Set<Long> siteIds = new HashSet<>();
+        for (StockReceiptDTO receipt : receipts) {
+            if (receipt.getRawMaterialId() == null) {
+                throw new BusinessException("rawMaterialId is required");
+            }
+            if (receipt.getQuantity() == null || receipt.getQuantity() < 1) {
+                throw new BusinessException("Receipt quantity must be at least 1");
+            }
+            rawMaterialIds.add(receipt.getRawMaterialId());
+            if (receipt.getSiteId() != null) siteIds.add(receipt.getSiteId());
+        }
+        requireSites(siteIds);
+        Map<Long, Long> known = currentBalances(rawMaterialIds);
+        for (Long rawMaterialId : rawMaterialIds) {
+            if (!known.containsKey(rawMaterialId)) {
+                throw new ResourceNotFoundException("Raw material not found with id: " + rawMaterialId);
+            }
+        }
+
+        Instant now = Instant.now();
+        List<StockMovement> movements = new ArrayList<>(receipts.size());
+        for (StockReceiptDTO receipt : receipts) {
+            movements.add(movement(receipt.getRawMaterialId(), receipt.getSiteId(), StockMovementType.RECEIPT,
+                    receipt.getQuantity(), receipt.getReference(), now));
+        }
+        return record(movements);
+    }
+
+    @Transactional(timeoutString = "${stock.journal.transaction-timeout-seconds:10}")
+    public StockMovementDTO adjust(StockAdjustmentDTO adjustment) {
+        if (adjustment.getRawMaterialId() == null) {
+            throw new BusinessException("rawMaterialId is required");
+        }
+        if (adjustment.getChange() == null || adjustment.getChange() == 0) {
+            throw new BusinessException("Adjustment change must be a non-zero value");
+        }
+        long rawMaterialId = adjustment.getRawMaterialId();
+        Long siteId = adjustment.getSiteId();
+        if (siteId != null) {
+            requireSites(Set.of(siteId));
+        }
+        long balance = lockedBalance(rawMaterialId);
+        if (balance + adjustment.getChange() < 0) {
+            throw new BusinessException("Adjustment would take the stock of raw material " + rawMaterialId +
+                    " below zero (balance " + balance + ")");
+        }
+        if (adjustment.getChange() < 0) {
+            long poolBalance = poolBalance(rawMaterialId, siteId, balance);
+            if (poolBalance + adjustment.getChange() < 0) {
+                throw new BusinessException("Adjustment would take the stock of raw material " + rawMaterialId + " " +
+                        poolName(siteId) + " below zero (balance " + poolBalance + ")");
+            }
+        }
+        return record(List.of(movement(rawMaterialId, siteId, StockMovementType.ADJUSTMENT, adjustment.getChange(),
+                adjustment.getReason(), Instant.now()))).get(0);
+    }
+
+    /**
+     * A balance other than {@code expected} is a conflict; the adjustment has no site, so it never takes a site's units.
+     */
+    @Transactional(timeoutString = "${stock.journal.transaction-timeout-seconds:10}")
+    public long adjustTo(long rawMaterialId, long expected, int target, String reason) {
+        long balance = lockedBalance(rawMaterialId);
+        if (balance != expected) {
+            throw new ConcurrencyFailureException("Stock of raw material " + rawMaterialId + " is " + balance +
+                    ", not the expected " + expected);
+        }
+        if (target < balance) {
+            long sited = balance - poolBalance(rawMaterialId, null, balance);
+            if (target < sited) {
+                throw new BusinessException("Stock of raw material " + rawMaterialId + " can't go below the " +
+                        sited + " held at sites; adjust or transfer at the sites first");
+            }
+        }
+        if (balance != target) {
+            record(List.of(movement(rawMaterialId, null, StockMovementType.ADJUSTMENT, target - balance, reason,
+                    Instant.now())));
+        }
+        return target;
+    }
+
+    /**
+     * Deletes the raw material's journal inside the caller's transaction, before the material itself is
+     * deleted. Refused while it still has stock, whether at a site or not.
+     */
+    @Transactional(timeoutString = "${stock.journal.transaction-timeout-seconds:10}")
+    public void discard(long rawMaterialId) {
+        long balance = lockedBalance(rawMaterialId);
+        long sited = balance - poolBalance(rawMaterialId, null, balance);
+        if (balance != 0 || sited != 0) {
+            throw new BusinessException("Raw material " + rawMaterialId + " still has stock (" + balance +
+                    " in total, " + sited + " at sites); adjust it to zero first");
+        }
+        stockRepository.deleteJournal(rawMaterialId);
+    }
+
+    /**
+     * All or nothing, from the stock no site holds; ids ascending, and a negative result is how short a material was.
+     */
+    public long[] consume(long[] rawMaterialIds, long[] quantities, String reference) {
+        return consume(rawMaterialIds, quantities, null, reference);
+    }
+
+    /**
+     * As {@link #consume(long[], long[], String)}, taking the units from the site's stock when
+     * {@code siteId} is given; what is left is then the site's balance, or the total if that is lower.
+     */
+    public long[] consume(long[] rawMaterialIds, long[] quantities, Long siteId, String reference) {
+        if (siteId != null) {
+            requireSites(Set.of(siteId));
+        }
+        stockRepository.lock(rawMaterialIds);
+        List<Long> ids = new ArrayList<>(rawMaterialIds.length);
+        for (long id : rawMaterialIds) ids.add(id);
+        Map<Long, Long> balances = stockRepository.findBalances(ids);
+        Map<Long, Long> poolBalances = poolBalances(ids, siteId, balances);
+
+        long[] remaining = new long[rawMaterialIds.length];
+        boolean anyShort = false;
+        for (int i = 0; i < rawMaterialIds.length; i++) {
+            remaining[i] = Math.min(balances.getOrDefault(rawMaterialIds[i], 0L),
+                    poolBalances.getOrDefault(rawMaterialIds[i], 0L)) - quantities[i];
+            anyShort |= remaining[i] < 0;
+        }
+        if (anyShort) {
+            return remaining;
+        }
+        Instant now = Instant.now();
+        List<StockMovement> movements = new ArrayList<>(rawMaterialIds.length);
+        for (int i = 0; i < rawMaterialIds.length; i++) {
+            movements.add(movement(rawMaterialIds[i], siteId, StockMovementType.CONSUMPTION, -quantities[i], reference,
+                    now));
+        }
+        record(movements);
+        return remaining;
+    }
+
+    /**
+     * Moves units between two sites, or between a site and the stock no site holds, as a pair of
+     * movements that leaves the total as it was.
+     */
+    @Transactional(timeoutString = "${stock.journal.transaction-timeout-seconds:10}")
+    public List<StockMovementDTO> transfer(StockTransferDTO transfer) {
+        if (transfer.getRawMaterialId() == null) {
+            throw new BusinessException("rawMaterialId is required");
+        }
+        if (transfer.getQuantity() == null || transfer.getQuantity() < 1) {
+            throw new BusinessException("Transfer quantity must be at least 1");
+        }
+        Long from = transfer.getFromSiteId();
+        Long to = transfer.getToSiteId();
+        if (Objects.equals(from, to)) {
+            throw new BusinessException("fromSiteId and toSiteId must differ");
+        }
+        Set<Long> siteIds = new HashSet<>();
+        if (from != null) siteIds.add(from);
+        if (to != null) siteIds.add(to);
+        requireSites(siteIds);
+
+        long rawMaterialId = transfer.getRawMaterialId();
+        long available = poolBalance(rawMaterialId, from, lockedBalance(rawMaterialId));
+        if (available < transfer.getQuantity()) {
+            throw new BusinessException("Raw material " + rawMaterialId + " has only " + available + " " +
+                    poolName(from) + " to transfer");
+        }
+        Instant now = Instant.now();
+        return record(List.of(
+                movement(rawMaterialId, from, StockMovementType.TRANSFER, -transfer.getQuantity(),
+                        transfer.getReference(), now),
+                movement(rawMaterialId, to, StockMovementType.TRANSFER, transfer.getQuantity(),
+                        transfer.getReference(), now)));
+    }
+
+    /**
+     * Folds the movements recorded before now minus the settle time; returns how many raw materials moved.
+     */
+    public int fold() {
+        Instant before = settledBefore();
+        Integer folded = transactionOperations.execute(status -> stockRepository.fold(before));
+        return folded == null ? 0 : folded;
+    }
+
+    /**
+     * Now minus the settle time: every movement recorded before it has committed, so the journal up to
+     * there no longer changes.
+     */
+    public Instant settledBefore() {
+        return Instant.now().minus(settleTime);
+    }
+
+    public void invalidate() {
+        balances.invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (event instanceof CatalogEvent.BatchApplied) {
+            invalidate();
+            return;
+        }
+        this.balances.changed();
+        Map<Long, Long> balances = this.balances.peek();
+        if (balances == null) {
+            return;
+        }
+        if (event instanceof CatalogEvent.StockMoved moved) {
+            moved.changes().forEach((id, change) -> balances.computeIfPresent(id, (key, balance) -> balance + change));
+        } else if (event instanceof CatalogEvent.RawMaterialSaved saved && saved.stockQuantity() != null) {
+            balances.putIfAbsent(saved.rawMaterialId(), saved.stockQuantity().longValue());
+        } else if (event instanceof CatalogEvent.RawMaterialDeleted deleted) {
+            balances.remove(deleted.rawMaterialId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void foldQuietly() {
+        try {
+            int folded = fold();
+            if (folded > 0) {
+                log.debug("Stock journal folded for {} raw materials", folded);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Stock journal fold failed; retrying next interval", e);
+        }
+    }
+
+    /**
+     * Rolled back instead if the transaction would commit too late for the fold to count the movements.
+     */
+    private List<StockMovementDTO> record(List<StockMovement> movements) {
+        stockRepository.append(movements);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Instant deadline = movements.get(0).getRecordedAt().plus(commitWindow);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (Instant.now().isAfter(deadline)) {
+                        throw new TransactionTimedOutException("Stock movements must commit by " + deadline +
+                                " to be folded; rolled back, try again");
+                    }
+                }
+            });
+        }
+        Map<Long, Long> changes = new HashMap<>();
+        List<StockMovementDTO> recorded = new ArrayList<>(movements.size());
+        for (StockMovement movement : movements) {
+            changes.merge(movement.getRawMaterialId(), movement.getQuantity(), Long::sum);
+            movementCounters.get(movement.getType()).increment();
+            recorded.add(toDto(movement));
+        }
+        // a transfer leaves every total as it was
+        changes.values().removeIf(change -> change == 0);
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new CatalogEvent.StockMoved(changes));
+        }
+        return recorded;
+    }
+
+    private void requireSites(Set<Long> siteIds) {
+        if (siteIds.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new TreeSet<>(siteIds);
+        siteRepository.findAllById(siteIds).forEach(site -> missing.remove(site.getId()));
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException("Site not found with id: " + missing.iterator().next());
+        }
+    }
+
+    /**
+     * The balances writes at {@code siteId} draw on: the site's, or without a site what no site holds.
+     * Read with the raw material rows locked, so no fold moves them in between.
+     */
+    private Map<Long, Long> poolBalances(List<Long> rawMaterialIds, Long siteId, Map<Long, Long> balances) {
+        if (siteId != null) {
+            return stockRepository.findSiteBalances(siteId, rawMaterialIds);
+        }
+        Map<Long, Long> sited = stockRepository.findSitedBalances(rawMaterialIds);
+        Map<Long, Long> unsited = new HashMap<>();
+        balances.forEach((id, balance) -> unsited.put(id, balance - sited.getOrDefault(id, 0L)));
+        return unsited;
+    }
+
+    private long poolBalance(long rawMaterialId, Long siteId, long balance) {
+        return poolBalances(List.of(rawMaterialId), siteId, Map.of(rawMaterialId, balance))
+                .getOrDefault(rawMaterialId, 0L);
+    }
+
+    private static String poolName(Long siteId) {
+        return siteId == null ? "not at any site" : "at site " + siteId;
+    }
+
+    private long lockedBalance(long rawMaterialId) {
+        stockRepository.lock(new long[]{rawMaterialId});
+        Long balance = stockRepository.findBalances(List.of(rawMaterialId)).get(rawMaterialId);
+        if (balance == null) {
+            throw new ResourceNotFoundException("Raw material not found with id: " + rawMaterialId);
+        }
+        return balance;
+    }
+
+    /**
+     * Materials this node hasn't seen are read from the database and not kept: a change may already have gone by.
+     */
+    private Map<Long, Long> currentBalances(Set<Long> rawMaterialIds) {
+        Map<Long, Long> balances = balances();
+        Map<Long, Long> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long rawMaterialId : rawMaterialIds) {
+            Long balance = balances.get(rawMaterialId);
+            if (balance != null) {
+                found.put(rawMaterialId, balance);
+            } else {
+                missing.add(rawMaterialId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            found.putAll(stockRepository.findBalances(missing));
+        }
+        return found;
+    }
+
+    private Map<Long, Long> balances() {
+        return balances.get();
+    }
+
+    private Map<Long, Long> read() {
+        Map<Long, Long> loaded = new ConcurrentHashMap<>();
+        stockRepository.forEachBalance(rs -> loaded.put(rs.getLong(1), rs.getLong(2)));
+        return loaded;
+    }
+
+    private static StockMovement movement(long rawMaterialId, Long siteId, StockMovementType type, long quantity,
+                                          String reference, Instant recordedAt) {
+        StockMovement movement = new StockMovement();
+        movement.setRawMaterialId(rawMaterialId);
+        movement.setSiteId(siteId);
+        movement.setType(type);
+        movement.setQuantity(quantity);
+        movement.setRecordedAt(recordedAt);
+        movement.setReference(reference);
+        return movement;
+    }
+
+    private static StockMovementDTO toDto(StockMovement movement) {
+        return new StockMovementDTO(movement.getId(), movement.getRawMaterialId(), movement.getSiteId(),
+                movement.getType().name(), movement.getQuantity(), movement.getRecordedAt(), movement.getReference());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.project_inventory.domain.service;
+
+import com.example.project_inventory.domain.event.CatalogEvent;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.planning.WhereUsedIndex;
+import com.example.project_inventory.dto.WhereUsedDTO;
+import com.example.project_inventory.dto.WhereUsedItemDTO;
+import com.example.project_inventory.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers which products need a raw material or a sub-assembly, from a {@link WhereUsedIndex}.
+ * <p>
+ * The index is built from the BOM snapshot on first use, without a query when the snapshot is
+ * already loaded, and afterwards patched from the composition changes in each committed
+ * {@link CatalogEvent}. The snapshot listener runs first, so a build never misses a change that
+ * this listener has already let go by. Names come from the snapshot when the answer is built.
+ */
+@Service
+@RequiredArgsConstructor
+public class WhereUsedService {
+
+    private final BomSnapshotService bomSnapshotService;
+
+    private final SingleFlightLoader<WhereUsedIndex> index = new SingleFlightLoader<>(this::read, loaded -> { });
+
+    public WhereUsedDTO forRawMaterial(Long rawMaterialId) {
+        BomSnapshot snapshot = bomSnapshotService.current();
+        int slot = snapshot.slotOf(rawMaterialId);
+        if (slot < 0) {
+            throw new ResourceNotFoundException("Raw material not found with id: " + rawMaterialId);
+        }
+        List<WhereUsedIndex.Consumer> consumers = index.get().consumersOfMaterial(rawMaterialId);
+        return toDto(rawMaterialId, snapshot.materialName(slot), consumers, snapshot);
+    }
+
+    public WhereUsedDTO forProduct(Long productId) {
+        BomSnapshot snapshot = bomSnapshotService.current();
+        int position = snapshot.positionOf(productId);
+        if (position < 0) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+        List<WhereUsedIndex.Consumer> consumers = index.get().consumersOfProduct(productId);
+        return toDto(productId, snapshot.productName(position), consumers, snapshot);
+    }
+
+    /**
+     * How many products list the raw material in their own composition, as of the last commit this
+     * node has seen.
+     */
+    public int directUsersOfRawMaterial(Long rawMaterialId) {
+        return index.get().directUsersOfMaterial(rawMaterialId);
+    }
+
+    /**
+     * Drops the index; the next reader rebuilds it.
+     */
+    public void invalidate() {
+        index.invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogEvent(CatalogEvent event) {
+        if (event instanceof CatalogEvent.BatchApplied) {
+            invalidate();
+            return;
+        }
+        this.index.changed();
+        WhereUsedIndex index = this.index.peek();
+        if (index == null) {
+            return;
+        }
+        if (event instanceof CatalogEvent.ProductSaved saved) {
+            index.removeProduct(saved.productId());
+            saved.lines().forEach(line -> putLine(index, saved.productId(), line));
+        } else if (event instanceof CatalogEvent.ProductDeleted deleted) {
+            index.removeProduct(deleted.productId());
+        } else if (event instanceof CatalogEvent.CompositionAdded added) {
+            putLine(index, added.productId(), added.line());
+        } else if (event instanceof CatalogEvent.CompositionRemoved removed) {
+            index.removeLine(removed.productId(), removed.compositionId());
+        }
+    }
+
+    private WhereUsedIndex read() {
+        return WhereUsedIndex.of(bomSnapshotService.current());
+    }
+
+    private static void putLine(WhereUsedIndex index, Long productId, CatalogEvent.BomLine line) {
+        if (line.compositionId() == null) {
+            return;
+        }
+        boolean component = line.componentProductId() != null;
+        index.putLine(productId, line.compositionId(),
+                component ? line.componentProductId() : line.rawMaterialId(), component, line.requiredQuantity());
+    }
+
+    private static WhereUsedDTO toDto(Long id, String name, List<WhereUsedIndex.Consumer> consumers,
+                                      BomSnapshot snapshot) {
+        int direct = 0;
+        List<WhereUsedItemDTO> products = new ArrayList<>(consumers.size());
+        for (WhereUsedIndex.Consumer consumer : consumers) {
+            if (consumer.lines() > 0) direct++;
+            int position = snapshot.positionOf(consumer.productId());
+            products.add(new WhereUsedItemDTO(consumer.productId(),
+                    position < 0 ? null : snapshot.productName(position),
+                    consumer.lines(), consumer.quantity(), consumer.totalQuantity()));
+        }
+        return new WhereUsedDTO(id, name, direct, consumers.size(), products);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A rejected batch item, by the request list it came from and its position in that list.
+ */
+@Data
+@AllArgsConstructor
+public class BatchItemErrorDTO {
+    private String list;
+    private Integer index;
+    private String message;
+}
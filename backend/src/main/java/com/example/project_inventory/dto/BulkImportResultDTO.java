@@ -0,0 +1,15 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkImportResultDTO {
+    private Long recordsRead;
+    private Long imported;
+    private Long rejected;
+    private List<BulkLineErrorDTO> errors;
+    private Boolean errorsTruncated;
+}
@@ -0,0 +1,11 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BulkLineErrorDTO {
+    private Long line;
+    private String message;
+}
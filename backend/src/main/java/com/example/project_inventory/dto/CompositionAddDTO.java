@@ -0,0 +1,16 @@
+package com.example.project_inventory.dto;
+
+import lombok.Data;
+
+@Data
+public class CompositionAddDTO {
+
+    private Long productId;
+
+    // either a raw material or another product used as a sub-assembly
+    private Long rawMaterialId;
+
+    private Long componentProductId;
+
+    private Integer quantity;
+}
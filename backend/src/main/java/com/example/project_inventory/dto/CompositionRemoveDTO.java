@@ -0,0 +1,9 @@
+package com.example.project_inventory.dto;
+
+import lombok.Data;
+
+@Data
+public class CompositionRemoveDTO {
+    private Long productId;
+    private Long compositionId;
+}
@@ -7,9 +7,11 @@ import lombok.Data;
 @Data
 public class CompositionRequestDTO {
 
-    @NotNull(message = "rawMaterialId is required")
+    // either a raw material or another product used as a sub-assembly
     private Long rawMaterialId;
 
+    private Long componentProductId;
+
     @NotNull(message = "quantity is required")
     @Min(value = 1, message = "quantity must be at least 1")
     private Integer quantity;
@@ -0,0 +1,13 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class MaterialConsumptionDTO {
+    private Long rawMaterialId;
+    private String rawMaterialName;
+    private Long consumedQuantity;
+    private Integer remainingStock;
+}
@@ -0,0 +1,15 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * How much of a raw material one unit of a product consumes, counting every level of sub-assemblies.
+ */
+@Data
+@AllArgsConstructor
+public class MaterialRequirementDTO {
+    private Long rawMaterialId;
+    private String rawMaterialName;
+    private Integer quantity;
+}
@@ -0,0 +1,17 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Every site's suggestion and their sum: {@code combined} adds up the units and values each site
+ * can produce from its own stock.
+ */
+@Data
+@AllArgsConstructor
+public class MultiSiteReportDTO {
+    private List<SiteReportDTO> sites;
+    private ProductionReportDTO combined;
+}
@@ -0,0 +1,16 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * The production report as it would have been planned from the stock at {@code at}.
+ */
+@Data
+@AllArgsConstructor
+public class PointInTimeReportDTO {
+    private Instant at;
+    private ProductionReportDTO report;
+}
@@ -0,0 +1,20 @@
+package com.example.project_inventory.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+/**
+ * Either the price to assume ({@code price}) or a relative change to the current one ({@code changePercent}).
+ */
+@Data
+public class PriceOverrideDTO {
+
+    @NotNull(message = "productId is required")
+    private Long productId;
+
+    @PositiveOrZero(message = "price must be a non-negative value")
+    private Double price;
+
+    private Double changePercent;
+}
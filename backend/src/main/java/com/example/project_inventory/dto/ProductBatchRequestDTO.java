@@ -0,0 +1,22 @@
+package com.example.project_inventory.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Changes applied in one transaction: updates first, then removals, then additions, each list in
+ * the order given. Items are checked one by one; an invalid item is reported and skipped.
+ */
+@Data
+public class ProductBatchRequestDTO {
+
+    @Size(max = 10000, message = "at most 10000 updates per request")
+    private List<ProductUpdateDTO> updates;
+
+    @Size(max = 10000, message = "at most 10000 compositions to remove per request")
+    private List<CompositionRemoveDTO> compositionsToRemove;
+
+    @Size(max = 10000, message = "at most 10000 compositions to add per request")
+    private List<CompositionAddDTO> compositionsToAdd;
+}
@@ -0,0 +1,13 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductBatchResultDTO {
+    private Integer applied;
+    private Integer rejected;
+    private List<BatchItemErrorDTO> errors;
+}
@@ -7,5 +7,7 @@ public class ProductCompositionDTO {
     private Long id;
     private Long rawMaterialId;
     private String rawMaterialName;
+    private Long componentProductId;
+    private String componentProductName;
     private Integer requiredQuantity;
 }
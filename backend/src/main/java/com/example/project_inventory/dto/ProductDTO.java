@@ -9,4 +9,5 @@ public class ProductDTO {
     private String name;
     private Double price;
     private List<ProductCompositionDTO> compositions;
+    private List<MaterialRequirementDTO> requirements;
 }
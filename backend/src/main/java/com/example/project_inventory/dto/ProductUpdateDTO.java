@@ -0,0 +1,10 @@
+package com.example.project_inventory.dto;
+
+import lombok.Data;
+
+@Data
+public class ProductUpdateDTO {
+    private Long id;
+    private String name;
+    private Double price;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 @Data
 @AllArgsConstructor
 public class ProductionItemDTO {
+    private Long productId;
     private String productName;
     private Integer quantityToProduce;
     private Double subtotal;
@@ -0,0 +1,17 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Difference between two consecutive production plans; items are matched by product id.
+ */
+@Data
+@AllArgsConstructor
+public class ProductionPlanDeltaDTO {
+    private List<ProductionItemDTO> added;
+    private List<ProductionItemDTO> changed;
+    private List<Long> removedProductIds;
+    private Double totalEstimatedValue;
+}
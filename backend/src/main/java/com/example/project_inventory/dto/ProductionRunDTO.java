@@ -0,0 +1,14 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductionRunDTO {
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private List<MaterialConsumptionDTO> consumed;
+}
@@ -0,0 +1,19 @@
+package com.example.project_inventory.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class ProductionRunRequestDTO {
+
+    @NotNull(message = "productId is required")
+    private Long productId;
+
+    @NotNull(message = "quantity is required")
+    @Min(value = 1, message = "quantity must be at least 1")
+    private Integer quantity;
+
+    // the plant whose stock the run consumes; none takes only the stock no site holds
+    private Long siteId;
+}
@@ -7,4 +7,5 @@ public class RawMaterialDTO {
     private Long id;
     private String name;
     private Integer stockQuantity;
+    private Long version;
 }
@@ -0,0 +1,12 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ScenarioComparisonDTO {
+    private ProductionReportDTO baseline;
+    private List<ScenarioResultDTO> scenarios;
+}
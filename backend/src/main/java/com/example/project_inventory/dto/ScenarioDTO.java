@@ -0,0 +1,22 @@
+package com.example.project_inventory.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * A hypothetical change to the catalog: stock and price overrides applied on top of the current data.
+ */
+@Data
+public class ScenarioDTO {
+
+    @NotBlank(message = "scenario name is required")
+    private String name;
+
+    @Valid
+    private List<StockOverrideDTO> stock;
+
+    @Valid
+    private List<PriceOverrideDTO> prices;
+}
@@ -0,0 +1,18 @@
+package com.example.project_inventory.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ScenarioRequestDTO {
+
+    private String strategy;
+
+    @NotEmpty(message = "at least one scenario is required")
+    @Size(max = 100, message = "at most 100 scenarios per request")
+    @Valid
+    private List<ScenarioDTO> scenarios;
+}
@@ -0,0 +1,12 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ScenarioResultDTO {
+    private String name;
+    private ProductionReportDTO report;
+    private Double valueChange;
+}
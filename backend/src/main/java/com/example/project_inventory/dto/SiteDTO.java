@@ -0,0 +1,18 @@
+package com.example.project_inventory.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class SiteDTO {
+    private Long id;
+
+    @NotBlank(message = "code is required")
+    @Size(max = 32, message = "code must be at most 32 characters")
+    private String code;
+
+    @NotBlank(message = "name is required")
+    @Size(max = 255, message = "name must be at most 255 characters")
+    private String name;
+}
@@ -0,0 +1,15 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The production suggestion for one site, planned from that site's stock only.
+ */
+@Data
+@AllArgsConstructor
+public class SiteReportDTO {
+    private Long siteId;
+    private String siteCode;
+    private ProductionReportDTO report;
+}
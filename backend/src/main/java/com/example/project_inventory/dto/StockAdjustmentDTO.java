@@ -0,0 +1,20 @@
+package com.example.project_inventory.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class StockAdjustmentDTO {
+
+    @NotNull(message = "rawMaterialId is required")
+    private Long rawMaterialId;
+
+    private Long siteId;
+
+    @NotNull(message = "change is required")
+    private Integer change;
+
+    @Size(max = 255, message = "reason must be at most 255 characters")
+    private String reason;
+}
@@ -0,0 +1,19 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * The balance of a raw material; {@code at} is null for the current one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBalanceDTO {
+    private Long rawMaterialId;
+    private Long quantity;
+    private Instant at;
+}
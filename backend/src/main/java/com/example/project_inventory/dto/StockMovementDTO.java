@@ -0,0 +1,20 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementDTO {
+    private Long id;
+    private Long rawMaterialId;
+    private Long siteId;
+    private String type;
+    private Long quantity;
+    private Instant recordedAt;
+    private String reference;
+}
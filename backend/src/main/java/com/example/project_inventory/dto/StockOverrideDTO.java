@@ -0,0 +1,20 @@
+package com.example.project_inventory.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Either the stock to assume ({@code stockQuantity}) or how much to add to or remove from the current one ({@code change}).
+ */
+@Data
+public class StockOverrideDTO {
+
+    @NotNull(message = "rawMaterialId is required")
+    private Long rawMaterialId;
+
+    @Min(value = 0, message = "stockQuantity must be a non-negative value")
+    private Integer stockQuantity;
+
+    private Integer change;
+}
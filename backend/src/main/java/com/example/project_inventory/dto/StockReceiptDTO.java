@@ -0,0 +1,24 @@
+package com.example.project_inventory.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class StockReceiptDTO {
+
+    @NotNull(message = "rawMaterialId is required")
+    private Long rawMaterialId;
+
+    // the site the units arrived at; none for stock not held at a site
+    private Long siteId;
+
+    @NotNull(message = "quantity is required")
+    @Min(value = 1, message = "quantity must be at least 1")
+    private Integer quantity;
+
+    // e.g. the delivery note or the scanner that read it
+    @Size(max = 255, message = "reference must be at most 255 characters")
+    private String reference;
+}
@@ -0,0 +1,20 @@
+package com.example.project_inventory.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Receipts appended to the stock journal in one transaction, all or none.
+ */
+@Data
+public class StockReceiptRequestDTO {
+
+    @Valid
+    @NotEmpty(message = "receipts is required")
+    @Size(max = 1000, message = "at most 1000 receipts per request")
+    private List<StockReceiptDTO> receipts;
+}
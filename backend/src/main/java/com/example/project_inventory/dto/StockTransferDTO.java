@@ -0,0 +1,28 @@
+package com.example.project_inventory.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Units moved from one site to another in one transaction; a missing {@code fromSiteId} takes them from
+ * the stock no site holds, e.g. the opening stock, and a missing {@code toSiteId} returns them there.
+ */
+@Data
+public class StockTransferDTO {
+
+    @NotNull(message = "rawMaterialId is required")
+    private Long rawMaterialId;
+
+    private Long fromSiteId;
+
+    private Long toSiteId;
+
+    @NotNull(message = "quantity is required")
+    @Min(value = 1, message = "quantity must be at least 1")
+    private Integer quantity;
+
+    @Size(max = 255, message = "reference must be at most 255 characters")
+    private String reference;
+}
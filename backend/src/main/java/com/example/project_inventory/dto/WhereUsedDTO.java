@@ -0,0 +1,18 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhereUsedDTO {
+    private Long id;
+    private String name;
+    private Integer directProducts;
+    private Integer totalProducts;
+    private List<WhereUsedItemDTO> products;
+}
@@ -0,0 +1,16 @@
+package com.example.project_inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhereUsedItemDTO {
+    private Long productId;
+    private String productName;
+    private Integer lines;
+    private Long quantity;
+    private Long totalQuantity;
+}
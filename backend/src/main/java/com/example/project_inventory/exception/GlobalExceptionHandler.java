@@ -1,15 +1,25 @@
 package com.example.project_inventory.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import java.time.Instant;
 
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
+
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<StandardError> entityNotFound(ResourceNotFoundException e, HttpServletRequest request) {
         HttpStatus status = HttpStatus.NOT_FOUND;
@@ -20,6 +30,7 @@ public class GlobalExceptionHandler {
                 e.getMessage(),
                 request.getRequestURI()
         );
+        countError(e, status);
         return ResponseEntity.status(status).body(err);
     }
 
@@ -33,6 +44,63 @@ public class GlobalExceptionHandler {
                 e.getMessage(),
                 request.getRequestURI()
         );
+        countError(e, status);
+        return ResponseEntity.status(status).body(err);
+    }
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<StandardError> concurrentModification(ConcurrencyFailureException e, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.CONFLICT;
+        StandardError err = new StandardError(
+                Instant.now(),
+                status.value(),
+                "Concurrent Modification",
+                "The resource was changed by another request, reload it and try again",
+                request.getRequestURI()
+        );
+        countError(e, status);
+        return ResponseEntity.status(status).body(err);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<StandardError> integrityViolation(DataIntegrityViolationException e, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.CONFLICT;
+        StandardError err = new StandardError(
+                Instant.now(),
+                status.value(),
+                "Integrity Violation",
+                "The change conflicts with data that refers to it, reload it and try again",
+                request.getRequestURI()
+        );
+        countError(e, status);
+        return ResponseEntity.status(status).body(err);
+    }
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<StandardError> noConnection(CannotCreateTransactionException e, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        StandardError err = new StandardError(
+                Instant.now(),
+                status.value(),
+                "Service Unavailable",
+                "No database connection available, try again shortly",
+                request.getRequestURI()
+        );
+        countError(e, status);
+        return ResponseEntity.status(status).body(err);
+    }
+
+    @ExceptionHandler(TransactionTimedOutException.class)
+    public ResponseEntity<StandardError> timedOut(TransactionTimedOutException e, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        StandardError err = new StandardError(
+                Instant.now(),
+                status.value(),
+                "Service Unavailable",
+                "The change took too long and was rolled back, try again",
+                request.getRequestURI()
+        );
+        countError(e, status);
         return ResponseEntity.status(status).body(err);
     }
 
@@ -46,6 +114,13 @@ public class GlobalExceptionHandler {
                 "An unexpected error occurred",
                 request.getRequestURI()
         );
+        countError(e, status);
         return ResponseEntity.status(status).body(err);
     }
+
+    private void countError(Exception e, HttpStatus status) {
+        meterRegistry.counter("api.errors",
+                "exception", e.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+    }
 }
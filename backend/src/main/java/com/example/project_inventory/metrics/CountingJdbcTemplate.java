@@ -0,0 +1,24 @@
+package com.example.project_inventory.metrics;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A {@link JdbcTemplate} that counts every statement it runs in {@link HibernateActivity}, so the
+ * plain JDBC repositories show up in the same per-call counts as the JPA ones. A batch is one statement.
+ */
+public class CountingJdbcTemplate extends JdbcTemplate {
+
+    public CountingJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        HibernateActivity.statementRun();
+        super.applyStatementSettings(stmt);
+    }
+}
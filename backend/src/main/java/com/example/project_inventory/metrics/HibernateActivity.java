@@ -0,0 +1,39 @@
+package com.example.project_inventory.metrics;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts, per thread, the SQL statements Hibernate prepares and the entities it loads. Hibernate's
+ * own statistics are global, so under concurrent load they can't be attributed to a single call;
+ * two reads of these counters around a call can. Statements run through {@link CountingJdbcTemplate}
+ * are counted too.
+ */
+public class HibernateActivity implements StatementInspector, PostLoadEventListener {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+
+    public static long statements() {
+        return COUNTS.get()[0];
+    }
+
+    public static long entitiesLoaded() {
+        return COUNTS.get()[1];
+    }
+
+    static void statementRun() {
+        COUNTS.get()[0]++;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        statementRun();
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        COUNTS.get()[1]++;
+    }
+}
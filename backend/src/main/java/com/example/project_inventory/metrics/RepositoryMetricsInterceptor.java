@@ -0,0 +1,55 @@
+package com.example.project_inventory.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how many statements and entity loads each repository method causes. Timing of the Spring
+ * Data repositories is already covered by Spring Boot's {@code spring.data.repository.invocations}. Methods returning a
+ * {@code Stream} run most of their queries after returning, so their counts only cover the first fetch.
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final String repository;
+    private final Map<Method, DistributionSummary[]> summaries = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsInterceptor(MeterRegistry meterRegistry, String repository) {
+        this.meterRegistry = meterRegistry;
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long statementsBefore = HibernateActivity.statements();
+        long loadedBefore = HibernateActivity.entitiesLoaded();
+        try {
+            return invocation.proceed();
+        } finally {
+            DistributionSummary[] meters = summaries.computeIfAbsent(invocation.getMethod(), this::register);
+            meters[0].record(HibernateActivity.statements() - statementsBefore);
+            meters[1].record(HibernateActivity.entitiesLoaded() - loadedBefore);
+        }
+    }
+
+    private DistributionSummary[] register(Method method) {
+        return new DistributionSummary[]{
+                DistributionSummary.builder("repository.statements")
+                        .description("SQL statements prepared per repository call")
+                        .tag("repository", repository)
+                        .tag("method", method.getName())
+                        .register(meterRegistry),
+                DistributionSummary.builder("repository.entities.loaded")
+                        .description("Entities loaded per repository call")
+                        .tag("repository", repository)
+                        .tag("method", method.getName())
+                        .register(meterRegistry)
+        };
+    }
+}
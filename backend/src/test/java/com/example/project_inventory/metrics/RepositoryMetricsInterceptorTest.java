@@ -0,0 +1,72 @@
+package com.example.project_inventory.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryMetricsInterceptorTest {
+
+    private final HibernateActivity activity = new HibernateActivity();
+
+    @Test
+    void invoke_shouldRecordTheStatementsAndEntitiesOfEachCallByMethod() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ProxyFactory proxyFactory = new ProxyFactory(new Finder() {
+            @Override
+            public void findTwo() {
+                activity.inspect("select 1");
+                activity.onPostLoad(null);
+                activity.onPostLoad(null);
+            }
+
+            @Override
+            public void update() {
+                activity.inspect("update 1");
+            }
+        });
+        proxyFactory.addAdvice(new RepositoryMetricsInterceptor(registry, "FinderRepository"));
+        Finder finder = (Finder) proxyFactory.getProxy();
+
+        finder.findTwo();
+        finder.findTwo();
+        finder.update();
+
+        DistributionSummary statements = registry.get("repository.statements")
+                .tags("repository", "FinderRepository", "method", "findTwo").summary();
+        DistributionSummary loaded = registry.get("repository.entities.loaded")
+                .tags("repository", "FinderRepository", "method", "findTwo").summary();
+        assertThat(statements.count()).isEqualTo(2);
+        assertThat(statements.totalAmount()).isEqualTo(2.0);
+        assertThat(loaded.totalAmount()).isEqualTo(4.0);
+        assertThat(registry.get("repository.entities.loaded").tags("method", "update").summary().totalAmount())
+                .isZero();
+    }
+
+    @Test
+    void countingJdbcTemplate_shouldCountEachStatementAndABatchOnce() {
+        JdbcTemplate jdbcTemplate = new CountingJdbcTemplate(
+                new DriverManagerDataSource("jdbc:h2:mem:counting;DB_CLOSE_DELAY=-1"));
+        long before = HibernateActivity.statements();
+
+        jdbcTemplate.execute("CREATE TABLE item (id BIGINT)");
+        jdbcTemplate.batchUpdate("INSERT INTO item (id) VALUES (?)", List.of(1L, 2L, 3L), 3,
+                (ps, id) -> ps.setLong(1, id));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Long.class)).isEqualTo(3);
+
+        assertThat(HibernateActivity.statements() - before).isEqualTo(3);
+        assertThat(HibernateActivity.entitiesLoaded()).isZero();
+    }
+
+    interface Finder {
+        void findTwo();
+
+        void update();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.project_inventory.planning;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BomSnapshotTest {
+
+    private BomSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        RawMaterial steel = buildMaterial(1L, "Steel", 100);
+        RawMaterial wood = buildMaterial(2L, "Wood", 40);
+
+        Product chair = buildProduct(10L, "Chair", 80.0);
+        addLine(chair, 100L, wood, 4);
+        Product table = buildProduct(11L, "Table", 250.0);
+        addLine(table, 101L, wood, 10);
+        addLine(table, 102L, steel, 2);
+
+        snapshot = BomSnapshot.of(List.of(chair, table), List.of(steel, wood), 1L);
+    }
+
+    @Test
+    void of_shouldOrderProductsByPriceDescending() {
+        assertThat(snapshot.productCount()).isEqualTo(2);
+        assertThat(snapshot.productName(0)).isEqualTo("Table");
+        assertThat(snapshot.productName(1)).isEqualTo("Chair");
+        assertThat(snapshot.lineQuantities(0)).containsExactly(10, 2);
+        assertThat(snapshot.stockCopy()[snapshot.lineSlots(0)[1]]).isEqualTo(100);
+    }
+
+    @Test
+    void withProductDetails_shouldRepositionByNewPriceAndKeepLines() {
+        BomSnapshot patched = snapshot.withProductDetails(10L, "Chair", 300.0, 2L);
+
+        assertThat(patched.version()).isEqualTo(2L);
+        assertThat(patched.productName(0)).isEqualTo("Chair");
+        assertThat(patched.positionOf(11L)).isEqualTo(1);
+        assertThat(patched.lineQuantities(0)).containsExactly(4);
+        assertThat(snapshot.productName(0)).isEqualTo("Table");
+    }
+
+    @Test
+    void withComposition_andWithoutComposition_shouldOnlyTouchThatProduct() {
+        BomSnapshot added = snapshot.withComposition(10L, 103L, 1L, 3, 2L);
+        int chair = added.positionOf(10L);
+
+        assertThat(added.lineQuantities(chair)).containsExactly(4, 3);
+        assertThat(added.lineSlots(added.positionOf(11L))).isSameAs(snapshot.lineSlots(snapshot.positionOf(11L)));
+
+        BomSnapshot removed = added.withoutComposition(10L, 100L, 3L);
+        assertThat(removed.lineQuantities(removed.positionOf(10L))).containsExactly(3);
+    }
+
+    @Test
+    void withMaterial_forUnknownMaterial_shouldAllocateSlot() {
+        BomSnapshot patched = snapshot.withMaterial(3L, "Glue", 7, 2L);
+
+        assertThat(patched.materialCount()).isEqualTo(3);
+        assertThat(patched.stockCopy()[patched.slotOf(3L)]).isEqualTo(7);
+        assertThat(snapshot.slotOf(3L)).isEqualTo(-1);
+    }
+
+    @Test
+    void withStockChanges_shouldMoveKnownMaterialsOnly() {
+        BomSnapshot patched = snapshot.withStockChanges(Map.of(1L, -30L, 2L, 5L, 3L, 10L), 2L);
+
+        assertThat(patched.stock(patched.slotOf(1L))).isEqualTo(70);
+        assertThat(patched.stock(patched.slotOf(2L))).isEqualTo(45);
+        assertThat(patched.materialCount()).isEqualTo(2);
+        assertThat(snapshot.stock(snapshot.slotOf(1L))).isEqualTo(100);
+    }
+
+    @Test
+    void withoutProduct_shouldRemoveItFromPriceOrder() {
+        BomSnapshot patched = snapshot.withoutProduct(11L, 2L);
+
+        assertThat(patched.productCount()).isEqualTo(1);
+        assertThat(patched.positionOf(11L)).isEqualTo(-1);
+        assertThat(patched.positionOf(10L)).isZero();
+    }
+
+    @Test
+    void of_withSubAssemblies_shouldFlattenEveryLevel() {
+        BomSnapshot nested = nestedCatalog();
+        int bench = nested.positionOf(13L);
+        int set = nested.positionOf(14L);
+
+        // Bench = 1 Steel + 2 Seat (2 Wood each); Set = Bench + Chair (4 Wood)
+        assertThat(nested.lineSlots(bench)).containsExactly(nested.slotOf(1L), nested.slotOf(2L));
+        assertThat(nested.lineQuantities(bench)).containsExactly(1, 4);
+        assertThat(nested.lineQuantities(set)).containsExactly(1, 8);
+        assertThat(nested.dependsOn(14L, 12L)).isTrue();
+        assertThat(nested.dependsOn(12L, 14L)).isFalse();
+    }
+
+    @Test
+    void withComposition_onSubAssembly_shouldReflattenOnlyWhatUsesIt() {
+        BomSnapshot nested = nestedCatalog();
+        BomSnapshot patched = nested.withComposition(12L, 104L, 1L, 1, 3L);
+
+        assertThat(patched.lineQuantities(patched.positionOf(13L))).containsExactly(3, 4);
+        assertThat(patched.lineQuantities(patched.positionOf(14L))).containsExactly(3, 8);
+        assertThat(patched.lineSlots(patched.positionOf(10L))).isSameAs(nested.lineSlots(nested.positionOf(10L)));
+
+        BomSnapshot restocked = patched.withMaterial(2L, "Wood", 90, 4L);
+        assertThat(restocked.lineSlots(restocked.positionOf(14L))).isSameAs(patched.lineSlots(patched.positionOf(14L)));
+    }
+
+    @Test
+    void withComponent_closingCycle_shouldLeaveCycleAndProductsAboveItUnplannable() {
+        BomSnapshot cyclic = nestedCatalog().withComponent(12L, 105L, 13L, 1, 3L);
+
+        assertThat(cyclic.lineSlots(cyclic.positionOf(12L))).isEmpty();
+        assertThat(cyclic.lineSlots(cyclic.positionOf(13L))).isEmpty();
+        assertThat(cyclic.lineSlots(cyclic.positionOf(14L))).isEmpty();
+        assertThat(cyclic.lineQuantities(cyclic.positionOf(10L))).containsExactly(4);
+
+        BomSnapshot fixed = cyclic.withoutComposition(12L, 105L, 4L);
+        assertThat(fixed.lineQuantities(fixed.positionOf(14L))).containsExactly(1, 8);
+    }
+
+    @Test
+    void withoutProduct_forSubAssembly_shouldLeaveWhatUsesItUnplannableUntilItIsBack() {
+        BomSnapshot nested = nestedCatalog();
+        BomSnapshot removed = nested.withoutProduct(12L, 3L);
+
+        assertThat(removed.lineSlots(removed.positionOf(13L))).isEmpty();
+        assertThat(removed.lineSlots(removed.positionOf(14L))).isEmpty();
+        assertThat(removed.lineSlots(removed.positionOf(10L))).isSameAs(nested.lineSlots(nested.positionOf(10L)));
+
+        BomSnapshot restored = removed.withProduct(12L, "Seat", 15.0, new long[]{101L}, new long[]{2L}, new int[]{2}, 4L);
+        assertThat(restored.lineQuantities(restored.positionOf(13L))).containsExactly(1, 4);
+        assertThat(restored.lineQuantities(restored.positionOf(14L))).containsExactly(1, 8);
+        assertThat(restored.sameCatalog(nested)).isTrue();
+    }
+
+    private BomSnapshot nestedCatalog() {
+        RawMaterial steel = buildMaterial(1L, "Steel", 100);
+        RawMaterial wood = buildMaterial(2L, "Wood", 40);
+        Product chair = buildProduct(10L, "Chair", 80.0);
+        addLine(chair, 100L, wood, 4);
+        Product seat = buildProduct(12L, "Seat", 15.0);
+        addLine(seat, 101L, wood, 2);
+        Product bench = buildProduct(13L, "Bench", 120.0);
+        addLine(bench, 102L, steel, 1);
+        addComponent(bench, 103L, seat, 2);
+        Product set = buildProduct(14L, "Garden set", 190.0);
+        addComponent(set, 106L, bench, 1);
+        addComponent(set, 107L, chair, 1);
+        return BomSnapshot.of(List.of(chair, seat, bench, set), List.of(steel, wood), 2L);
+    }
+
+    private void addComponent(Product product, Long compositionId, Product component, int qty) {
+        ProductComposition comp = new ProductComposition();
+        comp.setId(compositionId);
+        comp.setProduct(product);
+        comp.setComponentProduct(component);
+        comp.setRequiredQuantity(qty);
+        product.getCompositions().add(comp);
+    }
+
+    private RawMaterial buildMaterial(Long id, String name, int stock) {
+        RawMaterial m = new RawMaterial();
+        m.setId(id);
+        m.setName(name);
+        m.setStockQuantity(stock);
+        return m;
+    }
+
+    private Product buildProduct(Long id, String name, double price) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setPrice(price);
+        p.setCompositions(new ArrayList<>());
+        return p;
+    }
+
+    private void addLine(Product product, Long compositionId, RawMaterial material, int qty) {
+        ProductComposition comp = new ProductComposition();
+        comp.setId(compositionId);
+        comp.setProduct(product);
+        comp.setRawMaterial(material);
+        comp.setRequiredQuantity(qty);
+        product.getCompositions().add(comp);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.project_inventory.planning;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.planning.GreedyPlanner;
+import com.example.project_inventory.domain.planning.StockLedger;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GreedyPlannerTest {
+
+    @Test
+    void plan_shouldConsumeSharedMaterialInPriceOrder() {
+        RawMaterial steel = buildMaterial(1L, 10);
+        List<Product> products = List.of(
+                buildProduct(1L, 200.0, steel, 5),
+                buildProduct(2L, 50.0, steel, 5),
+                buildProduct(3L, 20.0, steel, 1));
+        BomSnapshot snapshot = BomSnapshot.of(products, List.of(steel), 1L);
+
+        int[] produced = new int[snapshot.productCount()];
+        GreedyPlanner.plan(snapshot, StockLedger.of(snapshot), produced);
+
+        assertThat(produced).containsExactly(2, 0, 0);
+    }
+
+    @Test
+    void plan_withReusedLedger_shouldNotAllocate() {
+        BomSnapshot snapshot = syntheticCatalog(2_000, 300);
+        StockLedger ledger = StockLedger.of(snapshot);
+        int[] stock = snapshot.stockCopy();
+        int[] produced = new int[snapshot.productCount()];
+
+        for (int i = 0; i < 200; i++) {
+            ledger.reset(stock);
+            GreedyPlanner.plan(snapshot, ledger, produced);
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100; i++) {
+            ledger.reset(stock);
+            GreedyPlanner.plan(snapshot, ledger, produced);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertThat(allocated).isLessThan(1_024);
+    }
+
+    private BomSnapshot syntheticCatalog(int productCount, int materialCount) {
+        Random random = new Random(42);
+        List<RawMaterial> materials = new ArrayList<>();
+        for (long id = 1; id <= materialCount; id++) {
+            materials.add(buildMaterial(id, random.nextInt(10_000)));
+        }
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= productCount; id++) {
+            Product product = buildProduct(id, 1 + random.nextInt(500),
+                    materials.get(random.nextInt(materialCount)), 1 + random.nextInt(20));
+            ProductComposition extra = new ProductComposition();
+            extra.setRawMaterial(materials.get(random.nextInt(materialCount)));
+            extra.setRequiredQuantity(1 + random.nextInt(20));
+            product.getCompositions().add(extra);
+            products.add(product);
+        }
+        return BomSnapshot.of(products, materials, 1L);
+    }
+
+    private RawMaterial buildMaterial(Long id, int stock) {
+        RawMaterial m = new RawMaterial();
+        m.setId(id);
+        m.setName("Material " + id);
+        m.setStockQuantity(stock);
+        return m;
+    }
+
+    private Product buildProduct(Long id, double price, RawMaterial mat, int qty) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName("Product " + id);
+        p.setPrice(price);
+
+        ProductComposition comp = new ProductComposition();
+        comp.setRawMaterial(mat);
+        comp.setRequiredQuantity(qty);
+        p.setCompositions(new ArrayList<>(List.of(comp)));
+        return p;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.project_inventory.planning;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.planning.GreedyPlanner;
+import com.example.project_inventory.domain.planning.IncrementalGreedyPlanner;
+import com.example.project_inventory.domain.planning.StockLedger;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalGreedyPlannerTest {
+
+    @Test
+    void plan_afterStockChanges_shouldMatchFullGreedyPlan() {
+        Random random = new Random(7);
+        BomSnapshot snapshot = syntheticCatalog(random, 500, 40);
+        IncrementalGreedyPlanner planner = new IncrementalGreedyPlanner();
+        long version = 1;
+
+        for (int step = 0; step < 300; step++) {
+            long materialId = 1 + random.nextInt(40);
+            int change = random.nextInt(10);
+            if (change < 7) {
+                int stock = snapshot.stockCopy()[snapshot.slotOf(materialId)];
+                snapshot = snapshot.withMaterial(materialId, "Material " + materialId,
+                        Math.max(0, stock + random.nextInt(41) - 20), ++version);
+            } else if (change < 9) {
+                snapshot = snapshot.withMaterial(materialId, "Material " + materialId, random.nextInt(5_000), ++version);
+            } else {
+                // a composition change rebuilds the state
+                long productId = snapshot.productId(random.nextInt(snapshot.productCount()));
+                snapshot = snapshot.withComposition(productId, 10_000 + step, materialId, 1 + random.nextInt(5), ++version);
+            }
+
+            assertThat(planner.plan(snapshot)).isEqualTo(fullPlan(snapshot));
+        }
+    }
+
+    @Test
+    void plan_afterOneMaterialChange_shouldOnlyRevisitItsConsumers() {
+        RawMaterial steel = buildMaterial(1L, 10);
+        RawMaterial wood = buildMaterial(2L, 100);
+        List<Product> products = List.of(
+                buildProduct(1L, 300.0, steel, 5),
+                buildProduct(2L, 200.0, wood, 10),
+                buildProduct(3L, 100.0, steel, 1),
+                buildProduct(4L, 50.0, wood, 1));
+        BomSnapshot snapshot = BomSnapshot.of(products, List.of(steel, wood), 1L);
+        IncrementalGreedyPlanner planner = new IncrementalGreedyPlanner();
+        assertThat(planner.plan(snapshot)).containsExactly(2, 10, 0, 0);
+
+        BomSnapshot restocked = snapshot.withMaterial(1L, "Material 1", 13, 2L);
+
+        assertThat(planner.plan(restocked)).containsExactly(2, 10, 3, 0);
+        assertThat(planner.lastRevisited()).isEqualTo(2);
+    }
+
+    private int[] fullPlan(BomSnapshot snapshot) {
+        int[] produced = new int[snapshot.productCount()];
+        GreedyPlanner.plan(snapshot, StockLedger.of(snapshot), produced);
+        return produced;
+    }
+
+    private BomSnapshot syntheticCatalog(Random random, int productCount, int materialCount) {
+        List<RawMaterial> materials = new ArrayList<>();
+        for (long id = 1; id <= materialCount; id++) {
+            materials.add(buildMaterial(id, random.nextInt(2_000)));
+        }
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= productCount; id++) {
+            Product product = buildProduct(id, 1 + random.nextInt(500),
+                    materials.get(random.nextInt(materialCount)), 1 + random.nextInt(20));
+            for (int extra = random.nextInt(3); extra > 0; extra--) {
+                ProductComposition line = new ProductComposition();
+                line.setRawMaterial(materials.get(random.nextInt(materialCount)));
+                line.setRequiredQuantity(random.nextInt(20));
+                product.getCompositions().add(line);
+            }
+            products.add(product);
+        }
+        return BomSnapshot.of(products, materials, 1L);
+    }
+
+    private RawMaterial buildMaterial(Long id, int stock) {
+        RawMaterial m = new RawMaterial();
+        m.setId(id);
+        m.setName("Material " + id);
+        m.setStockQuantity(stock);
+        return m;
+    }
+
+    private Product buildProduct(Long id, double price, RawMaterial mat, int qty) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName("Product " + id);
+        p.setPrice(price);
+
+        ProductComposition comp = new ProductComposition();
+        comp.setRawMaterial(mat);
+        comp.setRequiredQuantity(qty);
+        p.setCompositions(new ArrayList<>(List.of(comp)));
+        return p;
+    }
+}
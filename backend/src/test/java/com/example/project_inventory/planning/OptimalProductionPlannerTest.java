@@ -0,0 +1,68 @@
+package com.example.project_inventory.planning;
+
+import com.example.project_inventory.domain.planning.OptimalProductionPlanner;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OptimalProductionPlannerTest {
+
+    private final OptimalProductionPlanner planner = new OptimalProductionPlanner(1_000);
+
+    @Test
+    void plan_withSingleProduct_shouldUseLimitingMaterial() {
+        int[] produced = planner.plan(
+                new double[]{50.0},
+                new int[][]{{0, 1}},
+                new int[][]{{10, 3}},
+                new int[]{100, 12});
+
+        assertThat(produced).containsExactly(4);
+    }
+
+    @Test
+    void plan_withSharedMaterials_shouldFindIntegerOptimum() {
+        // LP relaxation is fractional (2.5 units of product 1); the best integer mix is worth 111
+        double[] prices = {43.0, 42.0, 11.0, 7.0, 4.0};
+        int[][] slots = {{1}, {1, 0}, {0, 1}, {0, 1}, {1, 0}};
+        int[][] quantities = {{7}, {6, 6}, {6, 1}, {1, 6}, {1, 2}};
+
+        OptimalProductionPlanner.Plan plan = planner.solve(prices, slots, quantities, new int[]{21, 16});
+        int[] produced = plan.produced();
+
+        assertThat(plan.optimal()).isTrue();
+        assertThat(valueOf(prices, produced)).isEqualTo(111.0);
+        assertThat(consumed(slots, quantities, produced, 0)).isLessThanOrEqualTo(21);
+        assertThat(consumed(slots, quantities, produced, 1)).isLessThanOrEqualTo(16);
+    }
+
+    @Test
+    void plan_withZeroBudget_shouldFallBackToGreedyUnproven() {
+        OptimalProductionPlanner.Plan plan = new OptimalProductionPlanner(0).solve(
+                new double[]{100.0, 60.0},
+                new int[][]{{0}, {0}},
+                new int[][]{{6}, {5}},
+                new int[]{10});
+
+        assertThat(plan.produced()).containsExactly(1, 0);
+        assertThat(plan.optimal()).isFalse();
+    }
+
+    private static double valueOf(double[] prices, int[] produced) {
+        double total = 0;
+        for (int p = 0; p < prices.length; p++) {
+            total += prices[p] * produced[p];
+        }
+        return total;
+    }
+
+    private static int consumed(int[][] slots, int[][] quantities, int[] produced, int slot) {
+        int total = 0;
+        for (int p = 0; p < slots.length; p++) {
+            for (int k = 0; k < slots[p].length; k++) {
+                if (slots[p][k] == slot) total += quantities[p][k] * produced[p];
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.project_inventory.planning;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.planning.IncrementalGreedyPlanner;
+import com.example.project_inventory.domain.planning.StockTimeline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockTimelineTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-02T00:00:00Z");
+    private static final Duration DAY = Duration.ofDays(1);
+
+    private BomSnapshot snapshot;
+    private StockTimeline timeline;
+
+    @BeforeEach
+    void setUp() {
+        RawMaterial steel = buildMaterial(1L, "Steel");
+        RawMaterial wood = buildMaterial(2L, "Wood");
+        Product table = buildProduct(10L, "Table", 250.0);
+        addLine(table, 100L, wood, 4);
+        addLine(table, 101L, steel, 2);
+        snapshot = BomSnapshot.of(List.of(table), List.of(steel, wood), 7L);
+
+        timeline = StockTimeline.builder(snapshot, T0, DAY, 4)
+                .balance(1L, 10)
+                .balance(2L, 5)
+                .balance(99L, 7)
+                .movement(1L, 5, T0.plus(Duration.ofHours(1)))
+                .movement(1L, -5, T0.plus(Duration.ofHours(20)))
+                .movement(2L, 3, T0.plus(DAY))
+                .movement(99L, 4, T0.plus(DAY).plusSeconds(60))
+                .movement(1L, -20, T0.plus(DAY.multipliedBy(2)).plusSeconds(60))
+                .movement(1L, 100, T0.plus(DAY.multipliedBy(3)))
+                .build();
+    }
+
+    @Test
+    void builder_shouldKeepOnlyTheNetChangeBetweenPoints() {
+        assertThat(timeline.points()).isEqualTo(4);
+        assertThat(timeline.end()).isEqualTo(T0.plus(DAY.multipliedBy(3)));
+        // movements that cancel out, or land on an unknown material, change nothing
+        assertThat(timeline.changedMaterials(1)).isZero();
+        assertThat(timeline.changedMaterials(2)).isEqualTo(1);
+        assertThat(timeline.changedMaterials(3)).isEqualTo(1);
+    }
+
+    @Test
+    void cursor_shouldWalkForwardOneChangeSetAtATime() {
+        StockTimeline.Cursor cursor = timeline.cursor(0);
+        assertThat(stockOf(cursor.snapshot())).containsExactly(10, 5);
+
+        assertThat(cursor.advance()).isFalse();
+        assertThat(cursor.advance()).isTrue();
+        assertThat(cursor.time()).isEqualTo(T0.plus(DAY.multipliedBy(2)));
+        assertThat(stockOf(cursor.snapshot())).containsExactly(10, 8);
+
+        assertThat(cursor.advance()).isTrue();
+        // a balance below zero plans as no stock; the movement at the last point itself never counts
+        assertThat(stockOf(cursor.snapshot())).containsExactly(0, 8);
+        assertThat(stockOf(timeline.cursor(3).snapshot())).containsExactly(0, 8);
+    }
+
+    @Test
+    void cursorSnapshots_shouldShareStructureSoTheGreedyPlanStaysIncremental() {
+        IncrementalGreedyPlanner planner = new IncrementalGreedyPlanner();
+        StockTimeline.Cursor cursor = timeline.cursor(0);
+
+        assertThat(planner.plan(cursor.snapshot())).containsExactly(1);
+        cursor.advance();
+        cursor.advance();
+        assertThat(planner.plan(cursor.snapshot())).containsExactly(2);
+        assertThat(planner.lastRevisited()).isEqualTo(1);
+        assertThat(cursor.snapshot().version()).isEqualTo(7L);
+    }
+
+    private int[] stockOf(BomSnapshot at) {
+        return new int[]{at.stock(at.slotOf(1L)), at.stock(at.slotOf(2L))};
+    }
+
+    private RawMaterial buildMaterial(Long id, String name) {
+        RawMaterial m = new RawMaterial();
+        m.setId(id);
+        m.setName(name);
+        m.setStockQuantity(0);
+        return m;
+    }
+
+    private Product buildProduct(Long id, String name, double price) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setPrice(price);
+        p.setCompositions(new ArrayList<>());
+        return p;
+    }
+
+    private void addLine(Product product, Long compositionId, RawMaterial material, int qty) {
+        ProductComposition comp = new ProductComposition();
+        comp.setId(compositionId);
+        comp.setProduct(product);
+        comp.setRawMaterial(material);
+        comp.setRequiredQuantity(qty);
+        product.getCompositions().add(comp);
+    }
+}
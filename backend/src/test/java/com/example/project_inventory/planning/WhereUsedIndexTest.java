@@ -0,0 +1,109 @@
+package com.example.project_inventory.planning;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.planning.WhereUsedIndex;
+import com.example.project_inventory.domain.planning.WhereUsedIndex.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WhereUsedIndexTest {
+
+    private WhereUsedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        RawMaterial steel = buildMaterial(1L, "Steel");
+        RawMaterial wood = buildMaterial(2L, "Wood");
+
+        Product leg = buildProduct(10L, "Leg", 10.0);
+        addLine(leg, 100L, wood, 2);
+        Product chair = buildProduct(11L, "Chair", 80.0);
+        addComponent(chair, 101L, leg, 4);
+        addLine(chair, 102L, steel, 1);
+        Product table = buildProduct(12L, "Table", 250.0);
+        addComponent(table, 103L, leg, 4);
+        addLine(table, 104L, wood, 5);
+        Product diningSet = buildProduct(13L, "Dining set", 600.0);
+        addComponent(diningSet, 105L, chair, 4);
+        addComponent(diningSet, 106L, table, 1);
+
+        index = WhereUsedIndex.of(BomSnapshot.of(List.of(leg, chair, table, diningSet), List.of(steel, wood), 1L));
+    }
+
+    @Test
+    void consumersOfMaterial_shouldListDirectUsersThenEverythingBuiltFromThem() {
+        assertThat(index.consumersOfMaterial(2L)).containsExactly(
+                new Consumer(12L, 1, 5, 13),
+                new Consumer(10L, 1, 2, 2),
+                new Consumer(13L, 0, 0, 45),
+                new Consumer(11L, 0, 0, 8));
+        assertThat(index.directUsersOfMaterial(1L)).isEqualTo(1);
+        assertThat(index.consumersOfMaterial(99L)).isEmpty();
+    }
+
+    @Test
+    void consumersOfProduct_shouldFollowComponentLines() {
+        assertThat(index.consumersOfProduct(10L)).containsExactly(
+                new Consumer(11L, 1, 4, 4),
+                new Consumer(12L, 1, 4, 4),
+                new Consumer(13L, 0, 0, 20));
+        assertThat(index.consumersOfProduct(13L)).isEmpty();
+    }
+
+    @Test
+    void patches_shouldBeIdempotentAndKeepTheTotalsCurrent() {
+        index.putLine(10L, 100L, 2L, false, 2);
+        index.removeLine(12L, 104L);
+        index.removeLine(12L, 104L);
+        index.removeProduct(13L);
+
+        assertThat(index.consumersOfMaterial(2L)).containsExactly(
+                new Consumer(10L, 1, 2, 2),
+                new Consumer(11L, 0, 0, 8),
+                new Consumer(12L, 0, 0, 8));
+        assertThat(index.consumersOfProduct(11L)).isEmpty();
+    }
+
+    private RawMaterial buildMaterial(Long id, String name) {
+        RawMaterial m = new RawMaterial();
+        m.setId(id);
+        m.setName(name);
+        m.setStockQuantity(100);
+        return m;
+    }
+
+    private Product buildProduct(Long id, String name, double price) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setPrice(price);
+        p.setCompositions(new ArrayList<>());
+        return p;
+    }
+
+    private void addLine(Product product, Long compositionId, RawMaterial material, int qty) {
+        ProductComposition comp = new ProductComposition();
+        comp.setId(compositionId);
+        comp.setProduct(product);
+        comp.setRawMaterial(material);
+        comp.setRequiredQuantity(qty);
+        product.getCompositions().add(comp);
+    }
+
+    private void addComponent(Product product, Long compositionId, Product component, int qty) {
+        ProductComposition comp = new ProductComposition();
+        comp.setId(compositionId);
+        comp.setProduct(product);
+        comp.setComponentProduct(component);
+        comp.setRequiredQuantity(qty);
+        product.getCompositions().add(comp);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.project_inventory.search;
+
+import com.example.project_inventory.domain.search.NameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NameIndexTest {
+
+    private NameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = NameIndex.builder()
+                .add(1L, "Steel bar")
+                .add(2L, "Bar of steel")
+                .add(3L, "Stainless screw")
+                .add(4L, "Parafuso sextavado M8")
+                .add(5L, "Aço inox 304")
+                .build();
+    }
+
+    @Test
+    void search_byPrefix_shouldRankLeadingMatchesFirst() {
+        assertThat(index.search("ste", 10)).extracting(NameIndex.Hit::id).containsExactly(1L, 2L);
+        assertThat(index.search("st", 10)).extracting(NameIndex.Hit::id).containsExactly(1L, 3L, 2L);
+    }
+
+    @Test
+    void search_shouldRequireEveryQueryTerm() {
+        assertThat(index.search("bar st", 10)).extracting(NameIndex.Hit::id).containsExactly(2L, 1L);
+        assertThat(index.search("screw bar", 10)).isEmpty();
+    }
+
+    @Test
+    void search_shouldIgnoreCaseAndAccents() {
+        assertThat(index.search("ACO", 10)).extracting(NameIndex.Hit::id).containsExactly(5L);
+        assertThat(index.search("m8", 10)).extracting(NameIndex.Hit::id).containsExactly(4L);
+    }
+
+    @Test
+    void search_shouldTolerateTypos() {
+        assertThat(index.search("parafsuo", 10)).extracting(NameIndex.Hit::id).containsExactly(4L);
+        assertThat(index.search("stell", 10)).extracting(NameIndex.Hit::id).containsExactlyInAnyOrder(1L, 2L);
+        // too short to guess at
+        assertThat(index.search("stx", 10)).isEmpty();
+    }
+
+    @Test
+    void search_shouldStopAtLimit() {
+        assertThat(index.search("s", 2)).extracting(NameIndex.Hit::id).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void search_overManyNames_shouldFindMatchesBeyondTheMostCommonTerm() {
+        NameIndex.Builder builder = NameIndex.builder();
+        for (long id = 1; id <= 20_000; id++) {
+            builder.add(id, "Steel part " + id);
+        }
+        builder.add(30_000L, "Steel bolt M8");
+        builder.add(30_001L, "Steelworks bolt");
+        NameIndex large = builder.build();
+
+        assertThat(large.search("steel bolt", 10)).extracting(NameIndex.Hit::id).containsExactly(30_000L, 30_001L);
+        assertThat(large.search("part 19999", 10)).extracting(NameIndex.Hit::id).containsExactly(19_999L);
+    }
+
+    @Test
+    void putAndRemove_shouldPatchTheIndex() {
+        index.put(1L, "Copper bar");
+        index.remove(2L);
+        index.put(6L, "Steel wool");
+
+        assertThat(index.search("steel", 10)).extracting(NameIndex.Hit::id).containsExactly(6L);
+        assertThat(index.search("bar", 10)).extracting(NameIndex.Hit::id).containsExactly(1L);
+        assertThat(index.search("coper", 10)).extracting(NameIndex.Hit::id).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(5);
+    }
+}
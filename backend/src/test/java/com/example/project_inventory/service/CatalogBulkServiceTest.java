@@ -0,0 +1,130 @@
+package com.example.project_inventory.service;
+
+import com.example.project_inventory.domain.bulk.BulkFormat;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.repository.CatalogBulkRepository;
+import com.example.project_inventory.domain.repository.SequenceIdAllocator;
+import com.example.project_inventory.domain.service.BomSnapshotService;
+import com.example.project_inventory.domain.service.CatalogCache;
+import com.example.project_inventory.domain.service.CatalogSearchService;
+import com.example.project_inventory.domain.service.WhereUsedService;
+import com.example.project_inventory.domain.service.CatalogBulkService;
+import com.example.project_inventory.dto.BulkImportResultDTO;
+import com.example.project_inventory.dto.BulkLineErrorDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogBulkServiceTest {
+
+    @Mock
+    private CatalogBulkRepository bulkRepository;
+
+    @Mock
+    private SequenceIdAllocator idAllocator;
+
+    @Mock
+    private BomSnapshotService bomSnapshotService;
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @Mock
+    private CatalogSearchService catalogSearchService;
+
+    @Mock
+    private WhereUsedService whereUsedService;
+
+    private CatalogBulkService bulkService;
+
+    @BeforeEach
+    void setUp() {
+        bulkService = new CatalogBulkService(bulkRepository, idAllocator, bomSnapshotService, catalogCache,
+                catalogSearchService, whereUsedService, TransactionOperations.withoutTransaction(), new ObjectMapper());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importRawMaterials_fromCsv_shouldInsertValidRowsAndReportInvalidOnes() {
+        String csv = """
+                name,stockQuantity
+                Steel,100
+                "Copper, rolled",5
+                ,10
+                Tin,abc
+                """;
+        when(idAllocator.allocate(RawMaterial.class, 2)).thenReturn(new long[]{50L, 51L});
+
+        BulkImportResultDTO result = bulkService.importRawMaterials(body(csv), BulkFormat.CSV);
+
+        ArgumentCaptor<Collection<RawMaterial>> inserted = ArgumentCaptor.forClass(Collection.class);
+        verify(bulkRepository).insertRawMaterials(inserted.capture());
+        assertThat(inserted.getValue()).extracting(RawMaterial::getName).containsExactly("Steel", "Copper, rolled");
+        assertThat(inserted.getValue()).extracting(RawMaterial::getId).containsExactly(50L, 51L);
+        assertThat(result.getRecordsRead()).isEqualTo(4);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(BulkLineErrorDTO::getLine).containsExactly(4L, 5L);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Raw material name is required");
+        verify(bomSnapshotService).invalidate();
+        verify(catalogCache).invalidateAll();
+        verify(catalogSearchService).invalidate();
+        verify(whereUsedService).invalidate();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importCompositions_fromNdjson_shouldRejectUnknownReferencesAndDuplicates() {
+        String ndjson = """
+                {"productId": 1, "rawMaterialId": 10, "quantity": 2}
+                {"productId": 1, "rawMaterialId": 11, "quantity": 3}
+                {"productId": 1, "rawMaterialId": 11, "quantity": 4}
+                {"productId": 2, "rawMaterialId": 10, "quantity": 1}
+                {"productId": 1, "rawMaterialId": 10
+                """;
+        when(bulkRepository.findExistingProductIds(anyCollection())).thenReturn(Set.of(1L));
+        when(bulkRepository.findExistingRawMaterialIds(anyCollection())).thenReturn(Set.of(10L, 11L));
+        when(bulkRepository.findRawMaterialIdsByProductIds(anyCollection())).thenReturn(Map.of());
+        when(idAllocator.allocate(ProductComposition.class, 2)).thenReturn(new long[]{100L, 101L});
+
+        BulkImportResultDTO result = bulkService.importCompositions(body(ndjson), BulkFormat.NDJSON);
+
+        ArgumentCaptor<Collection<ProductComposition>> inserted = ArgumentCaptor.forClass(Collection.class);
+        verify(bulkRepository).insertCompositions(inserted.capture());
+        assertThat(inserted.getValue()).extracting(ProductComposition::getRequiredQuantity).containsExactly(2, 3);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(BulkLineErrorDTO::getLine).containsExactlyInAnyOrder(3L, 4L, 5L);
+    }
+
+    @Test
+    void importProducts_whenEveryLineIsInvalid_shouldNotWrite() {
+        BulkImportResultDTO result = bulkService.importProducts(body("name,price\nWidget,-1\n"), BulkFormat.CSV);
+
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Product price must be a non-negative value");
+        verify(bulkRepository, never()).insertProducts(any());
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
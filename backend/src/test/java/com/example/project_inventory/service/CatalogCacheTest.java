@@ -0,0 +1,106 @@
+package com.example.project_inventory.service;
+
+import com.example.project_inventory.domain.event.CatalogEvent;
+import com.example.project_inventory.domain.service.CatalogCache;
+import com.example.project_inventory.dto.ProductCompositionDTO;
+import com.example.project_inventory.dto.ProductDTO;
+import com.example.project_inventory.dto.RawMaterialDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogCache cache;
+    private AtomicInteger productLoads;
+    private String steelName;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CatalogCache(100, Duration.ofMinutes(10), meterRegistry);
+        productLoads = new AtomicInteger();
+        steelName = "Steel";
+    }
+
+    private ProductDTO loadProduct(Long id) {
+        productLoads.incrementAndGet();
+        ProductCompositionDTO comp = new ProductCompositionDTO();
+        comp.setId(10L);
+        comp.setRawMaterialId(7L);
+        comp.setRawMaterialName(steelName);
+        comp.setRequiredQuantity(3);
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        dto.setName("Widget");
+        dto.setPrice(10.0);
+        dto.setCompositions(List.of(comp));
+        return dto;
+    }
+
+    @Test
+    void product_shouldLoadOnceAndHandOutCopies() {
+        ProductDTO first = cache.product(1L, this::loadProduct);
+        first.setName("changed by caller");
+        ProductDTO second = cache.product(1L, this::loadProduct);
+
+        assertThat(productLoads).hasValue(1);
+        assertThat(second.getName()).isEqualTo("Widget");
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "products", "result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void rawMaterialSaved_shouldEvictProductsOnlyWhenTheNameChanged() {
+        cache.product(1L, this::loadProduct);
+
+        cache.onCatalogEvent(new CatalogEvent.RawMaterialSaved(7L, "Steel", 40));
+        cache.product(1L, this::loadProduct);
+        assertThat(productLoads).hasValue(1);
+
+        steelName = "Stainless steel";
+        cache.onCatalogEvent(new CatalogEvent.RawMaterialSaved(7L, "Stainless steel", 40));
+        ProductDTO reloaded = cache.product(1L, this::loadProduct);
+        assertThat(productLoads).hasValue(2);
+        assertThat(reloaded.getCompositions().get(0).getRawMaterialName()).isEqualTo("Stainless steel");
+    }
+
+    @Test
+    void productEvents_shouldEvictOnlyThatProduct() {
+        cache.product(1L, this::loadProduct);
+        cache.product(2L, this::loadProduct);
+
+        cache.onCatalogEvent(new CatalogEvent.CompositionRemoved(2L, 10L));
+        cache.product(1L, this::loadProduct);
+        cache.product(2L, this::loadProduct);
+
+        assertThat(productLoads).hasValue(3);
+    }
+
+    @Test
+    void rawMaterial_whenWriteCommitsDuringLoad_shouldNotKeepLoadedValue() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<Long, RawMaterialDTO> racingLoader = id -> {
+            loads.incrementAndGet();
+            RawMaterialDTO dto = new RawMaterialDTO();
+            dto.setId(id);
+            dto.setStockQuantity(50);
+            // another request commits a write after this read
+            cache.onCatalogEvent(new CatalogEvent.ProductUpdated(1L, "Widget", 12.0));
+            return dto;
+        };
+
+        assertThat(cache.rawMaterial(7L, racingLoader).getStockQuantity()).isEqualTo(50);
+        cache.rawMaterial(7L, racingLoader);
+
+        assertThat(loads).hasValue(2);
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.project_inventory.service;
+
+import com.example.project_inventory.domain.event.CatalogEvent;
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.repository.ProductCompositionRepository;
+import com.example.project_inventory.domain.repository.ProductRepository;
+import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import com.example.project_inventory.domain.service.ProductBatchService;
+import com.example.project_inventory.dto.BatchItemErrorDTO;
+import com.example.project_inventory.dto.CompositionAddDTO;
+import com.example.project_inventory.dto.CompositionRemoveDTO;
+import com.example.project_inventory.dto.ProductBatchRequestDTO;
+import com.example.project_inventory.dto.ProductBatchResultDTO;
+import com.example.project_inventory.dto.ProductUpdateDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBatchServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductCompositionRepository compositionRepository;
+
+    @Mock
+    private RawMaterialRepository rawMaterialRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ProductBatchService productBatchService;
+
+    private Product widget;
+    private Product gadget;
+    private RawMaterial steel;
+
+    @BeforeEach
+    void setUp() {
+        steel = new RawMaterial();
+        steel.setId(1L);
+        steel.setName("Steel");
+        steel.setStockQuantity(100);
+
+        widget = buildProduct(1L, "Widget");
+        gadget = buildProduct(2L, "Gadget");
+
+        ProductComposition steelLine = new ProductComposition();
+        steelLine.setId(10L);
+        steelLine.setProduct(widget);
+        steelLine.setRawMaterial(steel);
+        steelLine.setRequiredQuantity(5);
+        widget.getCompositions().add(steelLine);
+    }
+
+    @Test
+    void apply_shouldApplyValidItemsAndReportEachInvalidOne() {
+        when(productRepository.findAllWithCompositionsByIdIn(any())).thenReturn(List.of(widget, gadget));
+        when(rawMaterialRepository.findAllById(any())).thenReturn(List.of(steel));
+        assignIdsOnSave();
+
+        ProductBatchRequestDTO request = new ProductBatchRequestDTO();
+        request.setUpdates(List.of(update(1L, "Widget II", 120.0), update(99L, "Ghost", 1.0), update(2L, " ", 1.0)));
+        request.setCompositionsToRemove(List.of(remove(1L, 10L)));
+        // steel can be added back because the removal runs first
+        request.setCompositionsToAdd(List.of(addMaterial(1L, 1L, 2), addMaterial(1L, 1L, 0), addMaterial(2L, 77L, 1)));
+
+        ProductBatchResultDTO result = productBatchService.apply(request);
+
+        assertThat(result.getApplied()).isEqualTo(3);
+        assertThat(result.getRejected()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(BatchItemErrorDTO::getList, BatchItemErrorDTO::getIndex)
+                .containsExactly(tuple("updates", 1), tuple("updates", 2),
+                        tuple("compositionsToAdd", 1), tuple("compositionsToAdd", 2));
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Product not found with id: 99");
+
+        assertThat(widget.getName()).isEqualTo("Widget II");
+        assertThat(widget.getCompositions()).singleElement()
+                .satisfies(line -> assertThat(line.getRequiredQuantity()).isEqualTo(2));
+        assertThat(gadget.getName()).isEqualTo("Gadget");
+        verify(productRepository, times(1)).findAllWithCompositionsByIdIn(any());
+        verify(rawMaterialRepository, times(1)).findAllById(any());
+        verify(eventPublisher, times(3)).publishEvent(any(CatalogEvent.class));
+        verify(productRepository, never()).lockAllByIdIn(any());
+    }
+
+    @Test
+    void apply_whenTwoItemsCloseACycle_shouldRejectTheSecond() {
+        when(productRepository.findAllWithCompositionsByIdIn(any())).thenReturn(List.of(widget, gadget));
+        assignIdsOnSave();
+        // the database sees the lines the batch has added so far, as the query flushes them first
+        when(productRepository.findComponentIdsOf(any())).thenAnswer(invocation -> Stream.of(widget, gadget)
+                .filter(p -> invocation.<Collection<Long>>getArgument(0).contains(p.getId()))
+                .flatMap(p -> p.getCompositions().stream())
+                .filter(line -> line.getComponentProduct() != null)
+                .map(line -> line.getComponentProduct().getId())
+                .toList());
+
+        ProductBatchRequestDTO request = new ProductBatchRequestDTO();
+        request.setCompositionsToAdd(List.of(addComponent(1L, 2L), addComponent(2L, 1L)));
+
+        ProductBatchResultDTO result = productBatchService.apply(request);
+
+        assertThat(result.getApplied()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getIndex()).isEqualTo(1);
+            assertThat(error.getMessage()).contains("it would contain itself");
+        });
+        assertThat(gadget.getCompositions()).isEmpty();
+        verify(productRepository).lockAllByIdIn(argThat(ids -> ids.containsAll(List.of(1L, 2L))));
+    }
+
+    @Test
+    void apply_withManyChanges_shouldPublishOneBatchEvent() {
+        when(productRepository.findAllWithCompositionsByIdIn(any())).thenReturn(List.of(widget));
+
+        List<ProductUpdateDTO> updates = new ArrayList<>();
+        for (int i = 0; i < 501; i++) {
+            updates.add(update(1L, "Widget " + i, (double) i));
+        }
+        ProductBatchRequestDTO request = new ProductBatchRequestDTO();
+        request.setUpdates(updates);
+
+        ProductBatchResultDTO result = productBatchService.apply(request);
+
+        assertThat(result.getApplied()).isEqualTo(501);
+        assertThat(widget.getName()).isEqualTo("Widget 500");
+        verify(eventPublisher).publishEvent(new CatalogEvent.BatchApplied(501));
+        verifyNoMoreInteractions(eventPublisher);
+        verifyNoInteractions(rawMaterialRepository);
+    }
+
+    private void assignIdsOnSave() {
+        AtomicLong ids = new AtomicLong(100);
+        when(compositionRepository.save(any(ProductComposition.class))).thenAnswer(invocation -> {
+            ProductComposition composition = invocation.getArgument(0);
+            composition.setId(ids.incrementAndGet());
+            return composition;
+        });
+    }
+
+    private Product buildProduct(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(100.0);
+        product.setCompositions(new ArrayList<>());
+        return product;
+    }
+
+    private ProductUpdateDTO update(Long id, String name, Double price) {
+        ProductUpdateDTO item = new ProductUpdateDTO();
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(price);
+        return item;
+    }
+
+    private CompositionRemoveDTO remove(Long productId, Long compositionId) {
+        CompositionRemoveDTO item = new CompositionRemoveDTO();
+        item.setProductId(productId);
+        item.setCompositionId(compositionId);
+        return item;
+    }
+
+    private CompositionAddDTO addMaterial(Long productId, Long rawMaterialId, Integer quantity) {
+        CompositionAddDTO item = new CompositionAddDTO();
+        item.setProductId(productId);
+        item.setRawMaterialId(rawMaterialId);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private CompositionAddDTO addComponent(Long productId, Long componentProductId) {
+        CompositionAddDTO item = new CompositionAddDTO();
+        item.setProductId(productId);
+        item.setComponentProductId(componentProductId);
+        item.setQuantity(1);
+        return item;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.project_inventory.service;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.repository.ProductCompositionRepository;
+import com.example.project_inventory.domain.repository.ProductRepository;
+import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import com.example.project_inventory.domain.service.BomSnapshotService;
+import com.example.project_inventory.domain.service.CatalogCache;
+import com.example.project_inventory.domain.service.ProductService;
+import com.example.project_inventory.dto.CompositionRequestDTO;
+import com.example.project_inventory.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SQL statement budgets of the {@link ProductService} calls, against an in-memory database. Every
+ * product carries {@value #LINES} composition lines, so a call that loads them one by one, or loads
+ * them at all when it doesn't need to, goes over budget.
+ * <p>
+ * Not transactional: each service call commits its own transaction, so its writes are flushed and
+ * counted inside the call.
+ */
+@DataJpaTest(properties = {
+        // cleared, so Hibernate detects H2 instead of using the application's Oracle dialect
+        "spring.jpa.database-platform=",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.project_inventory.metrics.HibernateActivity"
+})
+@Import(ProductService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductServiceStatementBudgetTest {
+
+    private static final int LINES = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCompositionRepository compositionRepository;
+
+    @Autowired
+    private RawMaterialRepository rawMaterialRepository;
+
+    @MockitoBean
+    private CatalogCache catalogCache;
+
+    @MockitoBean
+    private BomSnapshotService bomSnapshotService;
+
+    private List<RawMaterial> materials;
+    private Product widget;
+    private Product gadget;
+
+    @BeforeEach
+    void setUp() {
+        materials = new ArrayList<>();
+        for (int i = 0; i <= LINES; i++) {
+            RawMaterial material = new RawMaterial();
+            material.setName("Material " + i);
+            material.setStockQuantity(100);
+            materials.add(material);
+        }
+        materials = rawMaterialRepository.saveAll(materials);
+        widget = productRepository.save(buildProduct("Widget", 50.0));
+        gadget = productRepository.save(buildProduct("Gadget", 30.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        compositionRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        rawMaterialRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void findAll_shouldRunOneStatement() {
+        StatementBudget.atMost(1, () -> assertThat(productService.findAll()).hasSize(2));
+    }
+
+    @Test
+    void findPageWithCompositions_shouldRunTwoStatements() {
+        StatementBudget.atMost(2, () -> assertThat(productService.findPageWithCompositions(null, 10).getItems())
+                .allSatisfy(product -> assertThat(product.getCompositions()).hasSize(LINES)));
+    }
+
+    @Test
+    void update_shouldNotLoadTheProduct() {
+        Product details = new Product();
+        details.setName("Widget II");
+        details.setPrice(55.0);
+
+        StatementBudget.atMost(2, () -> productService.update(widget.getId(), details));
+    }
+
+    @Test
+    void addComposition_shouldNotLoadTheOtherLines() {
+        CompositionRequestDTO request = new CompositionRequestDTO();
+        request.setRawMaterialId(materials.get(LINES).getId());
+        request.setQuantity(1);
+
+        // product, raw material, duplicate check, insert, and at most one sequence call
+        StatementBudget.atMost(5, () -> productService.addComposition(widget.getId(), request));
+    }
+
+    @Test
+    void addComposition_withComponent_shouldNotLoadTheOtherLines() {
+        CompositionRequestDTO request = new CompositionRequestDTO();
+        request.setComponentProductId(gadget.getId());
+        request.setQuantity(1);
+
+        // both rows locked in one statement, duplicate check, one level of the cycle walk, insert, sequence
+        StatementBudget.atMost(5, () -> productService.addComposition(widget.getId(), request));
+    }
+
+    @Test
+    void addComposition_closingACycle_shouldBeRejectedFromTheDatabase() {
+        // Gadget is made of Widget; the mocked snapshot knows nothing of it
+        CompositionRequestDTO widgetInGadget = new CompositionRequestDTO();
+        widgetInGadget.setComponentProductId(widget.getId());
+        widgetInGadget.setQuantity(1);
+        productService.addComposition(gadget.getId(), widgetInGadget);
+
+        CompositionRequestDTO gadgetInWidget = new CompositionRequestDTO();
+        gadgetInWidget.setComponentProductId(gadget.getId());
+        gadgetInWidget.setQuantity(1);
+
+        assertThatThrownBy(() -> productService.addComposition(widget.getId(), gadgetInWidget))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("it would contain itself");
+    }
+
+    @Test
+    void removeComposition_shouldRunOneStatement() {
+        Long compositionId = compositionRepository.findAllWithRawMaterialByProductIdIn(List.of(widget.getId()))
+                .get(0).getId();
+
+        StatementBudget.atMost(1, () -> productService.removeComposition(widget.getId(), compositionId));
+        assertThat(compositionRepository.existsById(compositionId)).isFalse();
+    }
+
+    @Test
+    void delete_shouldRunTwoStatements() {
+        StatementBudget.atMost(2, () -> productService.delete(widget.getId()));
+        assertThat(productRepository.existsById(widget.getId())).isFalse();
+    }
+
+    private Product buildProduct(String name, double price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        for (int i = 0; i < LINES; i++) {
+            ProductComposition line = new ProductComposition();
+            line.setProduct(product);
+            line.setRawMaterial(materials.get(i));
+            line.setRequiredQuantity(i + 1);
+            product.getCompositions().add(line);
+        }
+        return product;
+    }
+}
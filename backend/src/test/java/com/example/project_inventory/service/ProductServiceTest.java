@@ -3,25 +3,33 @@ package com.example.project_inventory.service;
 import com.example.project_inventory.domain.model.Product;
 import com.example.project_inventory.domain.model.ProductComposition;
 import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.planning.BomSnapshot;
 import com.example.project_inventory.domain.repository.ProductCompositionRepository;
 import com.example.project_inventory.domain.repository.ProductRepository;
 import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import com.example.project_inventory.domain.service.BomSnapshotService;
 import com.example.project_inventory.domain.service.ProductService;
 import com.example.project_inventory.dto.CompositionRequestDTO;
+import com.example.project_inventory.dto.CursorPageDTO;
 import com.example.project_inventory.dto.ProductCompositionDTO;
 import com.example.project_inventory.dto.ProductDTO;
+import com.example.project_inventory.dto.ProductSummaryDTO;
 import com.example.project_inventory.exception.BusinessException;
 import com.example.project_inventory.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -39,6 +47,15 @@ class ProductServiceTest {
     @Mock
     private RawMaterialRepository rawMaterialRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private BomSnapshotService bomSnapshotService;
+
     @InjectMocks
     private ProductService productService;
 
@@ -70,6 +87,58 @@ class ProductServiceTest {
         assertThat(result.get(0).getPrice()).isEqualTo(99.90);
     }
 
+    @Test
+    void streamAll_shouldAttachChunkCompositionsAndClearContext() {
+        Product other = new Product();
+        other.setId(2L);
+        other.setName("Widget B");
+        other.setPrice(10.0);
+
+        ProductComposition composition = new ProductComposition();
+        composition.setId(5L);
+        composition.setProduct(product);
+        composition.setRawMaterial(rawMaterial);
+        composition.setRequiredQuantity(3);
+
+        when(productRepository.streamAllOrderByPriceDesc()).thenReturn(Stream.of(product, other));
+        when(compositionRepository.findAllWithRawMaterialByProductIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(composition));
+
+        List<ProductDTO> result = new ArrayList<>();
+        productService.streamAll(result::add);
+
+        assertThat(result).extracting(ProductDTO::getName).containsExactly("Widget A", "Widget B");
+        assertThat(result.get(0).getCompositions()).hasSize(1);
+        assertThat(result.get(0).getCompositions().get(0).getRequiredQuantity()).isEqualTo(3);
+        assertThat(result.get(1).getCompositions()).isEmpty();
+        verify(entityManager).clear();
+    }
+
+    @Test
+    void findPage_shouldReturnCursorThatSeeksPastLastRow() {
+        when(productRepository.findSummariesOrderByPriceDesc(Limit.of(2))).thenReturn(List.of(
+                new ProductSummaryDTO(1L, "Widget A", 99.90),
+                new ProductSummaryDTO(2L, "Widget B", 50.0)));
+        when(productRepository.findSummariesAfter(99.90, 1L, Limit.of(2))).thenReturn(List.of(
+                new ProductSummaryDTO(2L, "Widget B", 50.0)));
+
+        CursorPageDTO<ProductSummaryDTO> first = productService.findPage(null, 1);
+        CursorPageDTO<ProductSummaryDTO> second = productService.findPage(first.getNextCursor(), 1);
+
+        assertThat(first.getItems()).extracting(ProductSummaryDTO::getName).containsExactly("Widget A");
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(second.getItems()).extracting(ProductSummaryDTO::getName).containsExactly("Widget B");
+        assertThat(second.getNextCursor()).isNull();
+        verifyNoInteractions(compositionRepository);
+    }
+
+    @Test
+    void findPage_withInvalidCursor_shouldThrowBusinessException() {
+        assertThatThrownBy(() -> productService.findPage("not-a-cursor", 10))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("cursor");
+    }
+
     @Test
     void findById_whenNotExists_shouldThrowResourceNotFoundException() {
         when(productRepository.findById(99L)).thenReturn(Optional.empty());
@@ -89,6 +158,24 @@ class ProductServiceTest {
         verify(productRepository, times(1)).save(product);
     }
 
+    @Test
+    void save_withCompositionReferencingRawMaterialById_shouldUseTheStoredOne() {
+        RawMaterial reference = new RawMaterial();
+        reference.setId(1L);
+        ProductComposition composition = new ProductComposition();
+        composition.setRawMaterial(reference);
+        composition.setRequiredQuantity(2);
+        product.getCompositions().add(composition);
+
+        when(rawMaterialRepository.findById(1L)).thenReturn(Optional.of(rawMaterial));
+        when(productRepository.save(any())).thenReturn(product);
+
+        ProductDTO result = productService.save(product);
+
+        assertThat(composition.getRawMaterial()).isSameAs(rawMaterial);
+        assertThat(result.getCompositions()).extracting(ProductCompositionDTO::getRawMaterialName).containsExactly("Steel");
+    }
+
     @Test
     void save_withBlankName_shouldThrowBusinessException() {
         product.setName("");
@@ -113,13 +200,24 @@ class ProductServiceTest {
         updated.setName("Widget B");
         updated.setPrice(150.00);
 
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(productRepository.updateDetails(1L, "Widget B", 150.00)).thenReturn(1);
 
         ProductDTO result = productService.update(1L, updated);
 
         assertThat(result.getName()).isEqualTo("Widget B");
         assertThat(result.getPrice()).isEqualTo(150.00);
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void update_whenNotExists_shouldThrowResourceNotFoundException() {
+        Product updated = new Product();
+        updated.setName("Widget B");
+        updated.setPrice(150.00);
+
+        assertThatThrownBy(() -> productService.update(99L, updated))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -155,17 +253,13 @@ class ProductServiceTest {
 
     @Test
     void addComposition_whenRawMaterialAlreadyLinked_shouldThrowBusinessException() {
-        // Simulate material already in the composition list
-        ProductComposition existing = new ProductComposition();
-        existing.setRawMaterial(rawMaterial);
-        product.getCompositions().add(existing);
-
         CompositionRequestDTO request = new CompositionRequestDTO();
         request.setRawMaterialId(1L);
         request.setQuantity(3);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
         when(rawMaterialRepository.findById(1L)).thenReturn(Optional.of(rawMaterial));
+        when(compositionRepository.existsByProductIdAndRawMaterialId(1L, 1L)).thenReturn(true);
 
         assertThatThrownBy(() -> productService.addComposition(1L, request))
                 .isInstanceOf(BusinessException.class)
@@ -173,19 +267,100 @@ class ProductServiceTest {
     }
 
     @Test
-    void removeComposition_whenCompositionBelongsToDifferentProduct_shouldThrowBusinessException() {
-        Product otherProduct = new Product();
-        otherProduct.setId(99L);
+    void addComposition_whenComponentAlreadyContainsProduct_shouldThrowBusinessException() {
+        // Frame is made of Widget A, so Widget A can't be made of Frame
+        Product frame = buildSubAssembly(2L, "Frame");
+        ProductComposition widgetLine = new ProductComposition();
+        widgetLine.setProduct(frame);
+        widgetLine.setComponentProduct(product);
+        widgetLine.setRequiredQuantity(1);
+        frame.getCompositions().add(widgetLine);
 
-        ProductComposition composition = new ProductComposition();
-        composition.setId(5L);
-        composition.setProduct(otherProduct);
+        CompositionRequestDTO request = new CompositionRequestDTO();
+        request.setComponentProductId(2L);
+        request.setQuantity(1);
+
+        when(productRepository.lockAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(product, frame));
+        when(productRepository.findComponentIdsOf(List.of(2L))).thenReturn(List.of(1L));
+
+        assertThatThrownBy(() -> productService.addComposition(1L, request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("contain itself");
+        verify(compositionRepository, never()).save(any());
+    }
+
+    @Test
+    void findAll_withSubAssembly_shouldFlattenRequirementsFromSnapshot() {
+        // Widget A = 1 Steel + 2 Frame, Frame = 3 Steel
+        Product frame = buildSubAssembly(2L, "Frame");
+        ProductComposition steelLine = new ProductComposition();
+        steelLine.setProduct(frame);
+        steelLine.setRawMaterial(rawMaterial);
+        steelLine.setRequiredQuantity(3);
+        frame.getCompositions().add(steelLine);
+
+        ProductComposition ownSteel = new ProductComposition();
+        ownSteel.setProduct(product);
+        ownSteel.setRawMaterial(rawMaterial);
+        ownSteel.setRequiredQuantity(1);
+        ProductComposition frameLine = new ProductComposition();
+        frameLine.setProduct(product);
+        frameLine.setComponentProduct(frame);
+        frameLine.setRequiredQuantity(2);
+        product.getCompositions().addAll(List.of(ownSteel, frameLine));
+
+        when(productRepository.findAllWithCompositionsOrderByPriceDesc()).thenReturn(List.of(product));
+        when(bomSnapshotService.current()).thenReturn(BomSnapshot.of(List.of(product, frame), List.of(rawMaterial), 1L));
+
+        ProductDTO result = productService.findAll().get(0);
 
+        assertThat(result.getCompositions()).extracting(ProductCompositionDTO::getComponentProductName)
+                .containsExactly(null, "Frame");
+        assertThat(result.getRequirements()).singleElement().satisfies(requirement -> {
+            assertThat(requirement.getRawMaterialName()).isEqualTo("Steel");
+            assertThat(requirement.getQuantity()).isEqualTo(7);
+        });
+    }
+
+    @Test
+    void delete_whenUsedAsComponent_shouldThrowBusinessException() {
+        // nothing deleted, yet the product exists
         when(productRepository.existsById(1L)).thenReturn(true);
-        when(compositionRepository.findById(5L)).thenReturn(Optional.of(composition));
+
+        assertThatThrownBy(() -> productService.delete(1L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("component");
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void removeComposition_whenLineMatches_shouldDeleteWithoutLookups() {
+        when(compositionRepository.deleteByIdAndProductId(5L, 1L)).thenReturn(1);
+
+        productService.removeComposition(1L, 5L);
+
+        verify(eventPublisher).publishEvent(any(Object.class));
+        verify(productRepository, never()).existsById(any());
+        verify(compositionRepository, never()).findById(any());
+    }
+
+    @Test
+    void removeComposition_whenCompositionBelongsToDifferentProduct_shouldThrowBusinessException() {
+        // nothing deleted, yet both the product and the line exist
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(compositionRepository.existsById(5L)).thenReturn(true);
 
         assertThatThrownBy(() -> productService.removeComposition(1L, 5L))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("does not belong");
     }
+
+    private Product buildSubAssembly(Long id, String name) {
+        Product subAssembly = new Product();
+        subAssembly.setId(id);
+        subAssembly.setName(name);
+        subAssembly.setPrice(20.0);
+        subAssembly.setCompositions(new ArrayList<>());
+        return subAssembly;
+    }
 }
@@ -0,0 +1,145 @@
+package com.example.project_inventory.service;
+
+import com.example.project_inventory.domain.event.CatalogEvent;
+import com.example.project_inventory.domain.planning.PlanningStrategy;
+import com.example.project_inventory.domain.service.ProductionFeedService;
+import com.example.project_inventory.domain.service.ProductionService;
+import com.example.project_inventory.dto.ProductionItemDTO;
+import com.example.project_inventory.dto.ProductionPlanDeltaDTO;
+import com.example.project_inventory.dto.ProductionReportDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductionFeedServiceTest {
+
+    @Test
+    void diff_shouldReportAddedChangedAndRemovedItemsByProductId() {
+        ProductionReportDTO before = new ProductionReportDTO(List.of(
+                new ProductionItemDTO(1L, "Chair", 4, 400.0),
+                new ProductionItemDTO(2L, "Table", 1, 300.0),
+                new ProductionItemDTO(3L, "Stool", 2, 60.0)), 760.0);
+        ProductionReportDTO after = new ProductionReportDTO(List.of(
+                new ProductionItemDTO(1L, "Chair", 4, 400.0),
+                new ProductionItemDTO(3L, "Stool", 5, 150.0),
+                new ProductionItemDTO(4L, "Shelf", 1, 80.0)), 630.0);
+
+        ProductionPlanDeltaDTO delta = ProductionFeedService.diff(before, after);
+
+        assertThat(delta.getAdded()).extracting(ProductionItemDTO::getProductId).containsExactly(4L);
+        assertThat(delta.getChanged()).extracting(ProductionItemDTO::getProductId).containsExactly(3L);
+        assertThat(delta.getChanged().get(0).getQuantityToProduce()).isEqualTo(5);
+        assertThat(delta.getRemovedProductIds()).containsExactly(2L);
+        assertThat(delta.getTotalEstimatedValue()).isEqualTo(630.0);
+    }
+
+    @Test
+    void diff_ofEqualPlans_shouldBeEmpty() {
+        ProductionReportDTO plan = new ProductionReportDTO(List.of(new ProductionItemDTO(1L, "Chair", 4, 400.0)), 400.0);
+        ProductionReportDTO same = new ProductionReportDTO(List.of(new ProductionItemDTO(1L, "Chair", 4, 400.0)), 400.0);
+
+        ProductionPlanDeltaDTO delta = ProductionFeedService.diff(plan, same);
+
+        assertThat(delta.getAdded()).isEmpty();
+        assertThat(delta.getChanged()).isEmpty();
+        assertThat(delta.getRemovedProductIds()).isEmpty();
+    }
+
+    @Test
+    void broadcast_withABlockedSubscriber_shouldReachTheOthersAndDropItOnceItFallsBehind() throws Exception {
+        ProductionService productionService = mock(ProductionService.class);
+        when(productionService.suggest(PlanningStrategy.GREEDY)).thenReturn(suggestion(0));
+        ProductionFeedService feed = new ProductionFeedService(productionService, new ObjectMapper(), 0, 60_000, 4, 2, 60_000);
+        RecordingEmitter blocked = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter reading = new RecordingEmitter(null);
+        try {
+            feed.subscribe(blocked, PlanningStrategy.GREEDY, null);
+            feed.subscribe(reading, PlanningStrategy.GREEDY, null);
+            assertThat(reading.sent.poll(5, TimeUnit.SECONDS)).as("plan").isNotNull();
+
+            for (int i = 1; i <= 5; i++) {
+                when(productionService.suggest(PlanningStrategy.GREEDY)).thenReturn(suggestion(i));
+                feed.onCatalogEvent(new CatalogEvent.RawMaterialSaved(1L, "Steel", i));
+                assertThat(reading.sent.poll(5, TimeUnit.SECONDS)).as("delta %d", i).isNotNull();
+            }
+
+            // its plan is still being written, and the fourth delta found three more waiting
+            assertThat(blocked.completed.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(reading.completed.getCount()).isEqualTo(1);
+        } finally {
+            blocked.release.countDown();
+            feed.shutdown();
+        }
+    }
+
+    @Test
+    void send_blockedPastTheTimeout_shouldBeInterruptedAndFreeTheSenderThread() throws Exception {
+        ProductionService productionService = mock(ProductionService.class);
+        when(productionService.suggest(PlanningStrategy.GREEDY)).thenReturn(suggestion(0));
+        // one sender thread, which the blocked client holds until its write times out
+        ProductionFeedService feed = new ProductionFeedService(productionService, new ObjectMapper(), 0, 60_000, 4, 1, 200);
+        RecordingEmitter blocked = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter reading = new RecordingEmitter(null);
+        try {
+            feed.subscribe(blocked, PlanningStrategy.GREEDY, null);
+            feed.subscribe(reading, PlanningStrategy.GREEDY, null);
+
+            assertThat(blocked.completed.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(reading.sent.poll(5, TimeUnit.SECONDS)).as("plan").isNotNull();
+        } finally {
+            blocked.release.countDown();
+            feed.shutdown();
+        }
+    }
+
+    private static ProductionService.Suggestion suggestion(int quantity) {
+        ProductionReportDTO report = new ProductionReportDTO(
+                List.of(new ProductionItemDTO(1L, "Chair", quantity + 1, 100.0 * (quantity + 1))), 100.0 * (quantity + 1));
+        return new ProductionService.Suggestion(report, "W/\"" + quantity + "\"", quantity);
+    }
+
+    /**
+     * Records what is written to it; with a latch, every write blocks until it is released.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> sent = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            sent.add(items);
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
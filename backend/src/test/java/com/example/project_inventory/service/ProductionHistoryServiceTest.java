@@ -0,0 +1,152 @@
+package com.example.project_inventory.service;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.planning.OptimalProductionPlanner;
+import com.example.project_inventory.domain.planning.PlanningStrategy;
+import com.example.project_inventory.domain.planning.StockTimeline;
+import com.example.project_inventory.domain.repository.ProductRepository;
+import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import com.example.project_inventory.domain.repository.StockRepository;
+import com.example.project_inventory.domain.service.BomSnapshotService;
+import com.example.project_inventory.domain.service.ProductionHistoryService;
+import com.example.project_inventory.domain.service.ProductionService;
+import com.example.project_inventory.domain.service.StockJournalService;
+import com.example.project_inventory.dto.PointInTimeReportDTO;
+import com.example.project_inventory.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductionHistoryServiceTest {
+
+    private static final Instant FROM = Instant.parse("2026-03-02T00:00:00Z");
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private RawMaterialRepository rawMaterialRepository;
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private StockJournalService stockJournalService;
+
+    private ProductionHistoryService productionHistoryService;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BomSnapshotService bomSnapshotService = new BomSnapshotService(
+                productRepository, rawMaterialRepository, TransactionOperations.withoutTransaction(), meterRegistry, 0);
+        ProductionService productionService =
+                new ProductionService(bomSnapshotService, new OptimalProductionPlanner(1_000), meterRegistry);
+        pool = new ForkJoinPool(2);
+        productionHistoryService = new ProductionHistoryService(bomSnapshotService, productionService,
+                stockRepository, stockJournalService, pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void replay_shouldPlanEachPointFromTheStockAtThatTime() throws Exception {
+        when(stockJournalService.settledBefore()).thenReturn(FROM.plus(Duration.ofDays(30)));
+        RawMaterial steel = new RawMaterial();
+        steel.setId(1L);
+        steel.setName("Steel");
+        steel.setStockQuantity(100);
+        when(productRepository.findAllWithCompositionsOrderByPriceDesc())
+                .thenReturn(List.of(buildProduct(1L, "Widget", 50.0, steel, 10), buildProduct(2L, "Gadget", 30.0, steel, 5)));
+        when(rawMaterialRepository.findAll()).thenReturn(List.of(steel));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(1L, 20L, null));
+            return null;
+        }).when(stockRepository).forEachBalanceAt(eq(FROM), any());
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            handler.processRow(row(1L, 35L, FROM.plus(Duration.ofHours(3))));
+            return null;
+        }).when(stockRepository).forEachMovementBetween(eq(FROM), eq(FROM.plus(Duration.ofDays(2))), any());
+
+        StockTimeline timeline = productionHistoryService.timeline(FROM, FROM.plus(Duration.ofDays(2)).plusSeconds(60),
+                Duration.ofDays(1));
+        List<PointInTimeReportDTO> reports = new ArrayList<>();
+        productionHistoryService.replay(timeline, PlanningStrategy.GREEDY, reports::add);
+
+        assertThat(reports).extracting(PointInTimeReportDTO::getAt)
+                .containsExactly(FROM, FROM.plus(Duration.ofDays(1)), FROM.plus(Duration.ofDays(2)));
+        assertThat(reports).extracting(report -> report.getReport().getTotalEstimatedValue())
+                .containsExactly(100.0, 280.0, 280.0);
+    }
+
+    @Test
+    void timeline_thatReachesUnsettledStock_shouldThrowBusinessException() {
+        when(stockJournalService.settledBefore()).thenReturn(FROM.plus(Duration.ofDays(30)));
+        assertThatThrownBy(() -> productionHistoryService.timeline(FROM, FROM.plus(Duration.ofDays(31)),
+                Duration.ofDays(1)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("settled");
+        verifyNoInteractions(stockRepository);
+    }
+
+    @Test
+    void timeline_withTooManyPoints_shouldThrowBusinessException() {
+        assertThatThrownBy(() -> productionHistoryService.timeline(FROM, FROM.plus(Duration.ofDays(29)),
+                Duration.ofMinutes(1)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("points");
+        verifyNoInteractions(stockRepository);
+    }
+
+    private static ResultSet row(long id, long quantity, Instant recordedAt) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(id);
+        when(rs.getLong(2)).thenReturn(quantity);
+        if (recordedAt != null) {
+            when(rs.getTimestamp(3)).thenReturn(Timestamp.from(recordedAt));
+        }
+        return rs;
+    }
+
+    private Product buildProduct(Long id, String name, double price, RawMaterial mat, int qty) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setPrice(price);
+
+        ProductComposition comp = new ProductComposition();
+        comp.setRawMaterial(mat);
+        comp.setRequiredQuantity(qty);
+        p.setCompositions(new ArrayList<>(List.of(comp)));
+        return p;
+    }
+}
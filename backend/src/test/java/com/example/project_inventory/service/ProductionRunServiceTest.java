@@ -0,0 +1,156 @@
+package com.example.project_inventory.service;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.repository.ProductCompositionRepository;
+import com.example.project_inventory.domain.repository.ProductRepository;
+import com.example.project_inventory.domain.service.BomSnapshotService;
+import com.example.project_inventory.domain.service.ProductionRunService;
+import com.example.project_inventory.domain.service.StockJournalService;
+import com.example.project_inventory.dto.MaterialConsumptionDTO;
+import com.example.project_inventory.dto.ProductionRunDTO;
+import com.example.project_inventory.dto.ProductionRunRequestDTO;
+import com.example.project_inventory.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductionRunServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductCompositionRepository compositionRepository;
+
+    @Mock
+    private StockJournalService stockJournalService;
+
+    @Mock
+    private BomSnapshotService bomSnapshotService;
+
+    private ProductionRunService productionRunService;
+    private ProductionRunRequestDTO request;
+
+    @BeforeEach
+    void setUp() {
+        productionRunService = new ProductionRunService(productRepository, compositionRepository, stockJournalService,
+                TransactionOperations.withoutTransaction(), bomSnapshotService);
+
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Widget");
+        product.setPrice(10.0);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(compositionRepository.findAllWithRawMaterialByProductIdIn(List.of(1L))).thenReturn(List.of(
+                composition(product, material(7L, "Steel"), 3),
+                composition(product, material(2L, "Copper"), 1)));
+
+        request = new ProductionRunRequestDTO();
+        request.setProductId(1L);
+        request.setQuantity(4);
+    }
+
+    @Test
+    void confirmRun_shouldConsumeEveryMaterialInIdOrderAndReportWhatIsLeft() {
+        when(stockJournalService.consume(aryEq(new long[]{2L, 7L}), aryEq(new long[]{4L, 12L}), isNull(), anyString()))
+                .thenReturn(new long[]{6L, 8L});
+
+        ProductionRunDTO run = productionRunService.confirmRun(request);
+
+        assertThat(run.getConsumed()).extracting(MaterialConsumptionDTO::getRawMaterialId).containsExactly(2L, 7L);
+        assertThat(run.getConsumed()).extracting(MaterialConsumptionDTO::getRemainingStock).containsExactly(6, 8);
+    }
+
+    @Test
+    void confirmRun_atSite_shouldConsumeThatSitesStock() {
+        request.setSiteId(5L);
+        when(stockJournalService.consume(aryEq(new long[]{2L, 7L}), aryEq(new long[]{4L, 12L}), eq(5L), anyString()))
+                .thenReturn(new long[]{1L, 0L});
+
+        ProductionRunDTO run = productionRunService.confirmRun(request);
+
+        assertThat(run.getConsumed()).extracting(MaterialConsumptionDTO::getRemainingStock).containsExactly(1, 0);
+    }
+
+    @Test
+    void confirmRun_whenAnyMaterialIsShort_shouldThrow() {
+        when(stockJournalService.consume(any(), any(), any(), anyString())).thenReturn(new long[]{6L, -2L});
+
+        assertThatThrownBy(() -> productionRunService.confirmRun(request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Steel");
+    }
+
+    @Test
+    void confirmRun_onLockContention_shouldRetry() {
+        when(stockJournalService.consume(any(), any(), any(), anyString()))
+                .thenThrow(new CannotAcquireLockException("busy"))
+                .thenReturn(new long[]{6L, 8L});
+
+        ProductionRunDTO run = productionRunService.confirmRun(request);
+
+        assertThat(run.getQuantity()).isEqualTo(4);
+        verify(stockJournalService, times(2)).consume(any(), any(), any(), anyString());
+    }
+
+    @Test
+    void confirmRun_withSubAssembly_shouldConsumeItsFlattenedMaterials() {
+        RawMaterial steel = material(7L, "Steel");
+        RawMaterial copper = material(2L, "Copper");
+        Product frame = new Product();
+        frame.setId(3L);
+        frame.setName("Frame");
+        frame.setPrice(5.0);
+        frame.setCompositions(List.of(composition(frame, steel, 2), composition(frame, copper, 1)));
+        when(bomSnapshotService.current()).thenReturn(BomSnapshot.of(List.of(frame), List.of(steel, copper), 1L));
+
+        Product widget = productRepository.findById(1L).orElseThrow();
+        ProductComposition frameLine = new ProductComposition();
+        frameLine.setProduct(widget);
+        frameLine.setComponentProduct(frame);
+        frameLine.setRequiredQuantity(2);
+        when(compositionRepository.findAllWithRawMaterialByProductIdIn(List.of(1L)))
+                .thenReturn(List.of(composition(widget, steel, 1), frameLine));
+        when(stockJournalService.consume(aryEq(new long[]{2L, 7L}), aryEq(new long[]{6L, 15L}), isNull(), anyString()))
+                .thenReturn(new long[]{94L, 85L});
+
+        request.setQuantity(3);
+        ProductionRunDTO run = productionRunService.confirmRun(request);
+
+        assertThat(run.getConsumed()).extracting(MaterialConsumptionDTO::getConsumedQuantity).containsExactly(6L, 15L);
+    }
+
+    private static RawMaterial material(Long id, String name) {
+        RawMaterial material = new RawMaterial();
+        material.setId(id);
+        material.setName(name);
+        material.setStockQuantity(100);
+        return material;
+    }
+
+    private static ProductComposition composition(Product product, RawMaterial material, int quantity) {
+        ProductComposition composition = new ProductComposition();
+        composition.setProduct(product);
+        composition.setRawMaterial(material);
+        composition.setRequiredQuantity(quantity);
+        return composition;
+    }
+}
@@ -1,22 +1,37 @@
 package com.example.project_inventory.service;
 
+import com.example.project_inventory.domain.event.CatalogEvent;
 import com.example.project_inventory.domain.model.Product;
 import com.example.project_inventory.domain.model.ProductComposition;
 import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.planning.OptimalProductionPlanner;
+import com.example.project_inventory.domain.planning.PlanningStrategy;
 import com.example.project_inventory.domain.repository.ProductRepository;
 import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import com.example.project_inventory.domain.service.BomSnapshotService;
 import com.example.project_inventory.domain.service.ProductionService;
 import com.example.project_inventory.dto.ProductionReportDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,9 +43,18 @@ class ProductionServiceTest {
     @Mock
     private RawMaterialRepository rawMaterialRepository;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
+    private BomSnapshotService bomSnapshotService;
     private ProductionService productionService;
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bomSnapshotService = new BomSnapshotService(
+                productRepository, rawMaterialRepository, TransactionOperations.withoutTransaction(), meterRegistry, 0);
+        productionService = new ProductionService(bomSnapshotService, new OptimalProductionPlanner(1_000), meterRegistry);
+    }
+
     private RawMaterial buildMaterial(Long id, String name, int stock) {
         RawMaterial m = new RawMaterial();
         m.setId(id);
@@ -114,4 +138,166 @@ class ProductionServiceTest {
         assertThat(report.getSuggestedItems().get(0).getProductName()).isEqualTo("Premium Widget");
         assertThat(report.getSuggestedItems().get(0).getQuantityToProduce()).isEqualTo(2);
     }
+
+    @Test
+    void calculateSuggestedProduction_optimal_shouldBeatGreedyOnSharedMaterial() {
+        RawMaterial steel = buildMaterial(1L, "Steel", 10);
+
+        Product premium = buildProduct(1L, "Premium Widget", 100.0, steel, 6); // greedy: 1 unit, 4 steel left over
+        Product cheap   = buildProduct(2L, "Cheap Widget",    60.0, steel, 5); // optimal: 2 units use all 10
+
+        when(productRepository.findAllWithCompositionsOrderByPriceDesc()).thenReturn(List.of(premium, cheap));
+        when(rawMaterialRepository.findAll()).thenReturn(List.of(steel));
+
+        ProductionReportDTO greedy = productionService.calculateSuggestedProduction(PlanningStrategy.GREEDY);
+        ProductionReportDTO optimal = productionService.calculateSuggestedProduction(PlanningStrategy.OPTIMAL);
+
+        assertThat(greedy.getTotalEstimatedValue()).isEqualTo(100.0);
+        assertThat(optimal.getTotalEstimatedValue()).isEqualTo(120.0);
+        assertThat(optimal.getSuggestedItems()).hasSize(1);
+        assertThat(optimal.getSuggestedItems().get(0).getProductName()).isEqualTo("Cheap Widget");
+        assertThat(optimal.getSuggestedItems().get(0).getQuantityToProduce()).isEqualTo(2);
+    }
+
+    @Test
+    void calculateSuggestedProduction_shouldTimeEveryPhaseAndSampleFanOut() {
+        RawMaterial steel = buildMaterial(1L, "Steel", 10);
+        Product widget = buildProduct(1L, "Widget", 10.0, steel, 2);
+
+        when(productRepository.findAllWithCompositionsOrderByPriceDesc()).thenReturn(List.of(widget));
+        when(rawMaterialRepository.findAll()).thenReturn(List.of(steel));
+
+        productionService.calculateSuggestedProduction();
+
+        for (String phase : List.of("load", "plan", "report")) {
+            assertThat(meterRegistry.get("production.suggestion")
+                    .tag("phase", phase).tag("strategy", "greedy").timer().count()).isEqualTo(1);
+        }
+        assertThat(meterRegistry.get("catalog.bom.fanout").summary().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("catalog.products").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void suggest_shouldReuseReportUntilCatalogChanges() {
+        RawMaterial steel = buildMaterial(1L, "Steel", 10);
+        Product widget = buildProduct(1L, "Widget", 10.0, steel, 2);
+
+        when(productRepository.findAllWithCompositionsOrderByPriceDesc()).thenReturn(List.of(widget));
+        when(rawMaterialRepository.findAll()).thenReturn(List.of(steel));
+
+        ProductionService.Suggestion first = productionService.suggest(PlanningStrategy.GREEDY);
+        ProductionService.Suggestion again = productionService.suggest(PlanningStrategy.GREEDY);
+        bomSnapshotService.onCatalogEvent(new CatalogEvent.RawMaterialSaved(1L, "Steel", 4));
+        ProductionService.Suggestion changed = productionService.suggest(PlanningStrategy.GREEDY);
+
+        assertThat(again.report()).isSameAs(first.report());
+        assertThat(again.etag()).isEqualTo(first.etag());
+        assertThat(changed.etag()).isNotEqualTo(first.etag());
+        assertThat(changed.report().getSuggestedItems().get(0).getQuantityToProduce()).isEqualTo(2);
+        assertThat(meterRegistry.get("production.suggestion")
+                .tag("phase", "plan").tag("strategy", "greedy").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void current_shouldTakeStockFromTheJournalBalances() {
+        RawMaterial steel = buildMaterial(1L, "Steel", 10);
+        RawMaterial wood = buildMaterial(2L, "Wood", 3);
+        RawMaterialRepository.StockBalance steelBalance = mock(RawMaterialRepository.StockBalance.class);
+        when(steelBalance.getRawMaterialId()).thenReturn(1L);
+        when(steelBalance.getBalance()).thenReturn(25L);
+
+        when(productRepository.findAllWithCompositionsOrderByPriceDesc()).thenReturn(List.of());
+        when(rawMaterialRepository.findAll()).thenReturn(List.of(steel, wood));
+        when(rawMaterialRepository.findStockBalances()).thenReturn(List.of(steelBalance));
+
+        BomSnapshot snapshot = bomSnapshotService.current();
+
+        // wood was created after the balances were read and keeps the stock it was read with
+        assertThat(snapshot.stock(snapshot.slotOf(1L))).isEqualTo(25);
+        assertThat(snapshot.stock(snapshot.slotOf(2L))).isEqualTo(3);
+    }
+
+    @Test
+    void refresh_shouldReplaceAPatchThatArrivedOutOfCommitOrder() {
+        RawMaterial steel = buildMaterial(1L, "Steel", 10);
+        Product widget = buildProduct(1L, "Widget", 10.0, steel, 2);
+
+        when(productRepository.findAllWithCompositionsOrderByPriceDesc()).thenReturn(List.of(widget));
+        when(rawMaterialRepository.findAll()).thenReturn(List.of(steel));
+
+        productionService.suggest(PlanningStrategy.GREEDY);
+        // an older full state delivered after the newer one
+        bomSnapshotService.onCatalogEvent(new CatalogEvent.RawMaterialSaved(1L, "Steel", 4));
+        assertThat(bomSnapshotService.current().stockCopy()[0]).isEqualTo(4);
+
+        bomSnapshotService.refresh();
+
+        assertThat(bomSnapshotService.current().stockCopy()[0]).isEqualTo(10);
+        assertThat(productionService.suggest(PlanningStrategy.GREEDY).report().getSuggestedItems().get(0)
+                .getQuantityToProduce()).isEqualTo(5);
+    }
+
+    @Test
+    void refresh_withNothingChanged_shouldKeepTheSnapshotAndItsVersion() {
+        RawMaterial steel = buildMaterial(1L, "Steel", 10);
+        Product widget = buildProduct(1L, "Widget", 10.0, steel, 2);
+
+        when(productRepository.findAllWithCompositionsOrderByPriceDesc()).thenReturn(List.of(widget));
+        when(rawMaterialRepository.findAll()).thenReturn(List.of(steel));
+
+        BomSnapshot loaded = bomSnapshotService.current();
+        bomSnapshotService.refresh();
+
+        assertThat(bomSnapshotService.current()).isSameAs(loaded);
+    }
+
+    @Test
+    void current_withChangesDuringEveryLoad_shouldNotPublishWhatItRead() {
+        RawMaterial steel = buildMaterial(1L, "Steel", 10);
+        Product widget = buildProduct(1L, "Widget", 10.0, steel, 2);
+
+        when(productRepository.findAllWithCompositionsOrderByPriceDesc()).thenReturn(List.of(widget));
+        when(rawMaterialRepository.findAll()).thenAnswer(invocation -> {
+            bomSnapshotService.onCatalogEvent(new CatalogEvent.RawMaterialSaved(1L, "Steel", null));
+            return List.of(steel);
+        });
+
+        assertThat(bomSnapshotService.current().stockCopy()[0]).isEqualTo(10);
+        bomSnapshotService.current();
+
+        // three attempts per reader, none of them kept
+        verify(productRepository, times(6)).findAllWithCompositionsOrderByPriceDesc();
+    }
+
+    @Test
+    void suggest_concurrentColdCallers_shouldLoadAndPlanOnce() throws Exception {
+        RawMaterial steel = buildMaterial(1L, "Steel", 10);
+        Product widget = buildProduct(1L, "Widget", 10.0, steel, 2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(productRepository.findAllWithCompositionsOrderByPriceDesc()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(widget);
+        });
+        when(rawMaterialRepository.findAll()).thenReturn(List.of(steel));
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ProductionService.Suggestion>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> productionService.suggest(PlanningStrategy.GREEDY)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<ProductionService.Suggestion> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).report().getTotalEstimatedValue()).isEqualTo(50.0);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        verify(productRepository, times(1)).findAllWithCompositionsOrderByPriceDesc();
+        assertThat(meterRegistry.get("production.suggestion")
+                .tag("phase", "plan").tag("strategy", "greedy").timer().count()).isEqualTo(1);
+    }
 }
@@ -3,18 +3,29 @@ package com.example.project_inventory.service;
 import com.example.project_inventory.domain.model.RawMaterial;
 import com.example.project_inventory.domain.repository.RawMaterialRepository;
 import com.example.project_inventory.domain.service.RawMaterialService;
+import com.example.project_inventory.domain.service.StockJournalService;
+import com.example.project_inventory.domain.service.WhereUsedService;
+import com.example.project_inventory.dto.CursorPageDTO;
 import com.example.project_inventory.dto.RawMaterialDTO;
 import com.example.project_inventory.exception.BusinessException;
 import com.example.project_inventory.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -26,6 +37,18 @@ class RawMaterialServiceTest {
     @Mock
     private RawMaterialRepository rawMaterialRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private WhereUsedService whereUsedService;
+
+    @Mock
+    private StockJournalService stockJournalService;
+
     @InjectMocks
     private RawMaterialService rawMaterialService;
 
@@ -50,6 +73,51 @@ class RawMaterialServiceTest {
         assertThat(result.get(0).getStockQuantity()).isEqualTo(100);
     }
 
+    @Test
+    void findAll_shouldReportTheJournalBalance() {
+        when(rawMaterialRepository.findAll()).thenReturn(List.of(material));
+        when(stockJournalService.balance(1L)).thenReturn(OptionalLong.of(130));
+
+        List<RawMaterialDTO> result = rawMaterialService.findAll();
+
+        assertThat(result.get(0).getStockQuantity()).isEqualTo(130);
+    }
+
+    @Test
+    void findPage_whenMoreRowsExist_shouldReturnNextCursor() {
+        RawMaterial copper = new RawMaterial();
+        copper.setId(2L);
+        copper.setName("Copper");
+        copper.setStockQuantity(5);
+        when(rawMaterialRepository.findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, Limit.of(2)))
+                .thenReturn(List.of(material, copper));
+        when(rawMaterialRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(2)))
+                .thenReturn(List.of(copper));
+
+        CursorPageDTO<RawMaterialDTO> first = rawMaterialService.findPage(null, 1);
+        CursorPageDTO<RawMaterialDTO> second = rawMaterialService.findPage(first.getNextCursor(), 1);
+
+        assertThat(first.getItems()).extracting(RawMaterialDTO::getName).containsExactly("Steel");
+        assertThat(second.getItems()).extracting(RawMaterialDTO::getName).containsExactly("Copper");
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void findPage_withOversizedPage_shouldThrowBusinessException() {
+        assertThatThrownBy(() -> rawMaterialService.findPage(null, 10_000))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void streamAll_shouldPushEveryMaterialToSink() {
+        when(rawMaterialRepository.streamAll()).thenReturn(Stream.of(material));
+
+        List<RawMaterialDTO> result = new ArrayList<>();
+        rawMaterialService.streamAll(result::add);
+
+        assertThat(result).extracting(RawMaterialDTO::getName).containsExactly("Steel");
+    }
+
     @Test
     void findById_whenExists_shouldReturnMaterial() {
         when(rawMaterialRepository.findById(1L)).thenReturn(Optional.of(material));
@@ -104,27 +172,76 @@ class RawMaterialServiceTest {
 
         when(rawMaterialRepository.findById(1L)).thenReturn(Optional.of(material));
         when(rawMaterialRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(stockJournalService.adjustTo(1L, 100, 200, "Raw material update")).thenReturn(200L);
 
-        RawMaterialDTO result = rawMaterialService.update(1L, updated);
+        RawMaterialDTO result = rawMaterialService.update(1L, updated, 100);
 
         assertThat(result.getName()).isEqualTo("Aluminum");
         assertThat(result.getStockQuantity()).isEqualTo(200);
+        // the stock column belongs to the journal
+        assertThat(material.getStockQuantity()).isEqualTo(100);
+    }
+
+    @Test
+    void update_withoutExpectedStock_shouldOnlyRename() {
+        RawMaterial renamed = new RawMaterial();
+        renamed.setName("Aluminum");
+        renamed.setStockQuantity(40);
+
+        when(rawMaterialRepository.findById(1L)).thenReturn(Optional.of(material));
+        when(rawMaterialRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(stockJournalService.balance(1L)).thenReturn(OptionalLong.of(150L));
+
+        RawMaterialDTO result = rawMaterialService.update(1L, renamed, null);
+
+        assertThat(result.getName()).isEqualTo("Aluminum");
+        assertThat(result.getStockQuantity()).isEqualTo(150);
+        verify(stockJournalService, never()).adjustTo(anyLong(), anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void update_withStaleVersion_shouldThrowOptimisticLockingFailure() {
+        material.setVersion(3L);
+        RawMaterial stale = new RawMaterial();
+        stale.setName("Steel");
+        stale.setStockQuantity(10);
+        stale.setVersion(2L);
+
+        when(rawMaterialRepository.findById(1L)).thenReturn(Optional.of(material));
+
+        assertThatThrownBy(() -> rawMaterialService.update(1L, stale, null))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        verify(rawMaterialRepository, never()).save(any());
     }
 
     @Test
-    void delete_whenExists_shouldCallRepository() {
-        when(rawMaterialRepository.existsById(1L)).thenReturn(true);
+    void delete_whenExists_shouldDiscardTheJournalAndDeleteTheLoadedEntity() {
+        when(rawMaterialRepository.findById(1L)).thenReturn(Optional.of(material));
 
         rawMaterialService.delete(1L);
 
-        verify(rawMaterialRepository, times(1)).deleteById(1L);
+        InOrder inOrder = inOrder(stockJournalService, rawMaterialRepository);
+        inOrder.verify(stockJournalService).discard(1L);
+        inOrder.verify(rawMaterialRepository).delete(material);
     }
 
     @Test
     void delete_whenNotExists_shouldThrowResourceNotFoundException() {
-        when(rawMaterialRepository.existsById(99L)).thenReturn(false);
+        when(rawMaterialRepository.findById(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> rawMaterialService.delete(99L))
                 .isInstanceOf(ResourceNotFoundException.class);
     }
+
+    @Test
+    void delete_whenUsedByProducts_shouldThrowBusinessException() {
+        when(rawMaterialRepository.findById(1L)).thenReturn(Optional.of(material));
+        when(whereUsedService.directUsersOfRawMaterial(1L)).thenReturn(2);
+
+        assertThatThrownBy(() -> rawMaterialService.delete(1L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("used by 2 product(s)");
+        verify(rawMaterialRepository, never()).delete(any());
+        verifyNoInteractions(stockJournalService, eventPublisher);
+    }
 }
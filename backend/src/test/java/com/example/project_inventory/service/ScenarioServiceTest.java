@@ -0,0 +1,141 @@
+package com.example.project_inventory.service;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.planning.OptimalProductionPlanner;
+import com.example.project_inventory.domain.repository.ProductRepository;
+import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import com.example.project_inventory.domain.service.BomSnapshotService;
+import com.example.project_inventory.domain.service.ProductionService;
+import com.example.project_inventory.domain.service.ScenarioService;
+import com.example.project_inventory.dto.PriceOverrideDTO;
+import com.example.project_inventory.dto.ScenarioComparisonDTO;
+import com.example.project_inventory.dto.ScenarioDTO;
+import com.example.project_inventory.dto.ScenarioRequestDTO;
+import com.example.project_inventory.dto.StockOverrideDTO;
+import com.example.project_inventory.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ScenarioServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private RawMaterialRepository rawMaterialRepository;
+
+    private ProductionService productionService;
+    private ScenarioService scenarioService;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BomSnapshotService bomSnapshotService = new BomSnapshotService(
+                productRepository, rawMaterialRepository, TransactionOperations.withoutTransaction(), meterRegistry, 0);
+        productionService = new ProductionService(bomSnapshotService, new OptimalProductionPlanner(1_000), meterRegistry);
+        pool = new ForkJoinPool(2);
+        scenarioService = new ScenarioService(bomSnapshotService, productionService, pool);
+
+        RawMaterial steel = new RawMaterial();
+        steel.setId(1L);
+        steel.setName("Steel");
+        steel.setStockQuantity(100);
+        when(productRepository.findAllWithCompositionsOrderByPriceDesc())
+                .thenReturn(List.of(buildProduct(1L, "Widget", 50.0, steel, 10), buildProduct(2L, "Gadget", 30.0, steel, 5)));
+        when(rawMaterialRepository.findAll()).thenReturn(List.of(steel));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private Product buildProduct(Long id, String name, double price, RawMaterial mat, int qty) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setPrice(price);
+
+        ProductComposition comp = new ProductComposition();
+        comp.setRawMaterial(mat);
+        comp.setRequiredQuantity(qty);
+        p.setCompositions(new ArrayList<>(List.of(comp)));
+        return p;
+    }
+
+    private ScenarioDTO scenario(String name, List<StockOverrideDTO> stock, List<PriceOverrideDTO> prices) {
+        ScenarioDTO scenario = new ScenarioDTO();
+        scenario.setName(name);
+        scenario.setStock(stock);
+        scenario.setPrices(prices);
+        return scenario;
+    }
+
+    private ScenarioRequestDTO request(ScenarioDTO... scenarios) {
+        ScenarioRequestDTO request = new ScenarioRequestDTO();
+        request.setScenarios(List.of(scenarios));
+        return request;
+    }
+
+    @Test
+    void compare_shouldPlanEachScenarioAgainstTheSameBaseline() {
+        StockOverrideDTO moreSteel = new StockOverrideDTO();
+        moreSteel.setRawMaterialId(1L);
+        moreSteel.setChange(50);
+        PriceOverrideDTO premiumGadget = new PriceOverrideDTO();
+        premiumGadget.setProductId(2L);
+        premiumGadget.setPrice(200.0);
+
+        ScenarioComparisonDTO comparison = scenarioService.compare(request(
+                scenario("more steel", List.of(moreSteel), null),
+                scenario("premium gadget", null, List.of(premiumGadget))));
+
+        assertThat(comparison.getBaseline().getTotalEstimatedValue()).isEqualTo(500.0);
+        assertThat(comparison.getScenarios()).hasSize(2);
+        assertThat(comparison.getScenarios().get(0).getName()).isEqualTo("more steel");
+        assertThat(comparison.getScenarios().get(0).getReport().getTotalEstimatedValue()).isEqualTo(750.0);
+        assertThat(comparison.getScenarios().get(0).getValueChange()).isEqualTo(250.0);
+        assertThat(comparison.getScenarios().get(1).getReport().getSuggestedItems())
+                .singleElement()
+                .satisfies(item -> {
+                    assertThat(item.getProductName()).isEqualTo("Gadget");
+                    assertThat(item.getQuantityToProduce()).isEqualTo(20);
+                });
+        assertThat(comparison.getScenarios().get(1).getValueChange()).isEqualTo(3500.0);
+
+        // overrides never reach the catalog: the live suggestion is unchanged and nothing was reloaded
+        assertThat(productionService.calculateSuggestedProduction().getTotalEstimatedValue()).isEqualTo(500.0);
+        verify(rawMaterialRepository, times(1)).findAll();
+    }
+
+    @Test
+    void compare_withUnknownRawMaterial_shouldThrowBusinessException() {
+        StockOverrideDTO unknown = new StockOverrideDTO();
+        unknown.setRawMaterialId(99L);
+        unknown.setStockQuantity(10);
+
+        assertThatThrownBy(() -> scenarioService.compare(request(scenario("typo", List.of(unknown), null))))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("99");
+    }
+}
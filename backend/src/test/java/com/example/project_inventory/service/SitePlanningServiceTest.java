@@ -0,0 +1,157 @@
+package com.example.project_inventory.service;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.model.Site;
+import com.example.project_inventory.domain.planning.OptimalProductionPlanner;
+import com.example.project_inventory.domain.planning.PlanningStrategy;
+import com.example.project_inventory.domain.repository.ProductRepository;
+import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import com.example.project_inventory.domain.repository.SiteRepository;
+import com.example.project_inventory.domain.repository.StockRepository;
+import com.example.project_inventory.domain.service.BomSnapshotService;
+import com.example.project_inventory.domain.service.ProductionService;
+import com.example.project_inventory.domain.service.SitePlanningService;
+import com.example.project_inventory.dto.MultiSiteReportDTO;
+import com.example.project_inventory.dto.ProductionItemDTO;
+import com.example.project_inventory.dto.SiteReportDTO;
+import com.example.project_inventory.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SitePlanningServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private RawMaterialRepository rawMaterialRepository;
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private SiteRepository siteRepository;
+
+    private SitePlanningService sitePlanningService;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BomSnapshotService bomSnapshotService = new BomSnapshotService(
+                productRepository, rawMaterialRepository, TransactionOperations.withoutTransaction(), meterRegistry, 0);
+        ProductionService productionService =
+                new ProductionService(bomSnapshotService, new OptimalProductionPlanner(1_000), meterRegistry);
+        pool = new ForkJoinPool(2);
+        sitePlanningService = new SitePlanningService(bomSnapshotService, productionService, stockRepository,
+                siteRepository, pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void suggestAll_shouldPlanEachSiteFromItsOwnStockAndAddThemUp() throws Exception {
+        givenCatalog();
+        when(siteRepository.findAllByOrderByCode()).thenReturn(List.of(site(1L, "NORTE"), site(2L, "SUL"), site(3L, "OESTE")));
+        // one statement for every site; OESTE never held anything
+        ResultSet north = row(1L, 1L, 25L);
+        ResultSet southSteel = row(2L, 1L, 10L);
+        ResultSet southUnknown = row(2L, 99L, 5L);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(0);
+            handler.processRow(north);
+            handler.processRow(southSteel);
+            handler.processRow(southUnknown);
+            return null;
+        }).when(stockRepository).forEachSiteBalance(any());
+
+        MultiSiteReportDTO report = sitePlanningService.suggestAll(PlanningStrategy.GREEDY);
+
+        assertThat(report.getSites()).extracting(SiteReportDTO::getSiteCode).containsExactly("NORTE", "SUL", "OESTE");
+        assertThat(report.getSites()).extracting(site -> site.getReport().getTotalEstimatedValue())
+                .containsExactly(130.0, 50.0, 0.0);
+        assertThat(report.getCombined().getSuggestedItems())
+                .extracting(ProductionItemDTO::getProductName, ProductionItemDTO::getQuantityToProduce)
+                .containsExactly(tuple("Widget", 3), tuple("Gadget", 1));
+        assertThat(report.getCombined().getTotalEstimatedValue()).isEqualTo(180.0);
+        // one catalog load shared by every site
+        verify(rawMaterialRepository).findAll();
+    }
+
+    @Test
+    void suggest_forUnknownSite_shouldThrowResourceNotFound() {
+        when(siteRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> sitePlanningService.suggest(9L, PlanningStrategy.GREEDY))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(stockRepository);
+    }
+
+    private void givenCatalog() {
+        RawMaterial steel = new RawMaterial();
+        steel.setId(1L);
+        steel.setName("Steel");
+        steel.setStockQuantity(100);
+        when(productRepository.findAllWithCompositionsOrderByPriceDesc())
+                .thenReturn(List.of(buildProduct(1L, "Widget", 50.0, steel, 10), buildProduct(2L, "Gadget", 30.0, steel, 5)));
+        when(rawMaterialRepository.findAll()).thenReturn(List.of(steel));
+    }
+
+    private static ResultSet row(long siteId, long materialId, long balance) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(siteId);
+        when(rs.getLong(2)).thenReturn(materialId);
+        when(rs.getLong(3)).thenReturn(balance);
+        return rs;
+    }
+
+    private static Site site(Long id, String code) {
+        Site site = new Site();
+        site.setId(id);
+        site.setCode(code);
+        site.setName("Plant " + code);
+        return site;
+    }
+
+    private Product buildProduct(Long id, String name, double price, RawMaterial mat, int qty) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setPrice(price);
+
+        ProductComposition comp = new ProductComposition();
+        comp.setRawMaterial(mat);
+        comp.setRequiredQuantity(qty);
+        p.setCompositions(new ArrayList<>(List.of(comp)));
+        return p;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.project_inventory.service;
+
+import com.example.project_inventory.metrics.HibernateActivity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails a test when a call runs more SQL statements than it is allowed. Counts what Hibernate
+ * prepares on the calling thread, so the session factory under test must register
+ * {@link HibernateActivity} as its statement inspector.
+ */
+final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    static void atMost(int budget, Runnable call) {
+        long before = HibernateActivity.statements();
+        call.run();
+        long used = HibernateActivity.statements() - before;
+        assertThat(used)
+                .as("SQL statements run (budget %d)", budget)
+                .isLessThanOrEqualTo(budget);
+    }
+}
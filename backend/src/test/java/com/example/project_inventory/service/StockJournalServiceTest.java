@@ -0,0 +1,274 @@
+package com.example.project_inventory.service;
+
+import com.example.project_inventory.domain.event.CatalogEvent;
+import com.example.project_inventory.domain.model.Site;
+import com.example.project_inventory.domain.model.StockMovement;
+import com.example.project_inventory.domain.model.StockMovementType;
+import com.example.project_inventory.domain.repository.SiteRepository;
+import com.example.project_inventory.domain.repository.StockRepository;
+import com.example.project_inventory.domain.service.StockJournalService;
+import com.example.project_inventory.dto.StockAdjustmentDTO;
+import com.example.project_inventory.dto.StockReceiptDTO;
+import com.example.project_inventory.dto.StockTransferDTO;
+import com.example.project_inventory.exception.BusinessException;
+import com.example.project_inventory.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockJournalServiceTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private SiteRepository siteRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private StockJournalService stockJournalService;
+
+    @BeforeEach
+    void setUp() {
+        stockJournalService = new StockJournalService(stockRepository, siteRepository,
+                TransactionOperations.withoutTransaction(), eventPublisher, new SimpleMeterRegistry(), 0, 30_000);
+    }
+
+    @Test
+    void receive_shouldAppendWithoutLockingAndPublishTheNetChange() {
+        givenBalances(1L, 100L, 2L, 5L);
+
+        stockJournalService.receive(List.of(receipt(1L, 10), receipt(2L, 3), receipt(1L, 5)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockMovement>> appended = ArgumentCaptor.forClass(List.class);
+        verify(stockRepository).append(appended.capture());
+        assertThat(appended.getValue()).extracting(StockMovement::getType).containsOnly(StockMovementType.RECEIPT);
+        verify(stockRepository, never()).lock(any());
+        verify(eventPublisher).publishEvent(new CatalogEvent.StockMoved(Map.of(1L, 15L, 2L, 3L)));
+    }
+
+    @Test
+    void receive_forUnknownMaterial_shouldThrowResourceNotFound() {
+        givenBalances(1L, 100L);
+
+        assertThatThrownBy(() -> stockJournalService.receive(List.of(receipt(9L, 1))))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(stockRepository, never()).append(any());
+    }
+
+    @Test
+    void adjust_belowZero_shouldThrowAndAppendNothing() {
+        when(stockRepository.findBalances(List.of(1L))).thenReturn(Map.of(1L, 4L));
+        StockAdjustmentDTO adjustment = new StockAdjustmentDTO();
+        adjustment.setRawMaterialId(1L);
+        adjustment.setChange(-5);
+
+        assertThatThrownBy(() -> stockJournalService.adjust(adjustment))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("below zero");
+        verify(stockRepository).lock(new long[]{1L});
+        verify(stockRepository, never()).append(any());
+    }
+
+    @Test
+    void adjustTo_whenTheBalanceMovedSinceTheCallerReadIt_shouldConflictAndAppendNothing() {
+        when(stockRepository.findBalances(List.of(1L))).thenReturn(Map.of(1L, 130L));
+
+        assertThatThrownBy(() -> stockJournalService.adjustTo(1L, 100L, 90, "Raw material update"))
+                .isInstanceOf(ConcurrencyFailureException.class);
+        verify(stockRepository, never()).append(any());
+    }
+
+    @Test
+    void discard_whileTheMaterialHasStock_shouldThrowAndDeleteNothing() {
+        when(stockRepository.findBalances(List.of(1L))).thenReturn(Map.of(1L, 5L));
+
+        assertThatThrownBy(() -> stockJournalService.discard(1L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("still has stock");
+        verify(stockRepository, never()).deleteJournal(anyLong());
+    }
+
+    @Test
+    void consume_whenAnyMaterialIsShort_shouldAppendNothing() {
+        when(stockRepository.findBalances(List.of(2L, 7L))).thenReturn(Map.of(2L, 10L, 7L, 3L));
+
+        long[] remaining = stockJournalService.consume(new long[]{2L, 7L}, new long[]{4L, 5L}, "run");
+
+        assertThat(remaining).containsExactly(6L, -2L);
+        verify(stockRepository, never()).append(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void consume_atSite_shouldBeShortWhenTheSiteIsEvenIfTheTotalIsNot() {
+        when(siteRepository.findAllById(Set.of(3L))).thenReturn(List.of(site(3L)));
+        when(stockRepository.findBalances(List.of(2L, 7L))).thenReturn(Map.of(2L, 10L, 7L, 30L));
+        when(stockRepository.findSiteBalances(3L, List.of(2L, 7L))).thenReturn(Map.of(2L, 10L));
+
+        long[] remaining = stockJournalService.consume(new long[]{2L, 7L}, new long[]{4L, 5L}, 3L, "run");
+
+        assertThat(remaining).containsExactly(6L, -5L);
+        verify(stockRepository, never()).append(any());
+    }
+
+    @Test
+    void consume_withoutSite_shouldNotTakeUnitsTheSitesHold() {
+        when(stockRepository.findBalances(List.of(2L))).thenReturn(Map.of(2L, 10L));
+        when(stockRepository.findSitedBalances(List.of(2L))).thenReturn(Map.of(2L, 8L));
+
+        long[] remaining = stockJournalService.consume(new long[]{2L}, new long[]{4L}, "run");
+
+        assertThat(remaining).containsExactly(-2L);
+        verify(stockRepository, never()).append(any());
+    }
+
+    @Test
+    void transfer_fromNoSite_shouldRecordAPairThatLeavesTheTotalAlone() {
+        when(siteRepository.findAllById(Set.of(3L))).thenReturn(List.of(site(3L)));
+        when(stockRepository.findBalances(List.of(1L))).thenReturn(Map.of(1L, 100L));
+        when(stockRepository.findSitedBalances(List.of(1L))).thenReturn(Map.of(1L, 40L));
+
+        stockJournalService.transfer(transfer(1L, null, 3L, 60));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockMovement>> appended = ArgumentCaptor.forClass(List.class);
+        verify(stockRepository).append(appended.capture());
+        assertThat(appended.getValue())
+                .extracting(StockMovement::getSiteId, StockMovement::getType, StockMovement::getQuantity)
+                .containsExactly(tuple(null, StockMovementType.TRANSFER, -60L), tuple(3L, StockMovementType.TRANSFER, 60L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void transfer_ofMoreThanTheSourceHolds_shouldThrowAndAppendNothing() {
+        when(siteRepository.findAllById(Set.of(3L))).thenReturn(List.of(site(3L)));
+        when(stockRepository.findBalances(List.of(1L))).thenReturn(Map.of(1L, 100L));
+        when(stockRepository.findSitedBalances(List.of(1L))).thenReturn(Map.of(1L, 50L));
+
+        assertThatThrownBy(() -> stockJournalService.transfer(transfer(1L, null, 3L, 60)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("only 50 not at any site");
+        verify(stockRepository, never()).append(any());
+    }
+
+    @Test
+    void receive_atUnknownSite_shouldThrowResourceNotFound() {
+        StockReceiptDTO receipt = receipt(1L, 10);
+        receipt.setSiteId(9L);
+
+        assertThatThrownBy(() -> stockJournalService.receive(List.of(receipt)))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Site");
+        verify(stockRepository, never()).append(any());
+    }
+
+    @Test
+    void events_shouldMoveTheRunningTotals() {
+        givenBalances(1L, 100L);
+        assertThat(stockJournalService.balance(1L)).hasValue(100L);
+
+        stockJournalService.onCatalogEvent(new CatalogEvent.StockMoved(Map.of(1L, -30L)));
+        stockJournalService.onCatalogEvent(new CatalogEvent.RawMaterialSaved(2L, "Copper", 8));
+        stockJournalService.onCatalogEvent(new CatalogEvent.RawMaterialSaved(1L, "Steel bar", null));
+
+        assertThat(stockJournalService.balance(1L)).hasValue(70L);
+        assertThat(stockJournalService.balance(2L)).hasValue(8L);
+        verify(stockRepository, times(1)).forEachBalance(any());
+    }
+
+    @Test
+    void balance_withMovementsDuringEveryLoad_shouldNotKeepWhatItRead() {
+        doAnswer(invocation -> {
+            stockJournalService.onCatalogEvent(new CatalogEvent.StockMoved(Map.of(1L, 5L)));
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(1)).thenReturn(1L);
+            when(rs.getLong(2)).thenReturn(100L);
+            invocation.<RowCallbackHandler>getArgument(0).processRow(rs);
+            return null;
+        }).when(stockRepository).forEachBalance(any());
+
+        assertThat(stockJournalService.balance(1L)).hasValue(100L);
+        assertThat(stockJournalService.balance(1L)).hasValue(100L);
+
+        // three attempts per reader, none of them published
+        verify(stockRepository, times(6)).forEachBalance(any());
+    }
+
+    @Test
+    void receive_committingAfterHalfTheSettleTime_shouldBeRolledBack() throws Exception {
+        stockJournalService = new StockJournalService(stockRepository, siteRepository,
+                TransactionOperations.withoutTransaction(), eventPublisher, new SimpleMeterRegistry(), 0, 20);
+        givenBalances(1L, 100L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            stockJournalService.receive(List.of(receipt(1L, 10)));
+            Thread.sleep(20);
+
+            assertThatThrownBy(() -> TransactionSynchronizationUtils.triggerBeforeCommit(false))
+                    .isInstanceOf(TransactionTimedOutException.class);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void givenBalances(long... idsAndBalances) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(0);
+            for (int i = 0; i < idsAndBalances.length; i += 2) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn(idsAndBalances[i]);
+                when(rs.getLong(2)).thenReturn(idsAndBalances[i + 1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(stockRepository).forEachBalance(any());
+    }
+
+    private static Site site(Long id) {
+        Site site = new Site();
+        site.setId(id);
+        site.setCode("P" + id);
+        site.setName("Plant " + id);
+        return site;
+    }
+
+    private static StockTransferDTO transfer(Long rawMaterialId, Long fromSiteId, Long toSiteId, int quantity) {
+        StockTransferDTO transfer = new StockTransferDTO();
+        transfer.setRawMaterialId(rawMaterialId);
+        transfer.setFromSiteId(fromSiteId);
+        transfer.setToSiteId(toSiteId);
+        transfer.setQuantity(quantity);
+        return transfer;
+    }
+
+    private static StockReceiptDTO receipt(Long rawMaterialId, int quantity) {
+        StockReceiptDTO receipt = new StockReceiptDTO();
+        receipt.setRawMaterialId(rawMaterialId);
+        receipt.setQuantity(quantity);
+        return receipt;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.project_inventory.benchmarks;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.ProductComposition;
+import com.example.project_inventory.domain.model.RawMaterial;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeded synthetic catalogs, so every benchmark run (and every baseline) plans against identical data.
+ * <p>
+ * {@code sharing} is the fraction of composition lines drawn from a small pool of "hot" materials
+ * (5% of all materials); the rest are drawn uniformly. High sharing means heavy contention on a few
+ * materials, which is where the greedy plan and the optimal planner diverge the most.
+ */
+public final class CatalogGenerator {
+
+    private CatalogGenerator() {
+    }
+
+    public record Catalog(List<Product> products, List<RawMaterial> materials) {
+    }
+
+    public static Catalog generate(long seed, int productCount, int materialCount, int fanOut, double sharing) {
+        Random random = new Random(seed);
+
+        List<RawMaterial> materials = new ArrayList<>(materialCount);
+        for (int i = 0; i < materialCount; i++) {
+            RawMaterial material = new RawMaterial();
+            material.setId((long) i + 1);
+            material.setName("Material " + (i + 1));
+            material.setStockQuantity(random.nextInt(50_000));
+            materials.add(material);
+        }
+
+        int hotPool = Math.max(1, materialCount / 20);
+        int perProduct = Math.min(fanOut, materialCount);
+        long compositionId = 1;
+        List<Product> products = new ArrayList<>(productCount);
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setName("Product " + (i + 1));
+            product.setPrice(Math.round((1 + random.nextDouble() * 999) * 100) / 100.0);
+
+            used.clear();
+            int lines = 1 + random.nextInt(perProduct);
+            for (int k = 0; k < lines; k++) {
+                int index;
+                do {
+                    index = random.nextDouble() < sharing && used.size() < hotPool
+                            ? random.nextInt(hotPool)
+                            : random.nextInt(materialCount);
+                } while (!used.add(index));
+
+                ProductComposition composition = new ProductComposition();
+                composition.setId(compositionId++);
+                composition.setProduct(product);
+                composition.setRawMaterial(materials.get(index));
+                composition.setRequiredQuantity(1 + random.nextInt(25));
+                product.getCompositions().add(composition);
+            }
+            products.add(product);
+        }
+        return new Catalog(products, materials);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.project_inventory.benchmarks;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.service.ProductService;
+import com.example.project_inventory.dto.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoConversionBenchmark {
+
+    @Param({"2", "8", "32"})
+    public int fanOut;
+
+    private List<Product> products;
+    private ProductService productService;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        CatalogGenerator.Catalog catalog = CatalogGenerator.generate(7L, 1_000, 500, fanOut, 0.2);
+        products = catalog.products();
+        productService = InMemoryRepositories.productService(catalog);
+    }
+
+    @Benchmark
+    public ProductDTO convertToDto() {
+        next = (next + 1) % products.size();
+        return productService.convertToDto(products.get(next));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void convertCatalog(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(productService.convertToDto(product));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.project_inventory.benchmarks;
+
+import com.example.project_inventory.domain.model.Product;
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.repository.ProductCompositionRepository;
+import com.example.project_inventory.domain.repository.ProductRepository;
+import com.example.project_inventory.domain.repository.RawMaterialRepository;
+import com.example.project_inventory.domain.service.BomSnapshotService;
+import com.example.project_inventory.domain.service.CatalogCache;
+import com.example.project_inventory.domain.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Read-only repository stand-ins backed by a generated catalog, and the services built on them. Only
+ * the no-argument finders the benchmarked code paths call are implemented; anything else fails loudly.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static ProductRepository products(List<Product> products) {
+        List<Product> byPrice = products.stream()
+                .sorted(Comparator.comparing(Product::getPrice).reversed())
+                .toList();
+        return proxy(ProductRepository.class, Map.of(
+                "findAll", () -> products,
+                "findAllByOrderByPriceDesc", () -> byPrice,
+                "findAllWithCompositionsOrderByPriceDesc", () -> byPrice));
+    }
+
+    static RawMaterialRepository rawMaterials(List<RawMaterial> materials) {
+        // the generated stock has no journal behind it, so the entities keep theirs
+        return proxy(RawMaterialRepository.class, Map.of(
+                "findAll", () -> materials,
+                "findStockBalances", List::of));
+    }
+
+    static BomSnapshotService bomSnapshots(CatalogGenerator.Catalog catalog, MeterRegistry meterRegistry) {
+        return new BomSnapshotService(
+                products(catalog.products()),
+                rawMaterials(catalog.materials()),
+                TransactionOperations.withoutTransaction(),
+                meterRegistry,
+                0);
+    }
+
+    static ProductService productService(CatalogGenerator.Catalog catalog) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new ProductService(
+                products(catalog.products()),
+                proxy(ProductCompositionRepository.class, Map.of()),
+                rawMaterials(catalog.materials()),
+                event -> { },
+                proxy(EntityManager.class, Map.of()),
+                new CatalogCache(1_000, Duration.ofMinutes(10), meterRegistry),
+                TransactionOperations.withoutTransaction(),
+                bomSnapshots(catalog, meterRegistry));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Map<String, Supplier<Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Supplier<Object> implementation = methods.get(method.getName());
+            if (implementation != null && method.getParameterCount() == 0) {
+                return implementation.get();
+            }
+            return switch (method.getName()) {
+                case "toString" -> "InMemory" + type.getSimpleName();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        });
+    }
+}
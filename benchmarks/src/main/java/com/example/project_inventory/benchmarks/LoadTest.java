@@ -0,0 +1,135 @@
+package com.example.project_inventory.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator for comparing execution modes of a running backend, e.g. the
+ * default platform-thread Tomcat against the {@code virtual-threads} profile.
+ * <p>
+ * Usage: {@code LoadTest <baseUrl> [clients=200] [seconds=30] [warmupSeconds=10] [path...]}.
+ * Each client sends one request at a time, round-robin over the paths, and immediately sends the
+ * next one when the response arrives. Reports throughput and latency percentiles after warmup.
+ */
+public final class LoadTest {
+
+    private static final List<String> DEFAULT_PATHS = List.of(
+            "/api/products/page?size=50",
+            "/api/products/page?size=50&view=full",
+            "/api/raw-materials/page?size=50",
+            "/api/products",
+            "/api/production/suggested");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            System.err.println("usage: LoadTest <baseUrl> [clients=200] [seconds=30] [warmupSeconds=10] [path...]");
+            System.exit(2);
+        }
+        String baseUrl = args[0].replaceAll("/+$", "");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        List<String> paths = args.length > 4 ? Arrays.asList(args).subList(4, args.length) : DEFAULT_PATHS;
+
+        List<URI> targets = paths.stream().map(path -> URI.create(baseUrl + path)).toList();
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long measureUntil = measureFrom + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        int[] counts = new int[clients];
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int c = 0; c < clients; c++) {
+            int id = c;
+            long[] samples = new long[1 << 16];
+            latencies.add(samples);
+            Thread worker = new Thread(() -> {
+                long[] own = samples;
+                int n = 0;
+                int next = id;
+                try {
+                    while (true) {
+                        URI target = targets.get(next++ % targets.size());
+                        long start = System.nanoTime();
+                        if (start >= measureUntil) {
+                            break;
+                        }
+                        boolean ok = send(client, target);
+                        long elapsed = System.nanoTime() - start;
+                        if (start < measureFrom) {
+                            continue;
+                        }
+                        if (!ok) {
+                            errors.incrementAndGet();
+                        }
+                        if (n == own.length) {
+                            own = Arrays.copyOf(own, own.length * 2);
+                            latencies.set(id, own);
+                        }
+                        own[n++] = elapsed;
+                    }
+                } finally {
+                    counts[id] = n;
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies.get(c), 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+
+        System.out.printf("clients=%d duration=%ds requests=%d errors=%d%n", clients, seconds, total, errors.get());
+        System.out.printf("throughput: %.1f req/s%n", total / (double) seconds);
+        if (total > 0) {
+            System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                    millis(all, 0.50), millis(all, 0.90), millis(all, 0.99), millis(all, 0.999),
+                    all[total - 1] / 1e6);
+        }
+    }
+
+    private static boolean send(HttpClient client, URI target) {
+        try {
+            HttpResponse<Void> response = client.send(
+                    HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(30)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() < 400;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
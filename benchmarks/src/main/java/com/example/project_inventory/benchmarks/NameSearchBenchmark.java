@@ -0,0 +1,55 @@
+package com.example.project_inventory.benchmarks;
+
+import com.example.project_inventory.domain.search.NameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class NameSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "steel", "copper", "bolt", "nut", "screw", "washer", "plate", "rod", "pipe", "valve",
+            "gear", "spring", "bearing", "shaft", "flange", "bracket", "hinge", "rivet", "clamp", "seal"};
+
+    @Param({"100000", "1000000"})
+    public int names;
+
+    @Param({"s", "stee", "steel bo", "bering", "k123"})
+    public String query;
+
+    private NameIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        NameIndex.Builder builder = NameIndex.builder();
+        for (int i = 0; i < names; i++) {
+            builder.add(i + 1, WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + (char) ('a' + random.nextInt(26)) + random.nextInt(100_000));
+        }
+        index = builder.build();
+    }
+
+    @Benchmark
+    public List<NameIndex.Hit> search() {
+        return index.search(query, 20);
+    }
+}
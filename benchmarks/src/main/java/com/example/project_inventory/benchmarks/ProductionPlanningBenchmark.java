@@ -0,0 +1,127 @@
+package com.example.project_inventory.benchmarks;
+
+import com.example.project_inventory.domain.model.RawMaterial;
+import com.example.project_inventory.domain.planning.BomSnapshot;
+import com.example.project_inventory.domain.planning.GreedyPlanner;
+import com.example.project_inventory.domain.planning.IncrementalGreedyPlanner;
+import com.example.project_inventory.domain.planning.OptimalProductionPlanner;
+import com.example.project_inventory.domain.planning.PlanningStrategy;
+import com.example.project_inventory.domain.planning.StockLedger;
+import com.example.project_inventory.domain.service.BomSnapshotService;
+import com.example.project_inventory.domain.service.ProductionService;
+import com.example.project_inventory.dto.ProductionReportDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductionPlanningBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int products;
+
+    @Param({"2", "8"})
+    public int fanOut;
+
+    @Param({"0.1", "0.8"})
+    public double sharing;
+
+    private CatalogGenerator.Catalog catalog;
+    private ProductionService productionService;
+    private BomSnapshot snapshot;
+    private BomSnapshot[] adjusted;
+    private IncrementalGreedyPlanner incrementalPlanner;
+    private int turn;
+    private StockLedger ledger;
+    private int[] stock;
+    private int[] produced;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = CatalogGenerator.generate(42L, products, Math.max(50, products / 10), fanOut, sharing);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BomSnapshotService snapshots = InMemoryRepositories.bomSnapshots(catalog, meterRegistry);
+        productionService = new ProductionService(snapshots, new OptimalProductionPlanner(300), meterRegistry);
+
+        snapshot = snapshots.current();
+        ledger = StockLedger.of(snapshot);
+        stock = snapshot.stockCopy();
+        produced = new int[snapshot.productCount()];
+
+        // one material a unit up, then back: the small stock adjustment the incremental planner is for
+        RawMaterial material = catalog.materials().get(catalog.materials().size() / 2);
+        adjusted = new BomSnapshot[]{
+                snapshot.withMaterial(material.getId(), material.getName(), material.getStockQuantity() + 1, 2L),
+                snapshot.withMaterial(material.getId(), material.getName(), material.getStockQuantity(), 3L)};
+        incrementalPlanner = new IncrementalGreedyPlanner();
+        incrementalPlanner.plan(snapshot);
+    }
+
+    /**
+     * compute() on snapshots that alternate one material's stock, so nothing is memoized: the greedy
+     * re-plan and the report, without the snapshot patch.
+     */
+    @Benchmark
+    public ProductionReportDTO computeAfterStockChange() {
+        return productionService.compute(adjusted[turn++ & 1], PlanningStrategy.GREEDY);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ProductionReportDTO calculateOptimalProduction() {
+        return productionService.compute(snapshot, PlanningStrategy.OPTIMAL);
+    }
+
+    /**
+     * What the endpoint pays while the catalog is unchanged: the memoized report.
+     */
+    @Benchmark
+    public ProductionReportDTO memoizedSuggestion() {
+        return productionService.calculateSuggestedProduction();
+    }
+
+    /**
+     * Only the greedy hot loop, with a reused ledger.
+     */
+    @Benchmark
+    public int[] greedyPlan() {
+        ledger.reset(stock);
+        GreedyPlanner.plan(snapshot, ledger, produced);
+        return produced;
+    }
+
+    /**
+     * Only the incremental re-plan after a one-material stock change; compare with {@link #greedyPlan}.
+     */
+    @Benchmark
+    public int[] incrementalReplan() {
+        return incrementalPlanner.plan(adjusted[turn++ & 1]);
+    }
+
+    /**
+     * What a cold start (or an invalidation) costs.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BomSnapshot buildSnapshot() {
+        return BomSnapshot.of(catalog.products(), catalog.materials(), 1L);
+    }
+}
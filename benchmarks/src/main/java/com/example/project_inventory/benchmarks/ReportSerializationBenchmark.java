@@ -0,0 +1,50 @@
+package com.example.project_inventory.benchmarks;
+
+import com.example.project_inventory.domain.planning.OptimalProductionPlanner;
+import com.example.project_inventory.domain.service.ProductionService;
+import com.example.project_inventory.dto.ProductionReportDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportSerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int products;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ProductionReportDTO report;
+
+    @Setup
+    public void setUp() {
+        CatalogGenerator.Catalog catalog = CatalogGenerator.generate(42L, products, products, 2, 0.0);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        report = new ProductionService(InMemoryRepositories.bomSnapshots(catalog, meterRegistry),
+                new OptimalProductionPlanner(0), meterRegistry).calculateSuggestedProduction();
+    }
+
+    @Benchmark
+    public byte[] serializeReport() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(report);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.project_inventory.benchmarks;
+
+import com.example.project_inventory.domain.planning.OptimalProductionPlanner;
+import com.example.project_inventory.domain.service.ProductionService;
+import com.example.project_inventory.dto.ProductDTO;
+import com.example.project_inventory.dto.ProductionReportDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode time of the production report and of the product list in each wire format the API
+ * negotiates, gzip included (at the default level, as Tomcat uses it). {@link #main} prints the
+ * encoded sizes, which JMH does not report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final String[] FORMATS = {"json", "json-gzip", "cbor", "smile", "smile-gzip"};
+
+    @Param({"1000", "10000"})
+    public int products;
+
+    @Param({"json", "json-gzip", "cbor", "smile", "smile-gzip"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private boolean gzip;
+    private ProductionReportDTO report;
+    private List<ProductDTO> productList;
+
+    @Setup
+    public void setUp() {
+        mapper = mapper(format);
+        gzip = format.endsWith("-gzip");
+        CatalogGenerator.Catalog catalog = CatalogGenerator.generate(42L, products, products, 2, 0.0);
+        report = report(catalog);
+        productList = productList(catalog);
+    }
+
+    @Benchmark
+    public byte[] encodeReport() throws IOException {
+        return encode(mapper, gzip, report);
+    }
+
+    @Benchmark
+    public byte[] encodeProductList() throws IOException {
+        return encode(mapper, gzip, productList);
+    }
+
+    /**
+     * {@code [products...]}: one line per catalog size, format and payload with the encoded bytes and
+     * the ratio to plain JSON.
+     */
+    public static void main(String[] args) throws IOException {
+        int[] sizes = args.length == 0
+                ? new int[]{1_000, 10_000}
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        System.out.printf("%-9s %-11s %-8s %12s %7s%n", "products", "format", "payload", "bytes", "ratio");
+        for (int size : sizes) {
+            CatalogGenerator.Catalog catalog = CatalogGenerator.generate(42L, size, size, 2, 0.0);
+            Object[] payloads = {report(catalog), productList(catalog)};
+            String[] names = {"report", "products"};
+            for (int p = 0; p < payloads.length; p++) {
+                long json = encode(mapper("json"), false, payloads[p]).length;
+                for (String format : FORMATS) {
+                    long bytes = encode(mapper(format), format.endsWith("-gzip"), payloads[p]).length;
+                    System.out.printf(Locale.ROOT, "%-9d %-11s %-8s %12d %7.3f%n",
+                            size, format, names[p], bytes, (double) bytes / json);
+                }
+            }
+        }
+    }
+
+    private static ObjectMapper mapper(String format) {
+        if (format.startsWith("cbor")) {
+            return new ObjectMapper(new CBORFactory());
+        }
+        if (format.startsWith("smile")) {
+            // as in WebConfig
+            return new ObjectMapper(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build());
+        }
+        return new ObjectMapper();
+    }
+
+    private static byte[] encode(ObjectMapper mapper, boolean gzip, Object value) throws IOException {
+        if (!gzip) {
+            return mapper.writeValueAsBytes(value);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream compressed = new GZIPOutputStream(out)) {
+            mapper.writeValue(compressed, value);
+        }
+        return out.toByteArray();
+    }
+
+    private static ProductionReportDTO report(CatalogGenerator.Catalog catalog) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new ProductionService(InMemoryRepositories.bomSnapshots(catalog, meterRegistry),
+                new OptimalProductionPlanner(0), meterRegistry).calculateSuggestedProduction();
+    }
+
+    private static List<ProductDTO> productList(CatalogGenerator.Catalog catalog) {
+        return InMemoryRepositories.productService(catalog).findAll();
+    }
+}
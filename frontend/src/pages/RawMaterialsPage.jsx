@@ -60,7 +60,11 @@ const MaterialModal = ({ material, onClose }) => {
 
     const payload = { name: form.name.trim(), stockQuantity: parseInt(form.stockQuantity, 10) };
     const action = isEdit
-      ? dispatch(updateRawMaterial({ id: material.id, data: payload }))
+      ? dispatch(updateRawMaterial({
+        id: material.id,
+        data: payload,
+        expectedStockQuantity: payload.stockQuantity !== material.stockQuantity ? material.stockQuantity : undefined,
+      }))
       : dispatch(createRawMaterial(payload));
 
     const result = await action;
@@ -46,8 +46,8 @@ export const createRawMaterial = createAsyncThunk('inventory/createRawMaterial',
   return response.data;
 });
 
-export const updateRawMaterial = createAsyncThunk('inventory/updateRawMaterial', async ({ id, data }) => {
-  const response = await api.put(`/raw-materials/${id}`, data);
+export const updateRawMaterial = createAsyncThunk('inventory/updateRawMaterial', async ({ id, data, expectedStockQuantity }) => {
+  const response = await api.put(`/raw-materials/${id}`, data, { params: { expectedStockQuantity } });
   return response.data;
 });
 